@@ -70,6 +70,18 @@ public class ThucydidesAggregatorMojo extends AbstractMojo {
     public String requirementsBaseDir;
 
 
+    /**
+     * Number of threads used to generate the aggregate report pages.
+     * @parameter expression="${thucydides.report.threads}"
+     */
+    public String reportThreads;
+
+    /**
+     * Only regenerate the report pages whose test outcomes have changed since the last aggregate run.
+     * @parameter expression="${thucydides.reports.incremental}"
+     */
+    public String incrementalReports;
+
     /**
      * @parameter
      */
@@ -136,6 +148,8 @@ public class ThucydidesAggregatorMojo extends AbstractMojo {
         updateSystemProperty("thucydides.statistics.dialect", statisticsDialect);
 
         updateSystemProperty("thucydides.test.requirements.basedir", requirementsBaseDir);
+        updateSystemProperty(ThucydidesSystemProperty.THUCYDIDES_REPORT_THREADS.getPropertyName(), reportThreads);
+        updateSystemProperty(ThucydidesSystemProperty.THUCYDIDES_INCREMENTAL_REPORTS.getPropertyName(), incrementalReports);
     }
 
     private void updateSystemProperty(String key, String value, String defaultValue) {
@@ -0,0 +1,43 @@
+package net.thucydides.benchmarks.generators;
+
+import com.google.common.io.Files;
+import net.thucydides.core.model.TestOutcome;
+import net.thucydides.core.reports.AcceptanceTestReporter;
+import net.thucydides.core.reports.TestOutcomes;
+import org.apache.commons.io.FileUtils;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * A temporary directory full of stored test outcomes, as the test runners would leave them,
+ * for the benchmarks that read reports back in.
+ */
+public class SyntheticReportDirectory {
+
+    private final File directory;
+
+    private SyntheticReportDirectory(File directory) {
+        this.directory = directory;
+    }
+
+    public static SyntheticReportDirectory containing(List<TestOutcome> outcomes,
+                                                      AcceptanceTestReporter reporter) throws IOException {
+        File directory = Files.createTempDir();
+        reporter.setOutputDirectory(directory);
+        TestOutcomes allTestOutcomes = TestOutcomes.of(outcomes);
+        for (TestOutcome outcome : outcomes) {
+            reporter.generateReportFor(outcome, allTestOutcomes);
+        }
+        return new SyntheticReportDirectory(directory);
+    }
+
+    public File getDirectory() {
+        return directory;
+    }
+
+    public void delete() throws IOException {
+        FileUtils.deleteDirectory(directory);
+    }
+}
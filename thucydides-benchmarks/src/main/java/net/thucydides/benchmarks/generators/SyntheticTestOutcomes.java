@@ -0,0 +1,134 @@
+package net.thucydides.benchmarks.generators;
+
+import net.thucydides.core.model.Story;
+import net.thucydides.core.model.TestOutcome;
+import net.thucydides.core.model.TestResult;
+import net.thucydides.core.model.TestStep;
+import net.thucydides.core.model.TestTag;
+import net.thucydides.core.reports.TestOutcomes;
+import org.joda.time.DateTime;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Generates realistic-looking test outcomes for the benchmarks.
+ * Outcomes are grouped into stories, features and epics, and have a spread of results, nested steps,
+ * failures and issues. The same seed always produces the same outcomes, so that the results of different
+ * releases can be compared.
+ */
+public class SyntheticTestOutcomes {
+
+    private static final DateTime FIRST_TEST_START = new DateTime(2013, 1, 1, 9, 0, 0, 0);
+    private static final int DEFAULT_STEPS_PER_TEST = 10;
+    private static final int TESTS_PER_STORY = 10;
+    private static final int STORIES_PER_FEATURE = 10;
+    private static final int FEATURES_PER_EPIC = 10;
+    private static final int COMPONENT_COUNT = 20;
+    private static final int STEPS_PER_GROUP = 3;
+    private static final int GROUP_FREQUENCY = 5;
+    private static final int ISSUE_FREQUENCY = 20;
+
+    private final long seed;
+    private final int stepsPerTest;
+
+    private SyntheticTestOutcomes(long seed, int stepsPerTest) {
+        this.seed = seed;
+        this.stepsPerTest = stepsPerTest;
+    }
+
+    public static SyntheticTestOutcomes generatedWithSeed(long seed) {
+        return new SyntheticTestOutcomes(seed, DEFAULT_STEPS_PER_TEST);
+    }
+
+    public SyntheticTestOutcomes withStepsPerTest(int stepsPerTest) {
+        return new SyntheticTestOutcomes(seed, stepsPerTest);
+    }
+
+    public TestOutcomes testOutcomes(int count) {
+        return TestOutcomes.of(outcomes(count));
+    }
+
+    public List<TestOutcome> outcomes(int count) {
+        Random random = new Random(seed);
+        List<TestOutcome> outcomes = new ArrayList<TestOutcome>(count);
+        for (int index = 0; index < count; index++) {
+            outcomes.add(outcome(index, random));
+        }
+        return outcomes;
+    }
+
+    public TestOutcome outcome(int index) {
+        return outcome(index, new Random(seed + index));
+    }
+
+    private TestOutcome outcome(int index, Random random) {
+        int storyNumber = index / TESTS_PER_STORY;
+        int featureNumber = storyNumber / STORIES_PER_FEATURE;
+        int epicNumber = featureNumber / FEATURES_PER_EPIC;
+
+        Story story = Story.withId("story-" + storyNumber, "Story " + storyNumber);
+        TestOutcome outcome = TestOutcome.forTestInStory("should_satisfy_acceptance_criterion_" + index, story);
+        outcome.setStartTime(FIRST_TEST_START.plusSeconds(index));
+        outcome.addTags(Arrays.asList(TestTag.withName("Story " + storyNumber).andType("story"),
+                                      TestTag.withName("Feature " + featureNumber).andType("feature"),
+                                      TestTag.withName("Epic " + epicNumber).andType("epic"),
+                                      TestTag.withName("Component " + random.nextInt(COMPONENT_COUNT)).andType("component")));
+        if (index % ISSUE_FREQUENCY == 0) {
+            outcome.addIssues(Arrays.asList("#" + (index / ISSUE_FREQUENCY)));
+        }
+
+        TestResult result = randomResult(random);
+        for (int stepNumber = 1; stepNumber <= stepsPerTest; stepNumber++) {
+            TestResult stepResult = (stepNumber == stepsPerTest) ? result : TestResult.SUCCESS;
+            if (stepNumber % GROUP_FREQUENCY == 0) {
+                outcome.recordStep(stepGroup(stepNumber, stepResult, random));
+            } else {
+                outcome.recordStep(step("Step " + stepNumber, stepResult, random));
+            }
+        }
+        return outcome;
+    }
+
+    private TestStep stepGroup(int stepNumber, TestResult result, Random random) {
+        TestStep group = step("Step group " + stepNumber, result, random);
+        for (int childNumber = 1; childNumber <= STEPS_PER_GROUP; childNumber++) {
+            TestResult childResult = (childNumber == STEPS_PER_GROUP) ? result : TestResult.SUCCESS;
+            group.addChildStep(step("Step " + stepNumber + "." + childNumber, childResult, random));
+        }
+        return group;
+    }
+
+    private TestStep step(String description, TestResult result, Random random) {
+        TestStep step = new TestStep(description + ": the user enters 'value " + random.nextInt(1000) + "'");
+        step.setDuration(random.nextInt(2000));
+        if (result == TestResult.FAILURE) {
+            step.failedWith(new AssertionError("Expected: a page title of 'Welcome' but: was 'Error'"));
+        } else if (result == TestResult.ERROR) {
+            step.failedWith(new IllegalStateException("Element not found: #login-button"));
+        } else {
+            step.setResult(result);
+        }
+        return step;
+    }
+
+    /**
+     * Roughly 80% passing tests, with a few failures, errors, pending and skipped tests.
+     */
+    private TestResult randomResult(Random random) {
+        int roll = random.nextInt(100);
+        if (roll < 80) {
+            return TestResult.SUCCESS;
+        } else if (roll < 90) {
+            return TestResult.FAILURE;
+        } else if (roll < 93) {
+            return TestResult.ERROR;
+        } else if (roll < 98) {
+            return TestResult.PENDING;
+        } else {
+            return TestResult.SKIPPED;
+        }
+    }
+}
@@ -0,0 +1,75 @@
+package net.thucydides.benchmarks.reports;
+
+import net.thucydides.core.ThucydidesSystemProperty;
+import net.thucydides.core.issues.SystemPropertiesIssueTracking;
+import net.thucydides.core.reports.html.Formatter;
+import net.thucydides.core.util.MockEnvironmentVariables;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The text formatting done for every step, title and error message in the HTML reports.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 5)
+@Fork(1)
+public class FormatterBenchmark {
+
+    private static final String STEP_DESCRIPTION
+            = "The user enters <username> and <password> on the login page for #ISSUE-123 and #456";
+    private static final String ERROR_MESSAGE
+            = "Expected: a page title of 'Welcome' \n but: was 'Error' \n at line 42 of the login page";
+    private static final String NARRATIVE
+            = "In order to buy things\nAs a customer\nI want to log in\n\n* first point\n* second point";
+    private static final List<String> FIELDS = Arrays.asList("username", "password");
+
+    private Formatter formatter;
+
+    @Setup
+    public void createFormatter() {
+        MockEnvironmentVariables environmentVariables = new MockEnvironmentVariables();
+        environmentVariables.setProperty(ThucydidesSystemProperty.ISSUE_TRACKER_URL.getPropertyName(),
+                                         "http://issues.example.com/browse/{0}");
+        formatter = new Formatter(new SystemPropertiesIssueTracking(environmentVariables), environmentVariables);
+    }
+
+    @Benchmark
+    public String addLinks() {
+        return formatter.addLinks(STEP_DESCRIPTION);
+    }
+
+    @Benchmark
+    public String renderDescription() {
+        return formatter.renderDescription(NARRATIVE);
+    }
+
+    @Benchmark
+    public String htmlCompatible() {
+        return formatter.htmlCompatible(ERROR_MESSAGE);
+    }
+
+    @Benchmark
+    public String truncatedHtmlCompatible() {
+        return formatter.truncatedHtmlCompatible(ERROR_MESSAGE, 40);
+    }
+
+    @Benchmark
+    public String formatWithFields() {
+        return formatter.formatWithFields(STEP_DESCRIPTION, FIELDS);
+    }
+}
@@ -0,0 +1,71 @@
+package net.thucydides.benchmarks.reports;
+
+import com.google.common.io.Files;
+import net.thucydides.benchmarks.generators.SyntheticTestOutcomes;
+import net.thucydides.core.model.TestOutcome;
+import net.thucydides.core.reports.TestOutcomes;
+import net.thucydides.core.reports.html.HtmlAcceptanceTestReporter;
+import org.apache.commons.io.FileUtils;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Generating the HTML page for a single test outcome, as the test runners do after every test.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 5)
+@Fork(1)
+public class HtmlAcceptanceTestReportBenchmark {
+
+    @Param({"10", "100"})
+    public int stepsPerTest;
+
+    @Param({"100", "10000"})
+    public int outcomeCount;
+
+    private TestOutcome testOutcome;
+    private TestOutcomes allTestOutcomes;
+    private HtmlAcceptanceTestReporter reporter;
+    private File outputDirectory;
+
+    @Setup
+    public void prepareReporter() {
+        List<TestOutcome> outcomes = SyntheticTestOutcomes.generatedWithSeed(1L)
+                                                          .withStepsPerTest(stepsPerTest)
+                                                          .outcomes(outcomeCount);
+        testOutcome = outcomes.get(0);
+        allTestOutcomes = TestOutcomes.of(outcomes);
+
+        outputDirectory = Files.createTempDir();
+        reporter = new HtmlAcceptanceTestReporter();
+        reporter.setOutputDirectory(outputDirectory);
+    }
+
+    @TearDown
+    public void deleteReports() throws IOException {
+        FileUtils.deleteDirectory(outputDirectory);
+    }
+
+    @Benchmark
+    public File generateReport() throws IOException {
+        return reporter.generateReportFor(testOutcome, allTestOutcomes);
+    }
+}
@@ -0,0 +1,107 @@
+package net.thucydides.benchmarks.reports;
+
+import com.google.common.base.Optional;
+import com.google.common.io.Files;
+import net.thucydides.benchmarks.generators.SyntheticTestOutcomes;
+import net.thucydides.core.model.TestOutcome;
+import net.thucydides.core.reports.TestOutcomes;
+import net.thucydides.core.reports.binary.BinaryTestOutcomeReporter;
+import net.thucydides.core.reports.json.JSONTestOutcomeReporter;
+import net.thucydides.core.reports.xml.XMLTestOutcomeReporter;
+import org.apache.commons.io.FileUtils;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Collections;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Writing a test outcome to, and reading it back from, the XML, JSON and binary report formats.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 5)
+@Fork(1)
+public class OutcomeSerializationBenchmark {
+
+    @Param({"10", "100"})
+    public int stepsPerTest;
+
+    private TestOutcome testOutcome;
+    private TestOutcomes allTestOutcomes;
+
+    private File outputDirectory;
+    private XMLTestOutcomeReporter xmlReporter;
+    private JSONTestOutcomeReporter jsonReporter;
+    private BinaryTestOutcomeReporter binaryReporter;
+    private File xmlReport;
+    private File jsonReport;
+    private File binaryReport;
+
+    @Setup
+    public void prepareReports() throws IOException {
+        testOutcome = SyntheticTestOutcomes.generatedWithSeed(1L).withStepsPerTest(stepsPerTest).outcome(0);
+        allTestOutcomes = TestOutcomes.of(Collections.singletonList(testOutcome));
+
+        outputDirectory = Files.createTempDir();
+        xmlReporter = new XMLTestOutcomeReporter();
+        xmlReporter.setOutputDirectory(outputDirectory);
+        jsonReporter = new JSONTestOutcomeReporter();
+        jsonReporter.setOutputDirectory(outputDirectory);
+        binaryReporter = new BinaryTestOutcomeReporter();
+        binaryReporter.setOutputDirectory(outputDirectory);
+
+        xmlReport = xmlReporter.generateReportFor(testOutcome, allTestOutcomes);
+        jsonReport = jsonReporter.generateReportFor(testOutcome, allTestOutcomes);
+        binaryReport = binaryReporter.generateReportFor(testOutcome, allTestOutcomes);
+    }
+
+    @TearDown
+    public void deleteReports() throws IOException {
+        FileUtils.deleteDirectory(outputDirectory);
+    }
+
+    @Benchmark
+    public File writeXmlReport() throws IOException {
+        return xmlReporter.generateReportFor(testOutcome, allTestOutcomes);
+    }
+
+    @Benchmark
+    public Optional<TestOutcome> readXmlReport() throws IOException {
+        return xmlReporter.loadReportFrom(xmlReport);
+    }
+
+    @Benchmark
+    public File writeJsonReport() throws IOException {
+        return jsonReporter.generateReportFor(testOutcome, allTestOutcomes);
+    }
+
+    @Benchmark
+    public Optional<TestOutcome> readJsonReport() throws IOException {
+        return jsonReporter.loadReportFrom(jsonReport);
+    }
+
+    @Benchmark
+    public File writeBinaryReport() throws IOException {
+        return binaryReporter.generateReportFor(testOutcome, allTestOutcomes);
+    }
+
+    @Benchmark
+    public Optional<TestOutcome> readBinaryReport() throws IOException {
+        return binaryReporter.loadReportFrom(binaryReport);
+    }
+}
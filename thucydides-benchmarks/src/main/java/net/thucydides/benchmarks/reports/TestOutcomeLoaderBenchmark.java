@@ -0,0 +1,59 @@
+package net.thucydides.benchmarks.reports;
+
+import net.thucydides.benchmarks.generators.SyntheticReportDirectory;
+import net.thucydides.benchmarks.generators.SyntheticTestOutcomes;
+import net.thucydides.core.model.TestOutcome;
+import net.thucydides.core.reports.TestOutcomeLoader;
+import net.thucydides.core.reports.xml.XMLTestOutcomeReporter;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Loading a directory full of stored test outcomes, as the aggregate report does before anything else.
+ * Run with -p outcomeCount=100000 to measure the largest projects; generating the reports takes a while.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 10)
+@Fork(1)
+public class TestOutcomeLoaderBenchmark {
+
+    @Param({"1000", "10000"})
+    public int outcomeCount;
+
+    private SyntheticReportDirectory reportDirectory;
+    private TestOutcomeLoader loader;
+
+    @Setup
+    public void storeOutcomes() throws IOException {
+        List<TestOutcome> outcomes = SyntheticTestOutcomes.generatedWithSeed(1L).outcomes(outcomeCount);
+        reportDirectory = SyntheticReportDirectory.containing(outcomes, new XMLTestOutcomeReporter());
+        loader = new TestOutcomeLoader();
+    }
+
+    @TearDown
+    public void deleteOutcomes() throws IOException {
+        reportDirectory.delete();
+    }
+
+    @Benchmark
+    public List<TestOutcome> loadOutcomes() throws IOException {
+        return loader.loadFrom(reportDirectory.getDirectory());
+    }
+}
@@ -0,0 +1,73 @@
+package net.thucydides.benchmarks.reports;
+
+import net.thucydides.benchmarks.generators.SyntheticTestOutcomes;
+import net.thucydides.core.model.TestTag;
+import net.thucydides.core.reports.TestOutcomes;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The filtering operations the aggregate reports perform for every tag, tag type and result.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 5)
+@Fork(1)
+public class TestOutcomesFilteringBenchmark {
+
+    @Param({"1000", "10000", "100000"})
+    public int outcomeCount;
+
+    private TestOutcomes testOutcomes;
+    private TestTag featureTag;
+
+    @Setup
+    public void generateOutcomes() {
+        testOutcomes = SyntheticTestOutcomes.generatedWithSeed(1L).testOutcomes(outcomeCount);
+        featureTag = TestTag.withName("Feature 0").andType("feature");
+    }
+
+    @Benchmark
+    public TestOutcomes filterByTag() {
+        return testOutcomes.withTag(featureTag);
+    }
+
+    @Benchmark
+    public TestOutcomes filterByTagName() {
+        return testOutcomes.withTag("Feature 0");
+    }
+
+    @Benchmark
+    public TestOutcomes filterByTagType() {
+        return testOutcomes.withTagType("epic");
+    }
+
+    @Benchmark
+    public TestOutcomes filterByResult() {
+        return testOutcomes.getFailingTests();
+    }
+
+    @Benchmark
+    public List<String> listTagsOfType() {
+        return testOutcomes.getTagsOfType("component");
+    }
+
+    @Benchmark
+    public int countResultsOfFilteredOutcomes() {
+        return testOutcomes.withTagType("feature").getTotalTests().withResult("success");
+    }
+}
@@ -123,6 +123,17 @@ public enum ThucydidesSystemProperty {
      */
     RESTART_BROWSER_FREQUENCY("thucydides.restart.browser.frequency"),
 
+    /**
+     * Keep this many browser sessions of each driver type open, and lease them to the tests instead of
+     * starting a new browser for each test. Sessions are cleaned up between tests. Disabled (0) by default.
+     */
+    BROWSER_POOL_SIZE("thucydides.browser.pool.size"),
+
+    /**
+     * The number of tests a pooled browser session is used for before it is replaced by a fresh one.
+     */
+    BROWSER_POOL_MAX_USES("thucydides.browser.pool.max.uses"),
+
     /**
      * Pause (in ms) between each test step.
      */
@@ -231,7 +242,7 @@ public enum ThucydidesSystemProperty {
 
     /**
      * Batch strategy to use for parallel batches.
-     * Allowed values - DIVIDE_EQUALLY (default) and DIVIDE_BY_TEST_COUNT
+     * Allowed values - DIVIDE_EQUALLY (default), DIVIDE_BY_TEST_COUNT and DIVIDE_BY_DURATION
      */
     BATCH_STRATEGY("thucydides.batch.strategy"),
 
@@ -250,6 +261,13 @@ public enum ThucydidesSystemProperty {
      */
     BATCH_NUMBER("thucydides.batch.number"),
 
+    /**
+     * The directory containing the test results of a previous run, used by the DIVIDE_BY_DURATION batch strategy
+     * to work out how long each test case takes. This must not be the output directory of the current run.
+     * If it is not defined, test cases are divided by name.
+     */
+    BATCH_HISTORY_DIRECTORY("thucydides.batch.history"),
+
     /**
      * HTTP Proxy URL configuration for Firefox and PhantomJS
      */
@@ -306,6 +324,19 @@ public enum ThucydidesSystemProperty {
      */
     JQUERY_INTEGRATION("thucydides.jquery.integration"),
 
+    /**
+     * If set to true, HtmlTable reads the headings and cell values of a table with a single JavaScript call,
+     * rather than one WebDriver call per cell. False by default.
+     */
+    THUCYDIDES_FAST_TABLES("thucydides.fast.tables"),
+
+    /**
+     * If set to true, web element facades read the visibility, enabled state, text and value of an element with a
+     * single JavaScript call each time they check it, rather than one WebDriver call per property.
+     * This saves a lot of round trips on remote drivers such as Selenium Grid. False by default.
+     */
+    THUCYDIDES_BATCHED_ELEMENT_STATE("thucydides.batched.element.state"),
+
     SAUCELABS_TARGET_PLATFORM("saucelabs.target.platform"),
 
     SAUCELABS_DRIVER_VERSION("saucelabs.driver.version"),
@@ -353,6 +384,13 @@ public enum ThucydidesSystemProperty {
      */
     LOGGING("thucydides.logging"),
 
+    /**
+     * Notify the console logging listener and any custom step listeners that implement BackgroundStepListener in the
+     * background, so that slow listeners do not slow down each test step. Events are still delivered to each listener
+     * in order.
+     */
+    ASYNCHRONOUS_LISTENERS("thucydides.asynchronous.listeners"),
+
     /**
      * The root package for the tests in a given project.
      * If provided, Thucydides will log information about the total number of tests to be executed,
@@ -369,6 +407,12 @@ public enum ThucydidesSystemProperty {
      */
     REQUIREMENTS_DIRECTORY("thucydides.requirements.dir"),
 
+    /**
+     * Keep the requirements read from the requirements directory in the output directory, and only read them again
+     * when a file in the requirements directory changes. Set this to false to always read the requirements.
+     */
+    REQUIREMENTS_CACHE("thucydides.requirements.cache"),
+
     /**
      * Use this property if you need to completely override the location of requirements for the Annotated Provider.
      * This is recommended if you use File System and Annotated provider simultaneously.
@@ -450,6 +494,72 @@ public enum ThucydidesSystemProperty {
      */
     TAGS("tags"),
 
+    /**
+     * The number of threads used to generate the aggregate HTML reports.
+     * The default value is 1, which generates the report pages one after the other in a single thread.
+     * Also used for the number of threads writing the reports for test outcomes imported by an adaptor,
+     * where the default is one thread per available processor.
+     */
+    THUCYDIDES_REPORT_THREADS("thucydides.report.threads"),
+
+    /**
+     * The number of threads used to load the test outcomes when generating the aggregate reports,
+     * and to read the xUnit files imported by the xUnit adaptor.
+     * By default, one thread per available processor is used.
+     */
+    THUCYDIDES_LOADER_THREADS("thucydides.loader.threads"),
+
+    /**
+     * If set to true, test outcomes are also stored in a compact binary format, which the aggregate reports
+     * read instead of the XML reports. False by default.
+     */
+    THUCYDIDES_BINARY_REPORTS("thucydides.binary.reports"),
+
+    /**
+     * If set to true, the test outcomes of a test run are also added to a single archive file in the output
+     * directory, which the aggregate reports read instead of the individual report files. False by default.
+     */
+    THUCYDIDES_OUTCOME_ARCHIVE("thucydides.outcome.archive"),
+
+    /**
+     * Identifies the current test run, so that the test outcome archive is emptied when a new run starts,
+     * and screenshots are only deduplicated against the screenshots of the same run.
+     * Every test JVM of a run must use the same value (for example the build timestamp). Defaults to the BUILD_ID
+     * environment variable; if neither is defined, the archive keeps the test outcomes of previous runs.
+     */
+    THUCYDIDES_RUN_ID("thucydides.run.id"),
+
+    /**
+     * If set to true, only regenerate the aggregate report pages whose test outcomes have changed since the
+     * reports were last generated in the same output directory.
+     */
+    THUCYDIDES_INCREMENTAL_REPORTS("thucydides.reports.incremental"),
+
+    /**
+     * If set to true, the aggregate reports only keep a summary of each test outcome in memory (title, result,
+     * tags, duration and step counts), rather than the full test steps. False by default.
+     */
+    THUCYDIDES_LOW_MEMORY_REPORTS("thucydides.reports.low.memory"),
+
+    /**
+     * The number of threads used to resize and save screenshots.
+     * The default value is 1, which processes screenshots one at a time in a single background thread.
+     */
+    THUCYDIDES_SCREENSHOT_THREADS("thucydides.screenshot.threads"),
+
+    /**
+     * The maximum number of screenshots waiting to be processed when several screenshot threads are used.
+     * When the queue is full, the test thread that took the screenshot processes it itself.
+     */
+    THUCYDIDES_SCREENSHOT_QUEUE_SIZE("thucydides.screenshot.queue.size"),
+
+    /**
+     * Store each distinct screenshot only once, in a file named after its contents.
+     * Use 'exact' to share files between identical screenshots, or 'perceptual' to also share them between
+     * screenshots that look the same. By default ('none'), every screenshot is saved in a separate file.
+     */
+    THUCYDIDES_SCREENSHOT_DEDUPLICATION("thucydides.screenshot.deduplication"),
+
     /**
      * Add extra columns to the CSV output, obtained from tag values.
      */
@@ -0,0 +1,168 @@
+package net.thucydides.core.batches;
+
+import au.com.bytecode.opencsv.CSVReader;
+import au.com.bytecode.opencsv.CSVWriter;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.Lists;
+import net.thucydides.core.model.TestOutcome;
+
+import java.io.File;
+import java.io.FileReader;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Assigns test cases (i.e. test classes) to batches so that each batch should take about the same time to run.
+ * Test cases are assigned longest first, each one going to the batch with the least work so far
+ * (the "longest processing time first" rule). Test cases with no recorded duration are assigned by name, so that
+ * every machine running a batch comes up with the same allocation.
+ * Batches are numbered from 1 to the batch count.
+ */
+public class BatchAllocation {
+
+    /**
+     * The name of the file in which the expected allocation is recorded for the batch duration report.
+     */
+    public static final String ALLOCATION_FILE = "batch-allocation.csv";
+
+    private static final String BATCH_COUNT_TITLE = "Batch count";
+    private static final String[] TITLE_LINE = {"Test case", "Batch", "Expected duration (ms)"};
+
+    private final int batchCount;
+    private final Map<String, Integer> batches;
+    private final Map<String, Long> expectedDurations;
+    private final long[] expectedBatchDurations;
+
+    private BatchAllocation(final int batchCount,
+                            final Map<String, Integer> batches,
+                            final Map<String, Long> expectedDurations) {
+        this.batchCount = batchCount;
+        this.batches = ImmutableMap.copyOf(batches);
+        this.expectedDurations = ImmutableMap.copyOf(expectedDurations);
+        this.expectedBatchDurations = new long[batchCount + 1];
+        for (Map.Entry<String, Integer> batch : batches.entrySet()) {
+            expectedBatchDurations[batch.getValue()] += expectedDurations.get(batch.getKey());
+        }
+    }
+
+    /**
+     * Divide test cases between batches based on how long each one took to run.
+     * @param durations the duration of each test case, in milliseconds
+     */
+    public static BatchAllocation balancing(final Map<String, Long> durations, final int batchCount) {
+        List<Map.Entry<String, Long>> longestFirst = Lists.newArrayList(durations.entrySet());
+        Collections.sort(longestFirst, LONGEST_FIRST);
+
+        long[] batchDurations = new long[batchCount + 1];
+        Map<String, Integer> batches = new HashMap<String, Integer>();
+        for (Map.Entry<String, Long> testCase : longestFirst) {
+            int batch = leastLoadedOf(batchDurations);
+            batches.put(testCase.getKey(), batch);
+            batchDurations[batch] += testCase.getValue();
+        }
+        return new BatchAllocation(batchCount, batches, durations);
+    }
+
+    private static int leastLoadedOf(final long[] batchDurations) {
+        int leastLoaded = 1;
+        for (int batch = 2; batch < batchDurations.length; batch++) {
+            if (batchDurations[batch] < batchDurations[leastLoaded]) {
+                leastLoaded = batch;
+            }
+        }
+        return leastLoaded;
+    }
+
+    private static final Comparator<Map.Entry<String, Long>> LONGEST_FIRST = new Comparator<Map.Entry<String, Long>>() {
+        public int compare(final Map.Entry<String, Long> first, final Map.Entry<String, Long> second) {
+            int byDuration = second.getValue().compareTo(first.getValue());
+            return (byDuration != 0) ? byDuration : first.getKey().compareTo(second.getKey());
+        }
+    };
+
+    /**
+     * The name used to identify the test case of a test outcome when recording durations.
+     * This is the name of the test class, which is also recorded in the XML reports, so that outcomes read back from
+     * a previous run are matched to the same test cases as the ones being run.
+     */
+    public static String testCaseNameOf(final TestOutcome outcome) {
+        if (outcome.getTestCaseName() != null) {
+            return outcome.getTestCaseName();
+        } else if (outcome.getUserStory() != null) {
+            return outcome.getUserStory().getId();
+        } else {
+            return null;
+        }
+    }
+
+    public int getBatchCount() {
+        return batchCount;
+    }
+
+    public int getBatchFor(final String testCase) {
+        Integer batch = batches.get(testCase);
+        if (batch != null) {
+            return batch;
+        } else {
+            return ((testCase.hashCode() & Integer.MAX_VALUE) % batchCount) + 1;
+        }
+    }
+
+    public Set<String> getTestCases() {
+        return batches.keySet();
+    }
+
+    /**
+     * The expected duration of a batch, in milliseconds, not counting test cases with no recorded duration.
+     */
+    public long getExpectedDurationOf(final int batch) {
+        return expectedBatchDurations[batch];
+    }
+
+    public void writeTo(final File file) throws IOException {
+        CSVWriter writer = new CSVWriter(new FileWriter(file));
+        try {
+            writer.writeNext(new String[]{BATCH_COUNT_TITLE, Integer.toString(batchCount)});
+            writer.writeNext(TITLE_LINE);
+            for (String testCase : batches.keySet()) {
+                writer.writeNext(new String[]{testCase,
+                                              Integer.toString(batches.get(testCase)),
+                                              Long.toString(expectedDurations.get(testCase))});
+            }
+        } finally {
+            writer.close();
+        }
+    }
+
+    public static BatchAllocation readFrom(final File file) throws IOException {
+        Map<String, Integer> batches = new HashMap<String, Integer>();
+        Map<String, Long> durations = new HashMap<String, Long>();
+        int batchCount;
+
+        CSVReader reader = new CSVReader(new FileReader(file));
+        try {
+            String[] batchCountLine = reader.readNext();
+            if ((batchCountLine == null) || (batchCountLine.length < 2) || !BATCH_COUNT_TITLE.equals(batchCountLine[0])) {
+                throw new IOException("Not a batch allocation file: " + file);
+            }
+            batchCount = Integer.parseInt(batchCountLine[1]);
+            reader.readNext();
+            String[] line;
+            while ((line = reader.readNext()) != null) {
+                if (line.length == TITLE_LINE.length) {
+                    batches.put(line[0], Integer.parseInt(line[1]));
+                    durations.put(line[0], Long.parseLong(line[2]));
+                }
+            }
+        } finally {
+            reader.close();
+        }
+        return new BatchAllocation(batchCount, batches, durations);
+    }
+}
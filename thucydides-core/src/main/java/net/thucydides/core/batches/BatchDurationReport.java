@@ -0,0 +1,90 @@
+package net.thucydides.core.batches;
+
+import au.com.bytecode.opencsv.CSVWriter;
+import net.thucydides.core.model.TestOutcome;
+
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.util.Collection;
+import java.util.Locale;
+
+/**
+ * Compares the expected duration of each batch, as worked out when the test cases were divided up,
+ * with the time the tests in that batch actually took.
+ */
+public class BatchDurationReport {
+
+    public static final String REPORT_FILE = "batch-durations.csv";
+
+    private static final String[] TITLE_LINE = {"Batch", "Expected duration (s)", "Actual duration (s)",
+                                                "Difference (%)", "Test cases"};
+
+    private final BatchAllocation allocation;
+    private final long[] actualDurations;
+    private final int[] testCounts;
+
+    private BatchDurationReport(final BatchAllocation allocation,
+                                final long[] actualDurations,
+                                final int[] testCounts) {
+        this.allocation = allocation;
+        this.actualDurations = actualDurations;
+        this.testCounts = testCounts;
+    }
+
+    public static BatchDurationReport comparing(final BatchAllocation allocation,
+                                                final Collection<? extends TestOutcome> outcomes) {
+        long[] actualDurations = new long[allocation.getBatchCount() + 1];
+        int[] testCounts = new int[allocation.getBatchCount() + 1];
+        for (TestOutcome outcome : outcomes) {
+            String testCase = BatchAllocation.testCaseNameOf(outcome);
+            if (testCase != null) {
+                int batch = allocation.getBatchFor(testCase);
+                actualDurations[batch] += outcome.getDuration();
+                testCounts[batch]++;
+            }
+        }
+        return new BatchDurationReport(allocation, actualDurations, testCounts);
+    }
+
+    public long getExpectedDurationOf(final int batch) {
+        return allocation.getExpectedDurationOf(batch);
+    }
+
+    public long getActualDurationOf(final int batch) {
+        return actualDurations[batch];
+    }
+
+    public int getTestCountOf(final int batch) {
+        return testCounts[batch];
+    }
+
+    public File writeTo(final File directory) throws IOException {
+        File report = new File(directory, REPORT_FILE);
+        CSVWriter writer = new CSVWriter(new FileWriter(report));
+        try {
+            writer.writeNext(TITLE_LINE);
+            for (int batch = 1; batch <= allocation.getBatchCount(); batch++) {
+                writer.writeNext(new String[]{Integer.toString(batch),
+                                              inSeconds(getExpectedDurationOf(batch)),
+                                              inSeconds(getActualDurationOf(batch)),
+                                              differenceBetween(getExpectedDurationOf(batch), getActualDurationOf(batch)),
+                                              Integer.toString(getTestCountOf(batch))});
+            }
+        } finally {
+            writer.close();
+        }
+        return report;
+    }
+
+    private String inSeconds(final long durationInMilliseconds) {
+        return String.format(Locale.ROOT, "%.1f", durationInMilliseconds / 1000.0);
+    }
+
+    private String differenceBetween(final long expected, final long actual) {
+        if (expected == 0) {
+            return "";
+        }
+        return String.format(Locale.ROOT, "%+.0f", (actual - expected) * 100.0 / expected);
+    }
+}
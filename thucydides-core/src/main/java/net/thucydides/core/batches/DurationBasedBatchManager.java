@@ -0,0 +1,169 @@
+package net.thucydides.core.batches;
+
+import com.google.common.base.Optional;
+import com.google.inject.Inject;
+import com.google.inject.Singleton;
+import net.thucydides.core.model.TestOutcome;
+import net.thucydides.core.reports.TestOutcomeLoader;
+import net.thucydides.core.util.EnvironmentVariables;
+import net.thucydides.core.webdriver.SystemPropertiesConfiguration;
+import org.apache.commons.lang3.StringUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import static net.thucydides.core.ThucydidesSystemProperty.BATCH_HISTORY_DIRECTORY;
+
+/**
+ * Runs test cases in batches of about the same duration, based on how long each test case took
+ * in a previous run.
+ * The previous test outcomes are read from the directory defined by "thucydides.batch.history", which must not be
+ * the output directory of the current run: the batches of a run write their results there while the others are still
+ * working out their allocation, so they would not all see the same outcomes. If no separate history directory is
+ * defined, test cases are divided by name. Every machine running a batch must see the same previous outcomes, so
+ * that they all divide the test cases in the same way.
+ * The expected allocation is recorded in the output directory, so that the aggregate report can compare the
+ * expected and actual duration of each batch.
+ */
+@Singleton
+public class DurationBasedBatchManager extends SystemVariableBasedBatchManager {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(DurationBasedBatchManager.class);
+
+    private static final ConcurrentMap<String, BatchAllocation> ALLOCATIONS = new ConcurrentHashMap<String, BatchAllocation>();
+
+    private final File outputDirectory;
+    private final Optional<File> historyDirectory;
+    private volatile String currentTestCase;
+
+    @Inject
+    public DurationBasedBatchManager(EnvironmentVariables environmentVariables) {
+        super(environmentVariables);
+        this.outputDirectory = new SystemPropertiesConfiguration(environmentVariables).getOutputDirectory();
+        this.historyDirectory = historyDirectoryDefinedIn(environmentVariables, outputDirectory);
+    }
+
+    private static Optional<File> historyDirectoryDefinedIn(final EnvironmentVariables environmentVariables,
+                                                            final File outputDirectory) {
+        String historyDirectoryPath = environmentVariables.getProperty(BATCH_HISTORY_DIRECTORY);
+        if (StringUtils.isEmpty(historyDirectoryPath)) {
+            LOGGER.info("No batch history directory defined: test cases will be divided by name");
+            return Optional.absent();
+        }
+        File historyDirectory = new File(historyDirectoryPath);
+        if (sameDirectory(historyDirectory, outputDirectory)) {
+            LOGGER.warn("The batch history directory must not be the output directory of the current run:"
+                        + " test cases will be divided by name");
+            return Optional.absent();
+        }
+        return Optional.of(historyDirectory);
+    }
+
+    private static boolean sameDirectory(final File directory, final File otherDirectory) {
+        try {
+            return directory.getCanonicalFile().equals(otherDirectory.getCanonicalFile());
+        } catch (IOException e) {
+            return directory.getAbsoluteFile().equals(otherDirectory.getAbsoluteFile());
+        }
+    }
+
+    @Override
+    public void registerTestCase(Class<?> testCaseClass) {
+        super.registerTestCase(testCaseClass);
+        currentTestCase = testCaseClass.getName();
+    }
+
+    @Override
+    public void registerTestCase(String testCaseName) {
+        super.registerTestCase(testCaseName);
+        currentTestCase = testCaseName;
+    }
+
+    @Override
+    public boolean shouldExecuteThisTest(int testCount) {
+        if ((batchCount <= 0) || (currentTestCase == null)) {
+            return super.shouldExecuteThisTest(testCount);
+        }
+        return getAllocation().getBatchFor(currentTestCase) == getCurrentBatch();
+    }
+
+    private int getCurrentBatch() {
+        int batch = getActualBatchNumber();
+        return (batch == 0) ? batchCount : batch;
+    }
+
+    protected BatchAllocation getAllocation() {
+        String key = historyKey() + ":" + batchCount;
+        BatchAllocation allocation = ALLOCATIONS.get(key);
+        if (allocation == null) {
+            synchronized (ALLOCATIONS) {
+                allocation = ALLOCATIONS.get(key);
+                if (allocation == null) {
+                    allocation = BatchAllocation.balancing(historicalDurations(), batchCount);
+                    logExpectedDurationsOf(allocation);
+                    recordAllocation(allocation);
+                    ALLOCATIONS.put(key, allocation);
+                }
+            }
+        }
+        return allocation;
+    }
+
+    private String historyKey() {
+        return historyDirectory.isPresent() ? historyDirectory.get().getAbsolutePath() : "";
+    }
+
+    private Map<String, Long> historicalDurations() {
+        Map<String, Long> durations = new HashMap<String, Long>();
+        if (!historyDirectory.isPresent()) {
+            return durations;
+        }
+        File directory = historyDirectory.get();
+        if (!directory.isDirectory()) {
+            LOGGER.info("No previous test results found in {}: test cases will be divided by name", directory);
+            return durations;
+        }
+        try {
+            List<TestOutcome> outcomes = new TestOutcomeLoader().loadFrom(directory);
+            for (TestOutcome outcome : outcomes) {
+                String testCase = BatchAllocation.testCaseNameOf(outcome);
+                if (testCase != null) {
+                    Long previousDuration = durations.get(testCase);
+                    durations.put(testCase, ((previousDuration == null) ? 0 : previousDuration) + outcome.getDuration());
+                }
+            }
+        } catch (IOException e) {
+            LOGGER.warn("Could not read previous test results from {}: test cases will be divided by name", directory, e);
+        }
+        return durations;
+    }
+
+    private void logExpectedDurationsOf(final BatchAllocation allocation) {
+        for (int batch = 1; batch <= allocation.getBatchCount(); batch++) {
+            LOGGER.info("Expected duration of batch {}: {} ms", batch, allocation.getExpectedDurationOf(batch));
+        }
+    }
+
+    private void recordAllocation(final BatchAllocation allocation) {
+        try {
+            File allocationFile = new File(outputDirectory, BatchAllocation.ALLOCATION_FILE);
+            File temporaryFile = File.createTempFile("batch-allocation", ".tmp", outputDirectory);
+            allocation.writeTo(temporaryFile);
+            if (!temporaryFile.renameTo(allocationFile)) {
+                allocationFile.delete();
+                if (!temporaryFile.renameTo(allocationFile)) {
+                    temporaryFile.delete();
+                }
+            }
+        } catch (IOException e) {
+            LOGGER.warn("Could not record the batch allocation in {}", outputDirectory, e);
+        }
+    }
+}
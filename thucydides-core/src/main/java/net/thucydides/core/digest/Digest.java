@@ -2,8 +2,27 @@ package net.thucydides.core.digest;
 
 import org.apache.commons.codec.digest.DigestUtils;
 
+import java.io.BufferedInputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+
 public class Digest {
     public static String ofTextValue(final String text) {
         return DigestUtils.sha256Hex(text);
     }
+
+    public static String ofBytes(final byte[] data) {
+        return DigestUtils.sha256Hex(data);
+    }
+
+    public static String ofFile(final File file) throws IOException {
+        InputStream inputStream = new BufferedInputStream(new FileInputStream(file));
+        try {
+            return DigestUtils.sha256Hex(inputStream);
+        } finally {
+            inputStream.close();
+        }
+    }
 }
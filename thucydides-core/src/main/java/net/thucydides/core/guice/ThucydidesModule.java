@@ -3,6 +3,7 @@ package net.thucydides.core.guice;
 import com.google.inject.AbstractModule;
 import com.google.inject.Provides;
 import com.google.inject.Singleton;
+import net.thucydides.core.ThucydidesSystemProperty;
 import net.thucydides.core.annotations.locators.SmartElementProxyCreator;
 import net.thucydides.core.batches.BatchManager;
 import net.thucydides.core.batches.SystemVariableBasedBatchManager;
@@ -22,6 +23,7 @@ import net.thucydides.core.reports.templates.FreeMarkerTemplateManager;
 import net.thucydides.core.reports.templates.TemplateManager;
 import net.thucydides.core.requirements.ClasspathRequirementsProviderService;
 import net.thucydides.core.requirements.RequirementsProviderService;
+import net.thucydides.core.screenshots.MultithreadScreenshotProcessor;
 import net.thucydides.core.screenshots.ScreenshotProcessor;
 import net.thucydides.core.screenshots.SingleThreadScreenshotProcessor;
 import net.thucydides.core.statistics.AtomicTestCount;
@@ -59,7 +61,6 @@ public class ThucydidesModule extends AbstractModule {
         bind(WebdriverManager.class).to(ThucydidesWebdriverManager.class).in(Singleton.class);
         bind(BatchManager.class).to(SystemVariableBasedBatchManager.class);
         bind(LinkGenerator.class).to(SaucelabsLinkGenerator.class);
-        bind(ScreenshotProcessor.class).to(SingleThreadScreenshotProcessor.class).in(Singleton.class);
 
         bind(TagProviderService.class).to(ClasspathTagProviderService.class).in(Singleton.class);
         bind(RequirementsProviderService.class).to(ClasspathRequirementsProviderService.class).in(Singleton.class);
@@ -80,6 +81,21 @@ public class ThucydidesModule extends AbstractModule {
         return createEnvironmentVariables();
     }
 
+    /**
+     * Screenshots are processed in a single background thread, unless more threads are requested
+     * using the thucydides.screenshot.threads property.
+     */
+    @Provides
+    @Singleton
+    public ScreenshotProcessor provideScreenshotProcessor(EnvironmentVariables environmentVariables) {
+        int screenshotThreads = environmentVariables.getPropertyAsInteger(ThucydidesSystemProperty.THUCYDIDES_SCREENSHOT_THREADS, 1);
+        if (screenshotThreads > 1) {
+            return new MultithreadScreenshotProcessor(environmentVariables);
+        } else {
+            return new SingleThreadScreenshotProcessor(environmentVariables);
+        }
+    }
+
     protected EnvironmentVariables createEnvironmentVariables() {
         EnvironmentVariables environmentVariables = new SystemEnvironmentVariables();
         LocalPreferences localPreferences = new PropertiesFileLocalPreferences(environmentVariables);
@@ -1,18 +1,16 @@
 package net.thucydides.core.model;
 
 import net.thucydides.core.reports.TestOutcomeCounter;
+import net.thucydides.core.reports.TestOutcomeSummary;
 import net.thucydides.core.reports.TestOutcomes;
 
-import static ch.lambdaj.Lambda.on;
-import static ch.lambdaj.Lambda.sum;
-
 public class OutcomeCounter extends TestOutcomeCounter {
 
-    private final TestOutcomes outcomes;
+    private final TestOutcomeSummary summary;
 
     public OutcomeCounter(TestType testType, TestOutcomes outcomes) {
         super(testType);
-        this.outcomes = outcomes.ofType(testType);
+        this.summary = outcomes.getSummary();
     }
 
     public int withResult(String expectedResult) {
@@ -20,16 +18,16 @@ public class OutcomeCounter extends TestOutcomeCounter {
     }
 
     public int withResult(TestResult expectedResult) {
-        return sum(outcomes.getOutcomes(), on(TestOutcome.class).countResults(expectedResult));
+        return summary.countTestsOfTypeWithResult(expectedResult, testType);
     }
 
     public int getTotal() {
-        return outcomes.getTotal();
+        return summary.getTotalOfType(testType);
     }
 
     public int withIndeterminateResult() {
-        return outcomes.getTotal() - withResult(TestResult.SUCCESS)
+        return getTotal() - withResult(TestResult.SUCCESS)
                 - withResult(TestResult.FAILURE)
                 - withResult(TestResult.ERROR);
     }
-}
\ No newline at end of file
+}
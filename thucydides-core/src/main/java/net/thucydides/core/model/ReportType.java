@@ -17,7 +17,10 @@ public enum ReportType {
     HTML("html"),
     
     /** JSON reports. */
-    JSON("json");
+    JSON("json"),
+
+    /** Compact binary reports. */
+    BINARY("bin");
 
     private String suffix;
 
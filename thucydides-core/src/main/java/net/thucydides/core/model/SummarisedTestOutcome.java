@@ -0,0 +1,126 @@
+package net.thucydides.core.model;
+
+import com.google.common.base.Optional;
+import com.google.common.collect.ImmutableList;
+
+import java.util.HashSet;
+
+/**
+ * A test outcome without its test steps, used when the aggregate reports are generated in low-memory mode.
+ * The step counts, the overall result and the other values shown in the aggregate reports are worked out from
+ * the full test outcome when the summary is created, so the full test outcome can be discarded straight away.
+ */
+class SummarisedTestOutcome extends TestOutcome {
+
+    private final int stepCount;
+    private final int nestedStepCount;
+    private final int leafStepCount;
+    private final int successCount;
+    private final int failureCount;
+    private final int errorCount;
+    private final int ignoredCount;
+    private final int skippedCount;
+    private final int pendingCount;
+    private final boolean hasScreenshots;
+    private final boolean hasNonStepFailure;
+    private final String dataDrivenSampleScenario;
+
+    SummarisedTestOutcome(final TestOutcome testOutcome,
+                          final String storedTitle,
+                          final Optional<String> qualifier) {
+        super(testOutcome.getStartTime().getMillis(),
+              testOutcome.getDuration(),
+              storedTitle,
+              testOutcome.getMethodName(),
+              testOutcome.getTestCase(),
+              ImmutableList.<TestStep>of(),
+              testOutcome.getIssues(),
+              new HashSet<String>(),
+              testOutcome.getTags(),
+              testOutcome.getUserStory(),
+              null,
+              testOutcome.getResult(),
+              testOutcome.getDataTable(),
+              qualifier,
+              testOutcome.isManual());
+        this.stepCount = testOutcome.getStepCount();
+        this.nestedStepCount = testOutcome.getNestedStepCount();
+        this.leafStepCount = testOutcome.countTestSteps();
+        this.successCount = testOutcome.getSuccessCount();
+        this.failureCount = testOutcome.getFailureCount();
+        this.errorCount = testOutcome.getErrorCount();
+        this.ignoredCount = testOutcome.getIgnoredCount();
+        this.skippedCount = testOutcome.getSkippedCount();
+        this.pendingCount = testOutcome.getPendingCount();
+        this.hasScreenshots = testOutcome.hasScreenshots();
+        this.hasNonStepFailure = testOutcome.hasNonStepFailure();
+        this.dataDrivenSampleScenario = testOutcome.getDataDrivenSampleScenario();
+        setSessionId(testOutcome.getSessionId());
+        setStatistics(testOutcome.getStatistics());
+    }
+
+    @Override
+    public TestOutcome summarised() {
+        return this;
+    }
+
+    @Override
+    public Integer getStepCount() {
+        return stepCount;
+    }
+
+    @Override
+    public Integer getNestedStepCount() {
+        return nestedStepCount;
+    }
+
+    @Override
+    public Integer countTestSteps() {
+        return leafStepCount;
+    }
+
+    @Override
+    public Integer getSuccessCount() {
+        return successCount;
+    }
+
+    @Override
+    public Integer getFailureCount() {
+        return failureCount;
+    }
+
+    @Override
+    public Integer getErrorCount() {
+        return errorCount;
+    }
+
+    @Override
+    public Integer getIgnoredCount() {
+        return ignoredCount;
+    }
+
+    @Override
+    public Integer getSkippedCount() {
+        return skippedCount;
+    }
+
+    @Override
+    public Integer getPendingCount() {
+        return pendingCount;
+    }
+
+    @Override
+    public boolean hasScreenshots() {
+        return hasScreenshots;
+    }
+
+    @Override
+    public boolean hasNonStepFailure() {
+        return hasNonStepFailure;
+    }
+
+    @Override
+    public String getDataDrivenSampleScenario() {
+        return dataDrivenSampleScenario;
+    }
+}
@@ -132,6 +132,11 @@ public class TestOutcome {
      */
     private String sessionId;
 
+    /**
+     * The name of the test class, for test outcomes read back from a report, where the class itself is not available.
+     */
+    private String storedTestCaseName;
+
     private LinkGenerator linkGenerator;
 
     /**
@@ -271,7 +276,7 @@ public class TestOutcome {
 
     public TestOutcome withQualifier(String qualifier) {
         if (qualifier != null) {
-        return new TestOutcome(this.startTime,
+        return withTheSameTestCaseNameAs(this, new TestOutcome(this.startTime,
                 this.duration,
                 this.storedTitle,
                 this.methodName,
@@ -285,7 +290,7 @@ public class TestOutcome {
                 this.annotatedResult,
                 this.dataTable,
                 Optional.fromNullable(qualifier),
-                this.manualTest);
+                this.manualTest));
         } else {
             return this;
         }
@@ -294,7 +299,7 @@ public class TestOutcome {
 
     public TestOutcome withMethodName(String methodName) {
         if (methodName != null) {
-            return new TestOutcome(this.startTime,
+            return withTheSameTestCaseNameAs(this, new TestOutcome(this.startTime,
                     this.duration,
                     this.storedTitle,
                     methodName,
@@ -308,12 +313,25 @@ public class TestOutcome {
                     this.annotatedResult,
                     this.dataTable,
                     this.qualifier,
-                    this.manualTest);
+                    this.manualTest));
         } else {
             return this;
         }
     }
 
+    /**
+     * A lightweight copy of this test outcome, holding the title, result, tags, duration and step counts used in
+     * the aggregate reports, but not the test steps themselves (and so none of the screenshots or error messages).
+     */
+    public TestOutcome summarised() {
+        return withTheSameTestCaseNameAs(this, new SummarisedTestOutcome(this, this.storedTitle, this.qualifier));
+    }
+
+    private static TestOutcome withTheSameTestCaseNameAs(final TestOutcome original, final TestOutcome copy) {
+        copy.storedTestCaseName = original.storedTestCaseName;
+        return copy;
+    }
+
     private void initializeStoryFrom(final Class<?> testCase) {
         Story story;
         if (Story.testedInTestCase(testCase) != null) {
@@ -707,6 +725,18 @@ public class TestOutcome {
         return testCase;
     }
 
+    /**
+     * The fully-qualified name of the test class, if any. This is also available for test outcomes read back from
+     * a report, when the test class itself is not.
+     */
+    public String getTestCaseName() {
+        return (testCase != null) ? testCase.getName() : storedTestCaseName;
+    }
+
+    public void setTestCaseName(final String testCaseName) {
+        this.storedTestCaseName = testCaseName;
+    }
+
     private boolean thereAre(Set<String> anyIssues) {
         return ((anyIssues != null) && (!anyIssues.isEmpty()));
     }
@@ -1011,7 +1041,17 @@ public class TestOutcome {
     }
 
     public Integer getNestedStepCount() {
-        return getFlattenedTestSteps().size();
+        return countNestedStepsIn(testSteps);
+    }
+
+    private int countNestedStepsIn(List<TestStep> steps) {
+        int stepCount = steps.size();
+        for (TestStep step : steps) {
+            if (step.isAGroup()) {
+                stepCount += countNestedStepsIn(step.getChildren());
+            }
+        }
+        return stepCount;
     }
 
     public Integer getSuccessCount() {
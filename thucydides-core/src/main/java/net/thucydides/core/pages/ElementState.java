@@ -0,0 +1,148 @@
+package net.thucydides.core.pages;
+
+import com.google.common.base.Optional;
+import net.thucydides.core.webdriver.javascript.JavascriptExecutorFacade;
+import org.openqa.selenium.Dimension;
+import org.openqa.selenium.Point;
+import org.openqa.selenium.WebDriverException;
+import org.openqa.selenium.WebElement;
+import org.openqa.selenium.internal.WrapsElement;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.List;
+
+/**
+ * A snapshot of the state of a web element (visibility, enabled state, text, value and bounding box),
+ * read with a single JavaScript call rather than one WebDriver call for each property.
+ * The visibility check is a simplified version of the one WebDriver uses: an element is considered visible if
+ * neither it nor any of its parents is styled with display:none, it is not styled with visibility:hidden, it is not a
+ * hidden input field, and it takes up some room on the page.
+ */
+class ElementState {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(ElementState.class);
+
+    private static final String READ_STATE_SCRIPT =
+            "var element = arguments[0];"
+            + "function styleOf(node) {"
+            + "  return window.getComputedStyle ? window.getComputedStyle(node, null) : node.currentStyle;"
+            + "}"
+            + "function isDisplayed(element) {"
+            + "  if ((element.tagName.toLowerCase() == 'input') && ((element.type || '').toLowerCase() == 'hidden')) { return false; }"
+            + "  for (var node = element; node && (node.nodeType == 1); node = node.parentNode) {"
+            + "    var style = styleOf(node);"
+            + "    if (style && (style.display == 'none')) { return false; }"
+            + "  }"
+            + "  var elementStyle = styleOf(element);"
+            + "  if (elementStyle && ((elementStyle.visibility == 'hidden') || (elementStyle.visibility == 'collapse'))) { return false; }"
+            + "  var tag = element.tagName.toLowerCase();"
+            + "  return (tag == 'option') || (tag == 'optgroup') || (element.offsetWidth > 0) || (element.offsetHeight > 0)"
+            + "         || (element.getClientRects && (element.getClientRects().length > 0));"
+            + "}"
+            + "var text = (element.innerText !== undefined) ? element.innerText : element.textContent;"
+            + "var box = element.getBoundingClientRect ? element.getBoundingClientRect() : {left: 0, top: 0, width: 0, height: 0};"
+            + "var scrollX = window.pageXOffset || document.documentElement.scrollLeft || 0;"
+            + "var scrollY = window.pageYOffset || document.documentElement.scrollTop || 0;"
+            + "return [isDisplayed(element), !element.disabled, element.tagName.toLowerCase(),"
+            + "        (text || '').replace(/^\\s+|\\s+$/g, ''), (element.value === undefined || element.value === null) ? null : String(element.value),"
+            + "        Math.round(box.left + scrollX), Math.round(box.top + scrollY),"
+            + "        Math.round(box.width || 0), Math.round(box.height || 0)];";
+
+    private final boolean displayed;
+    private final boolean enabled;
+    private final String tagName;
+    private final String text;
+    private final String value;
+    private final Point location;
+    private final Dimension size;
+
+    private ElementState(final boolean displayed,
+                         final boolean enabled,
+                         final String tagName,
+                         final String text,
+                         final String value,
+                         final Point location,
+                         final Dimension size) {
+        this.displayed = displayed;
+        this.enabled = enabled;
+        this.tagName = tagName;
+        this.text = text;
+        this.value = value;
+        this.location = location;
+        this.size = size;
+    }
+
+    /**
+     * Read the current state of an element, if the driver can run JavaScript.
+     * Nothing is returned if the element could not be read this way (for example if it is stale), in which case the
+     * caller should fall back on the usual WebDriver calls.
+     */
+    static Optional<ElementState> of(final WebElement element, final JavascriptExecutorFacade javascriptExecutorFacade) {
+        try {
+            Object state = javascriptExecutorFacade.executeScript(READ_STATE_SCRIPT, unwrapped(element));
+            if (state instanceof List) {
+                return Optional.of(stateFrom((List<?>) state));
+            }
+        } catch (WebDriverException e) {
+            LOGGER.debug("Could not read element state using JavaScript", e);
+        } catch (ClassCastException e) {
+            LOGGER.debug("Unexpected element state returned by JavaScript", e);
+        }
+        return Optional.absent();
+    }
+
+    private static WebElement unwrapped(final WebElement element) {
+        WebElement unwrappedElement = element;
+        while (unwrappedElement instanceof WrapsElement) {
+            WebElement wrappedElement = ((WrapsElement) unwrappedElement).getWrappedElement();
+            if ((wrappedElement == null) || (wrappedElement == unwrappedElement)) {
+                break;
+            }
+            unwrappedElement = wrappedElement;
+        }
+        return unwrappedElement;
+    }
+
+    private static ElementState stateFrom(final List<?> state) {
+        return new ElementState((Boolean) state.get(0),
+                                (Boolean) state.get(1),
+                                (String) state.get(2),
+                                (String) state.get(3),
+                                (String) state.get(4),
+                                new Point(intValueOf(state.get(5)), intValueOf(state.get(6))),
+                                new Dimension(intValueOf(state.get(7)), intValueOf(state.get(8))));
+    }
+
+    private static int intValueOf(final Object value) {
+        return (value instanceof Number) ? ((Number) value).intValue() : 0;
+    }
+
+    public boolean isDisplayed() {
+        return displayed;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public String getTagName() {
+        return tagName;
+    }
+
+    public String getText() {
+        return text;
+    }
+
+    public String getValue() {
+        return value;
+    }
+
+    public Point getLocation() {
+        return location;
+    }
+
+    public Dimension getSize() {
+        return size;
+    }
+}
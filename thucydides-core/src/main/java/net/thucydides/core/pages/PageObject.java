@@ -802,21 +802,16 @@ public abstract class PageObject {
         return js.executeScript(script, params);
     }
 
+    /**
+     * Make sure jQuery, the jQuery plugins and the JavaScript utilities are available in the current page.
+     * Whatever the page does not already have is injected in a single script call.
+     * Nothing is injected if this fails, for example if no page is loaded yet.
+     */
     public void addJQuerySupport() {
-        if (pageIsLoaded()) {
-            JQueryEnabledPage jQueryEnabledPage = JQueryEnabledPage.withDriver(getDriver());
-            if (!jQueryEnabledPage.isJQueryEnabled()) {
-                jQueryEnabledPage.injectJQuery();
-                jQueryEnabledPage.injectJQueryPlugins();
-            }
-        }
-    }
-
-    private boolean pageIsLoaded() {
         try {
-            return (getDriver().getCurrentUrl() != null);
+            JQueryEnabledPage.withDriver(getDriver()).injectScriptsIfRequired();
         } catch (WebDriverException e) {
-            return false;
+            LOGGER.debug("Could not add jQuery support to the current page", e);
         }
     }
 
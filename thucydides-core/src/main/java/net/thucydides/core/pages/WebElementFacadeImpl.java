@@ -1,6 +1,7 @@
 package net.thucydides.core.pages;
 
 import ch.lambdaj.function.convert.Converter;
+import com.google.common.base.Optional;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.Lists;
 import net.thucydides.core.ThucydidesSystemProperty;
@@ -56,6 +57,7 @@ public class WebElementFacadeImpl implements WebElementFacade {
     private JavascriptExecutorFacade javascriptExecutorFacade;
     private InternalSystemClock clock = new InternalSystemClock();
     private final EnvironmentVariables environmentVariables;
+    private final boolean batchedStateQueries;
     
     private ElementLocator locator;
 
@@ -65,6 +67,15 @@ public class WebElementFacadeImpl implements WebElementFacade {
     		final ElementLocator locator,
             final WebElement webElement,
             final long timeoutInMilliseconds){
+    	this(driver, locator, webElement, timeoutInMilliseconds,
+    	     Injectors.getInjector().getInstance(EnvironmentVariables.class));
+    }
+
+    WebElementFacadeImpl(final WebDriver driver,
+    		final ElementLocator locator,
+            final WebElement webElement,
+            final long timeoutInMilliseconds,
+            final EnvironmentVariables environmentVariables){
     	this.webElement = webElement;
     	this.driver = driver;
     	this.timeoutInMilliseconds = timeoutInMilliseconds;
@@ -72,7 +83,8 @@ public class WebElementFacadeImpl implements WebElementFacade {
     	this.webdriverClock = new SystemClock();
 		this.sleeper = Sleeper.SYSTEM_SLEEPER;
 		this.javascriptExecutorFacade = new JavascriptExecutorFacade(driver);
-		this.environmentVariables = Injectors.getInjector().getInstance(EnvironmentVariables.class);
+		this.environmentVariables = environmentVariables;
+		this.batchedStateQueries = environmentVariables.getPropertyAsBoolean(ThucydidesSystemProperty.THUCYDIDES_BATCHED_ELEMENT_STATE, false);
     }
     
     /**
@@ -199,8 +211,8 @@ public class WebElementFacadeImpl implements WebElementFacade {
 
     @Override
 	public WebElementFacade withTimeoutOf(int timeout, TimeUnit unit) {
-        return wrapWebElement(driver, getElement(),
-                TimeUnit.MILLISECONDS.convert(timeout, unit));
+        return new WebElementFacadeImpl(driver, (ElementLocator) null, getElement(),
+                TimeUnit.MILLISECONDS.convert(timeout, unit), environmentVariables);
     }
 
     /**
@@ -212,6 +224,10 @@ public class WebElementFacadeImpl implements WebElementFacade {
 	public boolean isVisible() {
 
         try {
+            Optional<ElementState> state = currentElementState();
+            if (state.isPresent()) {
+                return state.get().isDisplayed();
+            }
             return (getElement() != null) && (getElement().isDisplayed());
         } catch (ElementNotVisibleException e) {
             return false;
@@ -253,6 +269,10 @@ public class WebElementFacadeImpl implements WebElementFacade {
     @Override
 	public boolean isCurrentlyEnabled() {
         try {
+            Optional<ElementState> state = currentElementState();
+            if (state.isPresent()) {
+                return state.get().isEnabled();
+            }
             return getElement().isEnabled();
         } catch (NoSuchElementException e) {
             return false;
@@ -611,10 +631,50 @@ public class WebElementFacadeImpl implements WebElementFacade {
         throw new ElementNotVisibleException(finalMessage, timeout);
     }
 
+    /**
+     * When batched state queries are enabled, the state of the element is read with a single JavaScript call
+     * at each poll, and every check made during that poll uses the same snapshot.
+     * Nothing is returned if batched state queries are disabled or if the element could not be read this way,
+     * in which case the usual WebDriver calls are used instead.
+     */
+    private Optional<ElementState> currentElementState() {
+        if (!batchedStateQueries) {
+            return Optional.absent();
+        }
+        try {
+            WebElement element = getElement();
+            if (element == null) {
+                return Optional.absent();
+            }
+            return ElementState.of(element, getJavascriptExecutorFacade());
+        } catch (NoSuchElementException e) {
+            return Optional.absent();
+        }
+    }
+
+    /**
+     * The state of the element once it is visible, read in a single JavaScript call if it is already displayed.
+     */
+    private Optional<ElementState> visibleElementState() {
+        if (driverIsDisabled()) {
+            return Optional.absent();
+        }
+        Optional<ElementState> state = currentElementState();
+        if (state.isPresent() && !state.get().isDisplayed()) {
+            waitUntilVisible();
+            state = currentElementState();
+        }
+        return state;
+    }
+
     private ExpectedCondition<Boolean> elementIsDisplayed() {
         return new ExpectedCondition<Boolean>() {
             public Boolean apply(WebDriver driver) {
                 try {
+                    Optional<ElementState> state = currentElementState();
+                    if (state.isPresent()) {
+                        return state.get().isDisplayed();
+                    }
                     return (getElement() != null) && (getElement().isDisplayed());
                 } catch (NullPointerException e) {
                     // Selenium sometimes throws a NPE if the element is not present at all on the page.
@@ -643,6 +703,10 @@ public class WebElementFacadeImpl implements WebElementFacade {
     private ExpectedCondition<Boolean> elementIsEnabled() {
         return new ExpectedCondition<Boolean>() {
             public Boolean apply(WebDriver driver) {
+                Optional<ElementState> state = currentElementState();
+                if (state.isPresent()) {
+                    return !(isAFormTag(state.get().getTagName()) && !state.get().isEnabled());
+                }
                 return ((getElement() != null) && (!isDisabledField(getElement())));
             }
         };
@@ -658,22 +722,30 @@ public class WebElementFacadeImpl implements WebElementFacade {
         if ((webElement == null) || (webElement.getTagName() == null)) {
             return false;
         }
-        String tag = webElement.getTagName().toLowerCase();
-        return HTML_FORM_TAGS.contains(tag);
+        return isAFormTag(webElement.getTagName());
+    }
 
+    private boolean isAFormTag(String tagName) {
+        return (tagName != null) && HTML_FORM_TAGS.contains(tagName.toLowerCase());
     }
 
     private static final List<String> HTML_ELEMENTS_WITH_VALUE_ATTRIBUTE = ImmutableList.of("input", "button", "option");
 
     private boolean hasValueAttribute(WebElement webElement) {
-        String tag = webElement.getTagName().toLowerCase();
-        return HTML_ELEMENTS_WITH_VALUE_ATTRIBUTE.contains(tag);
+        return hasValueAttribute(webElement.getTagName());
+    }
 
+    private boolean hasValueAttribute(String tagName) {
+        return HTML_ELEMENTS_WITH_VALUE_ATTRIBUTE.contains(tagName.toLowerCase());
     }
 
     private ExpectedCondition<Boolean> elementIsNotEnabled() {
         return new ExpectedCondition<Boolean>() {
             public Boolean apply(WebDriver driver) {
+                Optional<ElementState> state = currentElementState();
+                if (state.isPresent()) {
+                    return !state.get().isEnabled();
+                }
                 return ((getElement() != null) && (!getElement().isEnabled()));
             }
         };
@@ -703,6 +775,10 @@ public class WebElementFacadeImpl implements WebElementFacade {
 
     @Override
 	public String getValue() {
+        Optional<ElementState> state = visibleElementState();
+        if (state.isPresent()) {
+            return state.get().getValue();
+        }
         waitUntilVisible();
         return getElement().getAttribute("value");
     }
@@ -715,6 +791,10 @@ public class WebElementFacadeImpl implements WebElementFacade {
 
     @Override
 	public String getText() {
+        Optional<ElementState> state = visibleElementState();
+        if (state.isPresent()) {
+            return state.get().getText();
+        }
         waitUntilVisible();
         return getElement().getText();
     }
@@ -751,6 +831,11 @@ public class WebElementFacadeImpl implements WebElementFacade {
 	public String getTextValue() {
         waitUntilPresent();
 
+        Optional<ElementState> state = currentElementState();
+        if (state.isPresent()) {
+            return textValueFrom(state.get());
+        }
+
         if (!isVisible()) {
             return "";
         }
@@ -766,6 +851,16 @@ public class WebElementFacadeImpl implements WebElementFacade {
     }
 
 
+    private String textValueFrom(final ElementState state) {
+        if (!state.isDisplayed()) {
+            return "";
+        }
+        if (hasValueAttribute(state.getTagName()) && StringUtils.isNotEmpty(state.getValue())) {
+            return state.getValue();
+        }
+        return StringUtils.defaultString(state.getText());
+    }
+
     private boolean valueAttributeSupportedAndDefinedIn(final WebElement webElement) {
         return hasValueAttribute(webElement) && StringUtils.isNotEmpty(getValue());
     }
@@ -812,9 +907,8 @@ public class WebElementFacadeImpl implements WebElementFacade {
     }
 
     private void enableHighlightingIfRequired() {
-        JQueryEnabledPage jQueryEnabledPage = JQueryEnabledPage.withDriver(driver);
-        if (jQueryEnabledPage.isJQueryEnabled()) {
-            jQueryEnabledPage.injectJQueryPlugins();
+        if (getEnvironmentVariables().getPropertyAsBoolean(ThucydidesSystemProperty.ACTIVTE_HIGHLIGHTING.getPropertyName(), false)) {
+            JQueryEnabledPage.withDriver(driver).injectScriptsIfRequired();
         }
     }
     private void notifyScreenChange() {
@@ -862,10 +956,18 @@ public class WebElementFacadeImpl implements WebElementFacade {
 	}
 
 	public Point getLocation() {
+		Optional<ElementState> state = currentElementState();
+		if (state.isPresent()) {
+			return state.get().getLocation();
+		}
 		return getElement().getLocation();
 	}
 
 	public Dimension getSize() {
+		Optional<ElementState> state = currentElementState();
+		if (state.isPresent()) {
+			return state.get().getSize();
+		}
 		return getElement().getSize();
 	}
 
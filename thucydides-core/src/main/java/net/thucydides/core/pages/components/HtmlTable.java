@@ -1,9 +1,13 @@
 package net.thucydides.core.pages.components;
 
 import ch.lambdaj.function.convert.Converter;
+import com.google.common.base.Optional;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.Lists;
+import net.thucydides.core.ThucydidesSystemProperty;
+import net.thucydides.core.guice.Injectors;
 import net.thucydides.core.matchers.BeanMatcher;
+import net.thucydides.core.util.EnvironmentVariables;
 import org.apache.commons.lang3.StringUtils;
 import org.openqa.selenium.By;
 import org.openqa.selenium.WebElement;
@@ -19,27 +23,57 @@ import static ch.lambdaj.Lambda.convert;
 
 /**
  * Class designed to make it easier reading from and reasoning about data in HTML tables.
+ * In fast mode (see inFastMode() or the thucydides.fast.tables property), the headings and cell values are read
+ * with a single JavaScript call and the rows are matched locally. Row elements are only looked up when they are
+ * actually returned. Cell values are read from the innerText of each cell in this mode, which can differ slightly
+ * from getText() for cells with complex contents. If the driver cannot run JavaScript, the table is read
+ * one cell at a time as usual.
  */
 public class HtmlTable {
     private final WebElement tableElement;
     private List<String> headings;
+    private final boolean fastMode;
 
     public HtmlTable(final WebElement tableElement) {
-        this.tableElement = tableElement;
-        this.headings = null;
+        this(tableElement, null);
     }
 
     public HtmlTable(final WebElement tableElement, List<String> headings) {
+        this(tableElement, headings, fastTablesConfiguredIn(Injectors.getInjector().getInstance(EnvironmentVariables.class)));
+    }
+
+    private HtmlTable(final WebElement tableElement, List<String> headings, boolean fastMode) {
         this.tableElement = tableElement;
         this.headings = headings;
+        this.fastMode = fastMode;
+    }
+
+    private static boolean fastTablesConfiguredIn(EnvironmentVariables environmentVariables) {
+        return environmentVariables.getPropertyAsBoolean(ThucydidesSystemProperty.THUCYDIDES_FAST_TABLES, false);
     }
 
     public static HtmlTable inTable(final WebElement table) {
         return new HtmlTable(table);
     }
 
+    /**
+     * Read this table with a single JavaScript call rather than one WebDriver call per cell.
+     */
+    public HtmlTable inFastMode() {
+        return new HtmlTable(tableElement, headings, true);
+    }
+
+    public boolean isInFastMode() {
+        return fastMode;
+    }
+
     public List<Map<Object, String>> getRows() {
 
+        Optional<HtmlTableContents> contents = fastContents();
+        if (contents.isPresent()) {
+            return getRowsFrom(contents.get());
+        }
+
         List<Map<Object, String>> results = new ArrayList<Map<Object, String>>();
 
         List<String> headings = getHeadings();
@@ -48,12 +82,22 @@ public class HtmlTable {
         for (WebElement row : rows) {
             List<WebElement> cells = cellsIn(row);
             if (enoughCellsFor(headings).in(cells)) {
-                results.add(rowDataFrom(cells, headings));
+                results.add(rowDataFrom(convert(cells, toTextValues()), headings));
             }
         }
         return results;
     }
 
+    private List<Map<Object, String>> getRowsFrom(HtmlTableContents contents) {
+        List<Map<Object, String>> results = new ArrayList<Map<Object, String>>();
+
+        List<String> headings = getHeadingsFrom(contents);
+        for (Integer rowIndex : getRowIndexesFor(headings, contents)) {
+            results.add(rowDataFrom(contents.getRows().get(rowIndex), headings));
+        }
+        return results;
+    }
+
     public WebElement findFirstRowWhere(final BeanMatcher... matchers) {
         List<WebElement> rows = getRowElementsWhere(matchers);
         if (rows.isEmpty()) {
@@ -63,24 +107,29 @@ public class HtmlTable {
     }
 
     public boolean containsRowElementsWhere(BeanMatcher... matchers) {
-        List<WebElement> rows = getRowElementsWhere(matchers);
-        return (!rows.isEmpty());
+        return hasRowsWhere(matchers);
     }
 
     public void shouldHaveRowElementsWhere(BeanMatcher... matchers) {
-        List<WebElement> rows = getRowElementsWhere(matchers);
-        if (rows.isEmpty()) {
+        if (!hasRowsWhere(matchers)) {
             throw new AssertionError("Expecting a table with at least one row where: " + Arrays.deepToString(matchers));
         }
     }
 
     public void shouldNotHaveRowElementsWhere(BeanMatcher... matchers) {
-        List<WebElement> rows = getRowElementsWhere(matchers);
-        if (!rows.isEmpty()) {
+        if (hasRowsWhere(matchers)) {
             throw new AssertionError("Expecting a table with no rows where: " + Arrays.deepToString(matchers));
         }
     }
 
+    private boolean hasRowsWhere(BeanMatcher... matchers) {
+        Optional<HtmlTableContents> contents = fastContents();
+        if (contents.isPresent()) {
+            return !getMatchingRowIndexesFrom(contents.get(), matchers).isEmpty();
+        }
+        return !getRowElementsWhere(matchers).isEmpty();
+    }
+
     public static HtmlTableBuilder withColumns(String... headings) {
         return new HtmlTableBuilder(Arrays.asList(headings));
     }
@@ -99,6 +148,10 @@ public class HtmlTable {
         public HtmlTable inTable(WebElement table) {
             return new HtmlTable(table, headings);
         }
+
+        public HtmlTable inTableInFastMode(WebElement table) {
+            return new HtmlTable(table, headings, true);
+        }
     }
 
     private class EnoughCellsCheck {
@@ -119,6 +172,10 @@ public class HtmlTable {
 
     public List<String> getHeadings() {
         if (headings == null) {
+            Optional<HtmlTableContents> contents = fastContents();
+            if (contents.isPresent()) {
+                return getHeadingsFrom(contents.get());
+            }
             List<String> thHeadings = convert(headingElements(), toTextValues());
             if (thHeadings.isEmpty()) {
                 headings = convert(firstRowElements(), toTextValues());
@@ -129,6 +186,24 @@ public class HtmlTable {
         return headings;
     }
 
+    private List<String> getHeadingsFrom(HtmlTableContents contents) {
+        if (headings == null) {
+            if (contents.getHeadingCells().isEmpty()) {
+                headings = contents.getFirstRowCells();
+            } else {
+                headings = contents.getHeadingCells();
+            }
+        }
+        return headings;
+    }
+
+    private Optional<HtmlTableContents> fastContents() {
+        if (fastMode) {
+            return HtmlTableContents.readFrom(tableElement);
+        }
+        return Optional.absent();
+    }
+
     public List<WebElement> headingElements() {
         return tableElement.findElements(By.xpath(".//th"));
     }
@@ -146,9 +221,54 @@ public class HtmlTable {
 
     public List<WebElement> getRowElements() {
 
+        Optional<HtmlTableContents> contents = fastContents();
+        if (contents.isPresent()) {
+            return rowElementsAt(getRowIndexesFor(getHeadingsFrom(contents.get()), contents.get()));
+        }
         return getRowElementsFor(getHeadings());
     }
 
+    /**
+     * The indexes of the data rows, among all of the tr elements in the table, using the same rules as
+     * getRowElementsFor(): rows with too few cells, and a first row that just repeats the headings, are left out.
+     */
+    private List<Integer> getRowIndexesFor(List<String> headings, HtmlTableContents contents) {
+        List<Integer> rowIndexes = new ArrayList<Integer>();
+        List<List<String>> rows = contents.getRows();
+        for (int rowIndex = 0; rowIndex < rows.size(); rowIndex++) {
+            List<String> cells = rows.get(rowIndex);
+            if (!cells.isEmpty() && (cells.size() >= headings.size())) {
+                rowIndexes.add(rowIndex);
+            }
+        }
+        if (!rowIndexes.isEmpty() && rows.get(rowIndexes.get(0)).subList(0, headings.size()).equals(headings)) {
+            rowIndexes.remove(0);
+        }
+        return rowIndexes;
+    }
+
+    private List<Integer> getMatchingRowIndexesFrom(HtmlTableContents contents, BeanMatcher[] matchers) {
+        List<Integer> matchingRowIndexes = new ArrayList<Integer>();
+        List<String> headings = getHeadingsFrom(contents);
+        for (Integer rowIndex : getRowIndexesFor(headings, contents)) {
+            if (matches(rowDataFrom(contents.getRows().get(rowIndex), headings), matchers)) {
+                matchingRowIndexes.add(rowIndex);
+            }
+        }
+        return matchingRowIndexes;
+    }
+
+    private List<WebElement> rowElementsAt(List<Integer> rowIndexes) {
+        List<WebElement> rowElements = new ArrayList<WebElement>();
+        if (!rowIndexes.isEmpty()) {
+            List<WebElement> allRows = tableElement.findElements(By.xpath(".//tr"));
+            for (Integer rowIndex : rowIndexes) {
+                rowElements.add(allRows.get(rowIndex));
+            }
+        }
+        return rowElements;
+    }
+
     private List<WebElement> stripHeaderRowIfPresent(List<WebElement> rowCandidates, List<String> headings) {
         if (!rowCandidates.isEmpty()) {
             WebElement firstRow = rowCandidates.get(0);
@@ -171,6 +291,11 @@ public class HtmlTable {
 
     public List<WebElement> getRowElementsWhere(BeanMatcher... matchers) {
 
+        Optional<HtmlTableContents> contents = fastContents();
+        if (contents.isPresent()) {
+            return rowElementsAt(getMatchingRowIndexesFrom(contents.get(), matchers));
+        }
+
         List<WebElement> rowElements = getRowElementsFor(getHeadings());
         List<Integer> matchingRowIndexes = findMatchingIndexesFor(rowElements, matchers);
 
@@ -189,7 +314,7 @@ public class HtmlTable {
         int index = 0;
         for(WebElement row : rowElements) {
             List<WebElement> cells = cellsIn(row);
-            Map<Object, String> rowData = rowDataFrom(cells, headings);
+            Map<Object, String> rowData = rowDataFrom(convert(cells, toTextValues()), headings);
             if (matches(rowData, matchers)) {
                 indexes.add(index);
             }
@@ -209,7 +334,7 @@ public class HtmlTable {
     }
 
 
-    private Map<Object,String> rowDataFrom(List<WebElement> cells, List<String> headings) {
+    private Map<Object,String> rowDataFrom(List<String> cells, List<String> headings) {
         Map<Object,String> rowData = new HashMap<Object, String>();
 
         int column = 0;
@@ -227,8 +352,8 @@ public class HtmlTable {
         return row.findElements(By.xpath("./td"));
     }
 
-    private String cellValueAt(final int column, final List<WebElement> cells) {
-        return cells.get(column).getText();
+    private String cellValueAt(final int column, final List<String> cells) {
+        return cells.get(column);
     }
 
     private Converter<WebElement, String> toTextValues() {
@@ -248,7 +373,7 @@ public class HtmlTable {
     }
 
     public List<WebElement> filterRows(final BeanMatcher... matchers) {
-        return new HtmlTable(tableElement).getRowElementsWhere(matchers);
+        return new HtmlTable(tableElement, null, fastMode).getRowElementsWhere(matchers);
     }
 
 }
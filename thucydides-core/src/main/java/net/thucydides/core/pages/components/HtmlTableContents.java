@@ -0,0 +1,135 @@
+package net.thucydides.core.pages.components;
+
+import com.google.common.base.Optional;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Lists;
+import org.openqa.selenium.JavascriptExecutor;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.WebDriverException;
+import org.openqa.selenium.WebElement;
+import org.openqa.selenium.internal.WrapsDriver;
+import org.openqa.selenium.internal.WrapsElement;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.List;
+
+/**
+ * The text of an HTML table, read with a single JavaScript call rather than one WebDriver call per cell.
+ * Rows are listed in the same order as the tr elements in the table (including nested tables), so that a row can
+ * be matched back to its WebElement later on if needed.
+ */
+class HtmlTableContents {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(HtmlTableContents.class);
+
+    private static final String READ_TABLE_SCRIPT =
+            "var table = arguments[0];"
+            + "function textOf(element) {"
+            + "  var text = (element.innerText !== undefined) ? element.innerText : element.textContent;"
+            + "  return (text || '').replace(/[ \\t\\u00a0]+/g, ' ').replace(/\\s*\\n\\s*/g, '\\n').replace(/^\\s+|\\s+$/g, '');"
+            + "}"
+            + "function textsOf(elements) {"
+            + "  var texts = [];"
+            + "  for (var i = 0; i < elements.length; i++) { texts.push(textOf(elements[i])); }"
+            + "  return texts;"
+            + "}"
+            + "function cellsOf(row) {"
+            + "  var cells = [];"
+            + "  for (var i = 0; i < row.childNodes.length; i++) {"
+            + "    var child = row.childNodes[i];"
+            + "    if (child.nodeType == 1 && child.tagName.toLowerCase() == 'td') { cells.push(textOf(child)); }"
+            + "  }"
+            + "  return cells;"
+            + "}"
+            + "var rowElements = table.getElementsByTagName('tr');"
+            + "var rows = [];"
+            + "for (var i = 0; i < rowElements.length; i++) { rows.push(cellsOf(rowElements[i])); }"
+            + "var firstRowCells = (rowElements.length > 0) ? textsOf(rowElements[0].getElementsByTagName('td')) : [];"
+            + "return [textsOf(table.getElementsByTagName('th')), firstRowCells, rows];";
+
+    private final List<String> headingCells;
+    private final List<String> firstRowCells;
+    private final List<List<String>> rows;
+
+    private HtmlTableContents(final List<String> headingCells,
+                              final List<String> firstRowCells,
+                              final List<List<String>> rows) {
+        this.headingCells = headingCells;
+        this.firstRowCells = firstRowCells;
+        this.rows = rows;
+    }
+
+    /**
+     * Read the table contents, if the table comes from a browser that can run JavaScript.
+     */
+    static Optional<HtmlTableContents> readFrom(final WebElement tableElement) {
+        WebElement table = unwrapped(tableElement);
+        if (!(table instanceof WrapsDriver)) {
+            return Optional.absent();
+        }
+        WebDriver driver = ((WrapsDriver) table).getWrappedDriver();
+        if (!(driver instanceof JavascriptExecutor)) {
+            return Optional.absent();
+        }
+        try {
+            Object contents = ((JavascriptExecutor) driver).executeScript(READ_TABLE_SCRIPT, table);
+            return Optional.of(contentsFrom((List<?>) contents));
+        } catch (WebDriverException e) {
+            LOGGER.debug("Could not read table using JavaScript", e);
+            return Optional.absent();
+        } catch (ClassCastException e) {
+            LOGGER.debug("Unexpected table contents returned by JavaScript", e);
+            return Optional.absent();
+        }
+    }
+
+    private static WebElement unwrapped(final WebElement element) {
+        WebElement unwrappedElement = element;
+        while (unwrappedElement instanceof WrapsElement) {
+            WebElement wrappedElement = ((WrapsElement) unwrappedElement).getWrappedElement();
+            if ((wrappedElement == null) || (wrappedElement == unwrappedElement)) {
+                break;
+            }
+            unwrappedElement = wrappedElement;
+        }
+        return unwrappedElement;
+    }
+
+    private static HtmlTableContents contentsFrom(final List<?> contents) {
+        List<List<String>> rows = Lists.newArrayList();
+        for (Object row : (List<?>) contents.get(2)) {
+            rows.add(textsFrom(row));
+        }
+        return new HtmlTableContents(textsFrom(contents.get(0)), textsFrom(contents.get(1)), rows);
+    }
+
+    private static List<String> textsFrom(final Object values) {
+        List<String> texts = Lists.newArrayList();
+        for (Object value : (List<?>) values) {
+            texts.add(String.valueOf(value));
+        }
+        return ImmutableList.copyOf(texts);
+    }
+
+    /**
+     * The text of the th cells in the table.
+     */
+    List<String> getHeadingCells() {
+        return headingCells;
+    }
+
+    /**
+     * The text of the td cells in the first row of the table.
+     */
+    List<String> getFirstRowCells() {
+        return firstRowCells;
+    }
+
+    /**
+     * The text of the td cells directly inside each row of the table.
+     */
+    List<List<String>> getRows() {
+        return rows;
+    }
+}
@@ -0,0 +1,163 @@
+package net.thucydides.core.pages.jquery;
+
+import com.google.common.base.Charsets;
+import com.google.common.base.Optional;
+import com.google.common.base.Splitter;
+import com.google.common.io.Resources;
+
+import java.net.URL;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Keeps the scripts that are injected into web pages in memory, so that the classpath resources are only read once.
+ * Before injecting anything, a small script checks which of the scripts (the JavaScript utilities, jQuery and the
+ * highlighting plugin) the current page already has, and only the missing ones are sent, in a single payload.
+ * Checking what is actually there, rather than relying on a marker, means that a page replacing jQuery or JSON
+ * still gets the scripts it needs.
+ */
+final class InjectedScripts {
+
+    static final String JQUERY = "jquery/jquery.min.js";
+    static final String JQUERY_FOCUS_FIX = "jquery/jquery.focus.test-fix.js";
+    static final String HIGHLIGHTING_PLUGIN = "jquery/jquery-thucydides-plugin.js";
+    static final String JAVASCRIPT_UTILS = "javascript/cycle.js";
+
+    /**
+     * Returns an array telling whether the JavaScript utilities, jQuery and the highlighting plugin are available
+     * in the current page.
+     */
+    static final String AVAILABLE_SCRIPTS_CHECK
+            = "return [(typeof JSON === 'object') && (typeof JSON.decycle === 'function'),"
+            + " (typeof jQuery === 'function'),"
+            + " (typeof jQuery === 'function') && (typeof jQuery.thucydidesHighlighter === 'object')];";
+
+    private static final int JAVASCRIPT_UTILS_AVAILABLE = 0;
+    private static final int JQUERY_AVAILABLE = 1;
+    private static final int HIGHLIGHTING_AVAILABLE = 2;
+
+    private static final ConcurrentMap<String, String> SCRIPT_SOURCES = new ConcurrentHashMap<String, String>();
+    private static final ConcurrentMap<String, String> PAYLOADS = new ConcurrentHashMap<String, String>();
+
+    private InjectedScripts() {}
+
+    /**
+     * The contents of a script on the classpath, read the first time it is needed.
+     */
+    static String sourceOf(final String resourcePath) {
+        String source = SCRIPT_SOURCES.get(resourcePath);
+        if (source == null) {
+            source = readResource(resourcePath);
+            SCRIPT_SOURCES.putIfAbsent(resourcePath, source);
+        }
+        return source;
+    }
+
+    private static String readResource(final String resourcePath) {
+        try {
+            URL fileUrl = InjectedScripts.class.getClassLoader().getResource(resourcePath);
+            return Resources.toString(fileUrl, Charsets.UTF_8);
+        } catch (Exception e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    /**
+     * The script needed to add what is missing from a page, given the result of the AVAILABLE_SCRIPTS_CHECK
+     * script. Nothing is returned if the page already has everything that was asked for.
+     * The highlighting plugin is only added if jQuery is, or will be, available.
+     */
+    static Optional<String> missingScriptsFor(final Object availableScripts,
+                                              final boolean includeJQuery,
+                                              final boolean includeHighlighting) {
+        boolean jqueryAvailable = isAvailable(availableScripts, JQUERY_AVAILABLE);
+        boolean addUtils = !isAvailable(availableScripts, JAVASCRIPT_UTILS_AVAILABLE);
+        boolean addJQuery = includeJQuery && !jqueryAvailable;
+        boolean addHighlighting = includeHighlighting && !isAvailable(availableScripts, HIGHLIGHTING_AVAILABLE)
+                                  && (jqueryAvailable || addJQuery);
+        if (!addUtils && !addJQuery && !addHighlighting) {
+            return Optional.absent();
+        }
+        return Optional.of(injectionScriptFor(addUtils, addJQuery, addHighlighting));
+    }
+
+    private static boolean isAvailable(final Object availableScripts, final int script) {
+        if (!(availableScripts instanceof List) || (((List<?>) availableScripts).size() <= script)) {
+            return false;
+        }
+        return Boolean.TRUE.equals(((List<?>) availableScripts).get(script));
+    }
+
+    /**
+     * A single script that injects the given scripts. jQuery is still only added if the page does not have it,
+     * and the highlighting plugin only if jQuery is available.
+     */
+    static String injectionScriptFor(final boolean includeUtils,
+                                     final boolean includeJQuery,
+                                     final boolean includeHighlighting) {
+        String key = includeUtils + ":" + includeJQuery + ":" + includeHighlighting;
+        String payload = PAYLOADS.get(key);
+        if (payload == null) {
+            payload = buildInjectionScript(includeUtils, includeJQuery, includeHighlighting);
+            PAYLOADS.putIfAbsent(key, payload);
+        }
+        return payload;
+    }
+
+    private static String buildInjectionScript(final boolean includeUtils,
+                                               final boolean includeJQuery,
+                                               final boolean includeHighlighting) {
+        StringBuilder script = new StringBuilder();
+        if (includeJQuery) {
+            script.append("if (typeof jQuery !== 'function') {\n")
+                  .append(minified(sourceOf(JQUERY))).append(";\n")
+                  .append(minified(sourceOf(JQUERY_FOCUS_FIX))).append(";\n")
+                  .append("}\n");
+        }
+        if (includeHighlighting) {
+            script.append("if (typeof jQuery === 'function') {\n")
+                  .append(minified(sourceOf(HIGHLIGHTING_PLUGIN))).append(";\n")
+                  .append("}\n");
+        }
+        if (includeUtils) {
+            script.append(minified(sourceOf(JAVASCRIPT_UTILS))).append(";\n");
+        }
+        return script.toString();
+    }
+
+    /**
+     * A conservative, line-based minification: indentation, blank lines, line comments and comment blocks that
+     * start at the beginning of a line are removed. Line breaks are kept, so automatic semicolon insertion still
+     * works as in the original script.
+     */
+    static String minified(final String script) {
+        StringBuilder minifiedScript = new StringBuilder();
+        boolean inCommentBlock = false;
+        for (String line : Splitter.on('\n').split(script)) {
+            String code = line.trim();
+            if (inCommentBlock) {
+                int endOfComment = code.indexOf("*/");
+                if (endOfComment < 0) {
+                    continue;
+                }
+                inCommentBlock = false;
+                code = code.substring(endOfComment + 2).trim();
+            }
+            while (code.startsWith("/*")) {
+                int endOfComment = code.indexOf("*/", 2);
+                if (endOfComment < 0) {
+                    inCommentBlock = true;
+                    code = "";
+                } else {
+                    code = code.substring(endOfComment + 2).trim();
+                }
+            }
+            if (code.isEmpty() || code.startsWith("//")) {
+                continue;
+            }
+            minifiedScript.append(code).append('\n');
+        }
+        return minifiedScript.toString();
+    }
+}
@@ -1,15 +1,12 @@
 package net.thucydides.core.pages.jquery;
 
-import com.google.common.base.Charsets;
-import com.google.common.io.Resources;
+import com.google.common.base.Optional;
 import net.thucydides.core.ThucydidesSystemProperty;
 import net.thucydides.core.guice.Injectors;
 import net.thucydides.core.util.EnvironmentVariables;
 import net.thucydides.core.webdriver.javascript.JavascriptExecutorFacade;
 import org.openqa.selenium.WebDriver;
 
-import java.net.URL;
-
 import static net.thucydides.core.webdriver.javascript.JavascriptSupport.javascriptIsSupportedIn;
 
 public class JQueryEnabledPage {
@@ -32,11 +29,7 @@ public class JQueryEnabledPage {
     }
 
     public boolean isJQueryEnabled() {
-        boolean jqueryIntegrationEnabled =
-                    Boolean.valueOf(ThucydidesSystemProperty.JQUERY_INTEGRATION
-                                                            .from(environmentVariables,"true"));
-
-        if (jqueryIntegrationEnabled && javascriptIsSupportedIn(driver)) {
+        if (jqueryIntegrationEnabled() && javascriptIsSupportedIn(driver)) {
             JavascriptExecutorFacade js = new JavascriptExecutorFacade(driver);
             Boolean result = (Boolean) js.executeScript("return (typeof jQuery === 'function')");
             return ((result != null) && (result));
@@ -45,37 +38,59 @@ public class JQueryEnabledPage {
     }
 
 
-    public void injectJQuery() {
-        executeScriptFrom("jquery/jquery.min.js");
-        executeScriptFrom("jquery/jquery.focus.test-fix.js");
+    private boolean jqueryIntegrationEnabled() {
+        return Boolean.valueOf(ThucydidesSystemProperty.JQUERY_INTEGRATION.from(environmentVariables, "true"));
     }
 
-    protected void executeScriptFrom(String scriptSource) {
+    private boolean highlightingEnabled() {
+        return environmentVariables.getPropertyAsBoolean(ThucydidesSystemProperty.ACTIVTE_HIGHLIGHTING.getPropertyName(), false);
+    }
+
+    /**
+     * Inject jQuery (if jQuery integration is enabled and the page does not already have it), the configured
+     * jQuery plugins and the JavaScript utilities into the current page, if they are not already there.
+     * This costs one small script call to check what the page already has, and one more to send whatever is missing.
+     */
+    public void injectScriptsIfRequired() {
+        injectMissingScripts(jqueryIntegrationEnabled(), highlightingEnabled());
+    }
+
+    private void injectMissingScripts(final boolean includeJQuery, final boolean includeHighlighting) {
         if (javascriptIsSupportedIn(driver)) {
-            String script = getFileAsString(scriptSource);
-            JavascriptExecutorFacade js = new JavascriptExecutorFacade(driver);
-            js.executeScript(script);
+            Object availableScripts = executeScript(InjectedScripts.AVAILABLE_SCRIPTS_CHECK);
+            Optional<String> missingScripts
+                    = InjectedScripts.missingScriptsFor(availableScripts, includeJQuery, includeHighlighting);
+            if (missingScripts.isPresent()) {
+                executeScript(missingScripts.get());
+            }
         }
     }
 
-    private String getFileAsString(final String resourcePath) {
-        String content = "";
-        try {
-            URL fileUrl = getClass().getClassLoader().getResource(resourcePath);
-            content = Resources.toString(fileUrl, Charsets.UTF_8);
-        } catch (Exception e) {
-            throw new RuntimeException(e);
+    protected Object executeScript(String script) {
+        return new JavascriptExecutorFacade(driver).executeScript(script);
+    }
+
+    public void injectJQuery() {
+        executeScriptFrom(InjectedScripts.JQUERY);
+        executeScriptFrom(InjectedScripts.JQUERY_FOCUS_FIX);
+    }
+
+    protected void executeScriptFrom(String scriptSource) {
+        if (javascriptIsSupportedIn(driver)) {
+            executeScript(InjectedScripts.sourceOf(scriptSource));
         }
-        return content;
     }
 
     public void injectJQueryPlugins() {
-        if (environmentVariables.getPropertyAsBoolean(ThucydidesSystemProperty.ACTIVTE_HIGHLIGHTING.getPropertyName(), false)) {
-            executeScriptFrom("jquery/jquery-thucydides-plugin.js");
+        if (highlightingEnabled()) {
+            executeScriptFrom(InjectedScripts.HIGHLIGHTING_PLUGIN);
         }
     }
-    
+
+    /**
+     * Inject the JavaScript utilities (but not jQuery) into the current page, if they are not already there.
+     */
     public void injectJavaScriptUtils(){
-    	executeScriptFrom("javascript/cycle.js");
+    	injectMissingScripts(false, false);
     }
 }
@@ -1,6 +1,11 @@
 package net.thucydides.core.reports;
 
+import net.thucydides.core.ThucydidesSystemProperty;
+import net.thucydides.core.guice.Injectors;
 import net.thucydides.core.model.TestOutcome;
+import net.thucydides.core.reports.binary.ArchivingTestOutcomeReporter;
+import net.thucydides.core.reports.binary.BinaryTestOutcomeReporter;
+import net.thucydides.core.util.EnvironmentVariables;
 import net.thucydides.core.webdriver.Configuration;
 import sun.misc.Service;
 
@@ -98,6 +103,13 @@ public class ReportService {
         while (reporterImplementations.hasNext()) {
             reporters.add((AcceptanceTestReporter)reporterImplementations.next());
         }
+        EnvironmentVariables environmentVariables = Injectors.getInjector().getInstance(EnvironmentVariables.class);
+        if (environmentVariables.getPropertyAsBoolean(ThucydidesSystemProperty.THUCYDIDES_BINARY_REPORTS, false)) {
+            reporters.add(new BinaryTestOutcomeReporter());
+        }
+        if (environmentVariables.getPropertyAsBoolean(ThucydidesSystemProperty.THUCYDIDES_OUTCOME_ARCHIVE, false)) {
+            reporters.add(new ArchivingTestOutcomeReporter());
+        }
         return reporters;
     }
 
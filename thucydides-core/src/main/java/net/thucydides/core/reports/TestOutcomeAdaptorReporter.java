@@ -1,24 +1,65 @@
 package net.thucydides.core.reports;
 
+import com.google.common.base.Optional;
+import com.google.common.base.Throwables;
+import com.google.common.collect.ImmutableList;
 import com.google.common.collect.Lists;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import net.thucydides.core.ThucydidesSystemProperty;
+import net.thucydides.core.guice.Injectors;
 import net.thucydides.core.model.TestOutcome;
+import net.thucydides.core.reports.adaptors.StreamingTestOutcomeAdaptor;
 import net.thucydides.core.reports.adaptors.TestOutcomeAdaptor;
+import net.thucydides.core.reports.adaptors.TestOutcomeListener;
 import net.thucydides.core.reports.html.HtmlAcceptanceTestReporter;
 import net.thucydides.core.reports.xml.XMLTestOutcomeReporter;
+import net.thucydides.core.util.EnvironmentVariables;
 
 import java.io.File;
 import java.io.IOException;
 import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
+/**
+ * Generates the XML and HTML reports for test outcomes imported from an external source by test outcome adaptors.
+ * Adaptors that can stream their test outcomes (see StreamingTestOutcomeAdaptor) are run as a pipeline:
+ * the source files are read by a pool of parsing threads (thucydides.loader.threads) while the reports for the test
+ * outcomes already read are written by a pool of writing threads (thucydides.report.threads). Both default to one
+ * thread per available processor. The parsing threads wait when the writing threads fall behind, so only a limited
+ * number of test outcomes are ever held in memory.
+ * Other adaptors load all of their test outcomes first, and the reports are then written one after the other.
+ */
 public class TestOutcomeAdaptorReporter extends ThucydidesReporter {
 
+    private static final int QUEUED_OUTCOMES_PER_WRITER = 4;
+
+    private final EnvironmentVariables environmentVariables;
+
     private List<TestOutcomeAdaptor> adaptors = Lists.newArrayList();
 
+    public TestOutcomeAdaptorReporter() {
+        this(Injectors.getInjector().getInstance(EnvironmentVariables.class));
+    }
+
+    public TestOutcomeAdaptorReporter(final EnvironmentVariables environmentVariables) {
+        this.environmentVariables = environmentVariables;
+    }
+
     public void generateReportsFrom(File sourceDirectory) throws IOException {
         setupOutputDirectoryIfRequired();
         for(TestOutcomeAdaptor adaptor : adaptors) {
-            List<TestOutcome> outcomes = adaptor.loadOutcomesFrom(sourceDirectory);
-            generateReportsFor(outcomes);
+            if (adaptor instanceof StreamingTestOutcomeAdaptor) {
+                generateReportsInPipelineFrom((StreamingTestOutcomeAdaptor) adaptor, sourceDirectory);
+            } else {
+                List<TestOutcome> outcomes = adaptor.loadOutcomesFrom(sourceDirectory);
+                generateReportsFor(outcomes);
+            }
         }
     }
 
@@ -40,13 +81,140 @@ public class TestOutcomeAdaptorReporter extends ThucydidesReporter {
         }
     }
 
-    private AcceptanceTestReporter getXMLReporter() {
+    /**
+     * The test outcomes are never all in memory at once, so each report is written with only its own test
+     * outcome as the set of all test outcomes (used for the tag type menus of the HTML reports).
+     */
+    private void generateReportsInPipelineFrom(final StreamingTestOutcomeAdaptor adaptor,
+                                               final File source) throws IOException {
+        List<File> sourceFiles = adaptor.sourceFilesIn(source);
+        int parserCount = Math.max(1, Math.min(threadCount(ThucydidesSystemProperty.THUCYDIDES_LOADER_THREADS),
+                                               sourceFiles.size()));
+        int writerCount = Math.max(1, threadCount(ThucydidesSystemProperty.THUCYDIDES_REPORT_THREADS));
+
+        BlockingQueue<Optional<TestOutcome>> outcomesToWrite
+                = new ArrayBlockingQueue<Optional<TestOutcome>>(writerCount * QUEUED_OUTCOMES_PER_WRITER);
+
+        ExecutorService parsers = newThreadPool(parserCount, "thucydides-adaptor-parser-%d");
+        ExecutorService writers = newThreadPool(writerCount, "thucydides-adaptor-writer-%d");
+        try {
+            List<Future<Void>> writing = Lists.newArrayList();
+            for (int i = 0; i < writerCount; i++) {
+                writing.add(writers.submit(writeReportsFrom(outcomesToWrite)));
+            }
+            List<Future<Void>> parsing = Lists.newArrayList();
+            for (File sourceFile : sourceFiles) {
+                parsing.add(parsers.submit(readOutcomes(adaptor, sourceFile, outcomesToWrite)));
+            }
+            try {
+                waitFor(parsing);
+            } finally {
+                for (int i = 0; i < writerCount; i++) {
+                    outcomesToWrite.put(Optional.<TestOutcome>absent());
+                }
+            }
+            waitFor(writing);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while importing test outcomes", e);
+        } finally {
+            parsers.shutdownNow();
+            writers.shutdownNow();
+        }
+    }
+
+    private Callable<Void> readOutcomes(final StreamingTestOutcomeAdaptor adaptor,
+                                        final File sourceFile,
+                                        final BlockingQueue<Optional<TestOutcome>> outcomesToWrite) {
+        return new Callable<Void>() {
+            @Override
+            public Void call() throws Exception {
+                adaptor.readOutcomesFrom(sourceFile, new TestOutcomeListener() {
+                    @Override
+                    public void testOutcomeLoaded(TestOutcome testOutcome) {
+                        try {
+                            outcomesToWrite.put(Optional.of(testOutcome));
+                        } catch (InterruptedException e) {
+                            Thread.currentThread().interrupt();
+                            throw new ReportGenerationFailedError("Interrupted while importing test outcomes", e);
+                        }
+                    }
+                });
+                return null;
+            }
+        };
+    }
+
+    /**
+     * A writer keeps taking test outcomes off the queue until it finds the end marker. If a report cannot be
+     * written, for whatever reason (including errors), the writer carries on emptying the queue so that the parsing
+     * threads are not left waiting, and reports the first failure at the end.
+     */
+    private Callable<Void> writeReportsFrom(final BlockingQueue<Optional<TestOutcome>> outcomesToWrite) {
+        return new Callable<Void>() {
+            @Override
+            public Void call() throws Exception {
+                AcceptanceTestReporter xmlTestOutcomeReporter = null;
+                AcceptanceTestReporter htmlAcceptanceTestReporter = null;
+                Throwable firstFailure = null;
+                Optional<TestOutcome> nextOutcome = outcomesToWrite.take();
+                while (nextOutcome.isPresent()) {
+                    if (firstFailure == null) {
+                        try {
+                            if (xmlTestOutcomeReporter == null) {
+                                xmlTestOutcomeReporter = getXMLReporter();
+                                htmlAcceptanceTestReporter = getHTMLReporter();
+                            }
+                            TestOutcome outcome = nextOutcome.get();
+                            TestOutcomes allOutcomes = TestOutcomes.of(ImmutableList.of(outcome));
+                            xmlTestOutcomeReporter.generateReportFor(outcome, allOutcomes);
+                            htmlAcceptanceTestReporter.generateReportFor(outcome, allOutcomes);
+                        } catch (Throwable e) {
+                            firstFailure = e;
+                        }
+                    }
+                    nextOutcome = outcomesToWrite.take();
+                }
+                if (firstFailure != null) {
+                    Throwables.propagateIfPossible(firstFailure, Exception.class);
+                    throw new IOException("Could not write the test outcome reports", firstFailure);
+                }
+                return null;
+            }
+        };
+    }
+
+    private void waitFor(final List<Future<Void>> tasks) throws IOException, InterruptedException {
+        for (Future<Void> task : tasks) {
+            try {
+                task.get();
+            } catch (ExecutionException e) {
+                if (e.getCause() instanceof IOException) {
+                    throw (IOException) e.getCause();
+                } else if (e.getCause() instanceof RuntimeException) {
+                    throw (RuntimeException) e.getCause();
+                }
+                throw new IOException("Could not import test outcomes", e.getCause());
+            }
+        }
+    }
+
+    private int threadCount(final ThucydidesSystemProperty property) {
+        return environmentVariables.getPropertyAsInteger(property, Runtime.getRuntime().availableProcessors());
+    }
+
+    private ExecutorService newThreadPool(final int threadCount, final String nameFormat) {
+        return Executors.newFixedThreadPool(threadCount,
+                                            new ThreadFactoryBuilder().setNameFormat(nameFormat).setDaemon(true).build());
+    }
+
+    protected AcceptanceTestReporter getXMLReporter() {
         XMLTestOutcomeReporter reporter = new XMLTestOutcomeReporter();
         reporter.setOutputDirectory(getOutputDirectory());
         return reporter;
     }
 
-    private AcceptanceTestReporter getHTMLReporter() {
+    protected AcceptanceTestReporter getHTMLReporter() {
         HtmlAcceptanceTestReporter reporter = new HtmlAcceptanceTestReporter();
         reporter.setOutputDirectory(getOutputDirectory());
         return reporter;
@@ -3,21 +3,88 @@ package net.thucydides.core.reports;
 import com.google.common.base.Optional;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import com.google.common.collect.Sets;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import net.thucydides.core.ThucydidesSystemProperty;
+import net.thucydides.core.digest.Digest;
+import net.thucydides.core.guice.Injectors;
 import net.thucydides.core.model.TestOutcome;
+import net.thucydides.core.reports.binary.ArchivedTestOutcomes;
+import net.thucydides.core.reports.binary.BinaryTestOutcomeReporter;
+import net.thucydides.core.reports.binary.TestOutcomeArchive;
 import net.thucydides.core.reports.xml.XMLTestOutcomeReporter;
+import net.thucydides.core.util.EnvironmentVariables;
 
 import java.io.File;
-import java.io.FilenameFilter;
+import java.io.FileFilter;
 import java.io.IOException;
+import java.util.Iterator;
+import java.util.LinkedList;
 import java.util.List;
-import java.util.Locale;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
 
 /**
  * Loads test outcomes from a given directory, and reports on their contents.
  * This class is used for aggregate reporting.
+ * By default, test outcomes are read from the binary reports if present and from the XML reports otherwise,
+ * but other formats (such as JSON) can be read by providing the corresponding TestOutcomeReader.
+ * When the same test outcome is stored in several formats, only the file for the first matching reader is read.
+ * Test outcomes stored in a test outcome archive are read from the archive, unless a report file for the same test
+ * outcome was written after the archive was last updated. The archive is closed once the test outcomes have been read.
+ * A loader can also be asked to keep only a summary of each test outcome (see TestOutcome.summarised()), in which case
+ * each full test outcome is discarded as soon as it has been read.
+ * Files are read in parallel using the number of threads
+ * defined by the thucydides.loader.threads property (by default, one per available processor).
  */
 public class TestOutcomeLoader {
 
+    private static final long IDLE_THREAD_TIMEOUT_IN_SECONDS = 5;
+
+    private final List<TestOutcomeReader> readers;
+    private final int threadCount;
+    private final boolean summarising;
+
+    public TestOutcomeLoader() {
+        this(Injectors.getInjector().getInstance(EnvironmentVariables.class), new BinaryTestOutcomeReporter(), new XMLTestOutcomeReporter());
+    }
+
+    public TestOutcomeLoader(final EnvironmentVariables environmentVariables, final TestOutcomeReader... readers) {
+        this(ImmutableList.copyOf(readers),
+             environmentVariables.getPropertyAsInteger(ThucydidesSystemProperty.THUCYDIDES_LOADER_THREADS,
+                                                       Runtime.getRuntime().availableProcessors()),
+             false);
+    }
+
+    private TestOutcomeLoader(final List<TestOutcomeReader> readers, final int threadCount, final boolean summarising) {
+        this.readers = readers;
+        this.threadCount = threadCount;
+        this.summarising = summarising;
+    }
+
+    /**
+     * A loader that only keeps a summary of each test outcome it reads, for the low-memory aggregate reports.
+     */
+    public TestOutcomeLoader summarisingOutcomes() {
+        return new TestOutcomeLoader(readers, threadCount, true);
+    }
+
+    public static TestOutcomeLoader loadingOutcomesWith(final TestOutcomeReader... readers) {
+        return new TestOutcomeLoader(Injectors.getInjector().getInstance(EnvironmentVariables.class), readers);
+    }
+
     /**
      * Load the test outcomes from a given directory.
      * @param reportDirectory An existing directory that contains the test outcomes in XML format.
@@ -26,26 +93,277 @@ public class TestOutcomeLoader {
      */
     public List<TestOutcome> loadFrom(final File reportDirectory) throws IOException {
 
-        XMLTestOutcomeReporter testOutcomeReporter = new XMLTestOutcomeReporter();
+        List<ReportSource> reports = getAllReportsFrom(reportDirectory);
+        try {
+            if ((threadCount <= 1) || (reports.size() <= 1)) {
+                return loadSeriallyFrom(reports);
+            } else {
+                return loadConcurrentlyFrom(reports);
+            }
+        } finally {
+            closeAll(reports);
+        }
+    }
 
-        List<File> reportFiles = getAllXMLFilesFrom(reportDirectory);
+    /**
+     * Load the test outcomes from a given directory one at a time, as each report file is read.
+     * The files are read in the background, so the test outcomes can be processed while the remaining files are
+     * still being loaded. Test outcomes are not necessarily returned in the order of the report files.
+     * @param reportDirectory An existing directory that contains the test outcomes.
+     * @throws java.io.IOException Thrown if the specified directory was invalid.
+     */
+    public Iterator<TestOutcome> streamFrom(final File reportDirectory) throws IOException {
+        return new StreamingTestOutcomeIterator(getAllReportsFrom(reportDirectory));
+    }
 
-        List<TestOutcome> testOutcomes = Lists.newArrayList();
-        for (File reportFile : reportFiles) {
-            Optional<TestOutcome> testOutcome = testOutcomeReporter.loadReportFrom(reportFile);
-            testOutcomes.addAll(testOutcome.asSet());
+    /**
+     * Load the test outcomes from a given directory, along with a digest of the contents of the report file
+     * each test outcome was read from. This lets the aggregate reports tell which test outcomes have changed
+     * since the reports were last generated.
+     * @param reportDirectory An existing directory that contains the test outcomes.
+     * @return The test outcomes and the digests of their report files, in the same order as loadFrom().
+     * @throws java.io.IOException Thrown if the specified directory was invalid.
+     */
+    public Map<TestOutcome, String> loadWithDigestsFrom(final File reportDirectory) throws IOException {
+        List<ReportSource> reports = getAllReportsFrom(reportDirectory);
+        ExecutorService executorService = newLoaderThreadPool(Math.max(1, Math.min(threadCount, reports.size())));
+        try {
+            List<Future<Optional<DigestedTestOutcome>>> loadedOutcomes
+                    = executorService.invokeAll(digestingLoadTasksFor(reports));
+            Map<TestOutcome, String> testOutcomes = Maps.newLinkedHashMap();
+            for (Future<Optional<DigestedTestOutcome>> loadedOutcome : loadedOutcomes) {
+                for (DigestedTestOutcome digestedOutcome : resultOf(loadedOutcome).asSet()) {
+                    testOutcomes.put(digestedOutcome.testOutcome, digestedOutcome.digest);
+                }
+            }
+            return testOutcomes;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while loading test outcomes", e);
+        } finally {
+            stop(executorService);
+            closeAll(reports);
         }
+    }
 
+    private List<Callable<Optional<DigestedTestOutcome>>> digestingLoadTasksFor(final List<ReportSource> reports) {
+        List<Callable<Optional<DigestedTestOutcome>>> loadTasks = Lists.newArrayList();
+        for (final ReportSource report : reports) {
+            loadTasks.add(new Callable<Optional<DigestedTestOutcome>>() {
+                @Override
+                public Optional<DigestedTestOutcome> call() throws Exception {
+                    Optional<TestOutcome> testOutcome = report.load();
+                    if (testOutcome.isPresent()) {
+                        return Optional.of(new DigestedTestOutcome(testOutcome.get(), report.digest()));
+                    }
+                    return Optional.absent();
+                }
+            });
+        }
+        return loadTasks;
+    }
+
+    private static final class DigestedTestOutcome {
+        private final TestOutcome testOutcome;
+        private final String digest;
+
+        private DigestedTestOutcome(final TestOutcome testOutcome, final String digest) {
+            this.testOutcome = testOutcome;
+            this.digest = digest;
+        }
+    }
+
+    private List<TestOutcome> loadSeriallyFrom(final List<ReportSource> reports) throws IOException {
+        List<TestOutcome> testOutcomes = Lists.newArrayList();
+        for (ReportSource report : reports) {
+            testOutcomes.addAll(report.load().asSet());
+        }
         return ImmutableList.copyOf(testOutcomes);
     }
 
+    private List<TestOutcome> loadConcurrentlyFrom(final List<ReportSource> reports) throws IOException {
+        ExecutorService executorService = newLoaderThreadPool(Math.min(threadCount, reports.size()));
+        try {
+            List<Future<Optional<TestOutcome>>> loadedOutcomes = executorService.invokeAll(loadTasksFor(reports));
+            List<TestOutcome> testOutcomes = Lists.newArrayList();
+            for (Future<Optional<TestOutcome>> loadedOutcome : loadedOutcomes) {
+                testOutcomes.addAll(resultOf(loadedOutcome).asSet());
+            }
+            return ImmutableList.copyOf(testOutcomes);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while loading test outcomes", e);
+        } finally {
+            stop(executorService);
+        }
+    }
+
+    private List<Callable<Optional<TestOutcome>>> loadTasksFor(final List<ReportSource> reports) {
+        List<Callable<Optional<TestOutcome>>> loadTasks = Lists.newArrayList();
+        for (ReportSource report : reports) {
+            loadTasks.add(loadTaskFor(report));
+        }
+        return loadTasks;
+    }
+
+    private Callable<Optional<TestOutcome>> loadTaskFor(final ReportSource report) {
+        return new Callable<Optional<TestOutcome>>() {
+            @Override
+            public Optional<TestOutcome> call() throws Exception {
+                return report.load();
+            }
+        };
+    }
+
+    private <T> T resultOf(final Future<T> loadedOutcome) throws IOException, InterruptedException {
+        try {
+            return loadedOutcome.get();
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof IOException) {
+                throw (IOException) e.getCause();
+            } else if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw new IOException("Could not load test outcome", e.getCause());
+        }
+    }
 
-    private List<File> getAllXMLFilesFrom(final File reportsDirectory) throws IOException{
-        File[] matchingFiles = reportsDirectory.listFiles(new XmlFilenameFilter());
+    private Optional<TestOutcome> loadReportFrom(final File reportFile) throws IOException {
+        for (TestOutcomeReader reader : readers) {
+            if (reader.canRead(reportFile)) {
+                return reader.loadReportFrom(reportFile);
+            }
+        }
+        return Optional.absent();
+    }
+
+    private List<ReportSource> getAllReportsFrom(final File reportsDirectory) throws IOException {
+        List<ReportSource> reports = getAllReportSourcesFrom(reportsDirectory);
+        if (!summarising) {
+            return reports;
+        }
+        List<ReportSource> summarisedReports = Lists.newArrayList();
+        for (ReportSource report : reports) {
+            summarisedReports.add(new SummarisedReport(report));
+        }
+        return summarisedReports;
+    }
+
+    /**
+     * As with the report files themselves, the most recent copy of a test outcome wins: a report file written after
+     * the archive was last updated is read in preference to the archived test outcome.
+     */
+    private List<ReportSource> getAllReportSourcesFrom(final File reportsDirectory) throws IOException {
+        List<File> reportFiles = getAllReportFilesFrom(reportsDirectory);
+        TestOutcomeArchive archive = TestOutcomeArchive.in(reportsDirectory);
+        List<ReportSource> reports = Lists.newArrayList();
+        if (archive.exists()) {
+            long archivedAt = archive.getArchiveFile().lastModified();
+            ArchivedTestOutcomes archivedOutcomes = archive.open();
+            Set<String> newerReportNames = Sets.newHashSet();
+            List<ReportSource> newerReportFiles = Lists.newArrayList();
+            for (File reportFile : reportFiles) {
+                String reportName = withoutSuffix(reportFile.getName());
+                if (!archivedOutcomes.contains(reportName) || (reportFile.lastModified() > archivedAt)) {
+                    newerReportNames.add(reportName);
+                    newerReportFiles.add(new ReportFile(reportFile));
+                }
+            }
+            for (String reportName : archivedOutcomes.getReportNames()) {
+                if (!newerReportNames.contains(reportName)) {
+                    reports.add(new ArchivedReport(archivedOutcomes, reportName));
+                }
+            }
+            if (reports.isEmpty()) {
+                archivedOutcomes.close();
+            }
+            reports.addAll(newerReportFiles);
+        } else {
+            for (File reportFile : reportFiles) {
+                reports.add(new ReportFile(reportFile));
+            }
+        }
+        return reports;
+    }
+
+    private void closeAll(final List<ReportSource> reports) {
+        for (ReportSource report : reports) {
+            report.close();
+        }
+    }
+
+    private List<File> getAllReportFilesFrom(final File reportsDirectory) throws IOException{
+        File[] matchingFiles = reportsDirectory.listFiles(new ReadableReportFilter());
         if (matchingFiles == null) {
             throw new IOException("Could not find directory " + reportsDirectory);
         }
-        return ImmutableList.copyOf(matchingFiles);
+        if (readers.size() == 1) {
+            return ImmutableList.copyOf(matchingFiles);
+        }
+        return preferredFormatOf(matchingFiles);
+    }
+
+    /**
+     * Keep one file for each test outcome. The most recently written file is read, so that a report left over from
+     * an earlier run in another format is never preferred to the current one. Files written at the same time are
+     * read in the format of the first reader that can read them.
+     */
+    private List<File> preferredFormatOf(final File[] reportFiles) {
+        Map<String, File> preferredFiles = Maps.newLinkedHashMap();
+        for (File reportFile : reportFiles) {
+            String reportName = withoutSuffix(reportFile.getName());
+            File currentFile = preferredFiles.get(reportName);
+            if ((currentFile == null) || isPreferredTo(reportFile, currentFile)) {
+                preferredFiles.put(reportName, reportFile);
+            }
+        }
+        return ImmutableList.copyOf(preferredFiles.values());
+    }
+
+    private boolean isPreferredTo(final File reportFile, final File otherReportFile) {
+        long lastModified = reportFile.lastModified();
+        long otherLastModified = otherReportFile.lastModified();
+        if (lastModified != otherLastModified) {
+            return lastModified > otherLastModified;
+        }
+        return readerIndexFor(reportFile) < readerIndexFor(otherReportFile);
+    }
+
+    private String withoutSuffix(final String filename) {
+        int suffixStart = filename.lastIndexOf('.');
+        return (suffixStart > 0) ? filename.substring(0, suffixStart) : filename;
+    }
+
+    private int readerIndexFor(final File reportFile) {
+        for (int index = 0; index < readers.size(); index++) {
+            if (readers.get(index).canRead(reportFile)) {
+                return index;
+            }
+        }
+        return readers.size();
+    }
+
+    /**
+     * Archived test outcomes are read from memory-mapped files, so no loader thread may still be running when
+     * the archive is closed.
+     */
+    private void stop(final ExecutorService executorService) {
+        executorService.shutdownNow();
+        try {
+            executorService.awaitTermination(IDLE_THREAD_TIMEOUT_IN_SECONDS, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private ExecutorService newLoaderThreadPool(final int poolSize) {
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(poolSize, poolSize,
+                                                             IDLE_THREAD_TIMEOUT_IN_SECONDS, TimeUnit.SECONDS,
+                                                             new LinkedBlockingQueue<Runnable>(),
+                                                             new ThreadFactoryBuilder().setNameFormat("thucydides-loader-%d")
+                                                                                       .setDaemon(true).build());
+        executor.allowCoreThreadTimeOut(true);
+        return executor;
     }
 
     public static TestOutcomes testOutcomesIn(final File reportsDirectory) throws IOException {
@@ -53,9 +371,187 @@ public class TestOutcomeLoader {
         return TestOutcomes.of(loader.loadFrom(reportsDirectory));
     }
 
-    private static final class XmlFilenameFilter implements FilenameFilter {
-        public boolean accept(final File file, final String filename) {
-            return filename.toLowerCase(Locale.getDefault()).endsWith(".xml");
+    /**
+     * Somewhere a single test outcome can be read from: either a report file or an entry in a test outcome archive.
+     */
+    private interface ReportSource {
+        Optional<TestOutcome> load() throws IOException;
+
+        String digest() throws IOException;
+
+        /**
+         * Release any resource held to read the test outcome, once every test outcome has been read.
+         */
+        void close();
+    }
+
+    private final class ReportFile implements ReportSource {
+        private final File reportFile;
+
+        private ReportFile(final File reportFile) {
+            this.reportFile = reportFile;
+        }
+
+        @Override
+        public Optional<TestOutcome> load() throws IOException {
+            return loadReportFrom(reportFile);
+        }
+
+        @Override
+        public String digest() throws IOException {
+            return Digest.ofFile(reportFile);
+        }
+
+        @Override
+        public void close() {
+        }
+    }
+
+    private static final class ArchivedReport implements ReportSource {
+        private final ArchivedTestOutcomes archivedOutcomes;
+        private final String reportName;
+
+        private ArchivedReport(final ArchivedTestOutcomes archivedOutcomes, final String reportName) {
+            this.archivedOutcomes = archivedOutcomes;
+            this.reportName = reportName;
+        }
+
+        @Override
+        public Optional<TestOutcome> load() throws IOException {
+            return archivedOutcomes.load(reportName);
+        }
+
+        @Override
+        public String digest() {
+            return archivedOutcomes.digestOf(reportName);
+        }
+
+        @Override
+        public void close() {
+            archivedOutcomes.close();
+        }
+    }
+
+    /**
+     * Summarises each test outcome as soon as it is loaded, so that the full test outcome can be garbage-collected.
+     */
+    private static final class SummarisedReport implements ReportSource {
+        private final ReportSource report;
+
+        private SummarisedReport(final ReportSource report) {
+            this.report = report;
+        }
+
+        @Override
+        public Optional<TestOutcome> load() throws IOException {
+            Optional<TestOutcome> testOutcome = report.load();
+            if (testOutcome.isPresent()) {
+                return Optional.of(testOutcome.get().summarised());
+            }
+            return testOutcome;
+        }
+
+        @Override
+        public String digest() throws IOException {
+            return report.digest();
+        }
+
+        @Override
+        public void close() {
+            report.close();
+        }
+    }
+
+    private final class ReadableReportFilter implements FileFilter {
+        public boolean accept(final File file) {
+            for (TestOutcomeReader reader : readers) {
+                if (reader.canRead(file)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+
+    /**
+     * Returns test outcomes as they are loaded by a pool of background threads.
+     * Only a limited number of files are read ahead of the consumer, so that the loaded outcomes do not pile up
+     * in memory if they are processed more slowly than they are read.
+     */
+    private final class StreamingTestOutcomeIterator implements Iterator<TestOutcome> {
+
+        private final List<ReportSource> reports;
+        private final Queue<ReportSource> pendingFiles;
+        private final ExecutorService executorService;
+        private final CompletionService<Optional<TestOutcome>> completionService;
+        private final int maximumFilesInProgress;
+        private int filesInProgress = 0;
+        private TestOutcome nextOutcome;
+
+        private StreamingTestOutcomeIterator(final List<ReportSource> reports) {
+            int poolSize = Math.max(1, Math.min(threadCount, reports.size()));
+            this.reports = reports;
+            this.pendingFiles = new LinkedList<ReportSource>(reports);
+            this.executorService = newLoaderThreadPool(poolSize);
+            this.completionService = new ExecutorCompletionService<Optional<TestOutcome>>(executorService);
+            this.maximumFilesInProgress = poolSize * 2;
+            startLoadingMoreFiles();
+        }
+
+        private void startLoadingMoreFiles() {
+            while ((filesInProgress < maximumFilesInProgress) && (!pendingFiles.isEmpty())) {
+                completionService.submit(loadTaskFor(pendingFiles.remove()));
+                filesInProgress++;
+            }
+        }
+
+        @Override
+        public boolean hasNext() {
+            while ((nextOutcome == null) && (filesInProgress > 0)) {
+                Optional<TestOutcome> loadedOutcome = takeNextLoadedOutcome();
+                startLoadingMoreFiles();
+                nextOutcome = loadedOutcome.orNull();
+            }
+            if (filesInProgress == 0) {
+                executorService.shutdown();
+                closeAll(reports);
+            }
+            return (nextOutcome != null);
+        }
+
+        private Optional<TestOutcome> takeNextLoadedOutcome() {
+            try {
+                Future<Optional<TestOutcome>> loadedOutcome = completionService.take();
+                filesInProgress--;
+                return resultOf(loadedOutcome);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                stopLoading();
+                throw new ReportGenerationFailedError("Interrupted while loading test outcomes", e);
+            } catch (IOException e) {
+                stopLoading();
+                throw new ReportGenerationFailedError("Could not load test outcome", e);
+            }
+        }
+
+        private void stopLoading() {
+            stop(executorService);
+            closeAll(reports);
+        }
+
+        @Override
+        public TestOutcome next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            TestOutcome currentOutcome = nextOutcome;
+            nextOutcome = null;
+            return currentOutcome;
+        }
+
+        @Override
+        public void remove() {
+            throw new UnsupportedOperationException("Test outcomes cannot be removed from a report directory");
         }
     }
 }
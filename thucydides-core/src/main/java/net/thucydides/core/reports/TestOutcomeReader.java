@@ -0,0 +1,24 @@
+package net.thucydides.core.reports;
+
+import com.google.common.base.Optional;
+import net.thucydides.core.model.TestOutcome;
+
+import java.io.File;
+import java.io.IOException;
+
+/**
+ * Reads test outcomes stored in a particular format, such as XML or JSON.
+ * Implementations are used concurrently by the TestOutcomeLoader, so they need to be thread-safe.
+ */
+public interface TestOutcomeReader {
+
+    /**
+     * Is this file stored in a format that this reader understands?
+     */
+    boolean canRead(final File reportFile);
+
+    /**
+     * Load a test outcome from a file, if the file contains a valid test outcome.
+     */
+    Optional<TestOutcome> loadReportFrom(final File reportFile) throws IOException;
+}
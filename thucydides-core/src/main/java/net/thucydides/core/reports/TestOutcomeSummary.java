@@ -0,0 +1,164 @@
+package net.thucydides.core.reports;
+
+import com.google.common.collect.Lists;
+import net.thucydides.core.model.TestOutcome;
+import net.thucydides.core.model.TestResult;
+import net.thucydides.core.model.TestResultList;
+import net.thucydides.core.model.TestType;
+
+import java.util.List;
+
+/**
+ * Test counts, step counts, durations and data row counts for a set of test outcomes, calculated in a single pass.
+ * A TestOutcomes object is immutable, so the summary is calculated once and reused by the report templates,
+ * instead of walking through every outcome and every step tree each time a count is needed.
+ */
+public class TestOutcomeSummary {
+
+    private final int[][] testsWithResult = new int[TestType.values().length][TestResult.values().length];
+    private final int[][] compatibleTestsWithResult = new int[TestType.values().length][TestResult.values().length];
+    private final int[][] stepsWithResult = new int[TestType.values().length][TestResult.values().length];
+    private final int[] stepsInTestsWithResult = new int[TestResult.values().length];
+    private final int[] totalTests = new int[TestType.values().length];
+
+    private int stepCount;
+    private int implementedTestCount;
+    private long duration;
+    private boolean hasDataDrivenTests;
+    private int totalDataRows;
+    private final TestResult overallResult;
+
+    private TestOutcomeSummary(final List<? extends TestOutcome> outcomes) {
+        List<TestResult> results = Lists.newArrayList();
+        for (TestOutcome outcome : outcomes) {
+            results.add(addOutcome(outcome));
+        }
+        overallResult = TestResultList.of(results).getOverallResult();
+    }
+
+    public static TestOutcomeSummary of(final List<? extends TestOutcome> outcomes) {
+        return new TestOutcomeSummary(outcomes);
+    }
+
+    private TestResult addOutcome(final TestOutcome outcome) {
+        TestResult outcomeResult = outcome.getResult();
+        int testCount = outcome.getTestCount();
+        int nestedStepCount = outcome.getNestedStepCount();
+
+        stepCount += nestedStepCount;
+        implementedTestCount += outcome.getImplementedTestCount();
+        duration += outcome.getDuration();
+        stepsInTestsWithResult[outcomeResult.ordinal()] += nestedStepCount;
+        if (outcome.isDataDriven()) {
+            hasDataDrivenTests = true;
+            totalDataRows += outcome.getDataTable().getSize();
+        }
+
+        int[] matchingTests = new int[TestResult.values().length];
+        int[] matchingSteps = new int[TestResult.values().length];
+        for (TestResult result : TestResult.values()) {
+            matchingTests[result.ordinal()] = countResults(outcome, outcomeResult, result);
+            matchingSteps[result.ordinal()] = countNestedStepsWithResult(outcome, outcomeResult, nestedStepCount, result);
+        }
+
+        for (TestType testType : TestType.values()) {
+            boolean compatibleType = outcome.typeCompatibleWith(testType);
+            boolean counted = compatibleType || outcome.isDataDriven();
+            if (compatibleType) {
+                totalTests[testType.ordinal()] += testCount;
+            }
+            for (TestResult result : TestResult.values()) {
+                if (counted) {
+                    testsWithResult[testType.ordinal()][result.ordinal()] += matchingTests[result.ordinal()];
+                    stepsWithResult[testType.ordinal()][result.ordinal()] += matchingSteps[result.ordinal()];
+                }
+                if (compatibleType) {
+                    compatibleTestsWithResult[testType.ordinal()][result.ordinal()] += matchingTests[result.ordinal()];
+                }
+            }
+        }
+        return outcomeResult;
+    }
+
+    /**
+     * Equivalent to TestOutcome.countResults(expectedResult).
+     * Data-driven tests are counted row by row, whatever the expected test type.
+     */
+    private int countResults(final TestOutcome outcome, final TestResult outcomeResult, final TestResult expectedResult) {
+        if (outcome.isDataDriven()) {
+            return outcome.countResults(expectedResult);
+        } else {
+            return (outcomeResult == expectedResult) ? 1 : 0;
+        }
+    }
+
+    /**
+     * Equivalent to TestOutcome.countNestedStepsWithResult(expectedResult, TestType.ANY).
+     */
+    private int countNestedStepsWithResult(final TestOutcome outcome, final TestResult outcomeResult, final int nestedStepCount,
+                                           final TestResult expectedResult) {
+        if (outcome.isDataDriven()) {
+            return (outcome.getDataTable().getSize() > 0) ? outcome.countNestedStepsWithResult(expectedResult, TestType.ANY) : 0;
+        } else {
+            return (outcomeResult == expectedResult) ? nestedStepCount : 0;
+        }
+    }
+
+    /**
+     * @return The number of test runs (including rows in data-driven tests) with a given result,
+     * counting data-driven tests whatever their type.
+     */
+    public int countTestsWithResult(final TestResult expectedResult, final TestType testType) {
+        return testsWithResult[testType.ordinal()][expectedResult.ordinal()];
+    }
+
+    /**
+     * @return The number of test runs (including rows in data-driven tests) of a given type with a given result.
+     */
+    public int countTestsOfTypeWithResult(final TestResult expectedResult, final TestType testType) {
+        return compatibleTestsWithResult[testType.ordinal()][expectedResult.ordinal()];
+    }
+
+    public int countStepsWithResult(final TestResult expectedResult, final TestType testType) {
+        return stepsWithResult[testType.ordinal()][expectedResult.ordinal()];
+    }
+
+    /**
+     * @return The total number of nested steps in the test outcomes with a given overall result.
+     */
+    public int countStepsInTestsWithResult(final TestResult expectedResult) {
+        return stepsInTestsWithResult[expectedResult.ordinal()];
+    }
+
+    public int getTotal() {
+        return totalTests[TestType.ANY.ordinal()];
+    }
+
+    public int getTotalOfType(final TestType testType) {
+        return totalTests[testType.ordinal()];
+    }
+
+    public int getStepCount() {
+        return stepCount;
+    }
+
+    public int getImplementedTestCount() {
+        return implementedTestCount;
+    }
+
+    public long getDuration() {
+        return duration;
+    }
+
+    public boolean hasDataDrivenTests() {
+        return hasDataDrivenTests;
+    }
+
+    public int getTotalDataRows() {
+        return totalDataRows;
+    }
+
+    public TestResult getOverallResult() {
+        return overallResult;
+    }
+}
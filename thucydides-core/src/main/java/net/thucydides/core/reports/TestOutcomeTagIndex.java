@@ -0,0 +1,117 @@
+package net.thucydides.core.reports;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Maps;
+import com.google.common.collect.Sets;
+import net.thucydides.core.model.TestOutcome;
+import net.thucydides.core.model.TestTag;
+
+import java.util.BitSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * An inverted index of the tags used in a list of test outcomes.
+ * Each tag, tag name and tag type is mapped to the set of positions of the matching test outcomes in the list.
+ * A filtered set of test outcomes is represented as a selection of positions in the indexed list,
+ * so filtering by tag only involves intersecting bit sets, and the index can be shared between the
+ * original test outcomes and every set of outcomes filtered from them.
+ */
+class TestOutcomeTagIndex {
+
+    private final List<? extends TestOutcome> outcomes;
+
+    private final Map<TestTag, BitSet> outcomesByTag = Maps.newHashMap();
+
+    /**
+     * Tag names are matched without regard to case.
+     */
+    private final Map<String, BitSet> outcomesByTagName = Maps.newHashMap();
+
+    /**
+     * Tag types are matched exactly.
+     */
+    private final Map<String, BitSet> outcomesByTagType = Maps.newHashMap();
+
+    private final BitSet allOutcomes;
+
+    TestOutcomeTagIndex(final List<? extends TestOutcome> outcomes) {
+        this.outcomes = ImmutableList.copyOf(outcomes);
+        this.allOutcomes = new BitSet(outcomes.size());
+        this.allOutcomes.set(0, outcomes.size());
+
+        int position = 0;
+        for (TestOutcome outcome : this.outcomes) {
+            for (TestTag tag : outcome.getTags()) {
+                addTo(outcomesByTag, tag, position);
+                addTo(outcomesByTagName, normalized(tag.getName()), position);
+                addTo(outcomesByTagType, tag.getType(), position);
+            }
+            position++;
+        }
+    }
+
+    private <K> void addTo(final Map<K, BitSet> index, final K key, final int position) {
+        BitSet matchingOutcomes = index.get(key);
+        if (matchingOutcomes == null) {
+            matchingOutcomes = new BitSet(outcomes.size());
+            index.put(key, matchingOutcomes);
+        }
+        matchingOutcomes.set(position);
+    }
+
+    private String normalized(final String tagName) {
+        return tagName.toLowerCase(Locale.ENGLISH);
+    }
+
+    BitSet getAllOutcomes() {
+        return (BitSet) allOutcomes.clone();
+    }
+
+    BitSet outcomesWithTagName(final String tagName, final BitSet selection) {
+        return intersectionOf(outcomesByTagName.get(normalized(tagName)), selection);
+    }
+
+    BitSet outcomesWithTagType(final String tagType, final BitSet selection) {
+        return intersectionOf(outcomesByTagType.get(tagType), selection);
+    }
+
+    private BitSet intersectionOf(final BitSet matchingOutcomes, final BitSet selection) {
+        BitSet intersection = new BitSet(outcomes.size());
+        if (matchingOutcomes != null) {
+            intersection.or(matchingOutcomes);
+            intersection.and(selection);
+        }
+        return intersection;
+    }
+
+    /**
+     * The distinct tags used by the selected outcomes.
+     * Small selections are scanned directly, whereas large ones are checked tag by tag against the index.
+     */
+    Set<TestTag> tagsIn(final BitSet selection) {
+        Set<TestTag> tags = Sets.newHashSet();
+        if (selection.cardinality() < outcomesByTag.size()) {
+            for (TestOutcome outcome : outcomesIn(selection)) {
+                tags.addAll(outcome.getTags());
+            }
+        } else {
+            for (Map.Entry<TestTag, BitSet> tagEntry : outcomesByTag.entrySet()) {
+                if (tagEntry.getValue().intersects(selection)) {
+                    tags.add(tagEntry.getKey());
+                }
+            }
+        }
+        return tags;
+    }
+
+    List<TestOutcome> outcomesIn(final BitSet selection) {
+        ImmutableList.Builder<TestOutcome> selectedOutcomes = ImmutableList.builder();
+        for (int position = selection.nextSetBit(0); position >= 0; position = selection.nextSetBit(position + 1)) {
+            selectedOutcomes.add(outcomes.get(position));
+        }
+        return selectedOutcomes.build();
+    }
+}
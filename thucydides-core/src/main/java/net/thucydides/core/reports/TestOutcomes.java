@@ -3,6 +3,7 @@ package net.thucydides.core.reports;
 import ch.lambdaj.function.convert.Converter;
 import com.google.common.base.Optional;
 import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
 import com.google.common.collect.Lists;
 import com.google.common.collect.Sets;
 import com.google.inject.Inject;
@@ -11,7 +12,6 @@ import net.thucydides.core.model.OutcomeCounter;
 import net.thucydides.core.model.TestDuration;
 import net.thucydides.core.model.TestOutcome;
 import net.thucydides.core.model.TestResult;
-import net.thucydides.core.model.TestResultList;
 import net.thucydides.core.model.TestTag;
 import net.thucydides.core.model.TestType;
 import net.thucydides.core.model.formatters.TestCoverageFormatter;
@@ -22,14 +22,13 @@ import org.joda.time.DateTime;
 
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.BitSet;
 import java.util.Collections;
 import java.util.List;
 import java.util.Set;
 
 import static ch.lambdaj.Lambda.convert;
-import static ch.lambdaj.Lambda.extract;
 import static ch.lambdaj.Lambda.filter;
-import static ch.lambdaj.Lambda.having;
 import static ch.lambdaj.Lambda.min;
 import static ch.lambdaj.Lambda.on;
 import static ch.lambdaj.Lambda.sort;
@@ -37,10 +36,7 @@ import static ch.lambdaj.Lambda.sum;
 import static net.thucydides.core.model.TestResult.PENDING;
 import static net.thucydides.core.model.TestResult.SKIPPED;
 import static net.thucydides.core.model.TestResult.SUCCESS;
-import static net.thucydides.core.reports.matchers.TestOutcomeMatchers.havingTagName;
-import static net.thucydides.core.reports.matchers.TestOutcomeMatchers.havingTagType;
 import static net.thucydides.core.reports.matchers.TestOutcomeMatchers.withResult;
-import static org.hamcrest.Matchers.is;
 
 //import net.thucydides.core.statistics.HibernateTestStatisticsProvider;
 
@@ -64,6 +60,27 @@ public class TestOutcomes {
      */
     private final String label;
 
+    /**
+     * An index of the tags in these outcomes, built when first needed, and shared with any outcomes
+     * filtered by tag from these ones.
+     */
+    private TestOutcomeTagIndex tagIndex;
+
+    /**
+     * The positions of these outcomes in the tag index.
+     */
+    private BitSet tagIndexSelection;
+
+    /**
+     * The distinct tags of these outcomes, calculated when first needed.
+     */
+    private volatile Set<TestTag> distinctTags;
+
+    /**
+     * Test and step counts for these outcomes, calculated when first needed.
+     */
+    private volatile TestOutcomeSummary summary;
+
     /**
      * Reference to the test statistics service provider, used to inject test history if required.
      */
@@ -80,6 +97,17 @@ public class TestOutcomes {
         this.rootOutcomes = Optional.fromNullable(rootOutcomes);
     }
 
+    private TestOutcomes(List<? extends TestOutcome> outcomes,
+                         double estimatedAverageStepCount,
+                         String label,
+                         TestOutcomes rootOutcomes,
+                         TestOutcomeTagIndex tagIndex,
+                         BitSet tagIndexSelection) {
+        this(outcomes, estimatedAverageStepCount, label, rootOutcomes);
+        this.tagIndex = tagIndex;
+        this.tagIndexSelection = tagIndexSelection;
+    }
+
     protected TestOutcomes(List<? extends TestOutcome> outcomes,
                            double estimatedAverageStepCount,
                            String label) {
@@ -92,7 +120,7 @@ public class TestOutcomes {
     }
 
     public TestOutcomes withLabel(String label) {
-        return new TestOutcomes(this.outcomes, this.estimatedAverageStepCount, label);
+        return new TestOutcomes(this.outcomes, this.estimatedAverageStepCount, label, null, tagIndex, tagIndexSelection);
     }
 
     public static TestOutcomes of(List<? extends TestOutcome> outcomes) {
@@ -118,8 +146,8 @@ public class TestOutcomes {
      */
     public List<String> getTagTypes() {
         Set<String> tagTypes = Sets.newHashSet();
-        for (TestOutcome outcome : outcomes) {
-            addTagTypesFrom(outcome, tagTypes);
+        for (TestTag tag : getDistinctTags()) {
+            tagTypes.add(tag.getType().toLowerCase());
         }
         return sort(ImmutableList.copyOf(tagTypes), on(String.class));
     }
@@ -129,39 +157,37 @@ public class TestOutcomes {
      */
     public List<String> getTagNames() {
         Set<String> tags = Sets.newHashSet();
-        for (TestOutcome outcome : outcomes) {
-            addTagNamesFrom(outcome, tags);
+        for (TestTag tag : getDistinctTags()) {
+            tags.add(tag.getName().toLowerCase());
         }
         return sort(ImmutableList.copyOf(tags), on(String.class));
     }
 
-    private void addTagNamesFrom(TestOutcome outcome, Set<String> tags) {
-        for (TestTag tag : outcome.getTags()) {
-            String normalizedForm = tag.getName().toLowerCase();
-            if (!tags.contains(normalizedForm)) {
-                tags.add(normalizedForm);
-            }
-        }
+    /**
+     * @return The list of all the different tags in these test outcomes
+     */
+    public List<TestTag> getTags() {
+        return ImmutableList.copyOf(getDistinctTags());
     }
 
-    private void addTagTypesFrom(TestOutcome outcome, Set<String> tags) {
-        for (TestTag tag : outcome.getTags()) {
-            String normalizedForm = tag.getType().toLowerCase();
-            if (!tags.contains(normalizedForm)) {
-                tags.add(normalizedForm);
-            }
+    private Set<TestTag> getDistinctTags() {
+        if (distinctTags == null) {
+            distinctTags = ImmutableSet.copyOf(getTagIndex().tagsIn(getTagIndexSelection()));
         }
+        return distinctTags;
     }
 
-    /**
-     * @return The list of all the different tags in these test outcomes
-     */
-    public List<TestTag> getTags() {
-        Set<TestTag> tags = Sets.newHashSet();
-        for (TestOutcome outcome : outcomes) {
-            tags.addAll(outcome.getTags());
+    private synchronized TestOutcomeTagIndex getTagIndex() {
+        if (tagIndex == null) {
+            tagIndex = new TestOutcomeTagIndex(outcomes);
+            tagIndexSelection = tagIndex.getAllOutcomes();
         }
-        return ImmutableList.copyOf(tags);
+        return tagIndex;
+    }
+
+    private synchronized BitSet getTagIndexSelection() {
+        getTagIndex();
+        return tagIndexSelection;
     }
 
     /**
@@ -169,8 +195,10 @@ public class TestOutcomes {
      */
     public List<String> getTagsOfType(String tagType) {
         Set<String> tags = Sets.newHashSet();
-        for (TestOutcome outcome : outcomes) {
-            tags.addAll(tagsOfType(tagType).in(outcome));
+        for (TestTag tag : getDistinctTags()) {
+            if (tag.getType().compareToIgnoreCase(tagType) == 0) {
+                tags.add(tag.getName().toLowerCase());
+            }
         }
         return sort(ImmutableList.copyOf(tags), on(String.class));
     }
@@ -241,11 +269,22 @@ public class TestOutcomes {
      * @return A new set of test outcomes for this tag type
      */
     public TestOutcomes withTagType(String tagType) {
-        return TestOutcomes.of(filter(havingTagType(tagType), outcomes)).withLabel(tagType).withRootOutcomes(this.getRootOutcomes());
+        BitSet matchingOutcomes = getTagIndex().outcomesWithTagType(tagType, getTagIndexSelection());
+        return indexedOutcomesIn(matchingOutcomes).withLabel(tagType).withRootOutcomes(this.getRootOutcomes());
     }
 
     private TestOutcomes withRootOutcomes(TestOutcomes rootOutcomes) {
-        return new TestOutcomes(this.outcomes, this.estimatedAverageStepCount, this.label, rootOutcomes);
+        return new TestOutcomes(this.outcomes, this.estimatedAverageStepCount, this.label, rootOutcomes,
+                                tagIndex, tagIndexSelection);
+    }
+
+    /**
+     * A subset of these outcomes that shares the same tag index.
+     */
+    private TestOutcomes indexedOutcomesIn(BitSet selection) {
+        return new TestOutcomes(getTagIndex().outcomesIn(selection),
+                                Injectors.getInjector().getInstance(Configuration.class).getEstimatedAverageStepCount(),
+                                "", null, getTagIndex(), selection);
     }
 
     /**
@@ -255,7 +294,8 @@ public class TestOutcomes {
      * @return A new set of test outcomes for this tag name
      */
     public TestOutcomes withTag(String tagName) {
-        return TestOutcomes.of(filter(havingTagName(tagName), outcomes)).withLabel(tagName).withRootOutcomes(getRootOutcomes());
+        BitSet matchingOutcomes = getTagIndex().outcomesWithTagName(tagName, getTagIndexSelection());
+        return indexedOutcomesIn(matchingOutcomes).withLabel(tagName).withRootOutcomes(getRootOutcomes());
     }
 
     public TestOutcomes withTag(TestTag tag) {
@@ -383,11 +423,7 @@ public class TestOutcomes {
      * @return The total duration of all of the tests in this set in milliseconds.
      */
     public Long getDuration() {
-        Long total = 0L;
-        for (TestOutcome outcome : outcomes) {
-            total += outcome.getDuration();
-        }
-        return total;
+        return getSummary().getDuration();
     }
 
     /**
@@ -401,7 +437,7 @@ public class TestOutcomes {
      * @return The total number of test runs in this set (including rows in data-driven tests).
      */
     public int getTotal() {
-        return sum(outcomes, on(TestOutcome.class).getTestCount());
+        return getSummary().getTotal();
     }
 
     /**
@@ -419,27 +455,14 @@ public class TestOutcomes {
      * @return The overall result for the tests in this test outcome set.
      */
     public TestResult getResult() {
-        TestResultList testResults = TestResultList.of(getCurrentTestResults());
-        return testResults.getOverallResult();
-    }
-
-    private List<TestResult> getCurrentTestResults() {
-        return convert(outcomes, toTestResults());
-    }
-
-    private Converter<? extends TestOutcome, TestResult> toTestResults() {
-        return new Converter<TestOutcome, TestResult>() {
-            public TestResult convert(final TestOutcome step) {
-                return step.getResult();
-            }
-        };
+        return getSummary().getOverallResult();
     }
 
     /**
      * @return The total number of nested steps in these test outcomes.
      */
     public int getStepCount() {
-        return sum(extract(outcomes, on(TestOutcome.class).getNestedStepCount())).intValue();
+        return getSummary().getStepCount();
     }
 
     /**
@@ -447,7 +470,17 @@ public class TestOutcomes {
      * @return
      */
     public int successCount(String testType) {
-        return sum(outcomes, on(TestOutcome.class).countResults(SUCCESS, TestType.valueOf(testType.toUpperCase())));
+        return getSummary().countTestsWithResult(SUCCESS, TestType.valueOf(testType.toUpperCase()));
+    }
+
+    /**
+     * @return Test and step counts for these test outcomes, calculated once in a single pass.
+     */
+    public TestOutcomeSummary getSummary() {
+        if (summary == null) {
+            summary = TestOutcomeSummary.of(outcomes);
+        }
+        return summary;
     }
 
 
@@ -565,7 +598,7 @@ public class TestOutcomes {
     }
 
     private int countStepsWithResult(TestResult expectedResult, TestType testType) {
-        int stepCount = sum(outcomes, on(TestOutcome.class).countNestedStepsWithResult(expectedResult, testType));
+        int stepCount = getSummary().countStepsWithResult(expectedResult, testType);
         if ((stepCount == 0) && aMatchingTestExists(expectedResult, testType)) {
             return 1;
         }
@@ -577,11 +610,11 @@ public class TestOutcomes {
     }
 
     protected int countTestsWithResult(TestResult expectedResult) {
-        return sum(outcomes, on(TestOutcome.class).countResults(expectedResult));
+        return getSummary().countTestsWithResult(expectedResult, TestType.ANY);
     }
 
     protected int countTestsWithResult(TestResult expectedResult, TestType testType) {
-        return sum(outcomes, on(TestOutcome.class).countResults(expectedResult, testType));
+        return getSummary().countTestsWithResult(expectedResult, testType);
     }
 
     private Integer getEstimatedTotalStepCount() {
@@ -622,19 +655,18 @@ public class TestOutcomes {
     }
 
     public int getTestCount() {
-        return sum(outcomes, on(TestOutcome.class).getTestCount());
+        return getSummary().getTotal();
     }
 
     private int totalImplementedTests() {
-        return sum(outcomes, on(TestOutcome.class).getImplementedTestCount());
+        return getSummary().getImplementedTestCount();
     }
 
     public boolean hasDataDrivenTests() {
-        return !filter(having(on(TestOutcome.class).isDataDriven(), is(true)), outcomes).isEmpty();
+        return getSummary().hasDataDrivenTests();
     }
 
     public int getTotalDataRows() {
-        List datadrivenTestOutcomes = filter(having(on(TestOutcome.class).isDataDriven(), is(true)), outcomes);
-        return sum(datadrivenTestOutcomes, on(TestOutcome.class).getDataTable().getSize());
+        return getSummary().getTotalDataRows();
     }
 }
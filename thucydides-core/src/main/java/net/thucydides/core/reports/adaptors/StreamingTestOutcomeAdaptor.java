@@ -0,0 +1,23 @@
+package net.thucydides.core.reports.adaptors;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * A test outcome adaptor that reads its source one file at a time, passing on each test outcome as soon as it has
+ * been read rather than returning them all in a list. This lets the test outcomes be imported in a pipeline,
+ * with several files read at once and only a limited number of test outcomes in memory at any time.
+ */
+public interface StreamingTestOutcomeAdaptor extends TestOutcomeAdaptor {
+
+    /**
+     * The files to be read from a source file or directory.
+     */
+    List<File> sourceFilesIn(final File source);
+
+    /**
+     * Read the test outcomes in a single source file, passing each one to the listener as soon as it has been read.
+     */
+    void readOutcomesFrom(final File sourceFile, final TestOutcomeListener listener) throws IOException;
+}
@@ -0,0 +1,11 @@
+package net.thucydides.core.reports.adaptors;
+
+import net.thucydides.core.model.TestOutcome;
+
+/**
+ * Receives the test outcomes read by a streaming test outcome adaptor, one at a time.
+ * Several threads may pass test outcomes to the same listener at once.
+ */
+public interface TestOutcomeListener {
+    void testOutcomeLoaded(TestOutcome testOutcome);
+}
@@ -10,7 +10,10 @@ import net.thucydides.core.model.TestOutcome;
 import net.thucydides.core.model.TestResult;
 import net.thucydides.core.model.TestStep;
 import net.thucydides.core.reports.adaptors.common.FilebasedOutcomeAdaptor;
-import net.thucydides.core.reports.adaptors.xunit.BasicXUnitLoader;
+import net.thucydides.core.reports.adaptors.StreamingTestOutcomeAdaptor;
+import net.thucydides.core.reports.adaptors.TestOutcomeListener;
+import net.thucydides.core.reports.adaptors.xunit.StreamingXUnitLoader;
+import net.thucydides.core.reports.adaptors.xunit.TestSuiteListener;
 import net.thucydides.core.reports.adaptors.TestOutcomeAdaptor;
 import net.thucydides.core.reports.adaptors.xunit.io.XUnitFiles;
 import net.thucydides.core.reports.adaptors.xunit.model.TestCase;
@@ -22,9 +25,9 @@ import java.util.Collection;
 import java.util.List;
 import java.util.Map;
 
-public class LettuceXUnitAdaptor extends FilebasedOutcomeAdaptor {
+public class LettuceXUnitAdaptor extends FilebasedOutcomeAdaptor implements StreamingTestOutcomeAdaptor {
 
-    BasicXUnitLoader loader = new BasicXUnitLoader();
+    StreamingXUnitLoader loader = new StreamingXUnitLoader();
 
     public List<TestOutcome> loadOutcomesFrom(final File source) throws IOException {
         List<TestOutcome> loadedOutcomes = Lists.newArrayList();
@@ -39,6 +42,27 @@ public class LettuceXUnitAdaptor extends FilebasedOutcomeAdaptor {
         return ImmutableList.copyOf(groupTestCasesByClassname(rawTestSuites));
     }
 
+    @Override
+    public List<File> sourceFilesIn(final File source) {
+        return ImmutableList.copyOf(XUnitFiles.in(source));
+    }
+
+    /**
+     * Test cases are grouped by class name within each test suite, so the test outcomes for a test suite are passed
+     * on once the whole test suite has been read.
+     */
+    @Override
+    public void readOutcomesFrom(final File xunitFile, final TestOutcomeListener listener) throws IOException {
+        loader.readFrom(xunitFile, new TestSuiteListener() {
+            @Override
+            public void testSuiteLoaded(TestSuite testSuite) {
+                for (TestOutcome testOutcome : testOutcomesWithGroupedTestCases(testSuite)) {
+                    listener.testOutcomeLoaded(testOutcome);
+                }
+            }
+        });
+    }
+
     private List<TestOutcome> groupTestCasesByClassname(List<TestSuite> testSuites) {
         List<TestOutcome> groupedOutcomes = Lists.newArrayList();
         for(TestSuite suite : testSuites) {
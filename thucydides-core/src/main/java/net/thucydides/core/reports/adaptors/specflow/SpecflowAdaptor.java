@@ -5,9 +5,12 @@ import com.beust.jcommander.internal.Lists;
 import com.beust.jcommander.internal.Maps;
 import com.google.common.collect.ImmutableList;
 import net.thucydides.core.model.*;
+import net.thucydides.core.reports.adaptors.StreamingTestOutcomeAdaptor;
 import net.thucydides.core.reports.adaptors.TestOutcomeAdaptor;
+import net.thucydides.core.reports.adaptors.TestOutcomeListener;
 import net.thucydides.core.reports.adaptors.common.FilebasedOutcomeAdaptor;
 import org.apache.commons.io.FileUtils;
+import org.apache.commons.io.LineIterator;
 
 import java.io.File;
 import java.io.IOException;
@@ -22,7 +25,7 @@ import static ch.lambdaj.Lambda.convert;
 /**
  * Loads TestOutcomes from a specflow output file
  */
-public class SpecflowAdaptor extends FilebasedOutcomeAdaptor {
+public class SpecflowAdaptor extends FilebasedOutcomeAdaptor implements StreamingTestOutcomeAdaptor {
 
     private static final String TITLE_LEAD = "***** ";
 
@@ -34,20 +37,60 @@ public class SpecflowAdaptor extends FilebasedOutcomeAdaptor {
      */
     @Override
     public List<TestOutcome> loadOutcomesFrom(File source) throws IOException {
+        final List<TestOutcome> outcomes = Lists.newArrayList();
+        for(File outputFile : sourceFilesIn(source)) {
+            readOutcomesFrom(outputFile, new TestOutcomeListener() {
+                @Override
+                public void testOutcomeLoaded(TestOutcome testOutcome) {
+                    outcomes.add(testOutcome);
+                }
+            });
+        }
+        return outcomes;
+    }
+
+    @Override
+    public List<File> sourceFilesIn(File source) {
         if (source.isDirectory()) {
-            List<TestOutcome> outcomes = Lists.newArrayList();
-            for(File outputFile : source.listFiles()) {
-                outcomes.addAll(outcomesFromFile(outputFile));
-            }
-            return outcomes;
+            return Arrays.asList(source.listFiles());
         } else {
-            return outcomesFromFile(source);
+            return Arrays.asList(source);
         }
     }
 
-    private List<TestOutcome> outcomesFromFile(File outputFile) throws IOException {
-        List<String> outputLines = FileUtils.readLines(outputFile, Charset.defaultCharset());
-        return convert(scenarioOutputsFrom(outputLines), toTestOutcomes());
+    /**
+     * The output file is read one line at a time, and each scenario is converted as soon as its last line
+     * has been read, so only the output of the current scenario is kept in memory.
+     */
+    @Override
+    public void readOutcomesFrom(File outputFile, TestOutcomeListener listener) throws IOException {
+        Converter<List<String>, TestOutcome> toTestOutcome = toTestOutcomes();
+        LineIterator outputLines = FileUtils.lineIterator(outputFile, Charset.defaultCharset().name());
+        try {
+            List<String> currentScenario = null;
+            SpecflowScenarioTitleLine currentTitle = null;
+            while (outputLines.hasNext()) {
+                String line = outputLines.nextLine();
+                if (isTitle(line)) {
+                    SpecflowScenarioTitleLine newTitleLine = new SpecflowScenarioTitleLine(line);
+                    if (currentTitle == null || !newTitleLine.getTitleName().equals(currentTitle.getTitleName())) {
+                        if (currentScenario != null) {
+                            listener.testOutcomeLoaded(toTestOutcome.convert(currentScenario));
+                        }
+                        currentTitle = newTitleLine;
+                        currentScenario = Lists.newArrayList();
+                    }
+                }
+                if (currentScenario != null) {
+                    currentScenario.add(line);
+                }
+            }
+            if (currentScenario != null) {
+                listener.testOutcomeLoaded(toTestOutcome.convert(currentScenario));
+            }
+        } finally {
+            outputLines.close();
+        }
     }
 
     private Converter<List<String>, TestOutcome> toTestOutcomes() {
@@ -110,27 +153,6 @@ public class SpecflowAdaptor extends FilebasedOutcomeAdaptor {
         return ImmutableList.copyOf(discoveredSteps);
     }
 
-    private List<List<String>> scenarioOutputsFrom(List<String> outputLines) {
-        List<List<String>> scenarios = Lists.newArrayList();
-
-        List<String> currentScenario = null;
-        SpecflowScenarioTitleLine currentTitle = null;
-        for (String line : outputLines) {
-            if (isTitle(line)) {
-                SpecflowScenarioTitleLine newTitleLine = new SpecflowScenarioTitleLine(line);
-                if (currentTitle == null || !newTitleLine.getTitleName().equals(currentTitle.getTitleName())) {
-                    currentTitle = new SpecflowScenarioTitleLine(line);
-                    currentScenario = Lists.newArrayList();
-                    scenarios.add(currentScenario);
-                }
-            }
-            if (currentScenario != null) {
-                currentScenario.add(line);
-            }
-        }
-        return ImmutableList.copyOf(scenarios);
-    }
-
     private boolean isTitle(String line) {
         return line.trim().startsWith(TITLE_LEAD);
     }
@@ -3,42 +3,136 @@ package net.thucydides.core.reports.adaptors.xunit;
 import ch.lambdaj.function.convert.Converter;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.Lists;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import net.thucydides.core.ThucydidesSystemProperty;
+import net.thucydides.core.guice.Injectors;
 import net.thucydides.core.model.Story;
 import net.thucydides.core.model.TestOutcome;
+import net.thucydides.core.reports.adaptors.StreamingTestOutcomeAdaptor;
 import net.thucydides.core.reports.adaptors.TestOutcomeAdaptor;
+import net.thucydides.core.reports.adaptors.TestOutcomeListener;
 import net.thucydides.core.reports.adaptors.common.FilebasedOutcomeAdaptor;
 import net.thucydides.core.reports.adaptors.xunit.io.XUnitFiles;
 import net.thucydides.core.reports.adaptors.xunit.model.TestCase;
 import net.thucydides.core.reports.adaptors.xunit.model.TestException;
 import net.thucydides.core.reports.adaptors.xunit.model.TestSuite;
+import net.thucydides.core.util.EnvironmentVariables;
 
 import java.io.File;
 import java.io.IOException;
 import java.util.Collection;
 import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 import static ch.lambdaj.Lambda.convert;
 
-public class DefaultXUnitAdaptor extends FilebasedOutcomeAdaptor {
-    private final XUnitLoader loader = new BasicXUnitLoader();
+/**
+ * Converts the xUnit files in a directory into test outcomes.
+ * The files are streamed rather than loaded into memory, and several files are read at once using the number
+ * of threads defined by the thucydides.loader.threads property (by default, one per available processor).
+ * The test outcomes are returned in the same order as the files.
+ */
+public class DefaultXUnitAdaptor extends FilebasedOutcomeAdaptor implements StreamingTestOutcomeAdaptor {
+    private final StreamingXUnitLoader loader = new StreamingXUnitLoader();
 
     public List<TestOutcome> loadOutcomesFrom(final File source) throws IOException {
+        File[] xunitFiles = XUnitFiles.in(source);
+        int threadCount = Math.min(loaderThreads(), xunitFiles.length);
+        if (threadCount <= 1) {
+            return loadSeriallyFrom(xunitFiles);
+        } else {
+            return loadConcurrentlyFrom(xunitFiles, threadCount);
+        }
+    }
+
+    private int loaderThreads() {
+        EnvironmentVariables environmentVariables = Injectors.getInjector().getInstance(EnvironmentVariables.class);
+        return environmentVariables.getPropertyAsInteger(ThucydidesSystemProperty.THUCYDIDES_LOADER_THREADS,
+                                                         Runtime.getRuntime().availableProcessors());
+    }
+
+    private List<TestOutcome> loadSeriallyFrom(final File[] xunitFiles) throws IOException {
         List<TestOutcome> loadedOutcomes = Lists.newArrayList();
-        for(File xunitFile : XUnitFiles.in(source)) {
+        for(File xunitFile : xunitFiles) {
             loadedOutcomes.addAll(testOutcomesIn(xunitFile));
         }
         return ImmutableList.copyOf(loadedOutcomes);
     }
 
-    private List<TestOutcome> testOutcomesIn(File xunitFile) throws IOException {
-        List<TestSuite> xunitTestSuites =  loader.loadFrom(xunitFile);
-        List<TestOutcome> testOutcomes = Lists.newArrayList();
-        for(TestSuite testSuite : xunitTestSuites) {
-            testOutcomes.addAll(testOutcomesIn(testSuite));
+    private List<TestOutcome> loadConcurrentlyFrom(final File[] xunitFiles, final int threadCount) throws IOException {
+        ExecutorService executorService = Executors.newFixedThreadPool(threadCount,
+                new ThreadFactoryBuilder().setNameFormat("thucydides-xunit-loader-%d").setDaemon(true).build());
+        try {
+            List<Callable<List<TestOutcome>>> loadTasks = Lists.newArrayList();
+            for (final File xunitFile : xunitFiles) {
+                loadTasks.add(new Callable<List<TestOutcome>>() {
+                    @Override
+                    public List<TestOutcome> call() throws Exception {
+                        return testOutcomesIn(xunitFile);
+                    }
+                });
+            }
+            List<TestOutcome> loadedOutcomes = Lists.newArrayList();
+            for (Future<List<TestOutcome>> testOutcomes : executorService.invokeAll(loadTasks)) {
+                loadedOutcomes.addAll(resultOf(testOutcomes));
+            }
+            return ImmutableList.copyOf(loadedOutcomes);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while loading xUnit files", e);
+        } finally {
+            executorService.shutdownNow();
+        }
+    }
+
+    private List<TestOutcome> resultOf(final Future<List<TestOutcome>> testOutcomes) throws IOException, InterruptedException {
+        try {
+            return testOutcomes.get();
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof IOException) {
+                throw (IOException) e.getCause();
+            } else if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw new IOException("Could not load xUnit file", e.getCause());
         }
+    }
+
+    private List<TestOutcome> testOutcomesIn(File xunitFile) throws IOException {
+        final List<TestOutcome> testOutcomes = Lists.newArrayList();
+        readOutcomesFrom(xunitFile, new TestOutcomeListener() {
+            @Override
+            public void testOutcomeLoaded(TestOutcome testOutcome) {
+                testOutcomes.add(testOutcome);
+            }
+        });
         return ImmutableList.copyOf(testOutcomes);
     }
 
+    @Override
+    public List<File> sourceFilesIn(final File source) {
+        return ImmutableList.copyOf(XUnitFiles.in(source));
+    }
+
+    /**
+     * Each test suite is converted as soon as it has been read, so only one test suite is kept in memory at a time.
+     */
+    @Override
+    public void readOutcomesFrom(final File xunitFile, final TestOutcomeListener listener) throws IOException {
+        loader.readFrom(xunitFile, new TestSuiteListener() {
+            @Override
+            public void testSuiteLoaded(TestSuite testSuite) {
+                for (TestOutcome testOutcome : testOutcomesIn(testSuite)) {
+                    listener.testOutcomeLoaded(testOutcome);
+                }
+            }
+        });
+    }
+
     private Collection<? extends TestOutcome> testOutcomesIn(TestSuite testSuite) {
         return convert(testSuite.getTestCases(), toTestOutcomes());
     }
@@ -0,0 +1,228 @@
+package net.thucydides.core.reports.adaptors.xunit;
+
+import com.google.common.base.Strings;
+import com.google.common.collect.Lists;
+import net.thucydides.core.reports.adaptors.xunit.model.TestCase;
+import net.thucydides.core.reports.adaptors.xunit.model.TestException;
+import net.thucydides.core.reports.adaptors.xunit.model.TestSuite;
+import org.apache.commons.lang3.StringUtils;
+
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import java.io.BufferedInputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.List;
+import java.util.Stack;
+
+/**
+ * Reads xUnit files one element at a time, rather than loading the whole document into memory.
+ * The system-out and system-err sections, which can be very large and are not used in the test outcomes,
+ * are skipped without being kept in memory, and the failure and error output of each test case is
+ * truncated to a maximum length (64K characters by default).
+ * Each test suite is passed on as soon as its closing tag is read.
+ */
+public class StreamingXUnitLoader implements XUnitLoader {
+
+    public static final int DEFAULT_MAXIMUM_OUTPUT_LENGTH = 64 * 1024;
+
+    private static final String TRUNCATED_OUTPUT = "%n[%d more characters not shown]";
+
+    private final int maximumOutputLength;
+
+    public StreamingXUnitLoader() {
+        this(DEFAULT_MAXIMUM_OUTPUT_LENGTH);
+    }
+
+    public StreamingXUnitLoader(final int maximumOutputLength) {
+        this.maximumOutputLength = maximumOutputLength;
+    }
+
+    @Override
+    public List<TestSuite> loadFrom(final File xUnitReport) throws IOException {
+        final List<TestSuite> testSuites = Lists.newArrayList();
+        readFrom(xUnitReport, new TestSuiteListener() {
+            @Override
+            public void testSuiteLoaded(TestSuite testSuite) {
+                testSuites.add(testSuite);
+            }
+        });
+        return testSuites;
+    }
+
+    /**
+     * Read the test suites in an xUnit file, passing each one to the listener as soon as it has been read.
+     */
+    public void readFrom(final File xUnitReport, final TestSuiteListener listener) throws IOException {
+        int testSuiteCount;
+        try {
+            testSuiteCount = readTestSuitesFrom(xUnitReport, listener);
+        } catch (CouldNotReadXUnitFileException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new CouldNotReadXUnitFileException(e.getMessage());
+        }
+        if (testSuiteCount == 0) {
+            throw new CouldNotReadXUnitFileException("Could not read xUnit file " + xUnitReport.getAbsolutePath());
+        }
+    }
+
+    private int readTestSuitesFrom(final File xUnitReport, final TestSuiteListener listener)
+            throws IOException, XMLStreamException {
+        InputStream input = new BufferedInputStream(new FileInputStream(xUnitReport));
+        try {
+            XMLStreamReader reader = newInputFactory().createXMLStreamReader(input);
+            try {
+                return readTestSuitesFrom(reader, listener);
+            } finally {
+                reader.close();
+            }
+        } finally {
+            input.close();
+        }
+    }
+
+    private XMLInputFactory newInputFactory() {
+        XMLInputFactory inputFactory = XMLInputFactory.newInstance();
+        inputFactory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, false);
+        inputFactory.setProperty(XMLInputFactory.SUPPORT_DTD, false);
+        return inputFactory;
+    }
+
+    private int readTestSuitesFrom(final XMLStreamReader reader, final TestSuiteListener listener)
+            throws XMLStreamException {
+        Stack<TestSuiteInProgress> testSuites = new Stack<TestSuiteInProgress>();
+        TestCase currentTestCase = null;
+        int testSuiteCount = 0;
+
+        while (reader.hasNext()) {
+            int event = reader.next();
+            if (event == XMLStreamConstants.START_ELEMENT) {
+                String element = reader.getLocalName();
+                if (element.equals("testsuite")) {
+                    testSuites.push(new TestSuiteInProgress(attribute(reader, "name")));
+                } else if (element.equals("testcase")) {
+                    currentTestCase = basicTestCaseFrom(reader);
+                } else if ((currentTestCase != null) && element.equals("failure")) {
+                    TestException failure = exceptionFrom(reader, "failure");
+                    if (!currentTestCase.getFailure().isPresent()) {
+                        currentTestCase = currentTestCase.withFailure(failure);
+                    }
+                } else if ((currentTestCase != null) && element.equals("error")) {
+                    TestException error = exceptionFrom(reader, "error");
+                    if (!currentTestCase.getError().isPresent()) {
+                        currentTestCase = currentTestCase.withError(error);
+                    }
+                } else if ((currentTestCase != null) && element.equals("skipped")) {
+                    String skipped = attribute(reader, "type");
+                    if (!currentTestCase.getSkipped().isPresent() && StringUtils.isNotEmpty(skipped)) {
+                        currentTestCase = currentTestCase.wasSkipped(skipped);
+                    }
+                } else if (element.equals("system-out") || element.equals("system-err")) {
+                    skipElement(reader);
+                }
+            } else if (event == XMLStreamConstants.END_ELEMENT) {
+                String element = reader.getLocalName();
+                if (element.equals("testcase")) {
+                    if ((currentTestCase != null) && !testSuites.isEmpty()) {
+                        testSuites.peek().testCases.add(currentTestCase);
+                    }
+                    currentTestCase = null;
+                } else if (element.equals("testsuite") && !testSuites.isEmpty()) {
+                    listener.testSuiteLoaded(testSuites.pop().toTestSuite());
+                    testSuiteCount++;
+                }
+            }
+        }
+        return testSuiteCount;
+    }
+
+    private TestCase basicTestCaseFrom(final XMLStreamReader reader) {
+        String name = attribute(reader, "name");
+        String classname = attribute(reader, "classname");
+        double timeValue = timeFrom(attribute(reader, "time"));
+        return TestCase.withName(name).andClassname(classname).andTime(timeValue);
+    }
+
+    private double timeFrom(final String time) {
+        double timeValue = 0.0;
+        if (StringUtils.isNotEmpty(time)) {
+            timeValue = Double.parseDouble(time);
+        }
+        return timeValue;
+    }
+
+    private String attribute(final XMLStreamReader reader, final String name) {
+        return Strings.nullToEmpty(reader.getAttributeValue(null, name));
+    }
+
+    private TestException exceptionFrom(final XMLStreamReader reader, final String exceptionType)
+            throws XMLStreamException {
+        String message = attribute(reader, "message");
+        String errorOutput = readTextContent(reader);
+        return new TestException(message, errorOutput, exceptionType);
+    }
+
+    /**
+     * Read the text of the current element, up to the maximum output length.
+     * Any text beyond the maximum length is counted but never copied.
+     */
+    private String readTextContent(final XMLStreamReader reader) throws XMLStreamException {
+        StringBuilder text = new StringBuilder();
+        long skippedCharacters = 0;
+        int depth = 1;
+        while (depth > 0) {
+            int event = reader.next();
+            if (event == XMLStreamConstants.START_ELEMENT) {
+                depth++;
+            } else if (event == XMLStreamConstants.END_ELEMENT) {
+                depth--;
+            } else if (isText(event)) {
+                int available = maximumOutputLength - text.length();
+                int length = reader.getTextLength();
+                int copied = Math.max(0, Math.min(available, length));
+                text.append(reader.getTextCharacters(), reader.getTextStart(), copied);
+                skippedCharacters += length - copied;
+            }
+        }
+        if (skippedCharacters > 0) {
+            text.append(String.format(TRUNCATED_OUTPUT, skippedCharacters));
+        }
+        return text.toString();
+    }
+
+    private boolean isText(final int event) {
+        return (event == XMLStreamConstants.CHARACTERS)
+                || (event == XMLStreamConstants.CDATA)
+                || (event == XMLStreamConstants.SPACE);
+    }
+
+    private void skipElement(final XMLStreamReader reader) throws XMLStreamException {
+        int depth = 1;
+        while (depth > 0) {
+            int event = reader.next();
+            if (event == XMLStreamConstants.START_ELEMENT) {
+                depth++;
+            } else if (event == XMLStreamConstants.END_ELEMENT) {
+                depth--;
+            }
+        }
+    }
+
+    private static final class TestSuiteInProgress {
+        private final String name;
+        private final List<TestCase> testCases = Lists.newArrayList();
+
+        private TestSuiteInProgress(final String name) {
+            this.name = name;
+        }
+
+        private TestSuite toTestSuite() {
+            return TestSuite.named(name).withTestCases(testCases);
+        }
+    }
+}
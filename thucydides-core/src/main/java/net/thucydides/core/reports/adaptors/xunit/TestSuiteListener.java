@@ -0,0 +1,10 @@
+package net.thucydides.core.reports.adaptors.xunit;
+
+import net.thucydides.core.reports.adaptors.xunit.model.TestSuite;
+
+/**
+ * Receives the test suites in an xUnit file one at a time, as soon as each one has been read.
+ */
+public interface TestSuiteListener {
+    void testSuiteLoaded(TestSuite testSuite);
+}
@@ -0,0 +1,223 @@
+package net.thucydides.core.reports.binary;
+
+import com.google.common.base.Optional;
+import com.google.common.collect.ImmutableList;
+import net.thucydides.core.digest.Digest;
+import net.thucydides.core.model.TestOutcome;
+import net.thucydides.core.reports.ReportGenerationFailedError;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.lang.reflect.Method;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+
+/**
+ * The test outcomes in a memory-mapped test outcome archive.
+ * The offset of each record is worked out when the archive is opened, by stepping from one record header to the
+ * next, so any test outcome can then be read directly without reading the ones before it.
+ * If the same test outcome was archived more than once (for example when tests are re-run in the same output
+ * directory), only the most recent version is kept.
+ * Each test outcome is read from its own view of the archive, so several threads can read test outcomes at once.
+ * The archive should be closed once its test outcomes have been read, to release the memory mapping: until then,
+ * some platforms (notably Windows) will not let the archive file be truncated or replaced.
+ */
+public class ArchivedTestOutcomes implements Iterable<TestOutcome>, Closeable {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(ArchivedTestOutcomes.class);
+
+    private final ByteBuffer records;
+    private final Optional<MappedByteBuffer> mapping;
+    private final List<String> reportNames;
+    private final Map<String, Record> recordsByName;
+    private volatile boolean closed = false;
+
+    private ArchivedTestOutcomes(final ByteBuffer records,
+                                 final Optional<MappedByteBuffer> mapping,
+                                 final Map<String, Record> recordsByName) {
+        this.records = records;
+        this.mapping = mapping;
+        this.recordsByName = recordsByName;
+        this.reportNames = ImmutableList.copyOf(recordsByName.keySet());
+    }
+
+    static ArchivedTestOutcomes from(final ByteBuffer records) throws IOException {
+        return new ArchivedTestOutcomes(records, Optional.<MappedByteBuffer>absent(), recordsIn(records));
+    }
+
+    /**
+     * The test outcomes in a mapped archive file, whose records start at the given position.
+     */
+    static ArchivedTestOutcomes from(final MappedByteBuffer mapping, final int recordsStart) throws IOException {
+        ByteBuffer view = mapping.duplicate();
+        view.position(recordsStart);
+        ByteBuffer records = view.slice();
+        return new ArchivedTestOutcomes(records, Optional.of(mapping), recordsIn(records));
+    }
+
+    private static Map<String, Record> recordsIn(final ByteBuffer records) throws IOException {
+        Map<String, Record> recordsByName = new LinkedHashMap<String, Record>();
+        int position = 0;
+        while (position + 4 <= records.limit()) {
+            int recordLength = records.getInt(position);
+            if ((recordLength <= 4) || (recordLength > records.limit() - position)) {
+                break;
+            }
+            Record record = readRecordHeader(records, position, recordLength);
+            recordsByName.remove(record.reportName);
+            recordsByName.put(record.reportName, record);
+            position += recordLength;
+        }
+        return recordsByName;
+    }
+
+    private static Record readRecordHeader(final ByteBuffer records, final int position, final int recordLength)
+            throws IOException {
+        ByteBuffer header = viewOf(records, position + 4, recordLength - 4);
+        String reportName = new DataInputStream(new ByteBufferInputStream(header)).readUTF();
+        int outcomeStart = header.position();
+        return new Record(reportName, position, outcomeStart, position + recordLength);
+    }
+
+    private static ByteBuffer viewOf(final ByteBuffer records, final int start, final int length) {
+        ByteBuffer view = records.duplicate();
+        view.limit(start + length);
+        view.position(start);
+        return view;
+    }
+
+    public int size() {
+        return reportNames.size();
+    }
+
+    /**
+     * The report names of the archived test outcomes, as used for the XML and HTML reports of each test.
+     */
+    public List<String> getReportNames() {
+        return reportNames;
+    }
+
+    public boolean contains(final String reportName) {
+        return recordsByName.containsKey(reportName);
+    }
+
+    public Optional<TestOutcome> load(final String reportName) throws IOException {
+        Record record = recordsByName.get(reportName);
+        if (record == null) {
+            return Optional.absent();
+        }
+        return Optional.of(load(record));
+    }
+
+    /**
+     * A digest of the stored form of a test outcome, which changes whenever the test outcome changes.
+     */
+    public String digestOf(final String reportName) {
+        Record record = recordsByName.get(reportName);
+        if ((record == null) || closed) {
+            return null;
+        }
+        ByteBuffer view = viewOf(records, record.start, record.end - record.start);
+        byte[] bytes = new byte[view.remaining()];
+        view.get(bytes);
+        return Digest.ofBytes(bytes);
+    }
+
+    private TestOutcome load(final Record record) throws IOException {
+        if (closed) {
+            throw new IOException("The test outcome archive has been closed");
+        }
+        ByteBuffer outcome = viewOf(records, record.outcomeStart, record.end - record.outcomeStart);
+        BinaryTestOutcomeParser parser = new BinaryTestOutcomeParser(new ByteBufferInputStream(outcome));
+        if (!parser.hasBinaryTestOutcome()) {
+            throw new IOException("Corrupted test outcome archive record: " + record.reportName);
+        }
+        return parser.readTestOutcome();
+    }
+
+    /**
+     * Read through the archived test outcomes one at a time.
+     */
+    @Override
+    public Iterator<TestOutcome> iterator() {
+        final Iterator<Record> archivedRecords = new ArrayList<Record>(recordsByName.values()).iterator();
+        return new Iterator<TestOutcome>() {
+            @Override
+            public boolean hasNext() {
+                return archivedRecords.hasNext();
+            }
+
+            @Override
+            public TestOutcome next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                Record record = archivedRecords.next();
+                try {
+                    return load(record);
+                } catch (IOException e) {
+                    throw new ReportGenerationFailedError("Could not load archived test outcome " + record.reportName, e);
+                }
+            }
+
+            @Override
+            public void remove() {
+                throw new UnsupportedOperationException("Test outcomes cannot be removed from an archive");
+            }
+        };
+    }
+
+    /**
+     * Release the memory mapping of the archive. No test outcome can be read once the archive has been closed.
+     * The mapping is released straight away where the JVM allows it, and otherwise when it is garbage-collected.
+     */
+    @Override
+    public void close() {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        if (mapping.isPresent()) {
+            unmap(mapping.get());
+        }
+    }
+
+    private static void unmap(final MappedByteBuffer mapping) {
+        try {
+            Method cleanerMethod = mapping.getClass().getMethod("cleaner");
+            cleanerMethod.setAccessible(true);
+            Object cleaner = cleanerMethod.invoke(mapping);
+            if (cleaner != null) {
+                Method cleanMethod = cleaner.getClass().getMethod("clean");
+                cleanMethod.setAccessible(true);
+                cleanMethod.invoke(cleaner);
+            }
+        } catch (Exception e) {
+            LOGGER.debug("Could not release the test outcome archive mapping: {}", e.getMessage());
+        }
+    }
+
+    private static final class Record {
+        private final String reportName;
+        private final int start;
+        private final int outcomeStart;
+        private final int end;
+
+        private Record(final String reportName, final int start, final int outcomeStart, final int end) {
+            this.reportName = reportName;
+            this.start = start;
+            this.outcomeStart = outcomeStart;
+            this.end = end;
+        }
+    }
+}
@@ -0,0 +1,67 @@
+package net.thucydides.core.reports.binary;
+
+import com.google.common.base.Preconditions;
+import net.thucydides.core.ThucydidesSystemProperty;
+import net.thucydides.core.guice.Injectors;
+import net.thucydides.core.model.TestOutcome;
+import net.thucydides.core.reports.AcceptanceTestReporter;
+import net.thucydides.core.reports.TestOutcomes;
+import net.thucydides.core.util.EnvironmentVariables;
+
+import java.io.File;
+import java.io.IOException;
+
+/**
+ * Adds each test outcome to the test outcome archive in the output directory, rather than to a file of its own.
+ * Used when the thucydides.outcome.archive property is set.
+ * The test run is identified by the thucydides.run.id property, or else by the BUILD_ID environment variable, so that
+ * the archive is emptied at the start of each new run.
+ */
+public class ArchivingTestOutcomeReporter implements AcceptanceTestReporter {
+
+    private static final String BUILD_ID = "BUILD_ID";
+
+    private final String runIdentifier;
+
+    private File outputDirectory;
+
+    private transient String qualifier;
+
+    public ArchivingTestOutcomeReporter() {
+        this(Injectors.getInjector().getInstance(EnvironmentVariables.class));
+    }
+
+    public ArchivingTestOutcomeReporter(final EnvironmentVariables environmentVariables) {
+        this.runIdentifier = environmentVariables.getProperty(ThucydidesSystemProperty.THUCYDIDES_RUN_ID,
+                                                              environmentVariables.getValue(BUILD_ID));
+    }
+
+    public String getName() {
+        return "archive";
+    }
+
+    public void setQualifier(final String qualifier) {
+        this.qualifier = qualifier;
+    }
+
+    /**
+     * We don't need any resources for the archive.
+     */
+    public void setResourceDirectory(final String resourceDirectoryPath) {
+    }
+
+    public File generateReportFor(final TestOutcome testOutcome, final TestOutcomes allTestOutcomes) throws IOException {
+        Preconditions.checkNotNull(outputDirectory);
+        TestOutcomeArchive archive = TestOutcomeArchive.in(getOutputDirectory()).forRun(runIdentifier);
+        archive.append(testOutcome.withQualifier(qualifier));
+        return archive.getArchiveFile();
+    }
+
+    public File getOutputDirectory() {
+        return outputDirectory;
+    }
+
+    public void setOutputDirectory(final File outputDirectory) {
+        this.outputDirectory = outputDirectory;
+    }
+}
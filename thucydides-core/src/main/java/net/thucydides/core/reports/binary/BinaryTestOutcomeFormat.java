@@ -0,0 +1,38 @@
+package net.thucydides.core.reports.binary;
+
+/**
+ * Layout of the binary test outcome files.
+ * A file starts with a magic number and a format version, followed by a table of every distinct string used
+ * in the test outcome, and then by the test outcome itself, with strings written as indexes into the table.
+ * Strings, lists and the test outcome are all prefixed with their length, and integers are written as
+ * variable-length values, so most counts and indexes only take a single byte.
+ */
+final class BinaryTestOutcomeFormat {
+
+    static final int MAGIC_NUMBER = 0x54484F43;
+
+    /**
+     * Version 2 added the test case name of each test outcome and the exception type of each failing step.
+     */
+    static final int CURRENT_VERSION = 2;
+
+    static final int VERSION_2 = 2;
+
+    /**
+     * The error message recorded for a failing step with no message of its own, as in the XML reports.
+     */
+    static final String DEFAULT_ERROR_MESSAGE = "Unspecified failure";
+
+    /**
+     * Index used for null strings: the strings in the table are numbered from 1.
+     */
+    static final int NULL_STRING = 0;
+
+    static final int MANUAL_TEST = 1;
+    static final int HAS_USER_STORY = 2;
+    static final int HAS_FEATURE = 4;
+    static final int HAS_EXAMPLES = 8;
+
+    private BinaryTestOutcomeFormat() {
+    }
+}
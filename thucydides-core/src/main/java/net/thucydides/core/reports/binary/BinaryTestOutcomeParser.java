@@ -0,0 +1,270 @@
+package net.thucydides.core.reports.binary;
+
+import com.google.common.collect.Interner;
+import com.google.common.collect.Interners;
+import com.google.common.collect.Lists;
+import net.thucydides.core.model.DataTable;
+import net.thucydides.core.model.DataTableRow;
+import net.thucydides.core.model.Story;
+import net.thucydides.core.model.TestOutcome;
+import net.thucydides.core.model.TestResult;
+import net.thucydides.core.model.TestStep;
+import net.thucydides.core.model.TestTag;
+import net.thucydides.core.screenshots.ScreenshotAndHtmlSource;
+import org.joda.time.DateTime;
+
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.Charset;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static net.thucydides.core.reports.binary.BinaryTestOutcomeFormat.CURRENT_VERSION;
+import static net.thucydides.core.reports.binary.BinaryTestOutcomeFormat.VERSION_2;
+import static net.thucydides.core.reports.binary.BinaryTestOutcomeFormat.HAS_EXAMPLES;
+import static net.thucydides.core.reports.binary.BinaryTestOutcomeFormat.HAS_FEATURE;
+import static net.thucydides.core.reports.binary.BinaryTestOutcomeFormat.HAS_USER_STORY;
+import static net.thucydides.core.reports.binary.BinaryTestOutcomeFormat.MAGIC_NUMBER;
+import static net.thucydides.core.reports.binary.BinaryTestOutcomeFormat.MANUAL_TEST;
+import static net.thucydides.core.reports.binary.BinaryTestOutcomeFormat.NULL_STRING;
+
+/**
+ * Reads a single test outcome written in the binary format.
+ * The strings are shared between all the test outcomes read in the same JVM, so that the descriptions, tags and
+ * result names repeated across a large number of test outcomes are only held in memory once.
+ */
+class BinaryTestOutcomeParser {
+
+    private static final Charset UTF_8 = Charset.forName("UTF-8");
+
+    private static final Interner<String> SHARED_STRINGS = Interners.newWeakInterner();
+
+    private final DataInputStream input;
+    private String[] strings;
+    private int version;
+
+    BinaryTestOutcomeParser(final InputStream inputStream) {
+        this.input = new DataInputStream(inputStream);
+    }
+
+    /**
+     * Does this stream start like a binary test outcome?
+     * Nothing else is read if it does not, so other files with the same suffix can be safely ignored.
+     */
+    public boolean hasBinaryTestOutcome() throws IOException {
+        try {
+            return input.readInt() == MAGIC_NUMBER;
+        } catch (EOFException emptyOrShortFile) {
+            return false;
+        }
+    }
+
+    public TestOutcome readTestOutcome() throws IOException {
+        version = readVarInt();
+        if (version > CURRENT_VERSION) {
+            throw new IOException("Unsupported binary test outcome version " + version
+                                  + " (only versions up to " + CURRENT_VERSION + " can be read)");
+        }
+        readStringTable();
+        readVarInt();
+        return readOutcome();
+    }
+
+    private void readStringTable() throws IOException {
+        int stringCount = readVarInt();
+        strings = new String[stringCount + 1];
+        for (int index = 1; index <= stringCount; index++) {
+            byte[] bytes = new byte[readVarInt()];
+            input.readFully(bytes);
+            strings[index] = SHARED_STRINGS.intern(new String(bytes, UTF_8));
+        }
+    }
+
+    private TestOutcome readOutcome() throws IOException {
+        String methodName = readString();
+        TestOutcome testOutcome = new TestOutcome(methodName);
+        testOutcome.setTitle(readString());
+        String qualifier = readString();
+        if (qualifier != null) {
+            testOutcome = testOutcome.withQualifier(qualifier);
+        }
+        TestResult savedTestResult = readResult();
+        testOutcome.setDuration(readVarLong());
+        testOutcome.setStartTime(new DateTime(input.readLong()));
+        testOutcome.setSessionId(readString());
+        if (version >= VERSION_2) {
+            testOutcome.setTestCaseName(readString());
+        }
+
+        int flags = readVarInt();
+        if ((flags & MANUAL_TEST) != 0) {
+            testOutcome = testOutcome.asManualTest();
+        }
+        if ((flags & HAS_USER_STORY) != 0) {
+            testOutcome.setUserStory(readUserStory((flags & HAS_FEATURE) != 0));
+        }
+        for (String issue : readStrings()) {
+            testOutcome.isRelatedToIssue(issue);
+        }
+        Set<TestTag> tags = readTags();
+        if (!tags.isEmpty()) {
+            testOutcome.setTags(tags);
+        }
+        if ((flags & HAS_EXAMPLES) != 0) {
+            testOutcome.useExamplesFrom(readExamples());
+        }
+        testOutcome.recordSteps(readSteps());
+        if (testOutcome.getStepCount().equals(0)) {
+            testOutcome.setAnnotatedResult(savedTestResult);
+        }
+        return testOutcome;
+    }
+
+    private Story readUserStory(final boolean hasFeature) throws IOException {
+        String storyId = readString();
+        String storyName = readString();
+        String storyPath = readString();
+        if (hasFeature) {
+            String featureId = readString();
+            String featureName = readString();
+            return Story.withId(storyId, storyName, featureId, featureName).withPath(storyPath);
+        }
+        return Story.withIdAndPath(storyId, storyName, storyPath);
+    }
+
+    private Set<TestTag> readTags() throws IOException {
+        int tagCount = readVarInt();
+        Set<TestTag> tags = new HashSet<TestTag>();
+        for (int i = 0; i < tagCount; i++) {
+            String name = readString();
+            String type = readString();
+            tags.add(TestTag.withName(name).andType(type));
+        }
+        return tags;
+    }
+
+    private DataTable readExamples() throws IOException {
+        List<String> headers = readStrings();
+        int rowCount = readVarInt();
+        List<DataTableRow> rows = Lists.newArrayListWithCapacity(rowCount);
+        for (int i = 0; i < rowCount; i++) {
+            TestResult result = readResult();
+            DataTableRow row = new DataTableRow(readStrings());
+            if (result != null) {
+                row.setResult(result);
+            }
+            rows.add(row);
+        }
+        return DataTable.withHeaders(headers).andRowData(rows).build();
+    }
+
+    private List<TestStep> readSteps() throws IOException {
+        int stepCount = readVarInt();
+        List<TestStep> steps = Lists.newArrayListWithCapacity(stepCount);
+        for (int i = 0; i < stepCount; i++) {
+            steps.add(readStep());
+        }
+        return steps;
+    }
+
+    private TestStep readStep() throws IOException {
+        TestStep step = new TestStep(readString());
+        step.setResult(readResult());
+        step.setDuration(readVarLong());
+        int screenshotCount = readVarInt();
+        for (int i = 0; i < screenshotCount; i++) {
+            String screenshot = readString();
+            String source = readString();
+            if (source != null) {
+                step.addScreenshot(new ScreenshotAndHtmlSource(new File(screenshot), new File(source)));
+            } else {
+                step.addScreenshot(new ScreenshotAndHtmlSource(new File(screenshot)));
+            }
+        }
+        String errorMessage = readString();
+        String exceptionType = (version >= VERSION_2) ? readString() : null;
+        if (errorMessage != null) {
+            step.testAborted(new StoredFailure(errorMessage, exceptionType));
+        }
+        for (TestStep child : readSteps()) {
+            step.addChildStep(child);
+        }
+        return step;
+    }
+
+    private TestResult readResult() throws IOException {
+        String result = readString();
+        return (result != null) ? TestResult.valueOf(result) : null;
+    }
+
+    private List<String> readStrings() throws IOException {
+        int count = readVarInt();
+        List<String> values = Lists.newArrayListWithCapacity(count);
+        for (int i = 0; i < count; i++) {
+            values.add(readString());
+        }
+        return values;
+    }
+
+    private String readString() throws IOException {
+        int index = readVarInt();
+        if (index == NULL_STRING) {
+            return null;
+        }
+        if (index >= strings.length) {
+            throw new IOException("Corrupted binary test outcome: unknown string " + index);
+        }
+        return strings[index];
+    }
+
+    private int readVarInt() throws IOException {
+        return (int) readVarLong();
+    }
+
+    private long readVarLong() throws IOException {
+        long value = 0;
+        int shift = 0;
+        while (true) {
+            byte nextByte = input.readByte();
+            value |= (long) (nextByte & 0x7F) << shift;
+            if ((nextByte & 0x80) == 0) {
+                return value;
+            }
+            shift += 7;
+            if (shift > 63) {
+                throw new IOException("Corrupted binary test outcome: variable-length value is too long");
+            }
+        }
+    }
+
+    /**
+     * The error message and exception type recorded for a failing step. The original exception is not stored, so
+     * there is no point in keeping a stack trace for it.
+     */
+    static class StoredFailure extends Throwable {
+        private final String exceptionType;
+
+        StoredFailure(final String message, final String exceptionType) {
+            super(message);
+            this.exceptionType = exceptionType;
+        }
+
+        String getExceptionType() {
+            return exceptionType;
+        }
+
+        @Override
+        public String toString() {
+            return (exceptionType != null) ? exceptionType + ": " + getMessage() : getMessage();
+        }
+
+        @Override
+        public synchronized Throwable fillInStackTrace() {
+            return this;
+        }
+    }
+}
@@ -0,0 +1,92 @@
+package net.thucydides.core.reports.binary;
+
+import com.google.common.base.Optional;
+import com.google.common.base.Preconditions;
+import net.thucydides.core.model.TestOutcome;
+import net.thucydides.core.reports.AcceptanceTestReporter;
+import net.thucydides.core.reports.TestOutcomeReader;
+import net.thucydides.core.reports.TestOutcomes;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.Locale;
+
+import static net.thucydides.core.model.ReportType.BINARY;
+
+/**
+ * Stores test outcomes in a compact binary form, which is much smaller and faster to read than the XML reports.
+ * Binary reports are only written when the thucydides.binary.reports property is set, but the aggregate reports
+ * will use them in preference to the XML reports whenever they are present.
+ */
+public class BinaryTestOutcomeReporter implements AcceptanceTestReporter, TestOutcomeReader {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(BinaryTestOutcomeReporter.class);
+
+    private static final String BINARY_SUFFIX = "." + BINARY.toString();
+
+    private File outputDirectory;
+
+    private transient String qualifier;
+
+    public String getName() {
+        return "binary";
+    }
+
+    public void setQualifier(final String qualifier) {
+        this.qualifier = qualifier;
+    }
+
+    /**
+     * We don't need any resources for binary reports.
+     */
+    public void setResourceDirectory(final String resourceDirectoryPath) {
+    }
+
+    public File generateReportFor(final TestOutcome testOutcome, final TestOutcomes allTestOutcomes) throws IOException {
+        TestOutcome storedTestOutcome = testOutcome.withQualifier(qualifier);
+        Preconditions.checkNotNull(outputDirectory);
+
+        File report = new File(getOutputDirectory(), storedTestOutcome.getReportName(BINARY));
+        OutputStream outputStream = new BufferedOutputStream(new FileOutputStream(report));
+        try {
+            new BinaryTestOutcomeWriter().write(storedTestOutcome, outputStream);
+        } finally {
+            outputStream.close();
+        }
+        return report;
+    }
+
+    public boolean canRead(final File reportFile) {
+        return reportFile.getName().toLowerCase(Locale.getDefault()).endsWith(BINARY_SUFFIX);
+    }
+
+    public Optional<TestOutcome> loadReportFrom(final File reportFile) throws IOException {
+        InputStream inputStream = new BufferedInputStream(new FileInputStream(reportFile));
+        try {
+            BinaryTestOutcomeParser parser = new BinaryTestOutcomeParser(inputStream);
+            if (!parser.hasBinaryTestOutcome()) {
+                LOGGER.warn("Tried to load a file that is not a thucydides report: " + reportFile);
+                return Optional.absent();
+            }
+            return Optional.of(parser.readTestOutcome());
+        } finally {
+            inputStream.close();
+        }
+    }
+
+    public File getOutputDirectory() {
+        return outputDirectory;
+    }
+
+    public void setOutputDirectory(final File outputDirectory) {
+        this.outputDirectory = outputDirectory;
+    }
+}
@@ -0,0 +1,239 @@
+package net.thucydides.core.reports.binary;
+
+import net.thucydides.core.model.DataTable;
+import net.thucydides.core.model.DataTableRow;
+import net.thucydides.core.model.Story;
+import net.thucydides.core.model.TestOutcome;
+import net.thucydides.core.model.TestResult;
+import net.thucydides.core.model.TestStep;
+import net.thucydides.core.model.TestTag;
+import net.thucydides.core.model.features.ApplicationFeature;
+import net.thucydides.core.reports.binary.BinaryTestOutcomeParser.StoredFailure;
+import net.thucydides.core.screenshots.ScreenshotAndHtmlSource;
+import org.apache.commons.lang3.StringUtils;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.Charset;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static net.thucydides.core.reports.binary.BinaryTestOutcomeFormat.CURRENT_VERSION;
+import static net.thucydides.core.reports.binary.BinaryTestOutcomeFormat.DEFAULT_ERROR_MESSAGE;
+import static net.thucydides.core.reports.binary.BinaryTestOutcomeFormat.HAS_EXAMPLES;
+import static net.thucydides.core.reports.binary.BinaryTestOutcomeFormat.HAS_FEATURE;
+import static net.thucydides.core.reports.binary.BinaryTestOutcomeFormat.HAS_USER_STORY;
+import static net.thucydides.core.reports.binary.BinaryTestOutcomeFormat.MAGIC_NUMBER;
+import static net.thucydides.core.reports.binary.BinaryTestOutcomeFormat.MANUAL_TEST;
+import static net.thucydides.core.reports.binary.BinaryTestOutcomeFormat.NULL_STRING;
+
+/**
+ * Writes a single test outcome in the binary format.
+ * A writer collects the strings used by the test outcome as it goes, so a new one is needed for each test outcome.
+ */
+class BinaryTestOutcomeWriter {
+
+    private static final Charset UTF_8 = Charset.forName("UTF-8");
+
+    private final Map<String, Integer> stringIndexes = new LinkedHashMap<String, Integer>();
+    private final ByteArrayOutputStream body = new ByteArrayOutputStream();
+    private final DataOutputStream bodyOutput = new DataOutputStream(body);
+
+    public void write(final TestOutcome testOutcome, final OutputStream outputStream) throws IOException {
+        writeOutcome(testOutcome);
+        bodyOutput.flush();
+
+        DataOutputStream output = new DataOutputStream(outputStream);
+        output.writeInt(MAGIC_NUMBER);
+        writeVarInt(output, CURRENT_VERSION);
+        writeStringTable(output);
+        writeVarInt(output, body.size());
+        body.writeTo(output);
+        output.flush();
+    }
+
+    private void writeStringTable(final DataOutputStream output) throws IOException {
+        writeVarInt(output, stringIndexes.size());
+        for (String value : stringIndexes.keySet()) {
+            byte[] bytes = value.getBytes(UTF_8);
+            writeVarInt(output, bytes.length);
+            output.write(bytes);
+        }
+    }
+
+    private void writeOutcome(final TestOutcome testOutcome) throws IOException {
+        writeString(testOutcome.getMethodName() != null ? testOutcome.getMethodName() : testOutcome.getTitle());
+        writeString(testOutcome.getTitle());
+        writeString(qualifierOf(testOutcome));
+        writeResult(testOutcome.getResult());
+        writeVarLong(testOutcome.getDuration());
+        bodyOutput.writeLong(testOutcome.getStartTime().getMillis());
+        writeString(testOutcome.getSessionId());
+        writeString(testOutcome.getTestCaseName());
+
+        Story userStory = testOutcome.getUserStory();
+        ApplicationFeature feature = (userStory != null) ? userStory.getFeature() : null;
+        writeVarInt(bodyOutput, flagsFor(testOutcome, userStory, feature));
+        if (userStory != null) {
+            writeString(userStory.getId());
+            writeString(userStory.getName());
+            writeString(userStory.getPath());
+            if (feature != null) {
+                writeString(feature.getId());
+                writeString(feature.getName());
+            }
+        }
+        writeStrings(testOutcome.getIssues());
+        writeTags(testOutcome.getTags());
+        if (hasExamples(testOutcome)) {
+            writeExamples(testOutcome.getDataTable());
+        }
+        writeSteps(testOutcome.getTestSteps());
+    }
+
+    private String qualifierOf(final TestOutcome testOutcome) {
+        if ((testOutcome.getQualifier() != null) && testOutcome.getQualifier().isPresent()) {
+            return testOutcome.getQualifier().get();
+        }
+        return null;
+    }
+
+    private int flagsFor(final TestOutcome testOutcome, final Story userStory, final ApplicationFeature feature) {
+        int flags = 0;
+        if (testOutcome.isManual()) {
+            flags |= MANUAL_TEST;
+        }
+        if (userStory != null) {
+            flags |= HAS_USER_STORY;
+        }
+        if (feature != null) {
+            flags |= HAS_FEATURE;
+        }
+        if (hasExamples(testOutcome)) {
+            flags |= HAS_EXAMPLES;
+        }
+        return flags;
+    }
+
+    private boolean hasExamples(final TestOutcome testOutcome) {
+        return (testOutcome.getDataTable() != null) && (!testOutcome.getDataTable().getRows().isEmpty());
+    }
+
+    private void writeTags(final Collection<TestTag> tags) throws IOException {
+        writeVarInt(bodyOutput, tags.size());
+        for (TestTag tag : tags) {
+            writeString(tag.getName());
+            writeString(tag.getType());
+        }
+    }
+
+    private void writeExamples(final DataTable dataTable) throws IOException {
+        writeStrings(dataTable.getHeaders());
+        List<DataTableRow> rows = dataTable.getRows();
+        writeVarInt(bodyOutput, rows.size());
+        for (DataTableRow row : rows) {
+            writeResult(row.getResult());
+            List<?> values = row.getValues();
+            writeVarInt(bodyOutput, values.size());
+            for (Object value : values) {
+                writeString(value != null ? value.toString() : null);
+            }
+        }
+    }
+
+    private void writeSteps(final List<TestStep> steps) throws IOException {
+        writeVarInt(bodyOutput, steps.size());
+        for (TestStep step : steps) {
+            writeStep(step);
+        }
+    }
+
+    private void writeStep(final TestStep step) throws IOException {
+        writeString(step.getDescription());
+        writeResult(step.getResult());
+        writeVarLong(step.getDuration());
+        writeScreenshots(step.getScreenshots());
+        writeString(errorMessageFor(step));
+        writeString(exceptionTypeFor(step));
+        writeSteps(step.getChildren());
+    }
+
+    private String errorMessageFor(final TestStep step) {
+        if (step.isFailure() || step.isError()) {
+            return StringUtils.isEmpty(step.getErrorMessage()) ? DEFAULT_ERROR_MESSAGE : step.getErrorMessage();
+        }
+        return null;
+    }
+
+    private String exceptionTypeFor(final TestStep step) {
+        if ((step.isFailure() || step.isError()) && (step.getException() != null)) {
+            Throwable exception = step.getException();
+            if (exception instanceof StoredFailure) {
+                return ((StoredFailure) exception).getExceptionType();
+            }
+            return exception.getClass().getName();
+        }
+        return null;
+    }
+
+    private void writeScreenshots(final List<ScreenshotAndHtmlSource> screenshots) throws IOException {
+        if (screenshots == null) {
+            writeVarInt(bodyOutput, 0);
+            return;
+        }
+        writeVarInt(bodyOutput, screenshots.size());
+        for (ScreenshotAndHtmlSource screenshot : screenshots) {
+            writeString(screenshot.getScreenshotFile().getName());
+            writeString(screenshot.getSourcecode().isPresent() ? screenshot.getSourcecode().get().getName() : null);
+        }
+    }
+
+    private void writeResult(final TestResult result) throws IOException {
+        writeString(result != null ? result.name() : null);
+    }
+
+    private void writeStrings(final Collection<String> values) throws IOException {
+        writeVarInt(bodyOutput, values.size());
+        for (String value : values) {
+            writeString(value);
+        }
+    }
+
+    private void writeString(final String value) throws IOException {
+        writeVarInt(bodyOutput, indexOf(value));
+    }
+
+    private int indexOf(final String value) {
+        if (value == null) {
+            return NULL_STRING;
+        }
+        Integer index = stringIndexes.get(value);
+        if (index == null) {
+            index = stringIndexes.size() + 1;
+            stringIndexes.put(value, index);
+        }
+        return index;
+    }
+
+    private void writeVarLong(final long value) throws IOException {
+        long remaining = value;
+        while ((remaining & ~0x7FL) != 0) {
+            bodyOutput.writeByte((int) ((remaining & 0x7F) | 0x80));
+            remaining >>>= 7;
+        }
+        bodyOutput.writeByte((int) remaining);
+    }
+
+    private static void writeVarInt(final DataOutputStream output, final int value) throws IOException {
+        int remaining = value;
+        while ((remaining & ~0x7F) != 0) {
+            output.writeByte((remaining & 0x7F) | 0x80);
+            remaining >>>= 7;
+        }
+        output.writeByte(remaining);
+    }
+}
@@ -0,0 +1,204 @@
+package net.thucydides.core.reports.binary;
+
+import net.thucydides.core.model.TestOutcome;
+import org.apache.commons.codec.digest.DigestUtils;
+import org.apache.commons.lang3.StringUtils;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+
+import static net.thucydides.core.model.ReportType.ROOT;
+
+/**
+ * A single file holding the test outcomes of a test run, in the binary format.
+ * The archive starts with a header containing a magic number, the format version, the number of records, the
+ * length of the archive and an identifier of the test run, followed by one record per test outcome. Each record
+ * holds its length, the report name of the test outcome, and the test outcome itself.
+ * Test outcomes are appended under an exclusive file lock, and the header is only updated once a record has been
+ * completely written, so several test JVMs can safely add their test outcomes to the same archive: a record left
+ * half-written by a JVM that crashed is never read, and is overwritten by the next test outcome.
+ * When test outcomes are added for a given test run, an archive left by another test run is emptied first, so that
+ * it only ever holds the test outcomes of a single run. The test JVMs of a run must use the same run identifier.
+ * An archive with no run identifier keeps the test outcomes of every run, the most recent copy of each one winning.
+ */
+public class TestOutcomeArchive {
+
+    public static final String ARCHIVE_FILE = "test-outcomes.archive";
+
+    static final int ARCHIVE_MAGIC_NUMBER = 0x54484F41;
+    static final int ARCHIVE_VERSION = 2;
+    static final int HEADER_SIZE = 28;
+    private static final int FIRST_VERSION_HEADER_SIZE = 20;
+    private static final int RECORD_COUNT_POSITION = 8;
+    private static final int ARCHIVE_LENGTH_POSITION = 12;
+    private static final int RUN_ID_POSITION = 20;
+
+    private static final long NO_RUN_ID = 0;
+
+    /**
+     * File locks are held by the whole JVM, so threads in the same JVM also need to take turns.
+     */
+    private static final Object LOCAL_ARCHIVE_LOCK = new Object();
+
+    private final File archiveFile;
+    private final long runId;
+
+    private TestOutcomeArchive(final File archiveFile, final long runId) {
+        this.archiveFile = archiveFile;
+        this.runId = runId;
+    }
+
+    public static TestOutcomeArchive in(final File directory) {
+        return new TestOutcomeArchive(new File(directory, ARCHIVE_FILE), NO_RUN_ID);
+    }
+
+    /**
+     * The archive used to add the test outcomes of a given test run.
+     * @param runIdentifier identifies the test run, or null if the archive should not be emptied between runs
+     */
+    public TestOutcomeArchive forRun(final String runIdentifier) {
+        return new TestOutcomeArchive(archiveFile, runIdFrom(runIdentifier));
+    }
+
+    private static long runIdFrom(final String runIdentifier) {
+        if (StringUtils.isEmpty(runIdentifier)) {
+            return NO_RUN_ID;
+        }
+        long runId = ByteBuffer.wrap(DigestUtils.sha256(runIdentifier)).getLong();
+        return (runId == NO_RUN_ID) ? 1 : runId;
+    }
+
+    public File getArchiveFile() {
+        return archiveFile;
+    }
+
+    public boolean exists() {
+        return archiveFile.isFile();
+    }
+
+    public void append(final TestOutcome testOutcome) throws IOException {
+        byte[] record = recordFor(testOutcome);
+        synchronized (LOCAL_ARCHIVE_LOCK) {
+            RandomAccessFile file = new RandomAccessFile(archiveFile, "rw");
+            try {
+                FileChannel channel = file.getChannel();
+                FileLock lock = channel.lock();
+                try {
+                    appendRecordTo(file, record);
+                } finally {
+                    lock.release();
+                }
+            } finally {
+                file.close();
+            }
+        }
+    }
+
+    private void appendRecordTo(final RandomAccessFile file, final byte[] record) throws IOException {
+        if ((file.length() < HEADER_SIZE) || !isFromThisRun(file)) {
+            writeEmptyHeaderTo(file);
+        }
+        file.seek(RECORD_COUNT_POSITION);
+        int recordCount = file.readInt();
+        long archiveLength = file.readLong();
+
+        file.seek(archiveLength);
+        file.write(record);
+        file.getChannel().force(false);
+
+        file.seek(RECORD_COUNT_POSITION);
+        file.writeInt(recordCount + 1);
+        file.writeLong(archiveLength + record.length);
+        file.getChannel().force(false);
+    }
+
+    /**
+     * Archives written in the first version of the format have no run identifier, so are always replaced.
+     */
+    private boolean isFromThisRun(final RandomAccessFile file) throws IOException {
+        file.seek(0);
+        int version = checkHeaderOf(file);
+        if (version < ARCHIVE_VERSION) {
+            return false;
+        }
+        if (runId == NO_RUN_ID) {
+            return true;
+        }
+        file.seek(RUN_ID_POSITION);
+        return (file.readLong() == runId);
+    }
+
+    private void writeEmptyHeaderTo(final RandomAccessFile file) throws IOException {
+        file.setLength(0);
+        file.writeInt(ARCHIVE_MAGIC_NUMBER);
+        file.writeInt(ARCHIVE_VERSION);
+        file.writeInt(0);
+        file.writeLong(HEADER_SIZE);
+        file.writeLong(runId);
+    }
+
+    private int checkHeaderOf(final RandomAccessFile file) throws IOException {
+        if (file.readInt() != ARCHIVE_MAGIC_NUMBER) {
+            throw new IOException(archiveFile + " is not a test outcome archive");
+        }
+        int version = file.readInt();
+        if (version > ARCHIVE_VERSION) {
+            throw new IOException("Unsupported test outcome archive version " + version);
+        }
+        return version;
+    }
+
+    private int headerSizeFor(final int version) {
+        return (version < ARCHIVE_VERSION) ? FIRST_VERSION_HEADER_SIZE : HEADER_SIZE;
+    }
+
+    private byte[] recordFor(final TestOutcome testOutcome) throws IOException {
+        ByteArrayOutputStream outcome = new ByteArrayOutputStream();
+        new BinaryTestOutcomeWriter().write(testOutcome, outcome);
+
+        ByteArrayOutputStream record = new ByteArrayOutputStream(outcome.size() + 128);
+        DataOutputStream recordOutput = new DataOutputStream(record);
+        recordOutput.writeInt(0);
+        recordOutput.writeUTF(testOutcome.getReportName(ROOT));
+        outcome.writeTo(recordOutput);
+        recordOutput.flush();
+
+        byte[] recordBytes = record.toByteArray();
+        ByteBuffer.wrap(recordBytes).putInt(0, recordBytes.length);
+        return recordBytes;
+    }
+
+    /**
+     * Map the archive into memory, so that the test outcomes can be read without any further file access.
+     * Only the records that were completely written when the archive was opened are visible.
+     * The returned test outcomes should be closed once they have been read, to release the mapping.
+     */
+    public ArchivedTestOutcomes open() throws IOException {
+        RandomAccessFile file = new RandomAccessFile(archiveFile, "r");
+        try {
+            if (file.length() < FIRST_VERSION_HEADER_SIZE) {
+                return ArchivedTestOutcomes.from(ByteBuffer.allocate(0));
+            }
+            int headerSize = headerSizeFor(checkHeaderOf(file));
+            file.seek(ARCHIVE_LENGTH_POSITION);
+            long archiveLength = Math.min(file.readLong(), file.length());
+            if (archiveLength <= headerSize) {
+                return ArchivedTestOutcomes.from(ByteBuffer.allocate(0));
+            }
+            if (archiveLength > Integer.MAX_VALUE) {
+                throw new IOException("Test outcome archive " + archiveFile + " is too large to be mapped into memory");
+            }
+            MappedByteBuffer contents = file.getChannel().map(FileChannel.MapMode.READ_ONLY, 0, archiveLength);
+            return ArchivedTestOutcomes.from(contents, headerSize);
+        } finally {
+            file.close();
+        }
+    }
+}
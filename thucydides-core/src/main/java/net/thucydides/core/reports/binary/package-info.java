@@ -0,0 +1,4 @@
+/**
+ * Compact binary storage of test outcomes.
+ */
+package net.thucydides.core.reports.binary;
@@ -4,6 +4,8 @@ import com.thoughtworks.xstream.XStream;
 import com.thoughtworks.xstream.io.StreamException;
 import net.thucydides.core.ThucydidesSystemProperty;
 import net.thucydides.core.guice.Injectors;
+import net.thucydides.core.model.TestResult;
+import net.thucydides.core.reports.TestOutcomeSummary;
 import net.thucydides.core.reports.TestOutcomes;
 import net.thucydides.core.requirements.reports.RequirementsOutcomes;
 import net.thucydides.core.util.EnvironmentVariables;
@@ -82,9 +84,10 @@ public class TestHistory {
     }
 
     public void updateData(TestOutcomes testOutcomes) {
-        int totalStepCount = testOutcomes.getStepCount();
-        int passingSteps =  testOutcomes.getPassingTests().getStepCount();
-        int failingSteps = testOutcomes.getFailingTests().getStepCount();
+        TestOutcomeSummary summary = testOutcomes.getSummary();
+        int totalStepCount = summary.getStepCount();
+        int passingSteps =  summary.countStepsInTestsWithResult(TestResult.SUCCESS);
+        int failingSteps = summary.countStepsInTestsWithResult(TestResult.FAILURE);
         int skippedSteps = totalStepCount - passingSteps - failingSteps;
         String buildId = getEnvironmentVariables().getValue(BUILD_ID, "MANUAL");
 
@@ -113,7 +113,6 @@ public class HtmlAcceptanceTestReporter extends HtmlReporter implements Acceptan
         addFormattersToContext(context);
         addTimestamp(testOutcome, context);
 
-        String htmlContents = mergeTemplate(DEFAULT_ACCEPTANCE_TEST_REPORT).usingContext(context);
         copyResourcesToOutputDirectory();
 
         if (containsScreenshots(storedTestOutcome)) {
@@ -121,7 +120,7 @@ public class HtmlAcceptanceTestReporter extends HtmlReporter implements Acceptan
         }
 
         String reportFilename = reportFor(storedTestOutcome);
-        return writeReportToOutputDirectory(reportFilename, htmlContents);
+        return writeReportToOutputDirectory(reportFilename, DEFAULT_ACCEPTANCE_TEST_REPORT, context);
     }
 
     private boolean containsScreenshots(TestOutcome testOutcome) {
@@ -164,8 +163,7 @@ public class HtmlAcceptanceTestReporter extends HtmlReporter implements Acceptan
         context.put("screenshots", screenshots);
         context.put("reportName", new ReportNameProvider());
         context.put("narrativeView", testOutcome.getReportName());
-        String htmlContents = mergeTemplate(DEFAULT_ACCEPTANCE_TEST_SCREENSHOT).usingContext(context);
-        writeReportToOutputDirectory(screenshotReport, htmlContents);
+        writeReportToOutputDirectory(screenshotReport, DEFAULT_ACCEPTANCE_TEST_SCREENSHOT, context);
 
     }
 
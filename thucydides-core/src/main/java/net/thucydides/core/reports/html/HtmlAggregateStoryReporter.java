@@ -1,10 +1,20 @@
 package net.thucydides.core.reports.html;
 
+import com.google.common.base.Joiner;
+import com.google.common.base.Optional;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.Lists;
+import com.google.common.collect.Sets;
 import net.thucydides.core.ThucydidesSystemProperties;
 import net.thucydides.core.ThucydidesSystemProperty;
+import net.thucydides.core.batches.BatchAllocation;
+import net.thucydides.core.batches.BatchDurationReport;
+import net.thucydides.core.digest.Digest;
 import net.thucydides.core.guice.Injectors;
 import net.thucydides.core.issues.IssueTracking;
 import net.thucydides.core.model.NumericalFormatter;
+import net.thucydides.core.model.TestOutcome;
 import net.thucydides.core.model.TestResult;
 import net.thucydides.core.model.TestTag;
 import net.thucydides.core.reports.ReportOptions;
@@ -25,9 +35,13 @@ import org.slf4j.LoggerFactory;
 
 import java.io.File;
 import java.io.IOException;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
 /**
  * Generates an aggregate acceptance test report in HTML form.
@@ -50,6 +64,10 @@ public class HtmlAggregateStoryReporter extends HtmlReporter implements UserStor
     private final RequirmentsOutcomeFactory requirementsFactory;
     private final HtmlRequirementsReporter htmlRequirementsReporter;
     private final HtmlProgressReporter htmlProgressReporter;
+    private ReportingTaskExecutor reportingTaskExecutor;
+    private Boolean incrementalReporting;
+    private Boolean lowMemoryReporting;
+    private Map<TestOutcome, String> outcomeDigests = ImmutableMap.of();
 
     public HtmlAggregateStoryReporter(final String projectName) {
         this(projectName,"");
@@ -113,19 +131,36 @@ public class HtmlAggregateStoryReporter extends HtmlReporter implements UserStor
 
         copyResourcesToOutputDirectory();
         copyTestResultsToOutputDirectory();
+        precompileTemplates();
 
-        generateAggregateReportFor(testOutcomes);
-        generateTagReportsFor(testOutcomes);
-        generateTagTypeReportsFor(testOutcomes);
+        Map<String, ScheduledReport> reportingTasks = new LinkedHashMap<String, ScheduledReport>();
+        scheduleAggregateReportFor(testOutcomes, reportingTasks);
+        scheduleTagReportsFor(testOutcomes, reportingTasks);
+        scheduleTagTypeReportsFor(testOutcomes, reportingTasks);
         for(String name : testOutcomes.getTagNames()) {
-            generateTagTypeReportsFor(testOutcomes.withTag(name), new ReportNameProvider(name));
+            scheduleTagTypeReportsFor(testOutcomes.withTag(name), new ReportNameProvider(name), reportingTasks);
         }
-        generateResultReportsFor(testOutcomes);
+        scheduleResultReportsFor(testOutcomes, reportingTasks);
+        if (isIncrementalReporting()) {
+            generateOutOfDateReports(testOutcomes, reportingTasks.values());
+        } else {
+            getReportingTaskExecutor().generateReportsFor(reportingTasks.values());
+        }
+
         generateHistoryReportFor(testOutcomes);
+        generateBatchDurationReportFor(testOutcomes);
 //        generateCoverageReportsFor(testOutcomes);
         generateRequirementsReportsFor(requirementsOutcomes);
     }
 
+    private void generateBatchDurationReportFor(TestOutcomes testOutcomes) throws IOException {
+        File allocationFile = new File(getOutputDirectory(), BatchAllocation.ALLOCATION_FILE);
+        if (allocationFile.exists()) {
+            BatchAllocation allocation = BatchAllocation.readFrom(allocationFile);
+            BatchDurationReport.comparing(allocation, testOutcomes.getOutcomes()).writeTo(getOutputDirectory());
+        }
+    }
+
     private void generateCSVReportFor(TestOutcomes testOutcomes, String reportName) throws IOException {
         CSVReporter csvReporter = new CSVReporter(getOutputDirectory(), getEnvironmentVariables());
         csvReporter.generateReportFor(testOutcomes, reportName);
@@ -162,7 +197,205 @@ public class HtmlAggregateStoryReporter extends HtmlReporter implements UserStor
     }
 
     private TestOutcomes loadTestOutcomesFrom(File sourceDirectory) throws IOException {
-        return TestOutcomeLoader.testOutcomesIn(sourceDirectory).withHistory();
+        TestOutcomeLoader loader = testOutcomeLoader();
+        if (isIncrementalReporting()) {
+            outcomeDigests = loader.loadWithDigestsFrom(sourceDirectory);
+            return TestOutcomes.of(ImmutableList.copyOf(outcomeDigests.keySet())).withHistory();
+        } else {
+            return TestOutcomes.of(loader.loadFrom(sourceDirectory)).withHistory();
+        }
+    }
+
+    /**
+     * The aggregate pages only need the title, result, tags, duration and step counts of each test, so in
+     * low-memory mode the full test outcomes are not kept once they have been read. The pages for the individual
+     * tests are written from the full test outcomes when each test finishes, and are simply copied here.
+     */
+    private TestOutcomeLoader testOutcomeLoader() {
+        TestOutcomeLoader loader = new TestOutcomeLoader();
+        return isLowMemoryReporting() ? loader.summarisingOutcomes() : loader;
+    }
+
+    /**
+     * Only generate the pages whose test outcomes, or whose shared context (such as the tag types listed in the
+     * menus, the overall test results or the test run timestamp), have changed since the reports were last generated.
+     * Pages generated during the last run that are no longer needed (for example for a tag that has disappeared)
+     * are deleted.
+     */
+    private void generateOutOfDateReports(final TestOutcomes testOutcomes,
+                                          final Collection<ScheduledReport> scheduledReports) throws IOException {
+        ReportManifest manifest = ReportManifest.loadFrom(getOutputDirectory());
+        String contextFingerprint = contextFingerprintFor(testOutcomes);
+
+        Set<String> scheduledOutputs = Sets.newHashSet();
+        List<ReportingTask> outOfDateReports = Lists.newArrayList();
+        for (ScheduledReport scheduledReport : scheduledReports) {
+            scheduledOutputs.addAll(scheduledReport.outputs);
+            Optional<String> fingerprint = fingerprintFor(scheduledReport, contextFingerprint);
+            if (fingerprint.isPresent() && isUpToDate(scheduledReport, fingerprint.get(), manifest)) {
+                recordInManifest(scheduledReport, fingerprint.get(), manifest);
+            } else {
+                outOfDateReports.add(recordingInManifest(scheduledReport, fingerprint, manifest));
+            }
+        }
+        manifest.deleteReportsOtherThan(scheduledOutputs);
+        LOGGER.info("Generating {} out of {} aggregate report pages", outOfDateReports.size(), scheduledReports.size());
+        getReportingTaskExecutor().generateReportsFor(outOfDateReports);
+        manifest.save();
+    }
+
+    private boolean isUpToDate(final ScheduledReport scheduledReport,
+                               final String fingerprint,
+                               final ReportManifest manifest) {
+        for (String output : scheduledReport.outputs) {
+            if (!manifest.isUpToDate(output, fingerprint)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private void recordInManifest(final ScheduledReport scheduledReport,
+                                  final String fingerprint,
+                                  final ReportManifest manifest) {
+        for (String output : scheduledReport.outputs) {
+            manifest.recordReport(output, fingerprint);
+        }
+    }
+
+    /**
+     * The previous version of an out-of-date page is deleted first, as some pages (such as the list of failing
+     * tests) are not written at all when there is nothing to show.
+     */
+    private ReportingTask recordingInManifest(final ScheduledReport scheduledReport,
+                                              final Optional<String> fingerprint,
+                                              final ReportManifest manifest) {
+        return new ReportingTask() {
+            @Override
+            public void generateReports() throws IOException {
+                for (String output : scheduledReport.outputs) {
+                    new File(getOutputDirectory(), output).delete();
+                }
+                scheduledReport.generateReports();
+                if (fingerprint.isPresent()) {
+                    recordInManifest(scheduledReport, fingerprint.get(), manifest);
+                }
+            }
+        };
+    }
+
+    /**
+     * A page can only be fingerprinted if we know the digests of the report files of all of its test outcomes.
+     */
+    private Optional<String> fingerprintFor(final ScheduledReport scheduledReport, final String contextFingerprint) {
+        List<String> inputDigests = Lists.newArrayList();
+        for (TestOutcome testOutcome : scheduledReport.inputs.getOutcomes()) {
+            String digest = outcomeDigests.get(testOutcome);
+            if (digest == null) {
+                return Optional.absent();
+            }
+            inputDigests.add(digest);
+        }
+        Collections.sort(inputDigests);
+        return Optional.of(Digest.ofTextValue(contextFingerprint + "|" + scheduledReport.report + "|"
+                                              + Joiner.on(",").join(inputDigests)));
+    }
+
+    private String contextFingerprintFor(final TestOutcomes testOutcomes) {
+        List<String> tagTypes = Lists.newArrayList(testOutcomes.getRootOutcomes().getTagTypes());
+        Collections.sort(tagTypes);
+        return Joiner.on("|").useForNull("").join(getProjectName(),
+                                                  relativeLink,
+                                                  timestampFrom(testOutcomes),
+                                                  Joiner.on(",").join(tagTypes),
+                                                  summaryDigestOf(testOutcomes.getRootOutcomes()),
+                                                  new ReportOptions(getEnvironmentVariables()).isShowStepDetails(),
+                                                  issueTracking.getIssueTrackerUrl(),
+                                                  HtmlAggregateStoryReporter.class.getPackage().getImplementationVersion());
+    }
+
+    /**
+     * Every page shows the overall test results, so a page is out of date as soon as any test result changes.
+     */
+    private String summaryDigestOf(final TestOutcomes rootOutcomes) {
+        List<String> summary = Lists.newArrayList();
+        summary.add(Integer.toString(rootOutcomes.getTotal()));
+        for (TestResult result : TestResult.values()) {
+            summary.add(result + "=" + rootOutcomes.getTotalTests().withResult(result));
+        }
+        List<String> tagNames = Lists.newArrayList(rootOutcomes.getTagNames());
+        Collections.sort(tagNames);
+        summary.add(Joiner.on(",").join(tagNames));
+        return Digest.ofTextValue(Joiner.on("|").join(summary));
+    }
+
+    private boolean isIncrementalReporting() {
+        if (incrementalReporting == null) {
+            incrementalReporting = getEnvironmentVariables().getPropertyAsBoolean(ThucydidesSystemProperty.THUCYDIDES_INCREMENTAL_REPORTS, false);
+        }
+        return incrementalReporting;
+    }
+
+    public void setIncrementalReporting(final boolean incrementalReporting) {
+        this.incrementalReporting = incrementalReporting;
+    }
+
+    private boolean isLowMemoryReporting() {
+        if (lowMemoryReporting == null) {
+            lowMemoryReporting = getEnvironmentVariables().getPropertyAsBoolean(ThucydidesSystemProperty.THUCYDIDES_LOW_MEMORY_REPORTS, false);
+        }
+        return lowMemoryReporting;
+    }
+
+    public void setLowMemoryReporting(final boolean lowMemoryReporting) {
+        this.lowMemoryReporting = lowMemoryReporting;
+    }
+
+    /**
+     * Each report page is written by a single task. If the same page is scheduled more than once,
+     * the last version wins, just as it would if the pages were written one after the other.
+     * The test outcomes used to generate the page are recorded so that, in incremental mode, pages whose test
+     * outcomes have not changed since the last run can be skipped.
+     */
+    private void schedule(final Map<String, ScheduledReport> reportingTasks,
+                          final String report,
+                          final String csvReport,
+                          final TestOutcomes inputs,
+                          final ReportingTask reportingTask) {
+        reportingTasks.remove(report);
+        reportingTasks.put(report, new ScheduledReport(report, csvReport, inputs, reportingTask));
+    }
+
+    private static class ScheduledReport implements ReportingTask {
+        private final String report;
+        private final List<String> outputs;
+        private final TestOutcomes inputs;
+        private final ReportingTask reportingTask;
+
+        private ScheduledReport(final String report,
+                                final String csvReport,
+                                final TestOutcomes inputs,
+                                final ReportingTask reportingTask) {
+            this.report = report;
+            this.outputs = ImmutableList.of(report, csvReport);
+            this.inputs = inputs;
+            this.reportingTask = reportingTask;
+        }
+
+        @Override
+        public void generateReports() throws IOException {
+            reportingTask.generateReports();
+        }
+    }
+
+    private void scheduleAggregateReportFor(final TestOutcomes testOutcomes,
+                                            final Map<String, ScheduledReport> reportingTasks) {
+        schedule(reportingTasks, "index.html", "results.csv", testOutcomes, new ReportingTask() {
+            @Override
+            public void generateReports() throws IOException {
+                generateAggregateReportFor(testOutcomes);
+            }
+        });
     }
 
     private void generateAggregateReportFor(TestOutcomes testOutcomes) throws IOException {
@@ -176,33 +409,100 @@ public class HtmlAggregateStoryReporter extends HtmlReporter implements UserStor
         generateCSVReportFor(testOutcomes,"results.csv");
     }
 
-    private void generateTagReportsFor(TestOutcomes testOutcomes) throws IOException {
+    private void scheduleTagReportsFor(final TestOutcomes testOutcomes,
+                                       final Map<String, ScheduledReport> reportingTasks) {
 
         for (TestTag tag : testOutcomes.getTags()) {
-            generateTagReport(testOutcomes, reportNameProvider, tag);
-            generateAssociatedTagReportsForTag(testOutcomes.withTag(tag.getName()), tag.getName());
+            scheduleTagReport(testOutcomes, reportNameProvider, tag, reportingTasks);
+            scheduleAssociatedTagReportsForTag(testOutcomes.withTag(tag.getName()), tag.getName(), reportingTasks);
         }
     }
 
-    private void generateTagTypeReportsFor(TestOutcomes testOutcomes) throws IOException {
-        generateTagTypeReportsFor(testOutcomes, reportNameProvider);
-    }
-
-    private void generateTagTypeReportsFor(TestOutcomes testOutcomes, ReportNameProvider reportNameProvider) throws IOException {
-
-        for (String tagType : testOutcomes.getTagTypes()) {
-            generateTagTypeReport(testOutcomes, reportNameProvider, tagType);
+    private void scheduleTagReport(final TestOutcomes testOutcomes,
+                                   final ReportNameProvider reportName,
+                                   final TestTag tag,
+                                   final Map<String, ScheduledReport> reportingTasks) {
+        schedule(reportingTasks, reportName.forTag(tag.getName()), reportName.forCSVFiles().forTag(tag.getName()),
+                 testOutcomes.withTag(tag.getName()), new ReportingTask() {
+            @Override
+            public void generateReports() throws IOException {
+                generateTagReport(testOutcomes, reportName, tag);
+            }
+        });
+    }
+
+    private void scheduleTagTypeReportsFor(final TestOutcomes testOutcomes,
+                                           final Map<String, ScheduledReport> reportingTasks) {
+        scheduleTagTypeReportsFor(testOutcomes, reportNameProvider, reportingTasks);
+    }
+
+    private void scheduleTagTypeReportsFor(final TestOutcomes testOutcomes,
+                                           final ReportNameProvider reportNameProvider,
+                                           final Map<String, ScheduledReport> reportingTasks) {
+
+        for (final String tagType : testOutcomes.getTagTypes()) {
+            schedule(reportingTasks, reportNameProvider.forTagType(tagType), reportNameProvider.forCSVFiles().forTagType(tagType),
+                     testOutcomes.withTagType(tagType), new ReportingTask() {
+                @Override
+                public void generateReports() throws IOException {
+                    generateTagTypeReport(testOutcomes, reportNameProvider, tagType);
+                }
+            });
         }
     }
 
-    private void generateResultReportsFor(TestOutcomes testOutcomes) throws IOException {
-        generateResultReports(testOutcomes, reportNameProvider, "");
+    private void scheduleResultReportsFor(final TestOutcomes testOutcomes,
+                                          final Map<String, ScheduledReport> reportingTasks) {
+        scheduleResultReports(testOutcomes, reportNameProvider, "", reportingTasks);
 
         for (TestTag tag : testOutcomes.getTags()) {
-            generateResultReports(testOutcomes.withTag(tag.getName()), new ReportNameProvider(tag.getName()), tag.getType());
+            scheduleResultReports(testOutcomes.withTag(tag.getName()), new ReportNameProvider(tag.getName()), tag.getType(),
+                                  reportingTasks);
         }
     }
 
+    private void scheduleResultReports(final TestOutcomes testOutcomesForThisTag,
+                                       final ReportNameProvider reportName,
+                                       final String tagType,
+                                       final Map<String, ScheduledReport> reportingTasks) {
+        schedule(reportingTasks, reportName.forTestResult("success"), reportName.forCSVFiles().forTestResult("success"),
+                 testOutcomesForThisTag, new ReportingTask() {
+            @Override
+            public void generateReports() throws IOException {
+                if (testOutcomesForThisTag.getTotalTests().withResult(TestResult.SUCCESS) > 0) {
+                    generateResultReport(testOutcomesForThisTag.getPassingTests(), reportName, tagType, "success");
+                }
+            }
+        });
+        schedule(reportingTasks, reportName.forTestResult("pending"), reportName.forCSVFiles().forTestResult("pending"),
+                 testOutcomesForThisTag, new ReportingTask() {
+            @Override
+            public void generateReports() throws IOException {
+                if (testOutcomesForThisTag.getTotalTests().withIndeterminateResult() > 0) {
+                    generateResultReport(testOutcomesForThisTag.getPendingTests(), reportName, tagType, "pending");
+                }
+            }
+        });
+        schedule(reportingTasks, reportName.forTestResult("failure"), reportName.forCSVFiles().forTestResult("failure"),
+                 testOutcomesForThisTag, new ReportingTask() {
+            @Override
+            public void generateReports() throws IOException {
+                if (testOutcomesForThisTag.getTotalTests().withResult(TestResult.FAILURE) > 0) {
+                    generateResultReport(testOutcomesForThisTag.getFailingTests(), reportName, tagType, "failure");
+                }
+            }
+        });
+        schedule(reportingTasks, reportName.forTestResult("error"), reportName.forCSVFiles().forTestResult("error"),
+                 testOutcomesForThisTag, new ReportingTask() {
+            @Override
+            public void generateReports() throws IOException {
+                if (testOutcomesForThisTag.getTotalTests().withResult(TestResult.ERROR) > 0) {
+                    generateResultReport(testOutcomesForThisTag.getErrorTests(), reportName, tagType, "error");
+                }
+            }
+        });
+    }
+
 //    private void generateCoverageReportsFor(TestOutcomes testOutcomes) throws IOException {
 //
 //        for (String tagType : testOutcomes.getTagTypes()) {
@@ -210,21 +510,6 @@ public class HtmlAggregateStoryReporter extends HtmlReporter implements UserStor
 //        }
 //    }
 
-    private void generateResultReports(TestOutcomes testOutcomesForThisTag, ReportNameProvider reportName, String tagType) throws IOException {
-        if (testOutcomesForThisTag.getTotalTests().withResult(TestResult.SUCCESS) > 0) {
-            generateResultReport(testOutcomesForThisTag.getPassingTests(), reportName, tagType, "success");
-        }
-        if (testOutcomesForThisTag.getTotalTests().withIndeterminateResult() > 0) {
-            generateResultReport(testOutcomesForThisTag.getPendingTests(), reportName, tagType, "pending");
-        }
-        if (testOutcomesForThisTag.getTotalTests().withResult(TestResult.FAILURE) > 0) {
-            generateResultReport(testOutcomesForThisTag.getFailingTests(), reportName, tagType, "failure");
-        }
-        if (testOutcomesForThisTag.getTotalTests().withResult(TestResult.ERROR) > 0) {
-            generateResultReport(testOutcomesForThisTag.getErrorTests(), reportName, tagType, "error");
-        }
-    }
-
     private void generateResultReport(TestOutcomes testOutcomes, ReportNameProvider reportName, String tagType, String testResult) throws IOException {
         Map<String, Object> context = buildContext(testOutcomes, reportName);
         context.put("report", ReportProperties.forTestResultsReport());
@@ -267,10 +552,12 @@ public class HtmlAggregateStoryReporter extends HtmlReporter implements UserStor
         generateCSVReportFor(testOutcomesForTagType, csvReport);
     }
 
-    private void generateAssociatedTagReportsForTag(TestOutcomes testOutcomes, String sourceTag) throws IOException {
+    private void scheduleAssociatedTagReportsForTag(final TestOutcomes testOutcomes,
+                                                    final String sourceTag,
+                                                    final Map<String, ScheduledReport> reportingTasks) {
         ReportNameProvider reportName = new ReportNameProvider(sourceTag);
         for (TestTag tag : testOutcomes.getTags()) {
-            generateTagReport(testOutcomes, reportName, tag);
+            scheduleTagReport(testOutcomes, reportName, tag, reportingTasks);
         }
     }
 
@@ -286,6 +573,17 @@ public class HtmlAggregateStoryReporter extends HtmlReporter implements UserStor
         return context;
     }
 
+    private ReportingTaskExecutor getReportingTaskExecutor() {
+        if (reportingTaskExecutor == null) {
+            reportingTaskExecutor = ReportingTaskExecutor.configuredIn(getEnvironmentVariables());
+        }
+        return reportingTaskExecutor;
+    }
+
+    public void setReportingThreads(final int threadCount) {
+        this.reportingTaskExecutor = new ReportingTaskExecutor(threadCount);
+    }
+
     private void updateHistoryFor(final RequirementsOutcomes requirementsOutcomes) {
         getTestHistory().updateData(requirementsOutcomes);
     }
@@ -297,17 +595,15 @@ public class HtmlAggregateStoryReporter extends HtmlReporter implements UserStor
         context.put("rowcount", history.size());
         addFormattersToContext(context);
 
-        String htmlContents = mergeTemplate(HISTORY_TEMPLATE_PATH).usingContext(context);
         LOGGER.debug("Writing history page");
-        writeReportToOutputDirectory("history.html", htmlContents);
+        writeReportToOutputDirectory("history.html", HISTORY_TEMPLATE_PATH, context);
 
     }
 
     private void generateReportPage(final Map<String, Object> context,
                                     final String template,
                                     final String outputFile) throws IOException {
-        String htmlContents = mergeTemplate(template).usingContext(context);
-        writeReportToOutputDirectory(outputFile, htmlContents);
+        writeReportToOutputDirectory(outputFile, template, context);
     }
 
 //    private void generateCoverageData(final TestOutcomes testOutcomes, String tagType) throws IOException {
@@ -64,10 +64,9 @@ public class HtmlProgressReporter extends HtmlReporter {
 
         addFormattersToContext(context);
 
-        String htmlContents = mergeTemplate(DEFAULT_PROGRESS_REPORT).usingContext(context);
         copyResourcesToOutputDirectory();
 
-        return writeReportToOutputDirectory(filename, htmlContents);
+        return writeReportToOutputDirectory(filename, DEFAULT_PROGRESS_REPORT, context);
     }
 
     private List<ProgressSnapshot> getEstimatedDeliveryDate(List<ProgressSnapshot> progress) {
@@ -11,10 +11,13 @@ import net.thucydides.core.util.EnvironmentVariables;
 import org.apache.commons.io.FileUtils;
 import org.joda.time.DateTime;
 
+import java.io.BufferedWriter;
 import java.io.File;
 import java.io.FileFilter;
 import java.io.IOException;
+import java.io.OutputStreamWriter;
 import java.io.StringWriter;
+import java.io.Writer;
 import java.nio.charset.Charset;
 import java.util.Map;
 
@@ -27,6 +30,7 @@ public abstract class HtmlReporter extends ThucydidesReporter {
 
     private static final String DEFAULT_RESOURCE_DIRECTORY = "report-resources";
     private static final String DEFAULT_SOURCE_DIR = "target/site/thucydides";
+    private static final String TEMPLATE_DIRECTORY = "freemarker/";
     private String resourceDirectory = DEFAULT_RESOURCE_DIRECTORY;
     private final TemplateManager templateManager;
     private final EnvironmentVariables environmentVariables;
@@ -120,6 +124,28 @@ public abstract class HtmlReporter extends ThucydidesReporter {
         return report;
     }
 
+    /**
+     * Merge a template straight into a file with the specified name in the output directory,
+     * without building the whole page in memory first.
+     */
+    protected File writeReportToOutputDirectory(final String reportFilename,
+                                                final String templateFile,
+                                                final Map<String, Object> context) throws IOException {
+        File report = new File(getOutputDirectory(), reportFilename);
+        Writer writer = new BufferedWriter(new OutputStreamWriter(FileUtils.openOutputStream(report), Charset.forName("UTF-8")));
+        boolean merged = false;
+        try {
+            mergeTemplate(templateFile).usingContext(context, writer);
+            merged = true;
+        } finally {
+            writer.close();
+            if (!merged) {
+                report.delete();
+            }
+        }
+        return report;
+    }
+
     protected String timestampFrom(TestOutcomes rootOutcomes) {
         return timestampFrom(rootOutcomes.getRootOutcomes().getStartTime());
     }
@@ -132,6 +158,13 @@ public abstract class HtmlReporter extends ThucydidesReporter {
         context.put("timestamp", timestampFrom(testOutcome.getStartTime()));
     }
 
+    /**
+     * Compile the report templates up front, rather than as each report is generated.
+     */
+    protected void precompileTemplates() {
+        getTemplateManager().precompileTemplatesIn(TEMPLATE_DIRECTORY);
+    }
+
     protected Merger mergeTemplate(final String templateFile) {
         return new Merger(templateFile);
     }
@@ -144,11 +177,15 @@ public abstract class HtmlReporter extends ThucydidesReporter {
         }
 
         public String usingContext(final Map<String, Object> context) {
+            StringWriter sw = new StringWriter();
+            usingContext(context, sw);
+            return sw.toString();
+        }
+
+        public void usingContext(final Map<String, Object> context, final Writer writer) {
             try {
                 ReportTemplate template = getTemplateManager().getTemplateFrom(templateFile);
-                StringWriter sw = new StringWriter();
-                template.merge(context, sw);
-                return sw.toString();
+                template.merge(context, writer);
             } catch (Exception e) {
                 throw new RuntimeException("Failed to merge template: " + e.getMessage(), e);
             }
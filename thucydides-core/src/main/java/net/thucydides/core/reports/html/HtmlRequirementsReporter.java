@@ -57,10 +57,9 @@ public class HtmlRequirementsReporter extends HtmlReporter {
         context.put("relativeLink", relativeLink);
         addFormattersToContext(context);
 
-        String htmlContents = mergeTemplate(DEFAULT_REQUIREMENTS_REPORT).usingContext(context);
         copyResourcesToOutputDirectory();
 
-        return writeReportToOutputDirectory(filename, htmlContents);
+        return writeReportToOutputDirectory(filename, DEFAULT_REQUIREMENTS_REPORT, context);
     }
 
     private void addFormattersToContext(final Map<String, Object> context) {
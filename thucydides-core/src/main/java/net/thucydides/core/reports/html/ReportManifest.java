@@ -0,0 +1,113 @@
+package net.thucydides.core.reports.html;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Records a fingerprint of the inputs used to generate each aggregate report page.
+ * The manifest is stored in the report directory, so that the next time the aggregate reports are generated,
+ * pages whose inputs have not changed since the last run can be left as they are.
+ */
+public class ReportManifest {
+
+    public static final String MANIFEST_FILE = "report-manifest.properties";
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(ReportManifest.class);
+
+    private final File outputDirectory;
+    private final Map<String, String> previousFingerprints;
+    private final Map<String, String> currentFingerprints = new ConcurrentHashMap<String, String>();
+
+    private ReportManifest(final File outputDirectory, final Map<String, String> previousFingerprints) {
+        this.outputDirectory = outputDirectory;
+        this.previousFingerprints = previousFingerprints;
+    }
+
+    /**
+     * Reads the manifest left by the previous run. If there is none, or if it cannot be read, every page is
+     * considered to be out of date.
+     */
+    public static ReportManifest loadFrom(final File outputDirectory) {
+        Map<String, String> previousFingerprints = new ConcurrentHashMap<String, String>();
+        File manifestFile = new File(outputDirectory, MANIFEST_FILE);
+        if (manifestFile.exists()) {
+            try {
+                Properties manifest = new Properties();
+                InputStream inputStream = new BufferedInputStream(new FileInputStream(manifestFile));
+                try {
+                    manifest.load(inputStream);
+                } finally {
+                    inputStream.close();
+                }
+                for (String report : manifest.stringPropertyNames()) {
+                    previousFingerprints.put(report, manifest.getProperty(report));
+                }
+            } catch (IOException e) {
+                LOGGER.warn("Could not read the report manifest, so all the reports will be regenerated: " + e.getMessage());
+            }
+        }
+        return new ReportManifest(outputDirectory, previousFingerprints);
+    }
+
+    /**
+     * @return true if the report was generated from the same inputs during the last run, and is still there.
+     */
+    public boolean isUpToDate(final String report, final String fingerprint) {
+        return fingerprint.equals(previousFingerprints.get(report)) && new File(outputDirectory, report).exists();
+    }
+
+    public void recordReport(final String report, final String fingerprint) {
+        currentFingerprints.put(report, fingerprint);
+    }
+
+    /**
+     * Delete the reports generated during the last run that are not going to be generated again.
+     * They are also left out of the saved manifest, as only the reports recorded during this run are saved.
+     */
+    public void deleteReportsOtherThan(final Set<String> currentReports) {
+        for (String report : previousFingerprints.keySet()) {
+            if (!currentReports.contains(report)) {
+                File obsoleteReport = new File(outputDirectory, report);
+                if (obsoleteReport.exists() && !obsoleteReport.delete()) {
+                    LOGGER.warn("Could not delete the obsolete report " + obsoleteReport);
+                }
+            }
+        }
+    }
+
+    /**
+     * Write the fingerprints recorded during this run, replacing the previous manifest.
+     */
+    public void save() throws IOException {
+        Properties manifest = new Properties();
+        manifest.putAll(currentFingerprints);
+
+        File manifestFile = new File(outputDirectory, MANIFEST_FILE);
+        File temporaryFile = new File(outputDirectory, MANIFEST_FILE + ".tmp");
+        OutputStream outputStream = new BufferedOutputStream(new FileOutputStream(temporaryFile));
+        try {
+            manifest.store(outputStream, "Inputs used to generate the aggregate reports");
+        } finally {
+            outputStream.close();
+        }
+        if (!temporaryFile.renameTo(manifestFile)) {
+            manifestFile.delete();
+            if (!temporaryFile.renameTo(manifestFile)) {
+                throw new IOException("Could not save the report manifest to " + manifestFile);
+            }
+        }
+    }
+}
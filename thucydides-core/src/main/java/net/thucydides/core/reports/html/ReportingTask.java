@@ -0,0 +1,11 @@
+package net.thucydides.core.reports.html;
+
+import java.io.IOException;
+
+/**
+ * A self-contained piece of report generation, typically a single HTML page and its CSV counterpart.
+ * Reporting tasks do not share mutable state, so they can be run in any order or concurrently.
+ */
+public interface ReportingTask {
+    void generateReports() throws IOException;
+}
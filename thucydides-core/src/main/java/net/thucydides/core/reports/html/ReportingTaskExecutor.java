@@ -0,0 +1,114 @@
+package net.thucydides.core.reports.html;
+
+import com.google.common.collect.Lists;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import net.thucydides.core.ThucydidesSystemProperty;
+import net.thucydides.core.reports.ReportGenerationFailedError;
+import net.thucydides.core.util.EnvironmentVariables;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+
+/**
+ * Runs a set of reporting tasks.
+ * By default, the tasks are run one after the other in the current thread. If the thucydides.report.threads
+ * property is set to a value greater than 1, the tasks are shared out across a fixed-size pool of worker threads.
+ * Either way, the reports written are the same.
+ */
+public class ReportingTaskExecutor {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(ReportingTaskExecutor.class);
+
+    private static final int DEFAULT_THREAD_COUNT = 1;
+
+    private final int threadCount;
+
+    public ReportingTaskExecutor(final int threadCount) {
+        this.threadCount = Math.max(threadCount, 1);
+    }
+
+    public static ReportingTaskExecutor configuredIn(final EnvironmentVariables environmentVariables) {
+        return new ReportingTaskExecutor(
+                environmentVariables.getPropertyAsInteger(ThucydidesSystemProperty.THUCYDIDES_REPORT_THREADS,
+                                                          DEFAULT_THREAD_COUNT));
+    }
+
+    public int getThreadCount() {
+        return threadCount;
+    }
+
+    public void generateReportsFor(final Collection<? extends ReportingTask> reportingTasks) throws IOException {
+        if ((threadCount == 1) || (reportingTasks.size() <= 1)) {
+            generateReportsSeriallyFor(reportingTasks);
+        } else {
+            generateReportsConcurrentlyFor(reportingTasks);
+        }
+    }
+
+    private void generateReportsSeriallyFor(final Collection<? extends ReportingTask> reportingTasks) throws IOException {
+        for (ReportingTask reportingTask : reportingTasks) {
+            reportingTask.generateReports();
+        }
+    }
+
+    private void generateReportsConcurrentlyFor(final Collection<? extends ReportingTask> reportingTasks) throws IOException {
+        int poolSize = Math.min(threadCount, reportingTasks.size());
+        LOGGER.debug("Generating {} reports using {} threads", reportingTasks.size(), poolSize);
+
+        ExecutorService executorService = Executors.newFixedThreadPool(poolSize, reportingThreads());
+        try {
+            List<Future<Void>> results = executorService.invokeAll(callablesFor(reportingTasks));
+            for (Future<Void> result : results) {
+                waitFor(result);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ReportGenerationFailedError("Report generation was interrupted", e);
+        } finally {
+            executorService.shutdownNow();
+        }
+    }
+
+    private void waitFor(final Future<Void> result) throws IOException, InterruptedException {
+        try {
+            result.get();
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof IOException) {
+                throw (IOException) cause;
+            } else if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            } else if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw new ReportGenerationFailedError("Failed to generate reports", cause);
+        }
+    }
+
+    private List<Callable<Void>> callablesFor(final Collection<? extends ReportingTask> reportingTasks) {
+        List<Callable<Void>> callables = Lists.newArrayList();
+        for (final ReportingTask reportingTask : reportingTasks) {
+            callables.add(new Callable<Void>() {
+                @Override
+                public Void call() throws Exception {
+                    reportingTask.generateReports();
+                    return null;
+                }
+            });
+        }
+        return callables;
+    }
+
+    private static ThreadFactory reportingThreads() {
+        return new ThreadFactoryBuilder().setNameFormat("thucydides-reports-%d").setDaemon(true).build();
+    }
+}
@@ -8,6 +8,7 @@ import com.google.gson.GsonBuilder;
 import net.thucydides.core.model.ReportType;
 import net.thucydides.core.model.TestOutcome;
 import net.thucydides.core.reports.AcceptanceTestReporter;
+import net.thucydides.core.reports.TestOutcomeReader;
 import net.thucydides.core.reports.TestOutcomes;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -18,8 +19,9 @@ import java.io.IOException;
 import java.io.OutputStream;
 import java.io.OutputStreamWriter;
 import java.nio.charset.Charset;
+import java.util.Locale;
 
-public class JSONTestOutcomeReporter implements AcceptanceTestReporter {
+public class JSONTestOutcomeReporter implements AcceptanceTestReporter, TestOutcomeReader {
 
     private static final Logger LOGGER = LoggerFactory
             .getLogger(JSONTestOutcomeReporter.class);
@@ -82,6 +84,10 @@ public class JSONTestOutcomeReporter implements AcceptanceTestReporter {
     public void setResourceDirectory(String resourceDirectoryPath) {
     }
 
+    public boolean canRead(final File reportFile) {
+        return reportFile.getName().toLowerCase(Locale.getDefault()).endsWith(".json");
+    }
+
     public Optional<TestOutcome> loadReportFrom(final File reportFile)
             throws IOException {
         try {
@@ -2,23 +2,113 @@ package net.thucydides.core.reports.templates;
 
 import freemarker.template.Configuration;
 import freemarker.template.DefaultObjectWrapper;
+import org.apache.commons.io.FileUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.JarURLConnection;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.util.ArrayList;
+import java.util.Enumeration;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.jar.JarEntry;
 
 /**
- * Manages velocity templates.
- *
+ * Manages FreeMarker templates.
+ * Each template is compiled once and then reused for every report that needs it.
+ * The object wrapper is shared by all template managers, so that the Java classes used in the reports
+ * are only introspected once per JVM.
  */
 public class FreeMarkerTemplateManager implements TemplateManager {
 
+    private static final String TEMPLATE_SUFFIX = ".ftl";
+
+    private static final DefaultObjectWrapper OBJECT_WRAPPER = new DefaultObjectWrapper();
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(FreeMarkerTemplateManager.class);
+
     Configuration cfg;
 
+    private final ConcurrentMap<String, ReportTemplate> compiledTemplates
+            = new ConcurrentHashMap<String, ReportTemplate>();
+
     public FreeMarkerTemplateManager() throws Exception {
         cfg = new Configuration();
         cfg.setClassForTemplateLoading(getClass(), "/");
-        cfg.setObjectWrapper(new DefaultObjectWrapper());
+        cfg.setObjectWrapper(OBJECT_WRAPPER);
+        // The templates are packaged with Thucydides, so there are no localized variants to look for,
+        // and they never change while the reports are being generated.
+        cfg.setLocalizedLookup(false);
+        cfg.setTemplateUpdateDelay(Integer.MAX_VALUE);
     }
 
     public ReportTemplate getTemplateFrom(final String template) throws Exception {
-        return new FreemarkerReportTemplate(cfg, template);
+        ReportTemplate compiledTemplate = compiledTemplates.get(template);
+        if (compiledTemplate == null) {
+            compiledTemplate = new FreemarkerReportTemplate(cfg, template);
+            ReportTemplate alreadyCompiledTemplate = compiledTemplates.putIfAbsent(template, compiledTemplate);
+            if (alreadyCompiledTemplate != null) {
+                compiledTemplate = alreadyCompiledTemplate;
+            }
+        }
+        return compiledTemplate;
+    }
+
+    public void precompileTemplatesIn(final String directory) {
+        for (String template : templatesIn(directory)) {
+            try {
+                getTemplateFrom(template);
+            } catch (Exception e) {
+                LOGGER.warn("Could not compile the template {}: {}", template, e.getMessage());
+            }
+        }
+    }
+
+    private List<String> templatesIn(final String directory) {
+        String templateDirectory = directory.endsWith("/") ? directory : directory + "/";
+        URL directoryUrl = getClass().getResource("/" + templateDirectory);
+        if (directoryUrl == null) {
+            return new ArrayList<String>();
+        }
+        try {
+            if (directoryUrl.getProtocol().equals("jar")) {
+                return templatesInJar(directoryUrl, templateDirectory);
+            } else if (directoryUrl.getProtocol().equals("file")) {
+                return templatesInDirectory(new File(directoryUrl.toURI()), templateDirectory);
+            }
+        } catch (IOException e) {
+            LOGGER.warn("Could not list the templates in {}: {}", templateDirectory, e.getMessage());
+        } catch (URISyntaxException e) {
+            LOGGER.warn("Could not list the templates in {}: {}", templateDirectory, e.getMessage());
+        }
+        return new ArrayList<String>();
     }
 
+    private List<String> templatesInJar(final URL directoryUrl, final String templateDirectory) throws IOException {
+        List<String> templates = new ArrayList<String>();
+        JarURLConnection connection = (JarURLConnection) directoryUrl.openConnection();
+        Enumeration<JarEntry> entries = connection.getJarFile().entries();
+        while (entries.hasMoreElements()) {
+            String entryName = entries.nextElement().getName();
+            if (entryName.startsWith(templateDirectory) && entryName.endsWith(TEMPLATE_SUFFIX)) {
+                templates.add(entryName);
+            }
+        }
+        return templates;
+    }
+
+    private List<String> templatesInDirectory(final File directory, final String templateDirectory) {
+        List<String> templates = new ArrayList<String>();
+        String directoryPath = directory.getAbsolutePath();
+        for (File templateFile : FileUtils.listFiles(directory, new String[] {"ftl"}, true)) {
+            String relativePath = templateFile.getAbsolutePath().substring(directoryPath.length() + 1);
+            templates.add(templateDirectory + relativePath.replace(File.separatorChar, '/'));
+        }
+        return templates;
+    }
 }
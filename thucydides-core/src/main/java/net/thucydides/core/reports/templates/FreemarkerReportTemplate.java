@@ -9,6 +9,7 @@ import org.slf4j.LoggerFactory;
 
 import java.io.IOException;
 import java.io.StringWriter;
+import java.io.Writer;
 import java.util.Map;
 
 public class FreemarkerReportTemplate implements ReportTemplate {
@@ -25,7 +26,7 @@ public class FreemarkerReportTemplate implements ReportTemplate {
         }
     }
 
-    public void merge(Map<String, Object> context, StringWriter writer) throws TemplateMergeException {
+    public void merge(Map<String, Object> context, Writer writer) throws TemplateMergeException {
         try {
             template.process(context, writer);
         } catch (TemplateException templateException) {
@@ -35,4 +36,8 @@ public class FreemarkerReportTemplate implements ReportTemplate {
             throw new TemplateMergeException("Could not read FreeMarker template", e);
         }
     }
+
+    public void merge(Map<String, Object> context, StringWriter writer) throws TemplateMergeException {
+        merge(context, (Writer) writer);
+    }
 }
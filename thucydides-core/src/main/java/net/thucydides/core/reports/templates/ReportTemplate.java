@@ -1,8 +1,14 @@
 package net.thucydides.core.reports.templates;
 
 import java.io.StringWriter;
+import java.io.Writer;
 import java.util.Map;
 
 public interface ReportTemplate {
-    void merge(Map<String,Object> context, StringWriter sw) throws TemplateMergeException;
+    void merge(Map<String,Object> context, Writer writer) throws TemplateMergeException;
+
+    /**
+     * Kept so that code compiled against earlier versions, when only StringWriters were supported, still links.
+     */
+    void merge(Map<String,Object> context, StringWriter writer) throws TemplateMergeException;
 }
@@ -9,4 +9,10 @@ package net.thucydides.core.reports.templates;
  */
 public interface TemplateManager {
     ReportTemplate getTemplateFrom(String template) throws Exception;
+
+    /**
+     * Compile all of the templates in a classpath directory ahead of time, so that they are ready
+     * when the reports are generated.
+     */
+    void precompileTemplatesIn(String directory);
 }
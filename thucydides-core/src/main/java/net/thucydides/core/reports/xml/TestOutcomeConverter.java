@@ -58,6 +58,7 @@ public class TestOutcomeConverter implements Converter {
     private static final String TAGS = "tags";
     private static final String TAG = "tag";
     private static final String QUALIFIER_FIELD = "qualifier";
+    private static final String TEST_CASE_FIELD = "test-case";
     private static final String TAG_NAME = "name";
     private static final String TAG_TYPE = "type";
     private static final String EXCEPTION = "exception";
@@ -107,6 +108,9 @@ public class TestOutcomeConverter implements Converter {
         if (testOutcome.getQualifier() != null && testOutcome.getQualifier().isPresent()) {
             writer.addAttribute(QUALIFIER_FIELD, escape(testOutcome.getQualifier().get()));
         }
+        if (testOutcome.getTestCaseName() != null) {
+            writer.addAttribute(TEST_CASE_FIELD, escape(testOutcome.getTestCaseName()));
+        }
         writer.addAttribute(STEPS_FIELD, Integer.toString(testOutcome.countTestSteps()));
         writer.addAttribute(SUCCESSFUL_FIELD, Integer.toString(testOutcome.getSuccessCount()));
         writer.addAttribute(FAILURES_FIELD, Integer.toString(testOutcome.getFailureCount()));
@@ -369,6 +373,7 @@ public class TestOutcomeConverter implements Converter {
         }
         String sessionId = readSessionId(reader);
         testOutcome.setSessionId(sessionId);
+        testOutcome.setTestCaseName(unescape(reader.getAttribute(TEST_CASE_FIELD)));
         readChildren(reader, testOutcome);
         if(testOutcome.getStepCount().equals(0)) {
             testOutcome.setAnnotatedResult(savedTestResult);
@@ -7,6 +7,7 @@ import com.thoughtworks.xstream.XStream;
 import com.thoughtworks.xstream.mapper.CannotResolveClassException;
 import net.thucydides.core.model.TestOutcome;
 import net.thucydides.core.reports.AcceptanceTestReporter;
+import net.thucydides.core.reports.TestOutcomeReader;
 import net.thucydides.core.reports.TestOutcomes;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -30,7 +31,7 @@ import static net.thucydides.core.model.ReportType.XML;
  * Generates acceptance test results in XML form.
  * 
  */
-public class XMLTestOutcomeReporter implements AcceptanceTestReporter {
+public class XMLTestOutcomeReporter implements AcceptanceTestReporter, TestOutcomeReader {
 
     private File outputDirectory;
 
@@ -38,6 +39,17 @@ public class XMLTestOutcomeReporter implements AcceptanceTestReporter {
 
     private transient String qualifier;
 
+    /**
+     * A configured XStream instance is thread-safe, so the same one is used to read every report.
+     */
+    private final XStream xstream;
+
+    public XMLTestOutcomeReporter() {
+        xstream = new XStream();
+        xstream.alias("acceptance-test-run", TestOutcome.class);
+        xstream.registerConverter(usingXmlConverter());
+    }
+
     public void setQualifier(final String qualifier) {
         this.qualifier = qualifier;
     }
@@ -58,9 +70,6 @@ public class XMLTestOutcomeReporter implements AcceptanceTestReporter {
     public File generateReportFor(final TestOutcome testOutcome, final TestOutcomes allTestOutcomes) throws IOException {
         TestOutcome storedTestOutcome = testOutcome.withQualifier(qualifier);
         Preconditions.checkNotNull(outputDirectory);
-        XStream xstream = new XStream();
-        xstream.alias("acceptance-test-run", TestOutcome.class);
-        xstream.registerConverter(usingXmlConverter());
 
         String reportFilename = reportFor(storedTestOutcome);
 
@@ -90,13 +99,14 @@ public class XMLTestOutcomeReporter implements AcceptanceTestReporter {
         return testOutcome.withQualifier(qualifier).getReportName(XML);
     }
 
+    public boolean canRead(final File reportFile) {
+        return reportFile.getName().toLowerCase(Locale.getDefault()).endsWith(".xml");
+    }
+
     public Optional<TestOutcome> loadReportFrom(final File reportFile) throws IOException {
         InputStream input = null;
         InputStreamReader reader = null;
         try {
-            XStream xstream = new XStream();
-            xstream.alias("acceptance-test-run", TestOutcome.class);
-            xstream.registerConverter(usingXmlConverter());
             input = new FileInputStream(reportFile);
             reader = new InputStreamReader(input, Charset.forName("UTF-8"));
             return Optional.of((TestOutcome) xstream.fromXML(reader));
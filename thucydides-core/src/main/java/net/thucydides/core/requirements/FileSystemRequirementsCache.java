@@ -0,0 +1,179 @@
+package net.thucydides.core.requirements;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.google.common.base.Optional;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Lists;
+import net.thucydides.core.requirements.model.Requirement;
+import org.apache.commons.codec.digest.DigestUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Keeps the requirements read from a requirements directory, so that the narratives only need to be read again
+ * when something in the directory has changed.
+ * The requirements are kept in memory and in a JSON file below the output directory, together with the
+ * modification time and size of every file and directory in the requirements directory, so that they can also be
+ * reused by the next test run or by the aggregate report.
+ */
+public class FileSystemRequirementsCache {
+
+    public static final String CACHE_DIRECTORY = "requirements-cache";
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(FileSystemRequirementsCache.class);
+
+    private static final ConcurrentMap<String, CachedRequirements> LOADED_REQUIREMENTS
+            = new ConcurrentHashMap<String, CachedRequirements>();
+
+    private final ObjectMapper mapper = new ObjectMapper();
+    private final File cacheDirectory;
+
+    public FileSystemRequirementsCache(final File outputDirectory) {
+        this.cacheDirectory = new File(outputDirectory, CACHE_DIRECTORY);
+    }
+
+    /**
+     * The requirements previously read from this directory, with the same settings, if nothing has changed since.
+     * @param settings anything other than the directory contents that affects the requirements, such as
+     *                 the requirement types.
+     */
+    public Optional<List<Requirement>> getRequirementsFor(final File requirementsDirectory, final String settings) {
+        String key = keyFor(requirementsDirectory, settings);
+        Map<String, String> timestamps = timestampsOf(requirementsDirectory);
+
+        CachedRequirements cachedRequirements = LOADED_REQUIREMENTS.get(key);
+        if (cachedRequirements == null) {
+            cachedRequirements = readFrom(cacheFileFor(key));
+        }
+        if ((cachedRequirements != null) && timestamps.equals(cachedRequirements.timestamps)) {
+            LOADED_REQUIREMENTS.putIfAbsent(key, cachedRequirements);
+            return Optional.of(cachedRequirements.toRequirements());
+        }
+        return Optional.absent();
+    }
+
+    public void storeRequirementsFor(final File requirementsDirectory,
+                                     final String settings,
+                                     final List<Requirement> requirements) {
+        String key = keyFor(requirementsDirectory, settings);
+        CachedRequirements cachedRequirements = new CachedRequirements();
+        cachedRequirements.timestamps = timestampsOf(requirementsDirectory);
+        cachedRequirements.requirements = CachedRequirement.listFrom(requirements);
+        LOADED_REQUIREMENTS.put(key, cachedRequirements);
+        writeTo(cacheFileFor(key), cachedRequirements);
+    }
+
+    private String keyFor(final File requirementsDirectory, final String settings) {
+        return requirementsDirectory.getAbsolutePath() + "|" + settings;
+    }
+
+    private File cacheFileFor(final String key) {
+        return new File(cacheDirectory, DigestUtils.md5Hex(key) + ".json");
+    }
+
+    private CachedRequirements readFrom(final File cacheFile) {
+        if (!cacheFile.exists()) {
+            return null;
+        }
+        try {
+            return mapper.readValue(cacheFile, CachedRequirements.class);
+        } catch (IOException e) {
+            LOGGER.debug("Could not read the cached requirements from {}", cacheFile, e);
+            return null;
+        }
+    }
+
+    private void writeTo(final File cacheFile, final CachedRequirements cachedRequirements) {
+        try {
+            cacheDirectory.mkdirs();
+            File temporaryFile = File.createTempFile("requirements", ".tmp", cacheDirectory);
+            mapper.writeValue(temporaryFile, cachedRequirements);
+            if (!temporaryFile.renameTo(cacheFile)) {
+                cacheFile.delete();
+                if (!temporaryFile.renameTo(cacheFile)) {
+                    temporaryFile.delete();
+                }
+            }
+        } catch (IOException e) {
+            LOGGER.warn("Could not store the requirements in {}", cacheFile, e);
+        }
+    }
+
+    /**
+     * The modification time and size of every file and directory below a directory, by relative path.
+     */
+    static Map<String, String> timestampsOf(final File directory) {
+        Map<String, String> timestamps = new TreeMap<String, String>();
+        addTimestampsOf(directory, "", timestamps);
+        return timestamps;
+    }
+
+    private static void addTimestampsOf(final File directory, final String relativePath, final Map<String, String> timestamps) {
+        File[] files = directory.listFiles();
+        if (files == null) {
+            return;
+        }
+        for (File file : files) {
+            String path = relativePath + "/" + file.getName();
+            timestamps.put(path, file.lastModified() + "/" + file.length());
+            if (file.isDirectory()) {
+                addTimestampsOf(file, path, timestamps);
+            }
+        }
+    }
+
+    public static class CachedRequirements {
+        public Map<String, String> timestamps = new TreeMap<String, String>();
+        public List<CachedRequirement> requirements = new ArrayList<CachedRequirement>();
+
+        List<Requirement> toRequirements() {
+            return CachedRequirement.toRequirements(requirements);
+        }
+    }
+
+    public static class CachedRequirement {
+        public String name;
+        public String displayName;
+        public String cardNumber;
+        public String type;
+        public String narrativeText;
+        public List<CachedRequirement> children = new ArrayList<CachedRequirement>();
+
+        static List<CachedRequirement> listFrom(final List<Requirement> requirements) {
+            List<CachedRequirement> cachedRequirements = Lists.newArrayList();
+            for (Requirement requirement : requirements) {
+                CachedRequirement cachedRequirement = new CachedRequirement();
+                cachedRequirement.name = requirement.getName();
+                cachedRequirement.displayName = requirement.getDisplayName();
+                cachedRequirement.cardNumber = requirement.getCardNumber();
+                cachedRequirement.type = requirement.getType();
+                cachedRequirement.narrativeText = requirement.getNarrativeText();
+                cachedRequirement.children = listFrom(requirement.getChildren());
+                cachedRequirements.add(cachedRequirement);
+            }
+            return cachedRequirements;
+        }
+
+        static List<Requirement> toRequirements(final List<CachedRequirement> cachedRequirements) {
+            List<Requirement> requirements = Lists.newArrayList();
+            for (CachedRequirement cachedRequirement : cachedRequirements) {
+                requirements.add(Requirement.named(cachedRequirement.name)
+                                            .withOptionalDisplayName(cachedRequirement.displayName)
+                                            .withOptionalCardNumber(cachedRequirement.cardNumber)
+                                            .withType(cachedRequirement.type)
+                                            .withNarrativeText(cachedRequirement.narrativeText)
+                                            .withChildren(toRequirements(cachedRequirement.children)));
+            }
+            return ImmutableList.copyOf(requirements);
+        }
+    }
+}
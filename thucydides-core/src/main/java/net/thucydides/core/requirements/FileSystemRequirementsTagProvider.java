@@ -2,6 +2,7 @@ package net.thucydides.core.requirements;
 
 import ch.lambdaj.function.convert.Converter;
 import com.google.common.base.Optional;
+import com.google.common.collect.ImmutableSet;
 import com.google.common.collect.Lists;
 import net.thucydides.core.ThucydidesSystemProperty;
 import net.thucydides.core.guice.Injectors;
@@ -13,12 +14,15 @@ import net.thucydides.core.requirements.model.Requirement;
 import net.thucydides.core.util.EnvironmentVariables;
 import net.thucydides.core.util.Inflector;
 import net.thucydides.core.util.NameConverter;
+import net.thucydides.core.webdriver.SystemPropertiesConfiguration;
 
 import java.io.File;
 import java.io.FileFilter;
 import java.io.IOException;
 import java.net.URL;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 import static ch.lambdaj.Lambda.convert;
 import static net.thucydides.core.requirements.RequirementsPath.pathElements;
@@ -37,7 +41,6 @@ public class FileSystemRequirementsTagProvider extends AbstractRequirementsTagPr
     private final static String DEFAULT_RESOURCE_DIRECTORY = "src/test/resources";
     private static final String WORKING_DIR = "user.dir";
     private static final List<Requirement> NO_REQUIREMENTS = Lists.newArrayList();
-    private static final List<TestTag> NO_TEST_TAGS = Lists.newArrayList();
 
     private final String rootDirectoryPath;
     private final NarrativeReader narrativeReader;
@@ -45,6 +48,8 @@ public class FileSystemRequirementsTagProvider extends AbstractRequirementsTagPr
 
 //    @Transient
     private List<Requirement> requirements;
+    private RequirementsIndex requirementsIndex;
+    private final ConcurrentMap<String, Set<TestTag>> tagsByPath = new ConcurrentHashMap<String, Set<TestTag>>();
 
     public FileSystemRequirementsTagProvider() {
         this(getDefaultRootDirectoryPathFrom(Injectors.getInjector().getInstance(EnvironmentVariables.class)));
@@ -101,11 +106,11 @@ public class FileSystemRequirementsTagProvider extends AbstractRequirementsTagPr
                 Optional<String> directoryPath = getRootDirectoryPath();
                 if (directoryPath.isPresent()) {
                     File rootDirectory = new File(directoryPath.get());
-                    List<Requirement> allRequirements = Lists.newArrayList();
-                    allRequirements.addAll(loadCapabilitiesFrom(rootDirectory.listFiles(thatAreDirectories())));
-                    allRequirements.addAll(loadStoriesFrom(rootDirectory.listFiles(thatAreStories())));
-                    Collections.sort(allRequirements);
-                    requirements = allRequirements;
+                    if (shouldUseRequirementsCacheFor(rootDirectory)) {
+                        requirements = loadRequirementsUsingCacheFrom(rootDirectory);
+                    } else {
+                        requirements = loadRequirementsFrom(rootDirectory);
+                    }
                 } else {
                     requirements = NO_REQUIREMENTS;
                 }
@@ -117,6 +122,45 @@ public class FileSystemRequirementsTagProvider extends AbstractRequirementsTagPr
         return requirements;
     }
 
+    private List<Requirement> loadRequirementsFrom(File rootDirectory) {
+        List<Requirement> allRequirements = Lists.newArrayList();
+        allRequirements.addAll(loadCapabilitiesFrom(rootDirectory.listFiles(thatAreDirectories())));
+        allRequirements.addAll(loadStoriesFrom(rootDirectory.listFiles(thatAreStories())));
+        Collections.sort(allRequirements);
+        return allRequirements;
+    }
+
+    /**
+     * Only the top-level provider uses the cache: the nested providers are only used to read a directory
+     * structure that is not cached yet.
+     */
+    private boolean shouldUseRequirementsCacheFor(File rootDirectory) {
+        return (level == 0)
+                && rootDirectory.isDirectory()
+                && environmentVariables.getPropertyAsBoolean(ThucydidesSystemProperty.REQUIREMENTS_CACHE, true);
+    }
+
+    private List<Requirement> loadRequirementsUsingCacheFrom(File rootDirectory) {
+        FileSystemRequirementsCache cache
+                = new FileSystemRequirementsCache(new SystemPropertiesConfiguration(environmentVariables).getOutputDirectory());
+        String settings = rootDirectoryPath + "|" + getRequirementTypes();
+
+        Optional<List<Requirement>> cachedRequirements = cache.getRequirementsFor(rootDirectory, settings);
+        if (cachedRequirements.isPresent()) {
+            return Lists.newArrayList(cachedRequirements.get());
+        }
+        List<Requirement> loadedRequirements = loadRequirementsFrom(rootDirectory);
+        cache.storeRequirementsFor(rootDirectory, settings, loadedRequirements);
+        return loadedRequirements;
+    }
+
+    private RequirementsIndex getRequirementsIndex() {
+        if (requirementsIndex == null) {
+            requirementsIndex = RequirementsIndex.of(getRequirements());
+        }
+        return requirementsIndex;
+    }
+
     private Optional<String> getRootDirectoryPath() throws IOException {
 
         if (ThucydidesSystemProperty.TEST_REQUIREMENTS_ROOT.isDefinedIn(environmentVariables)){
@@ -175,14 +219,24 @@ public class FileSystemRequirementsTagProvider extends AbstractRequirementsTagPr
     }
 
     public Set<TestTag> getTagsFor(final TestOutcome testOutcome) {
-        Set<TestTag> tags = new HashSet<TestTag>();
-        if (testOutcome.getPath() != null) {
-            List<String> storyPathElements = stripRootFrom(pathElements(stripRootPathFrom(testOutcome.getPath())));
-            addStoryTagIfPresent(tags, storyPathElements);
-            storyPathElements = stripStorySuffixFrom(storyPathElements);
-            tags.addAll(getMatchingCapabilities(getRequirements(), storyPathElements));
+        if (testOutcome.getPath() == null) {
+            return new HashSet<TestTag>();
+        }
+        Set<TestTag> tags = tagsByPath.get(testOutcome.getPath());
+        if (tags == null) {
+            tags = tagsForPath(testOutcome.getPath());
+            tagsByPath.putIfAbsent(testOutcome.getPath(), tags);
         }
-        return tags;
+        return new HashSet<TestTag>(tags);
+    }
+
+    private Set<TestTag> tagsForPath(final String path) {
+        Set<TestTag> tags = new HashSet<TestTag>();
+        List<String> storyPathElements = stripRootFrom(pathElements(stripRootPathFrom(path)));
+        addStoryTagIfPresent(tags, storyPathElements);
+        storyPathElements = stripStorySuffixFrom(storyPathElements);
+        tags.addAll(getMatchingCapabilities(storyPathElements));
+        return ImmutableSet.copyOf(tags);
     }
 
     private List<String> stripStorySuffixFrom(List<String> pathElements) {
@@ -233,50 +287,27 @@ public class FileSystemRequirementsTagProvider extends AbstractRequirementsTagPr
     }
 
     public Optional<Requirement> getRequirementFor(TestTag testTag) {
-        for(Requirement requirement : getRequirements()) {
-            if (requirement.getName().equals(testTag.getName()) && requirement.getType().equals(testTag.getType())) {
-                return Optional.of(requirement);
-            }
-        }
-        return Optional.absent();
+        return getRequirementsIndex().getTopLevelRequirement(testTag.getName(), testTag.getType());
     }
 
     private Optional<Requirement> lastRequirementFrom(List<String> storyPathElements) {
-        if (storyPathElements.isEmpty()) {
-            return Optional.absent();
-        } else {
-            return lastRequirementMatchingPath(getRequirements(), storyPathElements);
-        }
+        return getRequirementsIndex().getRequirementAt(requirementNamesFrom(storyPathElements));
     }
 
-    private Optional<Requirement> lastRequirementMatchingPath(List<Requirement> requirements, List<String> storyPathElements) {
-        if (storyPathElements.isEmpty()) {
-            return Optional.absent();
-        }
-        Optional<Requirement> matchingRequirement = findMatchingRequirementIn(next(storyPathElements), requirements);
-        if (!matchingRequirement.isPresent()) {
-            return Optional.absent();
-        }
-        if (tail(storyPathElements).isEmpty()) {
-            return matchingRequirement;
+    private List<TestTag> getMatchingCapabilities(List<String> storyPathElements) {
+        List<TestTag> matchingTags = new ArrayList<TestTag>();
+        for (Requirement requirement : getRequirementsIndex().getRequirementsMatching(requirementNamesFrom(storyPathElements))) {
+            matchingTags.add(TestTag.withName(requirement.getName()).andType(requirement.getType()));
         }
-        List<Requirement> childRequrements = matchingRequirement.get().getChildren();
-        return lastRequirementMatchingPath(childRequrements, tail(storyPathElements));
+        return matchingTags;
     }
 
-    private List<TestTag> getMatchingCapabilities(List<Requirement> requirements, List<String> storyPathElements) {
-        if (storyPathElements.isEmpty()) {
-            return NO_TEST_TAGS;
-        } else {
-            Optional<Requirement> matchingRequirement = findMatchingRequirementIn(next(storyPathElements), requirements);
-            if (matchingRequirement.isPresent()) {
-                TestTag thisTag = TestTag.withName(matchingRequirement.get().getName()).andType(matchingRequirement.get().getType());
-                List<TestTag> remainingTags = getMatchingCapabilities(matchingRequirement.get().getChildren(), tail(storyPathElements));
-                return concat(thisTag, remainingTags);
-            } else {
-                return NO_TEST_TAGS;
-            }
+    private List<String> requirementNamesFrom(List<String> storyPathElements) {
+        List<String> requirementNames = new ArrayList<String>();
+        for (String storyPathElement : storyPathElements) {
+            requirementNames.add(Inflector.getInstance().humanize(Inflector.getInstance().underscore(storyPathElement)));
         }
+        return requirementNames;
     }
 
     private List<String> stripRootFrom(List<String> storyPathElements) {
@@ -292,31 +323,6 @@ public class FileSystemRequirementsTagProvider extends AbstractRequirementsTagPr
         }
     }
 
-    private List<TestTag> concat(TestTag thisTag, List<TestTag> remainingTags) {
-        List<TestTag> totalTags = new ArrayList<TestTag>();
-        totalTags.add(thisTag);
-        totalTags.addAll(remainingTags);
-        return totalTags;
-    }
-
-    private <T> T next(List<T> elements) {
-        return elements.get(0);
-    }
-
-    private <T> List<T> tail(List<T> elements) {
-        return elements.subList(1, elements.size());
-    }
-
-    private Optional<Requirement> findMatchingRequirementIn(String storyPathElement, List<Requirement> requirements) {
-        for (Requirement requirement : requirements) {
-            String normalizedStoryPathElement = Inflector.getInstance().humanize(Inflector.getInstance().underscore(storyPathElement));
-            if (requirement.getName().equals(normalizedStoryPathElement)) {
-                return Optional.of(requirement);
-            }
-        }
-        return Optional.absent();
-    }
-
     private List<Requirement> loadCapabilitiesFrom(File[] requirementDirectories) {
         return convert(requirementDirectories, toRequirements());
     }
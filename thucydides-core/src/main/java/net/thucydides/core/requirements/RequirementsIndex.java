@@ -0,0 +1,96 @@
+package net.thucydides.core.requirements;
+
+import com.google.common.base.Optional;
+import com.google.common.collect.ImmutableList;
+import net.thucydides.core.requirements.model.Requirement;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Finds the requirements matching a requirements path with one hash lookup per path element,
+ * rather than by searching through the requirements at each level.
+ * As with a search, the first requirement with a given name at each level wins.
+ */
+class RequirementsIndex {
+
+    private final Node root;
+    private final Map<String, Requirement> topLevelRequirementsByNameAndType;
+
+    private RequirementsIndex(final Node root, final Map<String, Requirement> topLevelRequirementsByNameAndType) {
+        this.root = root;
+        this.topLevelRequirementsByNameAndType = topLevelRequirementsByNameAndType;
+    }
+
+    public static RequirementsIndex of(final List<Requirement> requirements) {
+        Node root = new Node(null);
+        root.addChildren(requirements);
+
+        Map<String, Requirement> topLevelRequirementsByNameAndType = new HashMap<String, Requirement>();
+        for (Requirement requirement : requirements) {
+            String key = keyFor(requirement.getName(), requirement.getType());
+            if (!topLevelRequirementsByNameAndType.containsKey(key)) {
+                topLevelRequirementsByNameAndType.put(key, requirement);
+            }
+        }
+        return new RequirementsIndex(root, topLevelRequirementsByNameAndType);
+    }
+
+    /**
+     * The requirements matching the longest leading part of the path, starting with the top-level requirement.
+     */
+    public List<Requirement> getRequirementsMatching(final List<String> requirementNames) {
+        ImmutableList.Builder<Requirement> matchingRequirements = ImmutableList.builder();
+        Node node = root;
+        for (String requirementName : requirementNames) {
+            node = node.children.get(requirementName);
+            if (node == null) {
+                break;
+            }
+            matchingRequirements.add(node.requirement);
+        }
+        return matchingRequirements.build();
+    }
+
+    /**
+     * The requirement at the end of the path, if every element of the path matches a requirement.
+     */
+    public Optional<Requirement> getRequirementAt(final List<String> requirementNames) {
+        if (requirementNames.isEmpty()) {
+            return Optional.absent();
+        }
+        List<Requirement> matchingRequirements = getRequirementsMatching(requirementNames);
+        if (matchingRequirements.size() < requirementNames.size()) {
+            return Optional.absent();
+        }
+        return Optional.of(matchingRequirements.get(matchingRequirements.size() - 1));
+    }
+
+    public Optional<Requirement> getTopLevelRequirement(final String name, final String type) {
+        return Optional.fromNullable(topLevelRequirementsByNameAndType.get(keyFor(name, type)));
+    }
+
+    private static String keyFor(final String name, final String type) {
+        return name + "\u0000" + type;
+    }
+
+    private static class Node {
+        private final Requirement requirement;
+        private final Map<String, Node> children = new HashMap<String, Node>();
+
+        private Node(final Requirement requirement) {
+            this.requirement = requirement;
+        }
+
+        private void addChildren(final List<Requirement> requirements) {
+            for (Requirement requirement : requirements) {
+                if (!children.containsKey(requirement.getName())) {
+                    Node child = new Node(requirement);
+                    child.addChildren(requirement.getChildren());
+                    children.put(requirement.getName(), child);
+                }
+            }
+        }
+    }
+}
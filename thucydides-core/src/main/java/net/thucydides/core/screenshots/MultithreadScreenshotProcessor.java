@@ -0,0 +1,195 @@
+package net.thucydides.core.screenshots;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import com.google.inject.Inject;
+import net.thucydides.core.ThucydidesSystemProperty;
+import net.thucydides.core.util.EnvironmentVariables;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.RejectedExecutionHandler;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Processes screenshots using a pool of worker threads, for test suites that take a lot of screenshots
+ * in several browsers at the same time.
+ * The number of threads is defined by the thucydides.screenshot.threads property, and the number of screenshots
+ * waiting to be processed by the thucydides.screenshot.queue.size property. When the queue is full, the test thread
+ * that took the screenshot processes it itself, which stops the queue from growing faster than it can be emptied.
+ */
+public class MultithreadScreenshotProcessor implements ScreenshotProcessor {
+
+    private static final int QUEUED_SCREENSHOTS_PER_THREAD = 16;
+    private static final long IDLE_THREAD_TIMEOUT_IN_SECONDS = 5;
+
+    private final Logger logger = LoggerFactory.getLogger(MultithreadScreenshotProcessor.class);
+
+    private final QueuedScreenshotSaver screenshotSaver;
+    private final ThreadPoolExecutor executor;
+
+    private final Lock lock = new ReentrantLock();
+    private final Condition allScreenshotsProcessed = lock.newCondition();
+    private int screenshotsInProgress = 0;
+
+    private final AtomicInteger maximumQueueDepth = new AtomicInteger();
+    private final AtomicLong processedScreenshots = new AtomicLong();
+    private final AtomicLong totalLatencyInNanoseconds = new AtomicLong();
+
+    @Inject
+    public MultithreadScreenshotProcessor(EnvironmentVariables environmentVariables) {
+        this(environmentVariables, screenshotThreadsDefinedIn(environmentVariables));
+    }
+
+    private MultithreadScreenshotProcessor(EnvironmentVariables environmentVariables, int threadCount) {
+        this(environmentVariables, threadCount,
+             environmentVariables.getPropertyAsInteger(ThucydidesSystemProperty.THUCYDIDES_SCREENSHOT_QUEUE_SIZE,
+                                                       threadCount * QUEUED_SCREENSHOTS_PER_THREAD));
+    }
+
+    public MultithreadScreenshotProcessor(EnvironmentVariables environmentVariables, int threadCount, int queueSize) {
+        this.screenshotSaver = new QueuedScreenshotSaver(environmentVariables);
+        int poolSize = Math.max(threadCount, 1);
+        this.executor = new ThreadPoolExecutor(poolSize, poolSize,
+                                               IDLE_THREAD_TIMEOUT_IN_SECONDS, TimeUnit.SECONDS,
+                                               new ArrayBlockingQueue<Runnable>(Math.max(queueSize, 1)),
+                                               new ThreadFactoryBuilder().setNameFormat("thucydides-screenshots-%d")
+                                                                         .setDaemon(true).build(),
+                                               new ProcessInCallingThread());
+        this.executor.allowCoreThreadTimeOut(true);
+    }
+
+    private static int screenshotThreadsDefinedIn(EnvironmentVariables environmentVariables) {
+        return environmentVariables.getPropertyAsInteger(ThucydidesSystemProperty.THUCYDIDES_SCREENSHOT_THREADS,
+                                                         Runtime.getRuntime().availableProcessors());
+    }
+
+    public void queueScreenshot(QueuedScreenshot queuedScreenshot) {
+        screenshotStarted();
+        executor.execute(new ScreenshotTask(queuedScreenshot));
+        recordQueueDepth();
+    }
+
+    /**
+     * Blocks until every screenshot queued so far has been saved.
+     */
+    public void waitUntilDone() {
+        lock.lock();
+        try {
+            while (screenshotsInProgress > 0) {
+                allScreenshotsProcessed.await();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            lock.unlock();
+        }
+        logger.debug("Processed {} screenshots (average latency {} ms, maximum queue depth {})",
+                     new Object[] {getProcessedScreenshotCount(), getAverageLatencyInMilliseconds(), getMaximumQueueDepth()});
+    }
+
+    public boolean isEmpty() {
+        lock.lock();
+        try {
+            return (screenshotsInProgress == 0);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * @return The number of screenshots currently waiting for a worker thread.
+     */
+    public int getQueueDepth() {
+        return executor.getQueue().size();
+    }
+
+    /**
+     * @return The largest number of screenshots that have been waiting for a worker thread at any one time.
+     */
+    public int getMaximumQueueDepth() {
+        return maximumQueueDepth.get();
+    }
+
+    public long getProcessedScreenshotCount() {
+        return processedScreenshots.get();
+    }
+
+    /**
+     * @return The average time between a screenshot being queued and it being saved to its destination file.
+     */
+    public long getAverageLatencyInMilliseconds() {
+        long processed = processedScreenshots.get();
+        if (processed == 0) {
+            return 0;
+        }
+        return TimeUnit.NANOSECONDS.toMillis(totalLatencyInNanoseconds.get() / processed);
+    }
+
+    private void screenshotStarted() {
+        lock.lock();
+        try {
+            screenshotsInProgress++;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void screenshotFinished(long latencyInNanoseconds) {
+        processedScreenshots.incrementAndGet();
+        totalLatencyInNanoseconds.addAndGet(latencyInNanoseconds);
+        lock.lock();
+        try {
+            screenshotsInProgress--;
+            if (screenshotsInProgress == 0) {
+                allScreenshotsProcessed.signalAll();
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void recordQueueDepth() {
+        int queueDepth = getQueueDepth();
+        int currentMaximum = maximumQueueDepth.get();
+        while ((queueDepth > currentMaximum) && !maximumQueueDepth.compareAndSet(currentMaximum, queueDepth)) {
+            currentMaximum = maximumQueueDepth.get();
+        }
+    }
+
+    private class ScreenshotTask implements Runnable {
+
+        private final QueuedScreenshot queuedScreenshot;
+        private final long queuedAt;
+
+        private ScreenshotTask(QueuedScreenshot queuedScreenshot) {
+            this.queuedScreenshot = queuedScreenshot;
+            this.queuedAt = System.nanoTime();
+        }
+
+        public void run() {
+            try {
+                screenshotSaver.save(queuedScreenshot);
+            } finally {
+                screenshotFinished(System.nanoTime() - queuedAt);
+            }
+        }
+    }
+
+    /**
+     * When the queue is full, the screenshot is processed in the thread that queued it.
+     * Unlike the standard CallerRunsPolicy, the screenshot is still processed if the pool has been shut down,
+     * so that no caller is left waiting for it.
+     */
+    private static class ProcessInCallingThread implements RejectedExecutionHandler {
+        public void rejectedExecution(Runnable screenshotTask, ThreadPoolExecutor executor) {
+            screenshotTask.run();
+        }
+    }
+}
@@ -2,7 +2,6 @@ package net.thucydides.core.screenshots;
 
 import com.google.common.base.Optional;
 import com.google.common.base.Preconditions;
-import com.jhlabs.image.BoxBlurFilter;
 import net.thucydides.core.ThucydidesSystemProperty;
 import net.thucydides.core.digest.Digest;
 import net.thucydides.core.guice.Injectors;
@@ -16,14 +15,8 @@ import org.openqa.selenium.WebDriverException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import javax.imageio.ImageIO;
-import java.awt.image.BufferedImage;
-import java.awt.image.ColorModel;
-import java.awt.image.WritableRaster;
-import java.io.ByteArrayOutputStream;
 import java.io.File;
 import java.io.IOException;
-import java.util.UUID;
 
 /**
  * The photographer takes and stores screenshots during the test.
@@ -44,6 +37,13 @@ public class Photographer {
     private final Logger logger = LoggerFactory.getLogger(Photographer.class);
     private ScreenshotProcessor screenshotProcessor;
     private EnvironmentVariables environmentVariables;
+    private final ScreenshotStore screenshotStore;
+    /**
+     * The page source saved with the last screenshot. When screenshots are deduplicated, several steps can share
+     * a screenshot file, but each one keeps its own page source.
+     */
+    private File lastScreenshot;
+    private File lastPageSource;
 
     protected Logger getLogger() {
         return logger;
@@ -86,6 +86,7 @@ public class Photographer {
         this.screenshotSequence = DEFAULT_SCREENSHOT_SEQUENCE;
         this.blurLevel = Optional.fromNullable(blurLevel);
         this.environmentVariables = environmentVariables;
+        this.screenshotStore = ScreenshotStore.configuredIn(environmentVariables);
     }
 
     public Optional<BlurLevel> getBlurLevel() {
@@ -103,26 +104,17 @@ public class Photographer {
 
     /**
      * Take a screenshot of the current browser and store it in the output directory.
+     * The screenshot is kept in memory until the screenshot processor saves it, blurring it if required.
      */
     public Optional<File> takeScreenshot(final String prefix) {
         if (driverCanTakeSnapshots()) {
             try {
-                File screenshotFile = null;
-                Object capturedScreenshot = ((TakesScreenshot) driver).getScreenshotAs(OutputType.FILE);
-                if (isAFile(capturedScreenshot)) {
-                    screenshotFile = (File) capturedScreenshot;
-                } else if (isByteArray(capturedScreenshot)) {
-                    screenshotFile = saveScreenshotData((byte[]) capturedScreenshot);
-                }
-                if (screenshotFile != null && blurLevel.isPresent()) {
-                    screenshotFile = blur(screenshotFile);
-                }
-                if (screenshotFile != null) {
-                    File savedScreenshot = targetScreenshot(prefix);
-                    screenshotProcessor.queueScreenshot(new QueuedScreenshot(screenshotFile, savedScreenshot));
+                Object capturedScreenshot = ((TakesScreenshot) driver).getScreenshotAs(OutputType.BYTES);
+                if (isByteArray(capturedScreenshot) || isAFile(capturedScreenshot)) {
+                    File savedScreenshot = saveScreenshot(prefix, capturedScreenshot);
 
                     if (!blurLevel.isPresent() && shouldSavePageSource()) {
-                        savePageSourceFor(savedScreenshot.getAbsolutePath());
+                        savePageSourceFor(savedScreenshot, pageSourceFileFor(prefix, savedScreenshot));
                     }
 
                     return Optional.of(savedScreenshot);
@@ -134,43 +126,53 @@ public class Photographer {
         return Optional.absent();
     }
 
-    private boolean shouldSavePageSource() {
-        return environmentVariables.getPropertyAsBoolean(ThucydidesSystemProperty.THUCYDIDES_STORE_HTML_SOURCE, false);
+    private File saveScreenshot(String prefix, Object capturedScreenshot) throws IOException {
+        if (screenshotStore.isEnabled()) {
+            byte[] screenshotData = screenshotDataFrom(capturedScreenshot);
+            targetDirectory.mkdirs();
+            File savedScreenshot = screenshotStore.screenshotFileFor(screenshotData, blurLevel, targetDirectory);
+            if (screenshotStore.isNew(savedScreenshot)) {
+                queueStoredScreenshot(screenshotData, savedScreenshot);
+            }
+            return savedScreenshot;
+        } else {
+            File savedScreenshot = targetScreenshot(prefix);
+            screenshotProcessor.queueScreenshot(queuedScreenshotFor(capturedScreenshot, savedScreenshot));
+            return savedScreenshot;
+        }
     }
 
-    protected File blur(File srcFile) throws IOException {
-        BufferedImage srcImage = ImageIO.read(srcFile);
-        BufferedImage destImage = deepCopy(srcImage);
-        BoxBlurFilter boxBlurFilter = new BoxBlurFilter();
-        boxBlurFilter.setRadius(blurLevel.get().getRadius());
-        boxBlurFilter.setIterations(3);
-        destImage = boxBlurFilter.filter(srcImage, destImage);
-
-        ByteArrayOutputStream outStream = new ByteArrayOutputStream();
-        ImageIO.write(destImage, "png", outStream);
-
-        return  saveScreenshotData(outStream.toByteArray());
+    private void queueStoredScreenshot(byte[] screenshotData, File savedScreenshot) {
+        try {
+            screenshotProcessor.queueScreenshot(new QueuedScreenshot(screenshotData, savedScreenshot, blurLevel,
+                                                                     Optional.of(screenshotStore)));
+        } catch (RuntimeException e) {
+            screenshotStore.finishedSaving(savedScreenshot);
+            throw e;
+        }
     }
 
-    private BufferedImage deepCopy(BufferedImage srcImage) {
-        ColorModel cm = srcImage.getColorModel();
-        boolean isAlphaPremultiplied = cm.isAlphaPremultiplied();
-        WritableRaster raster = srcImage.copyData(null);
-        return new BufferedImage(cm, raster, isAlphaPremultiplied, null);
+    private byte[] screenshotDataFrom(Object capturedScreenshot) throws IOException {
+        if (isByteArray(capturedScreenshot)) {
+            return (byte[]) capturedScreenshot;
+        } else {
+            return FileUtils.readFileToByteArray((File) capturedScreenshot);
+        }
     }
 
-    private File saveScreenshotData(byte[] capturedScreenshot) throws IOException {
-        File screenshotFile;
-        String screenshotTempFileName = "screenshot_" + UUID.randomUUID();
-        screenshotFile = new File(FileUtils.getTempDirectory(), screenshotTempFileName);
-        byte[] screenshotData = capturedScreenshot;
-        screenshotFile.deleteOnExit();
-        if (screenshotData.length > 0) {
-            FileUtils.writeByteArrayToFile(screenshotFile, screenshotData);
+    /**
+     * Some drivers return a file whatever output type is requested.
+     */
+    private QueuedScreenshot queuedScreenshotFor(Object capturedScreenshot, File savedScreenshot) {
+        if (isByteArray(capturedScreenshot)) {
+            return new QueuedScreenshot((byte[]) capturedScreenshot, savedScreenshot, blurLevel);
         } else {
-            FileUtils.touch(screenshotFile);
+            return new QueuedScreenshot((File) capturedScreenshot, savedScreenshot, blurLevel);
         }
-        return screenshotFile;
+    }
+
+    private boolean shouldSavePageSource() {
+        return environmentVariables.getPropertyAsBoolean(ThucydidesSystemProperty.THUCYDIDES_STORE_HTML_SOURCE, false);
     }
 
     private boolean isAFile(Object screenshot) {
@@ -197,13 +199,22 @@ public class Photographer {
         }
     }
 
-    private void savePageSourceFor(final String screenshotFile) throws IOException {
+    private File pageSourceFileFor(final String prefix, final File screenshot) {
+        if (screenshotStore.isEnabled()) {
+            return new File(sourceCodeFileFor(targetScreenshot(prefix).getAbsolutePath()));
+        } else {
+            return new File(sourceCodeFileFor(screenshot.getAbsolutePath()));
+        }
+    }
+
+    private void savePageSourceFor(final File screenshot, final File savedSource) throws IOException {
         try {
             WebDriver webdriver = driver;
             String pageSource = webdriver.getPageSource();
 
-            File savedSource = new File(sourceCodeFileFor(screenshotFile));
             FileUtils.writeStringToFile(savedSource, pageSource);
+            lastScreenshot = screenshot;
+            lastPageSource = savedSource;
         } catch (WebDriverException e) {
             getLogger().warn("Failed to save screen source code", e);
         }
@@ -216,7 +227,9 @@ public class Photographer {
     }
 
     public File getMatchingSourceCodeFor(final File screenshot) {
-        if (screenshot != null) {
+        if ((screenshot != null) && screenshot.equals(lastScreenshot)) {
+            return lastPageSource;
+        } else if (screenshot != null) {
             return new File(sourceCodeFileFor(screenshot.getAbsolutePath()));
         } else {
             return null;
@@ -1,22 +1,78 @@
 package net.thucydides.core.screenshots;
 
+import com.google.common.base.Optional;
+
 import java.io.File;
 
+/**
+ * A screenshot waiting to be saved to its destination file.
+ * The screenshot is either held in memory, as returned by the driver, or in a temporary file.
+ */
 public class QueuedScreenshot {
 
     private final File filename;
     private final File sourceFilename;
+    private final byte[] screenshotData;
+    private final Optional<BlurLevel> blurLevel;
+    private final Optional<ScreenshotStore> screenshotStore;
 
     public QueuedScreenshot(File sourceFilename, File targetFilename) {
+        this(sourceFilename, targetFilename, Optional.<BlurLevel>absent());
+    }
+
+    public QueuedScreenshot(File sourceFilename, File targetFilename, Optional<BlurLevel> blurLevel) {
         this.filename = targetFilename;
         this.sourceFilename = sourceFilename;
+        this.screenshotData = null;
+        this.blurLevel = blurLevel;
+        this.screenshotStore = Optional.absent();
+    }
+
+    public QueuedScreenshot(byte[] screenshotData, File targetFilename, Optional<BlurLevel> blurLevel) {
+        this(screenshotData, targetFilename, blurLevel, Optional.<ScreenshotStore>absent());
+    }
+
+    /**
+     * A screenshot to be saved in a screenshot store, which is told once the screenshot has been saved.
+     */
+    public QueuedScreenshot(byte[] screenshotData, File targetFilename, Optional<BlurLevel> blurLevel,
+                            Optional<ScreenshotStore> screenshotStore) {
+        this.filename = targetFilename;
+        this.sourceFilename = null;
+        this.screenshotData = screenshotData;
+        this.blurLevel = blurLevel;
+        this.screenshotStore = screenshotStore;
     }
 
     public File getDestinationFile() {
         return filename;
     }
 
+    /**
+     * @return The temporary file containing the screenshot, or null if the screenshot is held in memory.
+     */
     public File getSourceFile() {
         return sourceFilename;
     }
+
+    public boolean isInMemory() {
+        return (screenshotData != null);
+    }
+
+    public byte[] getScreenshotData() {
+        return screenshotData;
+    }
+
+    public Optional<BlurLevel> getBlurLevel() {
+        return blurLevel;
+    }
+
+    /**
+     * Called once the screenshot has been saved, or could not be saved.
+     */
+    public void finishedSaving() {
+        if (screenshotStore.isPresent()) {
+            screenshotStore.get().finishedSaving(filename);
+        }
+    }
 }
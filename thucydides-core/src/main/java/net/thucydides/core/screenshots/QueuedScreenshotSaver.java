@@ -0,0 +1,250 @@
+package net.thucydides.core.screenshots;
+
+import com.google.common.io.Files;
+import com.jhlabs.image.BoxBlurFilter;
+import net.thucydides.core.ThucydidesSystemProperty;
+import net.thucydides.core.images.SimpleImageInfo;
+import net.thucydides.core.util.EnvironmentVariables;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.imageio.ImageIO;
+import java.awt.*;
+import java.awt.image.BufferedImage;
+import java.awt.image.ColorModel;
+import java.awt.image.WritableRaster;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * Saves a queued screenshot to its destination file, blurring and resizing it on the way if required.
+ * The image size is read from the PNG header, so screenshots that need neither blurring nor resizing are
+ * never decoded, and the others are decoded once, processed in memory, and written once.
+ * Used by the screenshot processors, whatever the number of threads they use.
+ */
+class QueuedScreenshotSaver {
+
+    private static final int BLUR_ITERATIONS = 3;
+    private static final int UNKNOWN_WIDTH = -1;
+    private static final int PLACEHOLDER_SIZE = 1;
+
+    private final EnvironmentVariables environmentVariables;
+
+    private final Logger logger = LoggerFactory.getLogger(QueuedScreenshotSaver.class);
+
+    QueuedScreenshotSaver(EnvironmentVariables environmentVariables) {
+        this.environmentVariables = environmentVariables;
+    }
+
+    void save(QueuedScreenshot queuedScreenshot) {
+        try {
+            if (shouldResize(queuedScreenshot) || queuedScreenshot.getBlurLevel().isPresent()) {
+                processScreenshot(queuedScreenshot);
+            } else {
+                saveOriginalScreenshot(queuedScreenshot);
+            }
+        } finally {
+            queuedScreenshot.finishedSaving();
+        }
+    }
+
+    private int getResizedWidth() {
+        return environmentVariables.getPropertyAsInteger(ThucydidesSystemProperty.RESIZED_WIDTH, 0);
+    }
+
+    private boolean shouldResize(QueuedScreenshot queuedScreenshot) {
+        if (getResizedWidth() > 0) {
+            int width = readWidth(queuedScreenshot);
+            return (width != UNKNOWN_WIDTH) && (width != getResizedWidth());
+        }
+        return false;
+    }
+
+    private int readWidth(QueuedScreenshot queuedScreenshot) {
+        try {
+            if (queuedScreenshot.isInMemory()) {
+                return new SimpleImageInfo(queuedScreenshot.getScreenshotData()).getWidth();
+            } else {
+                return new SimpleImageInfo(queuedScreenshot.getSourceFile()).getWidth();
+            }
+        } catch (IOException e) {
+            logger.warn("Failed to read the stored screenshot: " + e.getMessage());
+            return UNKNOWN_WIDTH;
+        }
+    }
+
+    private BufferedImage readImage(QueuedScreenshot queuedScreenshot) throws IOException {
+        if (queuedScreenshot.isInMemory()) {
+            return ImageIO.read(new ByteArrayInputStream(queuedScreenshot.getScreenshotData()));
+        } else {
+            return ImageIO.read(queuedScreenshot.getSourceFile());
+        }
+    }
+
+    private void saveOriginalScreenshot(QueuedScreenshot queuedScreenshot) {
+        try {
+            if (queuedScreenshot.isInMemory()) {
+                writeAtomically(queuedScreenshot.getScreenshotData(), queuedScreenshot.getDestinationFile());
+            } else {
+                Files.move(queuedScreenshot.getSourceFile(), queuedScreenshot.getDestinationFile());
+            }
+        } catch (Throwable e) {
+            logger.warn("Failed to move the screenshot to the destination directory: " + e.getMessage());
+        }
+    }
+
+    private void processScreenshot(QueuedScreenshot queuedScreenshot) {
+        try {
+            BufferedImage image = readImage(queuedScreenshot);
+            if (queuedScreenshot.getBlurLevel().isPresent()) {
+                image = blur(image, queuedScreenshot.getBlurLevel().get());
+            }
+            if (shouldResize(image)) {
+                image = resize(image);
+            }
+            writeAtomically(image, queuedScreenshot.getDestinationFile());
+            if (!queuedScreenshot.isInMemory()) {
+                queuedScreenshot.getSourceFile().delete();
+            }
+        } catch (Throwable e) {
+            if (queuedScreenshot.getBlurLevel().isPresent()) {
+                logger.warn("Failed to blur screenshot: saving a blank image instead " + e.getMessage());
+                savePlaceholderFor(queuedScreenshot);
+            } else {
+                logger.warn("Failed to resize screenshot: using original size " + e.getMessage());
+                saveOriginalScreenshot(queuedScreenshot);
+            }
+        }
+    }
+
+    /**
+     * A screenshot that should have been blurred is never saved as it is: a blank image of the same size
+     * is saved in its place, and the original is discarded.
+     */
+    private void savePlaceholderFor(QueuedScreenshot queuedScreenshot) {
+        try {
+            writeAtomically(placeholderFor(queuedScreenshot), queuedScreenshot.getDestinationFile());
+        } catch (Throwable e) {
+            logger.warn("Failed to save a blank image in place of a blurred screenshot: " + e.getMessage());
+        } finally {
+            if (!queuedScreenshot.isInMemory()) {
+                queuedScreenshot.getSourceFile().delete();
+            }
+        }
+    }
+
+    private BufferedImage placeholderFor(QueuedScreenshot queuedScreenshot) {
+        int width = PLACEHOLDER_SIZE;
+        int height = PLACEHOLDER_SIZE;
+        try {
+            SimpleImageInfo imageInfo = queuedScreenshot.isInMemory()
+                    ? new SimpleImageInfo(queuedScreenshot.getScreenshotData())
+                    : new SimpleImageInfo(queuedScreenshot.getSourceFile());
+            if ((imageInfo.getWidth() > 0) && (imageInfo.getHeight() > 0)) {
+                width = imageInfo.getWidth();
+                height = imageInfo.getHeight();
+            }
+        } catch (IOException e) {
+            logger.warn("Failed to read the size of the stored screenshot: " + e.getMessage());
+        }
+        BufferedImage placeholder = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        Graphics2D g = placeholder.createGraphics();
+        g.setColor(Color.LIGHT_GRAY);
+        g.fillRect(0, 0, width, height);
+        g.dispose();
+        return placeholder;
+    }
+
+    private boolean shouldResize(BufferedImage image) {
+        return (getResizedWidth() > 0) && (image.getWidth() != getResizedWidth());
+    }
+
+    BufferedImage blur(BufferedImage srcImage, BlurLevel blurLevel) {
+        BufferedImage destImage = deepCopy(srcImage);
+        BoxBlurFilter boxBlurFilter = new BoxBlurFilter();
+        boxBlurFilter.setRadius(blurLevel.getRadius());
+        boxBlurFilter.setIterations(BLUR_ITERATIONS);
+        return boxBlurFilter.filter(srcImage, destImage);
+    }
+
+    private BufferedImage deepCopy(BufferedImage srcImage) {
+        ColorModel cm = srcImage.getColorModel();
+        boolean isAlphaPremultiplied = cm.isAlphaPremultiplied();
+        WritableRaster raster = srcImage.copyData(null);
+        return new BufferedImage(cm, raster, isAlphaPremultiplied, null);
+    }
+
+    private BufferedImage resize(BufferedImage image) {
+        int width = image.getWidth();
+        int height = image.getHeight();
+        int targetWidth = getResizedWidth();
+        int targetHeight = (int) (((double) targetWidth / (double) width) * (double) height);
+        return resize(image, targetWidth, targetHeight);
+    }
+
+    private BufferedImage resize(BufferedImage image, int width, int height) {
+        int type = image.getType() == 0? BufferedImage.TYPE_INT_ARGB : image.getType();
+        BufferedImage resizedImage = new BufferedImage(width, height, type);
+        Graphics2D g = resizedImage.createGraphics();
+        g.setComposite(AlphaComposite.Src);
+
+        g.setRenderingHint(RenderingHints.KEY_INTERPOLATION,
+                RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+
+        g.setRenderingHint(RenderingHints.KEY_RENDERING,
+                RenderingHints.VALUE_RENDER_QUALITY);
+
+        g.setRenderingHint(RenderingHints.KEY_ANTIALIASING,
+                RenderingHints.VALUE_ANTIALIAS_ON);
+
+        g.drawImage(image, 0, 0, width, height, null);
+        g.dispose();
+        return resizedImage;
+    }
+
+    /**
+     * Screenshots are written to a temporary file next to the destination file and then renamed,
+     * so that nobody watching the destination directory sees a partly-written screenshot.
+     * Each write uses a temporary file of its own, as other threads or test JVMs may be saving the same screenshot.
+     */
+    private void writeAtomically(byte[] screenshotData, File destination) throws IOException {
+        File temporaryFile = temporaryFileFor(destination);
+        try {
+            Files.write(screenshotData, temporaryFile);
+            Files.move(temporaryFile, destination);
+        } finally {
+            temporaryFile.delete();
+        }
+    }
+
+    private void writeAtomically(BufferedImage image, File destination) throws IOException {
+        File temporaryFile = temporaryFileFor(destination);
+        try {
+            OutputStream outputStream = new BufferedOutputStream(new FileOutputStream(temporaryFile));
+            try {
+                ImageIO.write(image, "png", outputStream);
+            } finally {
+                outputStream.close();
+            }
+            Files.move(temporaryFile, destination);
+        } finally {
+            temporaryFile.delete();
+        }
+    }
+
+    private File temporaryFileFor(File destination) throws IOException {
+        return File.createTempFile(temporaryFilePrefixFor(destination), ".tmp", destination.getParentFile());
+    }
+
+    /**
+     * File.createTempFile() needs a prefix of at least three characters.
+     */
+    private String temporaryFilePrefixFor(File destination) {
+        String prefix = destination.getName() + "-";
+        return (prefix.length() < 3) ? "screenshot-" : prefix;
+    }
+}
@@ -18,6 +18,11 @@ public class ScreenshotAndHtmlSource {
     private final File screenshot;
     private final File sourcecode;
 
+    /**
+     * Calculated the first time the screenshot is compared with another one, once the screenshot has been saved.
+     */
+    private transient Long checksum;
+
     private static final Logger LOGGER = LoggerFactory.getLogger(ScreenshotAndHtmlSource.class);
 
     public ScreenshotAndHtmlSource(File screenshot, File sourcecode) {
@@ -72,16 +77,29 @@ public class ScreenshotAndHtmlSource {
         if (hasNoScreenshot() || anotherScreenshotAndHtmlSource.hasNoScreenshot()) {
             return false;
         }
+        if (getScreenshotFile().getName().equals(anotherScreenshotAndHtmlSource.getScreenshotFile().getName())) {
+            return true;
+        }
         try {
             File screenshotTargetDirectory = new File(getScreenshotFile().getParent());
-            return (checksumCRC32(getScreenshotFile(screenshotTargetDirectory))
-                    == checksumCRC32(anotherScreenshotAndHtmlSource.getScreenshotFile(screenshotTargetDirectory)));
+            return (getChecksum() == anotherScreenshotAndHtmlSource.getChecksumIn(screenshotTargetDirectory));
         } catch (IOException e) {
             LOGGER.warn("Failed to compare screenshots: " + e.getMessage());
         }
         return false;
     }
 
+    private long getChecksum() throws IOException {
+        return getChecksumIn(new File(getScreenshotFile().getParent()));
+    }
+
+    private synchronized long getChecksumIn(File screenshotTargetDirectory) throws IOException {
+        if (checksum == null) {
+            checksum = checksumCRC32(getScreenshotFile(screenshotTargetDirectory));
+        }
+        return checksum;
+    }
+
     public File getScreenshotFile(File screenshotTargetDirectory) {
         return new File(screenshotTargetDirectory, getScreenshotFile().getName());
     }
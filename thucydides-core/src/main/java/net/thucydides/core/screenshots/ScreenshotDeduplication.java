@@ -0,0 +1,20 @@
+package net.thucydides.core.screenshots;
+
+/**
+ * How screenshots with the same contents are stored.
+ */
+public enum ScreenshotDeduplication {
+    /**
+     * Every screenshot is saved in its own file.
+     */
+    NONE,
+    /**
+     * Screenshots are named after a digest of their contents, so identical screenshots are stored only once.
+     */
+    EXACT,
+    /**
+     * Screenshots are compared using a perceptual hash of the image, so screenshots that look the same
+     * (even if they are not identical byte for byte) are stored only once.
+     */
+    PERCEPTUAL
+}
@@ -0,0 +1,263 @@
+package net.thucydides.core.screenshots;
+
+import com.google.common.base.Optional;
+import net.thucydides.core.ThucydidesSystemProperty;
+import net.thucydides.core.digest.Digest;
+import net.thucydides.core.util.EnvironmentVariables;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.imageio.ImageIO;
+import java.awt.*;
+import java.awt.image.BufferedImage;
+import java.awt.image.Raster;
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * A content-addressed store for screenshots.
+ * When deduplication is enabled, each screenshot is named after a hash of its contents, calculated once when the
+ * screenshot is taken, and a screenshot that has already been stored is not saved again.
+ * In perceptual mode, a 1024-bit hash is calculated from a 33x32 greyscale thumbnail of the image. A screenshot
+ * whose hash differs from the hash of a screenshot already stored in the same directory by only a few bits
+ * shares its file, so that screenshots that look the same are stored once even if their bytes differ slightly.
+ * The threshold is deliberately low, so that screenshots with small but real differences are still stored separately.
+ * Screenshots are only compared with the ones stored in the same directory during the same test run, and only
+ * a limited number of directories and hashes are remembered.
+ */
+public class ScreenshotStore {
+
+    private static final int HASH_WIDTH = 33;
+    private static final int HASH_HEIGHT = 32;
+    private static final int HASH_LENGTH = (HASH_WIDTH - 1) * HASH_HEIGHT / Long.SIZE;
+
+    /**
+     * The largest number of bits by which the perceptual hashes of two screenshots can differ for them to be
+     * considered the same.
+     */
+    private static final int MAXIMUM_DIFFERENT_BITS = 4;
+
+    /**
+     * The number of directories for which stored screenshots are remembered at any one time.
+     */
+    private static final int MAXIMUM_INDEXED_DIRECTORIES = 16;
+
+    /**
+     * The screenshots stored in each output directory during each test run. The directory used least recently is
+     * forgotten first.
+     */
+    private static final Map<String, StoredScreenshots> STORED_SCREENSHOTS
+            = new LinkedHashMap<String, StoredScreenshots>(MAXIMUM_INDEXED_DIRECTORIES, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, StoredScreenshots> eldest) {
+            return size() > MAXIMUM_INDEXED_DIRECTORIES;
+        }
+    };
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(ScreenshotStore.class);
+
+    private final ScreenshotDeduplication deduplication;
+    private final String runIdentifier;
+
+    public ScreenshotStore(ScreenshotDeduplication deduplication) {
+        this(deduplication, "");
+    }
+
+    public ScreenshotStore(ScreenshotDeduplication deduplication, String runIdentifier) {
+        this.deduplication = deduplication;
+        this.runIdentifier = runIdentifier;
+    }
+
+    public static ScreenshotStore configuredIn(EnvironmentVariables environmentVariables) {
+        String deduplication = environmentVariables.getProperty(ThucydidesSystemProperty.THUCYDIDES_SCREENSHOT_DEDUPLICATION,
+                                                                ScreenshotDeduplication.NONE.name());
+        String runIdentifier = environmentVariables.getProperty(ThucydidesSystemProperty.THUCYDIDES_RUN_ID, "");
+        try {
+            return new ScreenshotStore(ScreenshotDeduplication.valueOf(deduplication.trim().toUpperCase(Locale.ENGLISH)),
+                                       runIdentifier);
+        } catch (IllegalArgumentException e) {
+            LOGGER.warn("Unknown screenshot deduplication mode '{}': screenshots will not be deduplicated", deduplication);
+            return new ScreenshotStore(ScreenshotDeduplication.NONE);
+        }
+    }
+
+    public boolean isEnabled() {
+        return (deduplication != ScreenshotDeduplication.NONE);
+    }
+
+    /**
+     * The file a screenshot should be stored in, named after the contents of the screenshot.
+     */
+    public File screenshotFileFor(byte[] screenshotData, Optional<BlurLevel> blurLevel, File targetDirectory) {
+        String blurSuffix = blurLevel.isPresent() ? "-" + blurLevel.get().name().toLowerCase(Locale.ENGLISH) : "";
+        return new File(targetDirectory, "screenshot-" + hashOf(screenshotData, targetDirectory) + blurSuffix + ".png");
+    }
+
+    /**
+     * Records that a screenshot file is going to be stored.
+     * The file only counts as stored once it has been written: until then it is remembered as being saved, so that
+     * it is not queued twice, and it is forgotten again by {@link #finishedSaving(File)}, whether or not it was saved.
+     * @return false if the file has already been stored or is being saved, so does not need to be saved again.
+     */
+    public boolean isNew(File screenshotFile) {
+        return !screenshotFile.exists()
+                && storedScreenshotsIn(screenshotFile.getParentFile()).startSaving(screenshotFile.getName());
+    }
+
+    public void finishedSaving(File screenshotFile) {
+        storedScreenshotsIn(screenshotFile.getParentFile()).finishedSaving(screenshotFile.getName());
+    }
+
+    private StoredScreenshots storedScreenshotsIn(File targetDirectory) {
+        String key = runIdentifier + File.pathSeparator + targetDirectory.getAbsolutePath();
+        synchronized (STORED_SCREENSHOTS) {
+            StoredScreenshots storedScreenshots = STORED_SCREENSHOTS.get(key);
+            if (storedScreenshots == null) {
+                storedScreenshots = new StoredScreenshots();
+                STORED_SCREENSHOTS.put(key, storedScreenshots);
+            }
+            return storedScreenshots;
+        }
+    }
+
+    private String hashOf(byte[] screenshotData, File targetDirectory) {
+        if (deduplication == ScreenshotDeduplication.PERCEPTUAL) {
+            Optional<long[]> perceptualHash = perceptualHashOf(screenshotData);
+            if (perceptualHash.isPresent()) {
+                return nameOf(storedScreenshotsIn(targetDirectory).closestStoredHashTo(perceptualHash.get()));
+            }
+        }
+        return Digest.ofBytes(screenshotData);
+    }
+
+    private String nameOf(long[] hash) {
+        ByteBuffer hashBytes = ByteBuffer.allocate(HASH_LENGTH * (Long.SIZE / Byte.SIZE));
+        for (long bits : hash) {
+            hashBytes.putLong(bits);
+        }
+        return Digest.ofBytes(hashBytes.array());
+    }
+
+    /**
+     * A difference hash: the image is shrunk to a greyscale thumbnail, and each bit records whether a pixel
+     * is brighter than its right-hand neighbour.
+     */
+    private Optional<long[]> perceptualHashOf(byte[] screenshotData) {
+        try {
+            BufferedImage image = ImageIO.read(new ByteArrayInputStream(screenshotData));
+            if (image == null) {
+                return Optional.absent();
+            }
+            BufferedImage thumbnail = new BufferedImage(HASH_WIDTH, HASH_HEIGHT, BufferedImage.TYPE_BYTE_GRAY);
+            Graphics2D g = thumbnail.createGraphics();
+            g.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+            g.drawImage(image, 0, 0, HASH_WIDTH, HASH_HEIGHT, null);
+            g.dispose();
+
+            Raster pixels = thumbnail.getRaster();
+            long[] hash = new long[HASH_LENGTH];
+            int bit = 0;
+            for (int y = 0; y < HASH_HEIGHT; y++) {
+                for (int x = 0; x < HASH_WIDTH - 1; x++) {
+                    if (pixels.getSample(x, y, 0) > pixels.getSample(x + 1, y, 0)) {
+                        hash[bit / Long.SIZE] |= 1L << (bit % Long.SIZE);
+                    }
+                    bit++;
+                }
+            }
+            return Optional.of(hash);
+        } catch (IOException e) {
+            LOGGER.warn("Could not calculate a perceptual hash for the screenshot: " + e.getMessage());
+            return Optional.absent();
+        }
+    }
+
+    /**
+     * The screenshots stored in one output directory during one test run.
+     * Perceptual hashes are indexed by band: two hashes that differ by no more than MAXIMUM_DIFFERENT_BITS bits
+     * are identical in at least one of the first MAXIMUM_DIFFERENT_BITS + 1 64-bit words, so only the hashes
+     * sharing one of these words with a new hash need to be compared with it.
+     */
+    private static class StoredScreenshots {
+
+        private static final int BANDS = MAXIMUM_DIFFERENT_BITS + 1;
+
+        /**
+         * Beyond this, new screenshots are still stored, but are no longer compared with the ones to come.
+         */
+        private static final int MAXIMUM_INDEXED_HASHES = 10000;
+
+        private final Set<String> screenshotsBeingSaved
+                = Collections.newSetFromMap(new ConcurrentHashMap<String, Boolean>());
+
+        private final List<Map<Long, List<long[]>>> hashBands = new ArrayList<Map<Long, List<long[]>>>();
+
+        private int indexedHashes = 0;
+
+        StoredScreenshots() {
+            for (int band = 0; band < BANDS; band++) {
+                hashBands.add(new HashMap<Long, List<long[]>>());
+            }
+        }
+
+        boolean startSaving(String screenshotName) {
+            return screenshotsBeingSaved.add(screenshotName);
+        }
+
+        void finishedSaving(String screenshotName) {
+            screenshotsBeingSaved.remove(screenshotName);
+        }
+
+        /**
+         * The hash of a screenshot already stored that looks the same, or else the given hash,
+         * which is recorded for the screenshots to come.
+         */
+        synchronized long[] closestStoredHashTo(long[] hash) {
+            for (int band = 0; band < BANDS; band++) {
+                List<long[]> candidates = hashBands.get(band).get(hash[band]);
+                if (candidates != null) {
+                    for (long[] storedHash : candidates) {
+                        if (differentBitsBetween(hash, storedHash) <= MAXIMUM_DIFFERENT_BITS) {
+                            return storedHash;
+                        }
+                    }
+                }
+            }
+            if (indexedHashes < MAXIMUM_INDEXED_HASHES) {
+                index(hash);
+            }
+            return hash;
+        }
+
+        private void index(long[] hash) {
+            for (int band = 0; band < BANDS; band++) {
+                List<long[]> bucket = hashBands.get(band).get(hash[band]);
+                if (bucket == null) {
+                    bucket = new ArrayList<long[]>();
+                    hashBands.get(band).put(hash[band], bucket);
+                }
+                bucket.add(hash);
+            }
+            indexedHashes++;
+        }
+
+        private int differentBitsBetween(long[] hash, long[] otherHash) {
+            int differentBits = 0;
+            for (int i = 0; i < HASH_LENGTH; i++) {
+                differentBits += Long.bitCount(hash[i] ^ otherHash[i]);
+            }
+            return differentBits;
+        }
+    }
+}
@@ -4,15 +4,11 @@ import com.google.common.base.Optional;
 import com.google.common.base.Splitter;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.Lists;
-import net.thucydides.core.annotations.Step;
-import net.thucydides.core.annotations.StepGroup;
 import net.thucydides.core.annotations.TestsRequirement;
 import net.thucydides.core.annotations.TestsRequirements;
-import net.thucydides.core.annotations.Title;
 import org.apache.commons.lang3.StringUtils;
 
 import java.lang.annotation.Annotation;
-import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
 import java.util.ArrayList;
 import java.util.Arrays;
@@ -27,6 +23,8 @@ public final class AnnotatedStepDescription {
 
     private static final List<String> VALID_STEP_ANNOTATIONS = ImmutableList.of("Step", "Given", "When", "Then");
 
+    private static final Splitter PARAMETER_SPLITTER = Splitter.on(",").trimResults();
+
     private final ExecutedStepDescription description;
 
     public static AnnotatedStepDescription from(final ExecutedStepDescription description) {
@@ -106,70 +104,24 @@ public final class AnnotatedStepDescription {
     }
 
     private Method findMethodCalled(final String methodName, final Class<?> testClass) {
-        Method methodFound = null;
-
         if (testClass != null) {
-            Method[] methods = testClass.getMethods();
-            for (Method method : methods) {
-                if (method.getName().equals(methodName)) {
-                    methodFound = method;
-                }
-            }
+            return StepMethodMetadata.lastMethodCalled(methodName, testClass);
         }
-        return methodFound;
+        return null;
     }
 
-    public String getAnnotatedTitle() {
-
-        Method testMethod = getTestMethod();
-        Title title = testMethod.getAnnotation(Title.class);
-        if (title != null) {
-            return title.value();
-        }
-        return null;
+    private StepMethodMetadata getTestMethodMetadata() {
+        return StepMethodMetadata.of(getTestMethod());
     }
 
-    private Optional<String> getAnnotatedStepName() {
-        Optional<String> stepAnnotatedName = getNameFromStepAnnotationIn(getTestMethod());
-        if (stepAnnotatedName.isPresent()) {
-            return stepAnnotatedName;
-        } else {
-            return getCompatibleStepNameFrom(getTestMethod());
-        }
+    public String getAnnotatedTitle() {
+        return getTestMethodMetadata().getTitle();
     }
 
     public static boolean isACompatibleStep(Annotation annotation) {
         return VALID_STEP_ANNOTATIONS.contains(annotation.annotationType().getSimpleName());
     }
 
-    private Optional<String> getCompatibleStepNameFrom(Method testMethod) {
-        Annotation[] annotations = testMethod.getAnnotations();
-        for (Annotation annotation : annotations) {
-            if (isACompatibleStep(annotation)) {
-                try {
-                    String annotationType = annotation.annotationType().getSimpleName();
-                    String annotatedValue = (String)annotation.getClass().getMethod("value").invoke(annotation);
-                    if (StringUtils.isEmpty(annotatedValue)) {
-                        return Optional.absent();
-                    } else {
-                        return Optional.of(annotationType + " " + StringUtils.uncapitalize(annotatedValue));
-                    }
-
-                } catch (Exception ignoredException) {}
-            }
-        }
-        return Optional.absent();
-    }
-
-    private Optional<String> getNameFromStepAnnotationIn(final Method testMethod) {
-        Step step = testMethod.getAnnotation(Step.class);
-
-        if ((step != null) && (!StringUtils.isEmpty(step.value()))) {
-            return Optional.of(step.value());
-        }
-        return Optional.absent();
-    }
-
     public String getName() {
         if (noClassIsDefined()) {
             return description.getName();
@@ -194,67 +146,46 @@ public final class AnnotatedStepDescription {
     }
 
     private String stepName() {
-        String annotationTitle = getAnnotatedTitle();
+        StepMethodMetadata testMethod = getTestMethodMetadata();
+        String annotationTitle = testMethod.getTitle();
         if (!StringUtils.isEmpty(annotationTitle)) {
             return annotationTitle;
         }
 
-        Optional<String> annotatedStepName = getAnnotatedStepName();
-        if (getAnnotatedStepName().isPresent() && (StringUtils.isNotEmpty(annotatedStepName.get()))) {
-            return annotatedStepNameWithParameters(annotatedStepName.get());
+        Optional<StepTitleTemplate> annotatedStepName = testMethod.getStepTitle();
+        if (annotatedStepName.isPresent()) {
+            return annotatedStepName.get().withArguments(getParametersFrom(description.getName()));
         }
 
         return humanize(description.getName());
     }
 
-    private String annotatedStepNameWithParameters(String annotatedStepTemplate) {
-        String annotatedStepName = annotatedStepTemplate;
-
-        Iterable<String> parameters = getParamatersFrom(description.getName());
-        int counter = 0;
-        for(String parameter : parameters) {
-            annotatedStepName = annotatedStepName.replaceAll("\\{" + counter++ + "\\}", parameter);
-        }
-        return annotatedStepName;
-    }
-
-    private Iterable<String> getParamatersFrom(String name) {
+    private List<String> getParametersFrom(String name) {
         String parameters = StringUtils.substringAfter(name,":");
-        return Splitter.on(",").trimResults().split(parameters);
+        return Lists.newArrayList(PARAMETER_SPLITTER.split(parameters));
     }
 
     public boolean isAGroup() {
-
         Method testMethod = getTestMethodIfPresent();
-        if (testMethod != null) {
-            StepGroup testGroup = testMethod.getAnnotation(StepGroup.class);
-            return (testGroup != null);
-        } else {
-            return false;
-        }
+        return (testMethod != null) && StepMethodMetadata.of(testMethod).isAGroup();
     }
 
     private String getGroupName() {
-        Method testMethod = getTestMethodIfPresent();
-        StepGroup testGroup = testMethod.getAnnotation(StepGroup.class);
-        return testGroup.value();
+        return StepMethodMetadata.of(getTestMethodIfPresent()).getGroupName();
     }
 
     public boolean isPending() {
         Method testMethod = getTestMethodIfPresent();
-        return testMethod != null && TestStatus.of(testMethod).isPending();
+        return testMethod != null && StepMethodMetadata.of(testMethod).isPending();
     }
 
     public boolean isIgnored() {
         Method testMethod = getTestMethodIfPresent();
-        return testMethod != null && TestStatus.of(testMethod).isIgnored();
+        return testMethod != null && StepMethodMetadata.of(testMethod).isIgnored();
     }
 
     public boolean isFluent() {
-        if (description.getTestMethod() != null) {
-            Step step = description.getTestMethod().getAnnotation(Step.class);
-            return ((step != null) && (step.fluent()));
-        }
-        return false;
+        Method testMethod = description.getTestMethod();
+        return (testMethod != null) && StepMethodMetadata.of(testMethod).isFluent();
     }
 }
@@ -0,0 +1,215 @@
+package net.thucydides.core.steps;
+
+import net.thucydides.core.model.DataTable;
+import net.thucydides.core.model.Story;
+import net.thucydides.core.model.TestOutcome;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+
+/**
+ * Passes step events on to another listener in the background.
+ * Used for listeners that do not affect the test outcome and do not depend on the test thread (see
+ * BackgroundStepListener), so that they do not add to the time taken by each step. The events are run one at a
+ * time by the executor, so the wrapped listener receives them in the order they occurred.
+ */
+class AsynchronousStepListener implements StepListener {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(AsynchronousStepListener.class);
+
+    private final StepListener listener;
+    private final ExecutorService dispatcher;
+
+    AsynchronousStepListener(final StepListener listener, final ExecutorService dispatcher) {
+        this.listener = listener;
+        this.dispatcher = dispatcher;
+    }
+
+    StepListener getListener() {
+        return listener;
+    }
+
+    private void dispatch(final Runnable event) {
+        dispatcher.execute(new Runnable() {
+            public void run() {
+                try {
+                    event.run();
+                } catch (RuntimeException e) {
+                    LOGGER.warn("Step listener " + listener + " failed to process an event", e);
+                } catch (AbstractMethodError ame) {
+                    LOGGER.warn("Caught abstract method error - this seems to be mostly harmless.");
+                }
+            }
+        });
+    }
+
+    public void testSuiteStarted(final Class<?> storyClass) {
+        dispatch(new Runnable() {
+            public void run() {
+                listener.testSuiteStarted(storyClass);
+            }
+        });
+    }
+
+    public void testSuiteStarted(final Story story) {
+        dispatch(new Runnable() {
+            public void run() {
+                listener.testSuiteStarted(story);
+            }
+        });
+    }
+
+    public void testSuiteFinished() {
+        dispatch(new Runnable() {
+            public void run() {
+                listener.testSuiteFinished();
+            }
+        });
+    }
+
+    public void testStarted(final String description) {
+        dispatch(new Runnable() {
+            public void run() {
+                listener.testStarted(description);
+            }
+        });
+    }
+
+    public void testFinished(final TestOutcome result) {
+        dispatch(new Runnable() {
+            public void run() {
+                listener.testFinished(result);
+            }
+        });
+    }
+
+    public void testRetried() {
+        dispatch(new Runnable() {
+            public void run() {
+                listener.testRetried();
+            }
+        });
+    }
+
+    public void stepStarted(final ExecutedStepDescription description) {
+        dispatch(new Runnable() {
+            public void run() {
+                listener.stepStarted(description);
+            }
+        });
+    }
+
+    public void skippedStepStarted(final ExecutedStepDescription description) {
+        dispatch(new Runnable() {
+            public void run() {
+                listener.skippedStepStarted(description);
+            }
+        });
+    }
+
+    public void stepFailed(final StepFailure failure) {
+        dispatch(new Runnable() {
+            public void run() {
+                listener.stepFailed(failure);
+            }
+        });
+    }
+
+    public void lastStepFailed(final StepFailure failure) {
+        dispatch(new Runnable() {
+            public void run() {
+                listener.lastStepFailed(failure);
+            }
+        });
+    }
+
+    public void stepIgnored() {
+        dispatch(new Runnable() {
+            public void run() {
+                listener.stepIgnored();
+            }
+        });
+    }
+
+    public void stepPending() {
+        dispatch(new Runnable() {
+            public void run() {
+                listener.stepPending();
+            }
+        });
+    }
+
+    public void stepPending(final String message) {
+        dispatch(new Runnable() {
+            public void run() {
+                listener.stepPending(message);
+            }
+        });
+    }
+
+    public void stepFinished() {
+        dispatch(new Runnable() {
+            public void run() {
+                listener.stepFinished();
+            }
+        });
+    }
+
+    public void testFailed(final TestOutcome testOutcome, final Throwable cause) {
+        dispatch(new Runnable() {
+            public void run() {
+                listener.testFailed(testOutcome, cause);
+            }
+        });
+    }
+
+    public void testIgnored() {
+        dispatch(new Runnable() {
+            public void run() {
+                listener.testIgnored();
+            }
+        });
+    }
+
+    public void notifyScreenChange() {
+        dispatch(new Runnable() {
+            public void run() {
+                listener.notifyScreenChange();
+            }
+        });
+    }
+
+    public void useExamplesFrom(final DataTable table) {
+        dispatch(new Runnable() {
+            public void run() {
+                listener.useExamplesFrom(table);
+            }
+        });
+    }
+
+    public void exampleStarted(final Map<String, String> data) {
+        dispatch(new Runnable() {
+            public void run() {
+                listener.exampleStarted(data);
+            }
+        });
+    }
+
+    public void exampleFinished() {
+        dispatch(new Runnable() {
+            public void run() {
+                listener.exampleFinished();
+            }
+        });
+    }
+
+    public void assumptionViolated(final String message) {
+        dispatch(new Runnable() {
+            public void run() {
+                listener.assumptionViolated(message);
+            }
+        });
+    }
+}
@@ -0,0 +1,10 @@
+package net.thucydides.core.steps;
+
+/**
+ * A step listener that can be notified in a background thread when asynchronous listeners are enabled.
+ * Only implement this if the listener does not depend on the thread it is called in: it must not use the current
+ * event bus, the current WebDriver instance or any other thread-local state. Other listeners are always notified
+ * in the thread running the test.
+ */
+public interface BackgroundStepListener extends StepListener {
+}
@@ -305,9 +305,19 @@ public class BaseStepListener implements StepListener, StepPublisher {
         recordTestDuration();
         getCurrentTestOutcome().addIssues(storywideIssues);
         getCurrentTestOutcome().addTags(storywideTags);
+        recordTestResultInBrowser();
         currentStepStack.clear();
     }
 
+    /**
+     * The browser needs to know whether the test failed when it is closed, which may be long after the test finished.
+     */
+    private void recordTestResultInBrowser() {
+        if ((driver instanceof WebDriverFacade) && !testOutcomes.isEmpty()) {
+            ((WebDriverFacade) driver).recordTestResult(getCurrentTestOutcome().getResult());
+        }
+    }
+
     public void testRetried() {
         currentStepStack.clear();
         testOutcomes.remove(getCurrentTestOutcome());
@@ -623,10 +633,11 @@ public class BaseStepListener implements StepListener, StepPublisher {
     private Optional<ScreenshotAndHtmlSource> grabScreenshotFor(final String testName) {
         String snapshotName = underscore(testName);
 
-        Optional<File> screenshot = getPhotographer().takeScreenshot(snapshotName);
+        Photographer photographer = getPhotographer();
+        Optional<File> screenshot = photographer.takeScreenshot(snapshotName);
         if (screenshot.isPresent()) {
             if (shouldStoreSourcecode()) {
-                File sourcecode = getPhotographer().getMatchingSourceCodeFor(screenshot.get());
+                File sourcecode = photographer.getMatchingSourceCodeFor(screenshot.get());
                 return Optional.of(new ScreenshotAndHtmlSource(screenshot.get(), sourcecode));
             } else {
                 return Optional.of(new ScreenshotAndHtmlSource(screenshot.get()));
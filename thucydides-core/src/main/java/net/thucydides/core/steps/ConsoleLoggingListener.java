@@ -19,7 +19,7 @@ import org.slf4j.LoggerFactory;
 import java.util.List;
 import java.util.Map;
 
-public class ConsoleLoggingListener implements StepListener {
+public class ConsoleLoggingListener implements BackgroundStepListener {
 
     // STAR WARS
     private static final List<String> BANNER_HEADINGS = ImmutableList.of(
@@ -84,13 +84,11 @@ public class ExecutedStepDescription implements Cloneable {
 
 
     private Method methodCalled(final String methodName, final Class<?> testClass) {
-        Method[] methods = testClass.getMethods();
-        for (Method method : methods) {
-            if (method.getName().equals(methodName)) {
-                return method;
-            }
+        Method method = StepMethodMetadata.firstMethodCalled(methodName, testClass);
+        if (method == null) {
+            throw new IllegalArgumentException("No test method called " + methodName + " was found in " + testClass);
         }
-        throw new IllegalArgumentException("No test method called " + methodName + " was found in " + testClass);
+        return method;
     }
 
 
@@ -3,26 +3,31 @@ package net.thucydides.core.steps;
 import com.google.common.base.Preconditions;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.Lists;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
 import com.google.inject.Inject;
+import net.thucydides.core.ThucydidesSystemProperty;
 import net.thucydides.core.guice.Injectors;
 import net.thucydides.core.model.DataTable;
 import net.thucydides.core.model.Story;
 import net.thucydides.core.model.TestOutcome;
 import net.thucydides.core.model.TestTag;
 import net.thucydides.core.screenshots.ScreenshotProcessor;
+import net.thucydides.core.util.EnvironmentVariables;
 import net.thucydides.core.webdriver.ThucydidesWebDriverSupport;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import sun.misc.Service;
 
 import java.util.ArrayList;
-import java.util.Collections;
-import java.util.HashSet;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
-import java.util.Set;
 import java.util.Stack;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionHandler;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
 
 /**
  * An event bus for Step-related notifications.
@@ -38,22 +43,62 @@ import java.util.Stack;
  */
 public class StepEventBus {
 
-    private static ThreadLocal<StepEventBus> stepEventBusThreadLocal = new ThreadLocal<StepEventBus>();
+    private static final ThreadLocal<StepEventBus> stepEventBusThreadLocal = new ThreadLocal<StepEventBus>();
     private static final String CORE_THUCYDIDES_PACKAGE = "net.thucydides.core";
     private static final Logger LOGGER = LoggerFactory.getLogger(StepEventBus.class);
 
+    /**
+     * The maximum number of events waiting to be sent to background listeners before the test threads have to wait.
+     */
+    private static final int MAXIMUM_QUEUED_EVENTS = 10000;
+
+    private static final RejectedExecutionHandler WAIT_FOR_ROOM_IN_THE_QUEUE = new RejectedExecutionHandler() {
+        public void rejectedExecution(final Runnable event, final ThreadPoolExecutor executor) {
+            try {
+                executor.getQueue().put(event);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    };
+
+    /**
+     * A single background thread, shared by the event buses of all the test threads, notifies the background
+     * listeners. Events are queued in the order they occur, so each listener receives them in order.
+     */
+    private static final ThreadPoolExecutor BACKGROUND_DISPATCHER = backgroundDispatcher();
+
+    private static ThreadPoolExecutor backgroundDispatcher() {
+        return new ThreadPoolExecutor(1, 1, 0L, TimeUnit.MILLISECONDS,
+                new LinkedBlockingQueue<Runnable>(MAXIMUM_QUEUED_EVENTS),
+                new ThreadFactoryBuilder().setNameFormat("thucydides-listeners-%d").setDaemon(true).build(),
+                WAIT_FOR_ROOM_IN_THE_QUEUE);
+    }
+
     /**
      * The event bus used to inform listening classes about when tests and test steps start and finish.
-     * There is a separate event bus for each thread.
+     * There is a separate event bus for each thread, so no locking is needed to find it.
      */
-    public static synchronized StepEventBus getEventBus() {
-        if (stepEventBusThreadLocal.get() == null) {
-            stepEventBusThreadLocal.set(Injectors.getInjector().getInstance(StepEventBus.class));
+    public static StepEventBus getEventBus() {
+        StepEventBus eventBus = stepEventBusThreadLocal.get();
+        if (eventBus == null) {
+            eventBus = Injectors.getInjector().getInstance(StepEventBus.class);
+            stepEventBusThreadLocal.set(eventBus);
         }
-        return stepEventBusThreadLocal.get();
+        return eventBus;
     }
 
-    private List<StepListener> registeredListeners = new ArrayList<StepListener>();
+    private static final StepListener[] NO_LISTENERS = new StepListener[0];
+
+    private final List<StepListener> registeredListeners = new ArrayList<StepListener>();
+
+    /**
+     * Copy-on-write snapshots of the registered and custom listeners, rebuilt whenever a listener is added
+     * or removed, so that dispatching an event does not need to copy or lock anything.
+     * The dispatch snapshot holds the asynchronous wrappers of the non-critical listeners, if enabled.
+     */
+    private volatile StepListener[] allListeners;
+    private volatile StepListener[] dispatchListeners;
     /**
      * A reference to the base step listener, if registered.
      */
@@ -64,7 +109,9 @@ public class StepEventBus {
     private Stack<String> stepStack = new Stack<String>();
     private Stack<Boolean> webdriverSuspensions = new Stack<Boolean>();
 
-    private Set<StepListener> customListeners;
+    private List<StepListener> customListeners;
+
+    private volatile boolean backgroundListenersRegistered;
 
     private boolean stepFailed;
     private boolean pendingTest;
@@ -74,10 +121,17 @@ public class StepEventBus {
     private Story storyUnderTest;
 
     private final ScreenshotProcessor screenshotProcessor;
+    private final boolean asynchronousListeners;
 
-    @Inject
     public StepEventBus(ScreenshotProcessor screenshotProcessor) {
+        this(screenshotProcessor, Injectors.getInjector().getInstance(EnvironmentVariables.class));
+    }
+
+    @Inject
+    public StepEventBus(ScreenshotProcessor screenshotProcessor, EnvironmentVariables environmentVariables) {
         this.screenshotProcessor = screenshotProcessor;
+        this.asynchronousListeners
+                = environmentVariables.getPropertyAsBoolean(ThucydidesSystemProperty.ASYNCHRONOUS_LISTENERS, false);
     }
 
     /**
@@ -86,13 +140,14 @@ public class StepEventBus {
      * listener implementation as a service (see http://download.oracle.com/javase/6/docs/api/java/util/ServiceLoader.html),
      * place the listener class on the classpath and it will be detected automatically.
      */
-    public StepEventBus registerListener(final StepListener listener) {
+    public synchronized StepEventBus registerListener(final StepListener listener) {
         if (!registeredListeners.contains(listener)) {
             registeredListeners.add(listener);
             if (BaseStepListener.class.isAssignableFrom(listener.getClass())) {
                 baseStepListener = (BaseStepListener) listener;
                 baseStepListener.setEventBus(this);
             }
+            listenersChanged();
         }
         return this;
     }
@@ -104,7 +159,7 @@ public class StepEventBus {
 
     public void testStarted(final String testName) {
         clear();
-        for(StepListener stepListener : getAllListeners()) {
+        for(StepListener stepListener : listenerSnapshot()) {
             stepListener.testStarted(testName);
         }
     }
@@ -135,24 +190,81 @@ public class StepEventBus {
     }
 
     protected List<StepListener> getAllListeners() {
-        List<StepListener> allListeners = Lists.newArrayList(registeredListeners);
-        allListeners.addAll(getCustomListeners());
+        listenerSnapshot();
         return ImmutableList.copyOf(allListeners);
     }
 
-    private Set<StepListener> getCustomListeners() {
+    private StepListener[] listenerSnapshot() {
+        StepListener[] listeners = dispatchListeners;
+        if (listeners == null) {
+            listeners = rebuildListenerSnapshots();
+        }
+        return listeners;
+    }
+
+    private synchronized void listenersChanged() {
+        dispatchListeners = null;
+    }
+
+    private synchronized StepListener[] rebuildListenerSnapshots() {
+        if (dispatchListeners == null) {
+            List<StepListener> listeners = Lists.newArrayList(registeredListeners);
+            listeners.addAll(getCustomListeners());
+            List<StepListener> dispatched = Lists.newArrayList();
+            for (StepListener listener : listeners) {
+                dispatched.add(isNonCritical(listener) ? dispatchedInBackground(listener) : listener);
+            }
+            allListeners = listeners.toArray(NO_LISTENERS);
+            dispatchListeners = dispatched.toArray(NO_LISTENERS);
+        }
+        return dispatchListeners;
+    }
+
+    /**
+     * Only listeners that say they do not depend on the test thread (such as the console logging listener) are
+     * notified in the background, and only if asynchronous listeners are enabled.
+     */
+    private boolean isNonCritical(final StepListener listener) {
+        return asynchronousListeners && (listener instanceof BackgroundStepListener);
+    }
+
+    private StepListener dispatchedInBackground(final StepListener listener) {
+        backgroundListenersRegistered = true;
+        return new AsynchronousStepListener(listener, BACKGROUND_DISPATCHER);
+    }
+
+    /**
+     * Wait until the listeners running in the background have processed all the events sent to them so far.
+     */
+    public void waitForAsynchronousListeners() {
+        if (!backgroundListenersRegistered) {
+            return;
+        }
+        try {
+            BACKGROUND_DISPATCHER.submit(new Runnable() {
+                public void run() {}
+            }).get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException e) {
+            LOGGER.warn("Failed to wait for the asynchronous step listeners", e);
+        }
+    }
+
+    private List<StepListener> getCustomListeners() {
 
         if (customListeners == null) {
-            customListeners = Collections.synchronizedSet(new HashSet<StepListener>());
+            List<StepListener> listeners = Lists.newArrayList();
             Iterator<?> listenerImplementations = Service.providers(StepListener.class);
 
             while (listenerImplementations.hasNext()) {
                 StepListener listener = (StepListener) listenerImplementations.next();
-                if (!isACore(listener)) {
+                if (!isACore(listener) && !listeners.contains(listener)) {
                     LOGGER.info("Registering custom listener " + listener);
-                    customListeners.add(listener);
+                    listeners.add(listener);
                 }
             }
+            customListeners = ImmutableList.copyOf(listeners);
         }
         return customListeners;
     }
@@ -165,7 +277,7 @@ public class StepEventBus {
         LOGGER.debug("Test suite started for {}", testClass);
         clear();
         updateClassUnderTest(testClass);
-        for(StepListener stepListener : getAllListeners()) {
+        for(StepListener stepListener : listenerSnapshot()) {
             stepListener.testSuiteStarted(testClass);
         }
     }
@@ -182,7 +294,7 @@ public class StepEventBus {
     public void testSuiteStarted(final Story story) {
         LOGGER.debug("Test suite started for story {}", story);
         updateStoryUnderTest(story);
-        for(StepListener stepListener : getAllListeners()) {
+        for(StepListener stepListener : listenerSnapshot()) {
             stepListener.testSuiteStarted(story);
         }
     }
@@ -210,7 +322,7 @@ public class StepEventBus {
     public void testFinished() {
         screenshotProcessor.waitUntilDone();
         TestOutcome outcome = getBaseStepListener().getCurrentTestOutcome();
-        for(StepListener stepListener : getAllListeners()) {
+        for(StepListener stepListener : listenerSnapshot()) {
             stepListener.testFinished(outcome);
         }
         clear();
@@ -218,14 +330,14 @@ public class StepEventBus {
 
     public void testFinished(TestOutcome result) {
         screenshotProcessor.waitUntilDone();
-        for(StepListener stepListener : getAllListeners()) {
+        for(StepListener stepListener : listenerSnapshot()) {
             stepListener.testFinished(result);
         }
         clear();
     }
 
     public void testRetried() {
-        for(StepListener stepListener : getAllListeners()) {
+        for(StepListener stepListener : listenerSnapshot()) {
             stepListener.testRetried();
         }
         clear();
@@ -258,7 +370,7 @@ public class StepEventBus {
 
         pushStep(stepDescription.getName());
 
-        for(StepListener stepListener : getAllListeners()) {
+        for(StepListener stepListener : listenerSnapshot()) {
             stepListener.stepStarted(stepDescription);
         }
     }
@@ -270,7 +382,7 @@ public class StepEventBus {
 
         pushStep(executedStepDescription.getName());
 
-        for(StepListener stepListener : getAllListeners()) {
+        for(StepListener stepListener : listenerSnapshot()) {
             stepListener.skippedStepStarted(executedStepDescription);
         }
     }
@@ -278,7 +390,7 @@ public class StepEventBus {
     public void stepFinished() {
         stepDone();
         getResultTally().logExecutedTest();
-        for(StepListener stepListener : getAllListeners()) {
+        for(StepListener stepListener : listenerSnapshot()) {
             stepListener.stepFinished();
         }
     }
@@ -294,7 +406,7 @@ public class StepEventBus {
         stepDone();
         getResultTally().logFailure(failure);
 
-        for(StepListener stepListener : getAllListeners()) {
+        for(StepListener stepListener : listenerSnapshot()) {
             stepListener.stepFailed(failure);
         }
         stepFailed = true;
@@ -304,7 +416,7 @@ public class StepEventBus {
 
         getResultTally().logFailure(failure);
 
-        for(StepListener stepListener : getAllListeners()) {
+        for(StepListener stepListener : listenerSnapshot()) {
             stepListener.stepFailed(failure);
         }
         stepFailed = true;
@@ -315,7 +427,7 @@ public class StepEventBus {
         stepDone();
         getResultTally().logIgnoredTest();
 
-        for(StepListener stepListener : getAllListeners()) {
+        for(StepListener stepListener : listenerSnapshot()) {
             stepListener.stepIgnored();
         }
     }
@@ -329,7 +441,7 @@ public class StepEventBus {
         stepDone();
         getResultTally().logIgnoredTest();
 
-        for(StepListener stepListener : getAllListeners()) {
+        for(StepListener stepListener : listenerSnapshot()) {
             if (message != null) {
                 stepListener.stepPending(message);
             } else {
@@ -344,17 +456,20 @@ public class StepEventBus {
         stepDone();
         getResultTally().logIgnoredTest();
 
-        for(StepListener stepListener : getAllListeners()) {
+        for(StepListener stepListener : listenerSnapshot()) {
             stepListener.assumptionViolated(message);
         }
     }
 
-    public void dropListener(final StepListener stepListener) {
+    public synchronized void dropListener(final StepListener stepListener) {
         registeredListeners.remove(stepListener);
+        listenersChanged();
     }
 
-    public void dropAllListeners() {
+    public synchronized void dropAllListeners() {
+        waitForAsynchronousListeners();
         registeredListeners.clear();
+        listenersChanged();
     }
 
     public boolean webdriverCallsAreSuspended() {
@@ -375,7 +490,7 @@ public class StepEventBus {
      */
     public void testFailed(final Throwable cause) {
         TestOutcome outcome = getBaseStepListener().getCurrentTestOutcome();
-        for(StepListener stepListener : getAllListeners()) {
+        for(StepListener stepListener : listenerSnapshot()) {
             try {
                 stepListener.testFailed(outcome, cause);
             } catch (AbstractMethodError ame) {
@@ -397,7 +512,7 @@ public class StepEventBus {
     }
 
     public void testIgnored() {
-        for(StepListener stepListener : getAllListeners()) {
+        for(StepListener stepListener : listenerSnapshot()) {
             stepListener.testIgnored();
         }
     }
@@ -407,15 +522,16 @@ public class StepEventBus {
     }
 
     public void notifyScreenChange() {
-        for(StepListener stepListener : getAllListeners()) {
+        for(StepListener stepListener : listenerSnapshot()) {
             stepListener.notifyScreenChange();
         }
     }
 
     public void testSuiteFinished() {
-        for(StepListener stepListener : getAllListeners()) {
+        for(StepListener stepListener : listenerSnapshot()) {
             stepListener.testSuiteFinished();
         }
+        waitForAsynchronousListeners();
         if (!isUniqueSession()) {
             ThucydidesWebDriverSupport.closeAllDrivers();
         }
@@ -443,19 +559,19 @@ public class StepEventBus {
     }
 
     public void useExamplesFrom(DataTable table) {
-        for(StepListener stepListener : getAllListeners()) {
+        for(StepListener stepListener : listenerSnapshot()) {
             stepListener.useExamplesFrom(table);
         }
     }
 
     public void exampleStarted(Map<String,String> data) {
-        for(StepListener stepListener : getAllListeners()) {
+        for(StepListener stepListener : listenerSnapshot()) {
             stepListener.exampleStarted(data);
         }
     }
 
     public void exampleFinished() {
-        for(StepListener stepListener : getAllListeners()) {
+        for(StepListener stepListener : listenerSnapshot()) {
             stepListener.exampleFinished();
         }
     }
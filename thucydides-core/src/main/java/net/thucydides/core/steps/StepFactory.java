@@ -5,7 +5,6 @@ import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableSet;
 import com.google.common.collect.Iterables;
 import com.google.inject.internal.util.$ImmutableList;
-import net.sf.cglib.proxy.Enhancer;
 import net.sf.cglib.proxy.MethodInterceptor;
 import net.thucydides.core.guice.Injectors;
 import net.thucydides.core.pages.Pages;
@@ -139,27 +138,22 @@ public class StepFactory {
         return steps;
     }
 
-    @SuppressWarnings("unchecked")
     private <T> T createProxyStepLibrary(Class<T> scenarioStepsClass,
                                          MethodInterceptor interceptor) {
-        Enhancer e = new Enhancer();
-        e.setSuperclass(scenarioStepsClass);
-        e.setCallback(interceptor);
-
         if (isWebdriverStepClass(scenarioStepsClass)) {
-            return webEnabledStepLibrary(scenarioStepsClass, e);
+            return webEnabledStepLibrary(scenarioStepsClass, interceptor);
         } else {
-            return (T) e.create();
+            return StepLibraryProxies.newProxyFor(scenarioStepsClass, interceptor);
         }
     }
 
-    private <T> T webEnabledStepLibrary(final Class<T> scenarioStepsClass, final Enhancer e) {
+    private <T> T webEnabledStepLibrary(final Class<T> scenarioStepsClass, final MethodInterceptor interceptor) {
         if (hasAPagesConstructor(scenarioStepsClass)) {
             Object[] arguments = new Object[1];
             arguments[0] = pages;
-            return (T) e.create(CONSTRUCTOR_ARG_TYPES, arguments);
+            return StepLibraryProxies.newProxyFor(scenarioStepsClass, interceptor, CONSTRUCTOR_ARG_TYPES, arguments);
         } else {
-            T newStepLibrary = (T) e.create();
+            T newStepLibrary = StepLibraryProxies.newProxyFor(scenarioStepsClass, interceptor);
             return injectPagesInto(scenarioStepsClass, newStepLibrary);
         }
     }
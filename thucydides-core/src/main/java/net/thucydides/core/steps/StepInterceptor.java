@@ -5,24 +5,15 @@ import net.sf.cglib.proxy.MethodInterceptor;
 import net.sf.cglib.proxy.MethodProxy;
 import net.thucydides.core.IgnoredStepException;
 import net.thucydides.core.PendingStepException;
-import net.thucydides.core.Thucydides;
-import net.thucydides.core.annotations.Pending;
-import net.thucydides.core.annotations.Step;
-import net.thucydides.core.annotations.StepGroup;
-import net.thucydides.core.annotations.TestAnnotations;
 import org.junit.internal.AssumptionViolatedException;
 import org.openqa.selenium.WebDriverException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.io.Serializable;
-import java.lang.annotation.Annotation;
 import java.lang.reflect.Method;
-import java.util.Arrays;
-import java.util.List;
 
 import static net.thucydides.core.steps.ErrorConvertor.forError;
-import static org.apache.commons.lang3.StringUtils.split;
 
 /**
  * Listen to step results and publish notification messages.
@@ -56,60 +47,14 @@ public class StepInterceptor implements MethodInterceptor, Serializable {
 
     }
 
-    private final List<String> OBJECT_METHODS
-       = Arrays.asList("toString",
-            "equals",
-            "hashcode",
-            "clone",
-            "notify",
-            "notifyAll",
-            "wait",
-            "finalize",
-            "getMetaClass");
-
     private boolean baseClassMethod(final Method method, final Class callingClass) {
-        boolean isACoreLanguageMethod = (OBJECT_METHODS.contains(method.getName()));
+        boolean isACoreLanguageMethod = StepMethodMetadata.of(method).isObjectMethod();
         boolean methodDoesNotComeFromThisClassOrARelatedParentClass = !declaredInSameDomain(method, callingClass);
         return (isACoreLanguageMethod || methodDoesNotComeFromThisClassOrARelatedParentClass);
     }
 
     private boolean declaredInSameDomain(Method method, final Class callingClass) {
-        return domainPackageOf(getRoot(method)).equals(domainPackageOf(callingClass));
-    }
-
-    private String domainPackageOf(Class callingClass) {
-        Package classPackage = callingClass.getPackage();
-        String classPackageName = (classPackage != null) ? classPackage.getName() : "";
-        return packageDomainName(classPackageName);
-    }
-
-    private String packageDomainName(String methodPackage) {
-        String[] packages = split(methodPackage, ".");
-
-        if (packages.length == 0) {
-            return "";
-        } else if (packages.length == 1) {
-            return packages[0];
-        } else {
-            return packages[0] + "." + packages[1];
-        }
-    }
-
-    private String domainPackageOf(Method method) {
-        Package methodPackage = method.getDeclaringClass().getPackage();
-        String methodPackageName = (methodPackage != null) ? methodPackage.getName() : "";
-        return packageDomainName(methodPackageName);
-    }
-
-    private Method getRoot(Method method) {
-        try {
-            method.getClass().getDeclaredField("root").setAccessible(true);
-            return (Method) method.getClass().getDeclaredField("root").get(method);
-        } catch (IllegalAccessException e) {
-            return method;
-        } catch (NoSuchFieldException e) {
-            return method;
-        }
+        return StepMethodMetadata.of(method).getDomainPackage().equals(StepMethodMetadata.domainPackageOf(callingClass));
     }
 
     private Object testStepResult(final Object obj, final Method method,
@@ -222,30 +167,16 @@ public class StepInterceptor implements MethodInterceptor, Serializable {
         if (method.getReturnType() == method.getDeclaringClass()) {
             return this;
         } else {
-            return DefaultValue.forClass(method.getReturnType());
-        }
-    }
-
-    private boolean isAnnotatedWithAValidStepAnnotation(final Method method) {
-        Annotation[] annotations = method.getAnnotations();
-        for (Annotation annotation : annotations) {
-            if (isAThucydidesStep(annotation) || (AnnotatedStepDescription.isACompatibleStep(annotation))) {
-                return true;
-            }
+            return StepMethodMetadata.of(method).getDefaultReturnValue();
         }
-        return false;
-    }
-
-    private boolean isAThucydidesStep(Annotation annotation) {
-        return (annotation instanceof Step) || (annotation instanceof StepGroup);
     }
 
     private boolean isATestStep(final Method method) {
-        return isAnnotatedWithAValidStepAnnotation(method);
+        return StepMethodMetadata.of(method).isAStep();
     }
 
     private boolean isIgnored(final Method method) {
-        return TestAnnotations.isIgnored(method);
+        return StepMethodMetadata.of(method).isIgnored();
     }
 
     private Object runTestStep(final Object obj, final Method method,
@@ -295,7 +226,7 @@ public class StepInterceptor implements MethodInterceptor, Serializable {
     }
 
     private boolean isPending(final Method method) {
-        return (method.getAnnotation(Pending.class) != null);
+        return StepMethodMetadata.of(method).isPending();
     }
 
     private void notifyStepFinishedFor(final Method method, final Object[] args) {
@@ -319,33 +250,7 @@ public class StepInterceptor implements MethodInterceptor, Serializable {
     }
 
     private String getTestNameFrom(final Method method, final Object[] args, final boolean addMarkup) {
-        if ((args == null) || (args.length == 0)) {
-            return method.getName();
-        } else {
-            return testNameWithArguments(method, args, addMarkup);
-        }
-    }
-
-    private String testNameWithArguments(final Method method,
-                                         final Object[] args,
-                                         final boolean addMarkup) {
-        StringBuilder testName = new StringBuilder(method.getName());
-        testName.append(": ");
-        if (addMarkup) {
-           testName.append("{");
-        }
-        boolean isFirst = true;
-        for (Object arg : args) {
-            if (!isFirst) {
-                testName.append(", ");
-            }
-            testName.append(StepArgumentWriter.readableFormOf(arg));
-            isFirst = false;
-        }
-        if (addMarkup) {
-            testName.append("}");
-        }
-        return testName.toString();
+        return StepMethodMetadata.of(method).stepNameWith(args, addMarkup);
     }
 
     private void notifyStepSkippedFor(final Method method, final Object[] args)
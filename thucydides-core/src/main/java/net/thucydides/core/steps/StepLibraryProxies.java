@@ -0,0 +1,150 @@
+package net.thucydides.core.steps;
+
+import net.sf.cglib.core.CodeGenerationException;
+import net.sf.cglib.proxy.Callback;
+import net.sf.cglib.proxy.Enhancer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.lang.reflect.Constructor;
+import java.lang.reflect.InvocationTargetException;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Creates the CGLIB proxies used for step libraries.
+ * The proxy class for a given step library and interceptor type is only generated once per JVM, and is then shared
+ * by every step factory. New step library instances are created by calling the constructor of the proxy class
+ * directly, with the interceptor registered for the current thread, rather than going through a new Enhancer
+ * each time.
+ */
+public class StepLibraryProxies {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(StepLibraryProxies.class);
+
+    private static final ConcurrentMap<ProxyKey, ProxyClass> PROXY_CLASSES = new ConcurrentHashMap<ProxyKey, ProxyClass>();
+
+    private static final AtomicInteger GENERATED_PROXY_CLASSES = new AtomicInteger();
+
+    private StepLibraryProxies() {}
+
+    /**
+     * Create a new proxied instance of a step library, calling the constructor with the given parameter types.
+     */
+    public static <T> T newProxyFor(final Class<T> stepLibraryClass,
+                                    final Callback interceptor,
+                                    final Class<?>[] argumentTypes,
+                                    final Object[] arguments) {
+        ProxyClass proxyClass = proxyClassFor(stepLibraryClass, interceptor.getClass());
+        return stepLibraryClass.cast(proxyClass.newInstance(interceptor, argumentTypes, arguments));
+    }
+
+    public static <T> T newProxyFor(final Class<T> stepLibraryClass, final Callback interceptor) {
+        return newProxyFor(stepLibraryClass, interceptor, new Class<?>[0], new Object[0]);
+    }
+
+    /**
+     * The number of proxy classes generated since the JVM started.
+     */
+    public static int getGeneratedProxyClassCount() {
+        return GENERATED_PROXY_CLASSES.get();
+    }
+
+    private static ProxyClass proxyClassFor(final Class<?> stepLibraryClass, final Class<?> callbackType) {
+        ProxyKey key = new ProxyKey(stepLibraryClass, callbackType);
+        ProxyClass proxyClass = PROXY_CLASSES.get(key);
+        if (proxyClass == null) {
+            synchronized (PROXY_CLASSES) {
+                proxyClass = PROXY_CLASSES.get(key);
+                if (proxyClass == null) {
+                    proxyClass = new ProxyClass(generateProxyClass(stepLibraryClass, callbackType));
+                    PROXY_CLASSES.put(key, proxyClass);
+                }
+            }
+        }
+        return proxyClass;
+    }
+
+    private static Class<?> generateProxyClass(final Class<?> stepLibraryClass, final Class<?> callbackType) {
+        Enhancer enhancer = new Enhancer();
+        enhancer.setSuperclass(stepLibraryClass);
+        enhancer.setCallbackType(callbackType);
+        enhancer.setUseCache(false);
+        Class<?> proxyClass = enhancer.createClass();
+        int generatedClasses = GENERATED_PROXY_CLASSES.incrementAndGet();
+        LOGGER.debug("Generated step library proxy class for {} ({} proxy classes generated so far)",
+                     stepLibraryClass.getName(), generatedClasses);
+        return proxyClass;
+    }
+
+    private static class ProxyClass {
+        private final Class<?> type;
+        private final ConcurrentMap<List<Class<?>>, Constructor<?>> constructors
+                = new ConcurrentHashMap<List<Class<?>>, Constructor<?>>();
+
+        ProxyClass(final Class<?> type) {
+            this.type = type;
+        }
+
+        Object newInstance(final Callback interceptor, final Class<?>[] argumentTypes, final Object[] arguments) {
+            Constructor<?> constructor = constructorFor(argumentTypes);
+            Enhancer.registerCallbacks(type, new Callback[]{interceptor});
+            try {
+                return constructor.newInstance(arguments);
+            } catch (InvocationTargetException e) {
+                throw new CodeGenerationException(e.getTargetException());
+            } catch (InstantiationException e) {
+                throw new CodeGenerationException(e);
+            } catch (IllegalAccessException e) {
+                throw new CodeGenerationException(e);
+            } finally {
+                Enhancer.registerCallbacks(type, null);
+            }
+        }
+
+        private Constructor<?> constructorFor(final Class<?>[] argumentTypes) {
+            List<Class<?>> key = Arrays.asList(argumentTypes);
+            Constructor<?> constructor = constructors.get(key);
+            if (constructor == null) {
+                try {
+                    constructor = type.getDeclaredConstructor(argumentTypes);
+                    constructor.setAccessible(true);
+                } catch (NoSuchMethodException e) {
+                    throw new CodeGenerationException(e);
+                }
+                constructors.putIfAbsent(key, constructor);
+            }
+            return constructor;
+        }
+    }
+
+    private static class ProxyKey {
+        private final Class<?> stepLibraryClass;
+        private final Class<?> callbackType;
+
+        ProxyKey(final Class<?> stepLibraryClass, final Class<?> callbackType) {
+            this.stepLibraryClass = stepLibraryClass;
+            this.callbackType = callbackType;
+        }
+
+        @Override
+        public boolean equals(final Object other) {
+            if (this == other) {
+                return true;
+            }
+            if (!(other instanceof ProxyKey)) {
+                return false;
+            }
+            ProxyKey otherKey = (ProxyKey) other;
+            return (stepLibraryClass == otherKey.stepLibraryClass) && (callbackType == otherKey.callbackType);
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * stepLibraryClass.hashCode() + callbackType.hashCode();
+        }
+    }
+}
@@ -0,0 +1,267 @@
+package net.thucydides.core.steps;
+
+import com.google.common.base.Optional;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Lists;
+import net.thucydides.core.annotations.Pending;
+import net.thucydides.core.annotations.Step;
+import net.thucydides.core.annotations.StepGroup;
+import net.thucydides.core.annotations.TestAnnotations;
+import net.thucydides.core.annotations.Title;
+import org.apache.commons.lang3.StringUtils;
+
+import java.lang.annotation.Annotation;
+import java.lang.reflect.Method;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import static org.apache.commons.lang3.StringUtils.split;
+
+/**
+ * What Thucydides needs to know about a step method, worked out once per method from its annotations.
+ * Step libraries can call the same small step methods thousands of times in a test run, so the step interceptor
+ * and the step descriptions use this rather than reading the annotations and parsing the step titles
+ * each time a step is called.
+ */
+final class StepMethodMetadata {
+
+    private static final List<String> OBJECT_METHODS
+            = ImmutableList.of("toString", "equals", "hashcode", "clone", "notify", "notifyAll",
+                               "wait", "finalize", "getMetaClass");
+
+    private static final ConcurrentMap<Method, StepMethodMetadata> METADATA
+            = new ConcurrentHashMap<Method, StepMethodMetadata>();
+
+    private static final ConcurrentMap<Class<?>, Map<String, List<Method>>> METHODS_BY_NAME
+            = new ConcurrentHashMap<Class<?>, Map<String, List<Method>>>();
+
+    private static final ConcurrentMap<Class<?>, String> DOMAIN_PACKAGES = new ConcurrentHashMap<Class<?>, String>();
+
+    private final Method method;
+    private final boolean objectMethod;
+    private final boolean step;
+    private final boolean group;
+    private final boolean pending;
+    private final boolean ignored;
+    private final boolean fluent;
+    private final String domainPackage;
+    private final String title;
+    private final String groupName;
+    private final Optional<StepTitleTemplate> stepTitle;
+    private final String stepNamePrefix;
+    private final Object defaultReturnValue;
+
+    private StepMethodMetadata(final Method method) {
+        this.method = method;
+        this.objectMethod = OBJECT_METHODS.contains(method.getName());
+        this.step = isAnnotatedWithAValidStepAnnotation(method);
+        this.group = (method.getAnnotation(StepGroup.class) != null);
+        this.pending = (method.getAnnotation(Pending.class) != null);
+        this.ignored = TestAnnotations.isIgnored(method);
+        Step stepAnnotation = method.getAnnotation(Step.class);
+        this.fluent = (stepAnnotation != null) && stepAnnotation.fluent();
+        this.domainPackage = packageDomainName(packageNameOf(getRoot(method).getDeclaringClass()));
+        Title titleAnnotation = method.getAnnotation(Title.class);
+        this.title = (titleAnnotation != null) ? titleAnnotation.value() : null;
+        this.groupName = group ? method.getAnnotation(StepGroup.class).value() : null;
+        this.stepTitle = annotatedStepNameOf(method);
+        this.stepNamePrefix = method.getName() + ": ";
+        this.defaultReturnValue = DefaultValue.forClass(method.getReturnType());
+    }
+
+    public static StepMethodMetadata of(final Method method) {
+        StepMethodMetadata metadata = METADATA.get(method);
+        if (metadata == null) {
+            StepMethodMetadata newMetadata = new StepMethodMetadata(method);
+            metadata = METADATA.putIfAbsent(method, newMetadata);
+            if (metadata == null) {
+                metadata = newMetadata;
+            }
+        }
+        return metadata;
+    }
+
+    /**
+     * The first public method of a class with a given name, or null if there is none.
+     */
+    public static Method firstMethodCalled(final String methodName, final Class<?> testClass) {
+        List<Method> methods = methodsByNameIn(testClass).get(methodName);
+        return (methods == null) ? null : methods.get(0);
+    }
+
+    /**
+     * The last public method of a class with a given name, or null if there is none.
+     */
+    public static Method lastMethodCalled(final String methodName, final Class<?> testClass) {
+        List<Method> methods = methodsByNameIn(testClass).get(methodName);
+        return (methods == null) ? null : methods.get(methods.size() - 1);
+    }
+
+    private static Map<String, List<Method>> methodsByNameIn(final Class<?> testClass) {
+        Map<String, List<Method>> methodsByName = METHODS_BY_NAME.get(testClass);
+        if (methodsByName == null) {
+            Map<String, List<Method>> methods = new HashMap<String, List<Method>>();
+            for (Method method : testClass.getMethods()) {
+                if (!methods.containsKey(method.getName())) {
+                    methods.put(method.getName(), Lists.<Method>newArrayList());
+                }
+                methods.get(method.getName()).add(method);
+            }
+            methodsByName = Collections.unmodifiableMap(methods);
+            METHODS_BY_NAME.putIfAbsent(testClass, methodsByName);
+        }
+        return methodsByName;
+    }
+
+    /**
+     * The first two elements of the package name, used to tell the methods of the test code
+     * apart from those of the libraries it uses.
+     */
+    public static String domainPackageOf(final Class<?> callingClass) {
+        String domainPackage = DOMAIN_PACKAGES.get(callingClass);
+        if (domainPackage == null) {
+            domainPackage = packageDomainName(packageNameOf(callingClass));
+            DOMAIN_PACKAGES.putIfAbsent(callingClass, domainPackage);
+        }
+        return domainPackage;
+    }
+
+    private static String packageNameOf(final Class<?> callingClass) {
+        Package classPackage = callingClass.getPackage();
+        return (classPackage != null) ? classPackage.getName() : "";
+    }
+
+    private static String packageDomainName(final String packageName) {
+        String[] packages = split(packageName, ".");
+
+        if (packages.length == 0) {
+            return "";
+        } else if (packages.length == 1) {
+            return packages[0];
+        } else {
+            return packages[0] + "." + packages[1];
+        }
+    }
+
+    private static Method getRoot(final Method method) {
+        try {
+            method.getClass().getDeclaredField("root").setAccessible(true);
+            return (Method) method.getClass().getDeclaredField("root").get(method);
+        } catch (IllegalAccessException e) {
+            return method;
+        } catch (NoSuchFieldException e) {
+            return method;
+        }
+    }
+
+    private static boolean isAnnotatedWithAValidStepAnnotation(final Method method) {
+        for (Annotation annotation : method.getAnnotations()) {
+            if ((annotation instanceof Step) || (annotation instanceof StepGroup)
+                    || AnnotatedStepDescription.isACompatibleStep(annotation)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static Optional<StepTitleTemplate> annotatedStepNameOf(final Method method) {
+        Step step = method.getAnnotation(Step.class);
+        if ((step != null) && (!StringUtils.isEmpty(step.value()))) {
+            return Optional.of(StepTitleTemplate.compile(step.value()));
+        }
+        for (Annotation annotation : method.getAnnotations()) {
+            if (AnnotatedStepDescription.isACompatibleStep(annotation)) {
+                try {
+                    String annotationType = annotation.annotationType().getSimpleName();
+                    String annotatedValue = (String) annotation.getClass().getMethod("value").invoke(annotation);
+                    if (StringUtils.isEmpty(annotatedValue)) {
+                        return Optional.absent();
+                    } else {
+                        return Optional.of(StepTitleTemplate.compile(annotationType + " "
+                                                                     + StringUtils.uncapitalize(annotatedValue)));
+                    }
+                } catch (Exception ignoredException) {}
+            }
+        }
+        return Optional.absent();
+    }
+
+    public Method getMethod() {
+        return method;
+    }
+
+    public boolean isObjectMethod() {
+        return objectMethod;
+    }
+
+    /**
+     * Annotated with @Step, @StepGroup, or a compatible annotation such as @Given, @When or @Then.
+     */
+    public boolean isAStep() {
+        return step;
+    }
+
+    public boolean isAGroup() {
+        return group;
+    }
+
+    public boolean isPending() {
+        return pending;
+    }
+
+    public boolean isIgnored() {
+        return ignored;
+    }
+
+    public boolean isFluent() {
+        return fluent;
+    }
+
+    public String getDomainPackage() {
+        return domainPackage;
+    }
+
+    public String getTitle() {
+        return title;
+    }
+
+    public String getGroupName() {
+        return groupName;
+    }
+
+    public Optional<StepTitleTemplate> getStepTitle() {
+        return stepTitle;
+    }
+
+    public Object getDefaultReturnValue() {
+        return defaultReturnValue;
+    }
+
+    /**
+     * The step name as it is sent to the step listeners: the method name, followed by the arguments if there are any.
+     */
+    public String stepNameWith(final Object[] args, final boolean addMarkup) {
+        if ((args == null) || (args.length == 0)) {
+            return method.getName();
+        }
+        StringBuilder testName = new StringBuilder(stepNamePrefix.length() + 16 * args.length);
+        testName.append(stepNamePrefix);
+        if (addMarkup) {
+            testName.append('{');
+        }
+        for (int i = 0; i < args.length; i++) {
+            if (i > 0) {
+                testName.append(", ");
+            }
+            testName.append(StepArgumentWriter.readableFormOf(args[i]));
+        }
+        if (addMarkup) {
+            testName.append('}');
+        }
+        return testName.toString();
+    }
+}
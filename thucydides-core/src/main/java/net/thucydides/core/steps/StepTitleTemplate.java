@@ -0,0 +1,86 @@
+package net.thucydides.core.steps;
+
+import com.google.common.collect.ImmutableList;
+
+import java.util.List;
+
+/**
+ * A step title such as "a person called {0}, aged {1}", split up once into its fixed text and its
+ * numbered argument placeholders so that the arguments can be filled in without any parsing.
+ * Arguments are inserted as they are: placeholders for arguments that were not provided are left unchanged.
+ */
+final class StepTitleTemplate {
+
+    private final String template;
+    private final List<String> fixedText;
+    private final List<Integer> placeholders;
+
+    private StepTitleTemplate(final String template, final List<String> fixedText, final List<Integer> placeholders) {
+        this.template = template;
+        this.fixedText = fixedText;
+        this.placeholders = placeholders;
+    }
+
+    public static StepTitleTemplate compile(final String template) {
+        ImmutableList.Builder<String> fixedText = ImmutableList.builder();
+        ImmutableList.Builder<Integer> placeholders = ImmutableList.builder();
+
+        int textStart = 0;
+        int openingBrace = template.indexOf('{');
+        while (openingBrace >= 0) {
+            int closingBrace = template.indexOf('}', openingBrace);
+            if (closingBrace < 0) {
+                break;
+            }
+            String index = template.substring(openingBrace + 1, closingBrace);
+            if (isANumber(index)) {
+                fixedText.add(template.substring(textStart, openingBrace));
+                placeholders.add(Integer.valueOf(index));
+                textStart = closingBrace + 1;
+                openingBrace = template.indexOf('{', textStart);
+            } else {
+                openingBrace = template.indexOf('{', openingBrace + 1);
+            }
+        }
+        fixedText.add(template.substring(textStart));
+        return new StepTitleTemplate(template, fixedText.build(), placeholders.build());
+    }
+
+    private static boolean isANumber(final String text) {
+        if ((text.length() == 0) || (text.length() > 9) || ((text.length() > 1) && (text.charAt(0) == '0'))) {
+            return false;
+        }
+        for (int i = 0; i < text.length(); i++) {
+            if (!Character.isDigit(text.charAt(i))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    public boolean hasPlaceholders() {
+        return !placeholders.isEmpty();
+    }
+
+    public String getTemplate() {
+        return template;
+    }
+
+    public String withArguments(final List<String> arguments) {
+        if (placeholders.isEmpty()) {
+            return template;
+        }
+        StringBuilder title = new StringBuilder(template.length() + 16 * placeholders.size());
+        for (int i = 0; i < placeholders.size(); i++) {
+            title.append(fixedText.get(i));
+            int argument = placeholders.get(i);
+            if (argument < arguments.size()) {
+                title.append(arguments.get(argument));
+            } else {
+                title.append('{').append(argument).append('}');
+            }
+        }
+        title.append(fixedText.get(placeholders.size()));
+        return title.toString();
+    }
+}
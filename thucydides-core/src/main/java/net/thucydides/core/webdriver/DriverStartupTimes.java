@@ -0,0 +1,72 @@
+package net.thucydides.core.webdriver;
+
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Keeps track of how long it takes to start each type of driver.
+ * Browser startup is often the slowest part of a parallel test run, so this makes it easy to see which
+ * drivers are responsible.
+ */
+public class DriverStartupTimes {
+
+    private final ConcurrentMap<String, StartupTimes> startupTimesByDriverType
+            = new ConcurrentHashMap<String, StartupTimes>();
+
+    public void recordStartup(final String driverType, final long durationInMilliseconds) {
+        startupTimesFor(driverType).record(durationInMilliseconds);
+    }
+
+    public Set<String> getDriverTypes() {
+        return startupTimesByDriverType.keySet();
+    }
+
+    public int getStartupCount(final String driverType) {
+        StartupTimes startupTimes = startupTimesByDriverType.get(driverType);
+        return (startupTimes == null) ? 0 : startupTimes.count.get();
+    }
+
+    public long getAverageStartupTime(final String driverType) {
+        StartupTimes startupTimes = startupTimesByDriverType.get(driverType);
+        if ((startupTimes == null) || (startupTimes.count.get() == 0)) {
+            return 0;
+        }
+        return startupTimes.totalTime.get() / startupTimes.count.get();
+    }
+
+    public long getMaximumStartupTime(final String driverType) {
+        StartupTimes startupTimes = startupTimesByDriverType.get(driverType);
+        return (startupTimes == null) ? 0 : startupTimes.maximumTime.get();
+    }
+
+    private StartupTimes startupTimesFor(final String driverType) {
+        StartupTimes startupTimes = startupTimesByDriverType.get(driverType);
+        if (startupTimes == null) {
+            StartupTimes newStartupTimes = new StartupTimes();
+            startupTimes = startupTimesByDriverType.putIfAbsent(driverType, newStartupTimes);
+            if (startupTimes == null) {
+                startupTimes = newStartupTimes;
+            }
+        }
+        return startupTimes;
+    }
+
+    private static class StartupTimes {
+        private final AtomicInteger count = new AtomicInteger();
+        private final AtomicLong totalTime = new AtomicLong();
+        private final AtomicLong maximumTime = new AtomicLong();
+
+        void record(final long durationInMilliseconds) {
+            totalTime.addAndGet(durationInMilliseconds);
+            count.incrementAndGet();
+            long currentMaximum = maximumTime.get();
+            while ((durationInMilliseconds > currentMaximum)
+                    && !maximumTime.compareAndSet(currentMaximum, durationInMilliseconds)) {
+                currentMaximum = maximumTime.get();
+            }
+        }
+    }
+}
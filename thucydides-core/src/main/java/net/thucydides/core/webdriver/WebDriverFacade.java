@@ -1,7 +1,9 @@
 package net.thucydides.core.webdriver;
 
 import com.gargoylesoftware.htmlunit.ScriptException;
+import com.google.common.base.Optional;
 import net.thucydides.core.fixtureservices.FixtureService;
+import net.thucydides.core.model.TestResult;
 import net.thucydides.core.steps.StepEventBus;
 import net.thucydides.core.webdriver.stubs.NavigationStub;
 import net.thucydides.core.webdriver.stubs.OptionsStub;
@@ -38,6 +40,11 @@ public class WebDriverFacade implements WebDriver, TakesScreenshot, HasInputDevi
 
     protected WebDriver proxiedWebDriver;
 
+    /**
+     * Whether a test using the current browser session has failed, if the results of the tests have been recorded.
+     */
+    private volatile Optional<Boolean> aTestHasFailed = Optional.absent();
+
     private static final Logger LOGGER = LoggerFactory.getLogger(WebDriverFacade.class);
 
     public WebDriverFacade(final Class<? extends WebDriver> driverClass,
@@ -72,13 +79,48 @@ public class WebDriverFacade implements WebDriver, TakesScreenshot, HasInputDevi
 
     private void forcedQuit() {
         try {
-            getDriverInstance().quit();
+            quitOrReleaseDriverInstance();
             proxiedWebDriver = null;
         } catch (WebDriverException e) {
             LOGGER.warn("Closing a driver that was already closed: " + e.getMessage());
         }
     }
 
+    /**
+     * Record the result of a test that used this browser, when the test finishes.
+     * A pooled browser session is only reused if none of the tests it was used in failed.
+     */
+    public void recordTestResult(final TestResult result) {
+        if (proxiedWebDriver != null) {
+            boolean failed = (result == TestResult.FAILURE) || (result == TestResult.ERROR);
+            aTestHasFailed = Optional.of(failed || aTestHasFailed.or(false));
+        }
+    }
+
+    /**
+     * Pooled browser sessions are returned to the pool rather than quit, unless a test they were used in has failed.
+     * If no test result was recorded, the state of the current test is used instead.
+     */
+    private void quitOrReleaseDriverInstance() {
+        if (usesPooledSession()) {
+            webDriverFactory.getSessionPool().release(getDriverInstance(), !aTestUsingThisSessionHasFailed());
+        } else {
+            getDriverInstance().quit();
+        }
+        aTestHasFailed = Optional.absent();
+    }
+
+    private boolean aTestUsingThisSessionHasFailed() {
+        if (aTestHasFailed.isPresent()) {
+            return aTestHasFailed.get();
+        }
+        return StepEventBus.getEventBus().aStepInTheCurrentTestHasFailed();
+    }
+
+    private boolean usesPooledSession() {
+        return webDriverFactory.usesSessionPool() && webDriverFactory.getSessionPool().isLeased(getDriverInstance());
+    }
+
     protected WebDriver newProxyDriver() {
         return newDriverInstance();
     }
@@ -86,6 +128,9 @@ public class WebDriverFacade implements WebDriver, TakesScreenshot, HasInputDevi
     private WebDriver newDriverInstance() {
         try {
             webDriverFactory.setupFixtureServices();
+            if (webDriverFactory.usesSessionPool()) {
+                return webDriverFactory.getSessionPool().lease(driverClass, webDriverFactory);
+            }
             return webDriverFactory.newWebdriverInstance(driverClass);
         } catch (UnsupportedDriverException e) {
             LOGGER.error("FAILED TO CREATE NEW DRIVER INSTANCE " + driverClass + ": " + e.getMessage(), e);
@@ -117,6 +162,9 @@ public class WebDriverFacade implements WebDriver, TakesScreenshot, HasInputDevi
             return;
         }
         openIgnoringHtmlUnitScriptErrors(url);
+        if (usesPooledSession()) {
+            webDriverFactory.getSessionPool().recordVisit(getDriverInstance(), url);
+        }
     }
 
     private void openIgnoringHtmlUnitScriptErrors(final String url) {
@@ -197,7 +245,7 @@ public class WebDriverFacade implements WebDriver, TakesScreenshot, HasInputDevi
     public void quit() {
         if (proxyInstanciated()) {
             try {
-                getDriverInstance().quit();
+                quitOrReleaseDriverInstance();
             } catch (WebDriverException e) {
                 LOGGER.warn("Error while quitting the driver (" + e.getMessage() + ")");
             }
@@ -43,10 +43,12 @@ import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
 import java.net.MalformedURLException;
 import java.net.URL;
-import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.TimeUnit;
 
 import static net.thucydides.core.webdriver.javascript.JavascriptSupport.activateJavascriptSupportFor;
@@ -66,7 +68,6 @@ public class WebDriverFactory {
 
     private static final Logger LOGGER = LoggerFactory.getLogger(WebDriverFactory.class);
 
-    private ProfilesIni allProfiles;
     private static final int DEFAULT_HEIGHT = ThucydidesSystemProperty.DEFAULT_HEIGHT;
     private static final int DEFAULT_WIDTH = ThucydidesSystemProperty.DEFAULT_WIDTH;
 
@@ -77,6 +78,18 @@ public class WebDriverFactory {
 
     private final Integer EXTRA_TIME_TO_TAKE_SCREENSHOTS = 180;
 
+    private static final DriverStartupTimes STARTUP_TIMES = new DriverStartupTimes();
+
+    private static final int DEFAULT_BROWSER_POOL_MAX_USES = 20;
+
+    private static WebdriverSessionPool sessionPool;
+
+    /**
+     * The extra capabilities defined in the environment, parsed once for each distinct capability definition.
+     */
+    private final ConcurrentMap<String, Map<String, Object>> extraCapabilities
+            = new ConcurrentHashMap<String, Map<String, Object>>();
+
     public WebDriverFactory() {
         this(new WebdriverInstanceFactory(), Injectors.getInjector().getInstance(EnvironmentVariables.class));
     }
@@ -120,11 +133,45 @@ public class WebDriverFactory {
         this.proxyCreator = proxyCreator;
     }
 
+    /**
+     * The Firefox profiles.ini file is only read once, the first time a named profile is needed,
+     * and is then shared by every driver factory.
+     */
+    private static class FirefoxProfilesHolder {
+        private static final ProfilesIni ALL_PROFILES = new ProfilesIni();
+    }
+
     protected ProfilesIni getAllProfiles() {
-        if (allProfiles == null) {
-            allProfiles = new ProfilesIni();
+        return FirefoxProfilesHolder.ALL_PROFILES;
+    }
+
+    /**
+     * Browser sessions are only pooled if a pool size is configured.
+     */
+    public boolean usesSessionPool() {
+        return environmentVariables.getPropertyAsInteger(ThucydidesSystemProperty.BROWSER_POOL_SIZE, 0) > 0;
+    }
+
+    /**
+     * The browser session pool is shared by all the driver factories in this JVM.
+     */
+    public WebdriverSessionPool getSessionPool() {
+        synchronized (WebDriverFactory.class) {
+            if (sessionPool == null) {
+                int poolSize = environmentVariables.getPropertyAsInteger(ThucydidesSystemProperty.BROWSER_POOL_SIZE, 0);
+                int maximumUses = environmentVariables.getPropertyAsInteger(ThucydidesSystemProperty.BROWSER_POOL_MAX_USES,
+                                                                            DEFAULT_BROWSER_POOL_MAX_USES);
+                sessionPool = new WebdriverSessionPool(poolSize, maximumUses);
+            }
+            return sessionPool;
         }
-        return allProfiles;
+    }
+
+    /**
+     * How long it has taken to start each type of driver in this JVM.
+     */
+    public static DriverStartupTimes getStartupTimes() {
+        return STARTUP_TIMES;
     }
 
     /**
@@ -150,33 +197,26 @@ public class WebDriverFactory {
     }
 
     /**
-     * This method is synchronized because multiple webdriver instances can be created in parallel.
-     * However, they may use common system resources such as ports, so may potentially interfere
-     * with each other.
+     * Multiple webdriver instances can be created in parallel, so nothing here is synchronized:
+     * each driver gets its own profile and capabilities, and the drivers themselves take care of finding
+     * free ports. The time taken to start each driver is recorded by driver type.
      *
      * @param driverClass
      * @return
      */
-    protected synchronized WebDriver newWebdriverInstance(final Class<? extends WebDriver> driverClass) {
+    protected WebDriver newWebdriverInstance(final Class<? extends WebDriver> driverClass) {
         try {
+            long startTime = System.currentTimeMillis();
+            String driverType;
             WebDriver driver;
             if (isARemoteDriver(driverClass) || shouldUseARemoteDriver() || saucelabsUrlIsDefined()) {
+                driverType = REMOTE_DRIVER;
                 driver = newRemoteDriver();
-            } else if (isAFirefoxDriver(driverClass)) {
-                driver = firefoxDriver();
-            } else if (isAnHtmlUnitDriver(driverClass)) {
-                driver = htmlunitDriver();
-            } else if (isAPhantomJSDriver(driverClass)) {
-                driver = phantomJSDriver();
-            } else if (isAChromeDriver(driverClass)) {
-                driver = chromeDriver();
-            } else if (isASafariDriver(driverClass)) {
-                driver = safariDriver();
-            } else if (isAnInternetExplorerDriver(driverClass)) {
-                driver = internetExplorerDriver();
             } else {
-                driver = newDriverInstanceFrom(driverClass);
+                driverType = driverClass.getSimpleName();
+                driver = newLocalDriver(driverClass);
             }
+            recordStartupTime(driverType, startTime);
             setImplicitTimeoutsIfSpecified(driver);
             redimensionBrowser(driver);
 
@@ -187,6 +227,29 @@ public class WebDriverFactory {
         }
     }
 
+    private WebDriver newLocalDriver(final Class<? extends WebDriver> driverClass) throws Exception {
+        if (isAFirefoxDriver(driverClass)) {
+            return firefoxDriver();
+        } else if (isAnHtmlUnitDriver(driverClass)) {
+            return htmlunitDriver();
+        } else if (isAPhantomJSDriver(driverClass)) {
+            return phantomJSDriver();
+        } else if (isAChromeDriver(driverClass)) {
+            return chromeDriver();
+        } else if (isASafariDriver(driverClass)) {
+            return safariDriver();
+        } else if (isAnInternetExplorerDriver(driverClass)) {
+            return internetExplorerDriver();
+        } else {
+            return newDriverInstanceFrom(driverClass);
+        }
+    }
+
+    private void recordStartupTime(final String driverType, final long startTime) {
+        long startupTime = System.currentTimeMillis() - startTime;
+        LOGGER.debug("Started {} driver in {} ms", driverType, startupTime);
+        STARTUP_TIMES.recordStartup(driverType, startupTime);
+    }
 
     private void setImplicitTimeoutsIfSpecified(WebDriver driver) {
         if (ThucydidesSystemProperty.TIMEOUTS_IMPLICIT_WAIT.isDefinedIn(environmentVariables)) {
@@ -390,8 +453,7 @@ public class WebDriverFactory {
     }
 
     private DesiredCapabilities addExtraCatabilitiesTo(DesiredCapabilities capabilities) {
-        CapabilitySet capabilitySet = new CapabilitySet(environmentVariables);
-        Map<String, Object> extraCapabilities = capabilitySet.getCapabilities();
+        Map<String, Object> extraCapabilities = getExtraCapabilities();
         for(String capabilityName : extraCapabilities.keySet()) {
             capabilities.setCapability(capabilityName, extraCapabilities.get(capabilityName));
         }
@@ -399,6 +461,17 @@ public class WebDriverFactory {
         return capabilities;
     }
 
+    private Map<String, Object> getExtraCapabilities() {
+        String capabilityDefinition = StringUtils.defaultString(
+                                        environmentVariables.getProperty(ThucydidesSystemProperty.DRIVER_CAPABILITIES));
+        Map<String, Object> capabilities = extraCapabilities.get(capabilityDefinition);
+        if (capabilities == null) {
+            capabilities = Collections.unmodifiableMap(new CapabilitySet(environmentVariables).getCapabilities());
+            extraCapabilities.putIfAbsent(capabilityDefinition, capabilities);
+        }
+        return capabilities;
+    }
+
     public void setupFixtureServices() throws FixtureException {
         for(FixtureService fixtureService : fixtureProviderService.getFixtureServices()) {
             fixtureService.setup();
@@ -0,0 +1,333 @@
+package net.thucydides.core.webdriver;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import org.openqa.selenium.Dimension;
+import org.openqa.selenium.JavascriptExecutor;
+import org.openqa.selenium.WebDriver;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.net.MalformedURLException;
+import java.net.URL;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.CopyOnWriteArraySet;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * A pool of open browser sessions, shared by all the test threads.
+ * Sessions are leased to a test when it needs a browser, and returned to the pool when the test would
+ * otherwise have closed the browser. Returned sessions are cleaned up (cookies, local storage, window size)
+ * and left on a blank page, ready for the next test.
+ * Cookies and storage can only be cleared for the site of the current page, so the pool keeps track of the sites
+ * (scheme, host and port) opened with get() through the WebDriver facade, as well as the site of the page open
+ * when the session is released, and visits each of them in turn to clear them. Sites that a test only reached by
+ * clicking links, following redirects or using navigate() are not known to the pool, so their cookies may be seen
+ * by the next test using the session: do not use the pool if the tests rely on a clean browser for such sites. A session is checked before it is leased, and is
+ * replaced if it no longer responds, if a step failed while it was being used, or once it has been used
+ * a given number of times.
+ * The pool keeps up to a given number of sessions of each driver type open, leased or idle, and starts new
+ * sessions in the background when a session is leased.
+ */
+public class WebdriverSessionPool {
+
+    private static final String CLEAR_STORAGE
+            = "try { window.localStorage.clear(); window.sessionStorage.clear(); } catch (e) {}";
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(WebdriverSessionPool.class);
+
+    private final int sessionsPerDriverType;
+    private final int maximumUses;
+
+    private final ConcurrentMap<Class<? extends WebDriver>, BlockingQueue<PooledSession>> idleSessions
+            = new ConcurrentHashMap<Class<? extends WebDriver>, BlockingQueue<PooledSession>>();
+
+    private final ConcurrentMap<Class<? extends WebDriver>, AtomicInteger> startingSessions
+            = new ConcurrentHashMap<Class<? extends WebDriver>, AtomicInteger>();
+
+    private final Map<WebDriver, PooledSession> leasedSessions = new ConcurrentHashMap<WebDriver, PooledSession>();
+
+    private final ExecutorService sessionStarter
+            = Executors.newCachedThreadPool(new ThreadFactoryBuilder().setNameFormat("thucydides-browser-pool-%d")
+                                                                      .setDaemon(true).build());
+
+    public WebdriverSessionPool(final int sessionsPerDriverType, final int maximumUses) {
+        this.sessionsPerDriverType = sessionsPerDriverType;
+        this.maximumUses = maximumUses;
+        Runtime.getRuntime().addShutdownHook(new Thread() {
+            @Override
+            public void run() {
+                shutdown();
+            }
+        });
+    }
+
+    /**
+     * Lease an open browser session to the current test, starting a new one if no healthy session is available.
+     */
+    public WebDriver lease(final Class<? extends WebDriver> driverClass, final WebDriverFactory webDriverFactory) {
+        PooledSession session = nextHealthySessionFor(driverClass);
+        if (session == null) {
+            session = new PooledSession(driverClass, webDriverFactory.newWebdriverInstance(driverClass));
+        }
+        session.recordUse();
+        leasedSessions.put(session.getDriver(), session);
+        startIdleSessionsFor(driverClass, webDriverFactory);
+        return session.getDriver();
+    }
+
+    /**
+     * Return a leased session to the pool. The session is quit instead if it cannot be reused.
+     */
+    public void release(final WebDriver driver, final boolean reusable) {
+        PooledSession session = leasedSessions.remove(driver);
+        if (session == null) {
+            quitSafely(driver);
+        } else if (reusable && !session.isWornOut() && resetSafely(session) && idleSessionsFor(session.getDriverClass()).offer(session)) {
+            LOGGER.debug("Returned {} session to the pool", session.getDriverClass().getSimpleName());
+        } else {
+            quitSafely(driver);
+        }
+    }
+
+    public boolean isLeased(final WebDriver driver) {
+        return leasedSessions.containsKey(driver);
+    }
+
+    public int getIdleSessionCount(final Class<? extends WebDriver> driverClass) {
+        return idleSessionsFor(driverClass).size();
+    }
+
+    /**
+     * Record that a leased session has opened a page, so that the cookies and storage of that site are cleared
+     * when the session is returned to the pool.
+     */
+    public void recordVisit(final WebDriver driver, final String url) {
+        PooledSession session = leasedSessions.get(driver);
+        if (session != null) {
+            session.recordVisit(url);
+        }
+    }
+
+    /**
+     * Quit all the idle sessions. Leased sessions are quit when they are released.
+     */
+    public void shutdown() {
+        sessionStarter.shutdownNow();
+        for (BlockingQueue<PooledSession> sessions : idleSessions.values()) {
+            List<PooledSession> idle = new ArrayList<PooledSession>();
+            sessions.drainTo(idle);
+            for (PooledSession session : idle) {
+                quitSafely(session.getDriver());
+            }
+        }
+    }
+
+    private PooledSession nextHealthySessionFor(final Class<? extends WebDriver> driverClass) {
+        PooledSession session = idleSessionsFor(driverClass).poll();
+        while ((session != null) && !isHealthy(session.getDriver())) {
+            LOGGER.debug("Discarding unresponsive {} session", driverClass.getSimpleName());
+            quitSafely(session.getDriver());
+            session = idleSessionsFor(driverClass).poll();
+        }
+        return session;
+    }
+
+    private void startIdleSessionsFor(final Class<? extends WebDriver> driverClass,
+                                      final WebDriverFactory webDriverFactory) {
+        final AtomicInteger starting = startingSessionsFor(driverClass);
+        while (idleSessionsFor(driverClass).size() + starting.get() + leasedSessionCount(driverClass) < sessionsPerDriverType) {
+            starting.incrementAndGet();
+            try {
+                sessionStarter.execute(new Runnable() {
+                    public void run() {
+                        try {
+                            PooledSession session = new PooledSession(driverClass,
+                                                                      webDriverFactory.newWebdriverInstance(driverClass));
+                            if (!idleSessionsFor(driverClass).offer(session)) {
+                                quitSafely(session.getDriver());
+                            }
+                        } catch (RuntimeException e) {
+                            LOGGER.warn("Could not start a new {} session for the pool: {}",
+                                        driverClass.getSimpleName(), e.getMessage());
+                        } finally {
+                            starting.decrementAndGet();
+                        }
+                    }
+                });
+            } catch (RuntimeException rejected) {
+                starting.decrementAndGet();
+                return;
+            }
+        }
+    }
+
+    private int leasedSessionCount(final Class<? extends WebDriver> driverClass) {
+        int leasedSessionCount = 0;
+        for (PooledSession session : leasedSessions.values()) {
+            if (session.getDriverClass() == driverClass) {
+                leasedSessionCount++;
+            }
+        }
+        return leasedSessionCount;
+    }
+
+    private boolean isHealthy(final WebDriver driver) {
+        try {
+            return !driver.getWindowHandles().isEmpty();
+        } catch (RuntimeException e) {
+            return false;
+        }
+    }
+
+    private boolean resetSafely(final PooledSession session) {
+        WebDriver driver = session.getDriver();
+        try {
+            session.recordVisit(driver.getCurrentUrl());
+            Set<String> visitedSites = session.getVisitedSites();
+            if (visitedSites.isEmpty()) {
+                clearCookiesAndStorageOfCurrentPage(driver);
+            }
+            for (String site : visitedSites) {
+                driver.get(site);
+                clearCookiesAndStorageOfCurrentPage(driver);
+            }
+            session.forgetVisitedSites();
+            restoreWindowSize(session);
+            driver.get("about:blank");
+            return true;
+        } catch (RuntimeException e) {
+            LOGGER.debug("Could not reset the browser session, so it will not be reused: {}", e.getMessage());
+            return false;
+        }
+    }
+
+    private void clearCookiesAndStorageOfCurrentPage(final WebDriver driver) {
+        driver.manage().deleteAllCookies();
+        if (driver instanceof JavascriptExecutor) {
+            ((JavascriptExecutor) driver).executeScript(CLEAR_STORAGE);
+        }
+    }
+
+    private void restoreWindowSize(final PooledSession session) {
+        if (session.getWindowSize() != null) {
+            WebDriver.Window window = session.getDriver().manage().window();
+            if (!session.getWindowSize().equals(window.getSize())) {
+                window.setSize(session.getWindowSize());
+            }
+        }
+    }
+
+    private void quitSafely(final WebDriver driver) {
+        try {
+            driver.quit();
+        } catch (RuntimeException e) {
+            LOGGER.debug("Error while quitting a pooled driver: {}", e.getMessage());
+        }
+    }
+
+    private BlockingQueue<PooledSession> idleSessionsFor(final Class<? extends WebDriver> driverClass) {
+        BlockingQueue<PooledSession> sessions = idleSessions.get(driverClass);
+        if (sessions == null) {
+            BlockingQueue<PooledSession> newSessions = new ArrayBlockingQueue<PooledSession>(sessionsPerDriverType);
+            sessions = idleSessions.putIfAbsent(driverClass, newSessions);
+            if (sessions == null) {
+                sessions = newSessions;
+            }
+        }
+        return sessions;
+    }
+
+    private AtomicInteger startingSessionsFor(final Class<? extends WebDriver> driverClass) {
+        AtomicInteger starting = startingSessions.get(driverClass);
+        if (starting == null) {
+            AtomicInteger newCounter = new AtomicInteger();
+            starting = startingSessions.putIfAbsent(driverClass, newCounter);
+            if (starting == null) {
+                starting = newCounter;
+            }
+        }
+        return starting;
+    }
+
+    private class PooledSession {
+        private final Class<? extends WebDriver> driverClass;
+        private final WebDriver driver;
+        private final Dimension windowSize;
+        private final Set<String> visitedSites = new CopyOnWriteArraySet<String>();
+        private int useCount;
+
+        PooledSession(final Class<? extends WebDriver> driverClass, final WebDriver driver) {
+            this.driverClass = driverClass;
+            this.driver = driver;
+            this.windowSize = initialWindowSizeOf(driver);
+        }
+
+        private Dimension initialWindowSizeOf(final WebDriver driver) {
+            try {
+                return driver.manage().window().getSize();
+            } catch (RuntimeException e) {
+                return null;
+            }
+        }
+
+        Class<? extends WebDriver> getDriverClass() {
+            return driverClass;
+        }
+
+        WebDriver getDriver() {
+            return driver;
+        }
+
+        Dimension getWindowSize() {
+            return windowSize;
+        }
+
+        void recordVisit(final String url) {
+            String site = siteOf(url);
+            if (site != null) {
+                visitedSites.add(site);
+            }
+        }
+
+        private String siteOf(final String url) {
+            if (url == null) {
+                return null;
+            }
+            try {
+                URL pageUrl = new URL(url);
+                if (!"http".equals(pageUrl.getProtocol()) && !"https".equals(pageUrl.getProtocol())) {
+                    return null;
+                }
+                String port = (pageUrl.getPort() == -1) ? "" : ":" + pageUrl.getPort();
+                return pageUrl.getProtocol() + "://" + pageUrl.getHost() + port + "/";
+            } catch (MalformedURLException e) {
+                return null;
+            }
+        }
+
+        Set<String> getVisitedSites() {
+            return visitedSites;
+        }
+
+        void forgetVisitedSites() {
+            visitedSites.clear();
+        }
+
+        void recordUse() {
+            useCount++;
+        }
+
+        boolean isWornOut() {
+            return useCount >= maximumUses;
+        }
+    }
+}
@@ -252,4 +252,25 @@ class WhenObtainingResultSummariesFromTestOutcomes extends Specification {
             testOutcomes.proportion.withResult("error") == 0.0
             testOutcomes.proportion.withResult("pending") == 0.0
     }
-}
\ No newline at end of file
+
+    def "should calculate the result summary once for a set of test outcomes"() {
+        when:
+            def testOutcomes = TestOutcomeLoader.testOutcomesIn(directoryInClasspathCalled(directory));
+        then:
+            testOutcomes.summary.is(testOutcomes.summary)
+        and:
+            testOutcomes.stepCount == testOutcomes.tests.collect { it.nestedStepCount }.sum(0)
+            testOutcomes.duration == testOutcomes.tests.collect { it.duration }.sum(0)
+            testOutcomes.total == testOutcomes.tests.collect { it.testCount }.sum(0)
+        where:
+            directory << ["/test-outcomes/all-successful", "/test-outcomes/containing-failure",
+                          "/test-outcomes/somedatadriven"]
+    }
+
+    def "should count nested steps in the same way as the flattened step list"() {
+        when:
+            def testOutcomes = TestOutcomeLoader.testOutcomesIn(directoryInClasspathCalled("/test-outcomes/containing-failure"));
+        then:
+            testOutcomes.tests.every { it.nestedStepCount == it.flattenedTestSteps.size() }
+    }
+}
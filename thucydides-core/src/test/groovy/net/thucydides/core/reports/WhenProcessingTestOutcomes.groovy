@@ -1,5 +1,6 @@
 package net.thucydides.core.reports
 
+import com.github.goldin.spock.extensions.tempdir.TempDir
 import net.thucydides.core.model.TestOutcome
 import net.thucydides.core.model.TestTag
 import spock.lang.Ignore
@@ -11,9 +12,14 @@ import static net.thucydides.core.reports.matchers.TestOutcomeMatchers.withResul
 import static net.thucydides.core.reports.matchers.TestOutcomeMatchers.havingTagName
 import static net.thucydides.core.reports.matchers.TestOutcomeMatchers.havingTagType
 import net.thucydides.core.statistics.model.TestStatistics
+import net.thucydides.core.reports.json.JSONTestOutcomeReporter
+import net.thucydides.core.reports.xml.XMLTestOutcomeReporter
+import net.thucydides.core.util.MockEnvironmentVariables
 
 class WhenProcessingTestOutcomes extends Specification {
 
+    @TempDir File temporaryDirectory
+
     def loader = new TestOutcomeLoader()
 
     def "should load test outcomes from a given directory"() {
@@ -30,6 +36,40 @@ class WhenProcessingTestOutcomes extends Specification {
             thrown IOException
     }
 
+    def "should load test outcomes in the same order using a single thread or several threads"() {
+        given:
+            def singleThreadedEnvironment = new MockEnvironmentVariables()
+            singleThreadedEnvironment.setProperty("thucydides.loader.threads", "1")
+            def multiThreadedEnvironment = new MockEnvironmentVariables()
+            multiThreadedEnvironment.setProperty("thucydides.loader.threads", "4")
+        when:
+            def serialOutcomes = new TestOutcomeLoader(singleThreadedEnvironment, new XMLTestOutcomeReporter())
+                                        .loadFrom(directoryInClasspathCalled("/tagged-test-outcomes"))
+            def parallelOutcomes = new TestOutcomeLoader(multiThreadedEnvironment, new XMLTestOutcomeReporter())
+                                        .loadFrom(directoryInClasspathCalled("/tagged-test-outcomes"))
+        then:
+            parallelOutcomes.collect { it.title } == serialOutcomes.collect { it.title }
+    }
+
+    def "should stream test outcomes as they are loaded"() {
+        when:
+            def testOutcomes = loader.streamFrom(directoryInClasspathCalled("/tagged-test-outcomes")).collect { it }
+        then:
+            testOutcomes.size() == 3
+    }
+
+    def "should load test outcomes stored in JSON form"() {
+        given:
+            def xmlOutcomes = loader.loadFrom(directoryInClasspathCalled("/tagged-test-outcomes"))
+            def jsonReporter = new JSONTestOutcomeReporter()
+            jsonReporter.outputDirectory = temporaryDirectory
+            xmlOutcomes.each { jsonReporter.generateReportFor(it, TestOutcomes.of(xmlOutcomes)) }
+        when:
+            def jsonOutcomes = TestOutcomeLoader.loadingOutcomesWith(new JSONTestOutcomeReporter()).loadFrom(temporaryDirectory)
+        then:
+            jsonOutcomes.collect { it.title } as Set == xmlOutcomes.collect { it.title } as Set
+    }
+
     def "should list all the tag types for the test outcomes"() {
         given:
             TestOutcomes testOutcomes = TestOutcomeLoader.testOutcomesIn(directoryInClasspathCalled("/tagged-test-outcomes"));
@@ -165,6 +205,37 @@ class WhenProcessingTestOutcomes extends Specification {
     }
 
 
+    def "should match tag names regardless of case"() {
+        given:
+            TestOutcomes testOutcomes = TestOutcomeLoader.testOutcomesIn(directoryInClasspathCalled("/tagged-test-outcomes"));
+        expect:
+            testOutcomes.withTag("A Story").getTests() == testOutcomes.withTag("a story").getTests()
+    }
+
+    def "should find the same tests when filtering nested tags with or without the tag index"() {
+        given:
+            TestOutcomes testOutcomes = TestOutcomeLoader.testOutcomesIn(directoryInClasspathCalled("/tagged-test-outcomes"));
+        when:
+            def tests = testOutcomes.withTag("an epic").withTagType("story").withTag("a story").getTests()
+        then:
+            tests == testOutcomes.tests.findAll { test ->
+                test.tags.any { it.name.equalsIgnoreCase("an epic") } &&
+                test.tags.any { it.type == "story" } &&
+                test.tags.any { it.name.equalsIgnoreCase("a story") }
+            }
+    }
+
+    def "should find no tests for an unknown tag"() {
+        given:
+            TestOutcomes testOutcomes = TestOutcomeLoader.testOutcomesIn(directoryInClasspathCalled("/tagged-test-outcomes"));
+        when:
+            def filteredOutcomes = testOutcomes.withTag("an unknown tag")
+        then:
+            filteredOutcomes.tests.isEmpty()
+            filteredOutcomes.tags.isEmpty()
+            filteredOutcomes.withTagType("story").tests.isEmpty()
+    }
+
     def "should list all passing tests"() {
         given:
             TestOutcomes testOutcomes = TestOutcomeLoader.testOutcomesIn(directoryInClasspathCalled("/test-outcomes/containing-failure"));
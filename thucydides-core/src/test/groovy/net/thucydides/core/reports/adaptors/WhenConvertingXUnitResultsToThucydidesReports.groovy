@@ -1,10 +1,16 @@
 package net.thucydides.core.reports.adaptors
 
 import com.github.goldin.spock.extensions.tempdir.TempDir
+import net.thucydides.core.model.Story
+import net.thucydides.core.model.TestOutcome
+import net.thucydides.core.reports.AcceptanceTestReporter
 import net.thucydides.core.reports.TestOutcomeAdaptorReporter
 import net.thucydides.core.reports.adaptors.lettuce.LettuceXUnitAdaptor
+import net.thucydides.core.reports.adaptors.specflow.SpecflowAdaptor
 import net.thucydides.core.reports.adaptors.xunit.DefaultXUnitAdaptor
+import net.thucydides.core.util.MockEnvironmentVariables
 import spock.lang.Specification
+import spock.lang.Timeout
 
 import static net.thucydides.core.util.TestResources.fileInClasspathCalled
 
@@ -57,4 +63,51 @@ class WhenConvertingXUnitResultsToThucydidesReports extends Specification {
             generatedHtmlFiles().size() == 4
     }
 
-}
\ No newline at end of file
+    def "should import test outcomes with a single report writer"() {
+        given:
+            def specflowOutputDirectory = fileInClasspathCalled("/specflow-output/samples")
+            def environmentVariables = new MockEnvironmentVariables()
+            environmentVariables.setProperty("thucydides.loader.threads", "2")
+            environmentVariables.setProperty("thucydides.report.threads", "1")
+            def reporter = new TestOutcomeAdaptorReporter(environmentVariables)
+            reporter.setOutputDirectory(temporaryDirectory);
+        and:
+            reporter.registerAdaptor(new SpecflowAdaptor())
+        when:
+            reporter.generateReportsFrom(specflowOutputDirectory)
+        then:
+            generatedXmlFiles().size() == 3
+    }
+
+    @Timeout(30)
+    def "should not hang when a report writer fails with an error"() {
+        given:
+            def environmentVariables = new MockEnvironmentVariables()
+            environmentVariables.setProperty("thucydides.loader.threads", "1")
+            environmentVariables.setProperty("thucydides.report.threads", "1")
+            def reporter = new TestOutcomeAdaptorReporter(environmentVariables) {
+                @Override
+                protected AcceptanceTestReporter getXMLReporter() {
+                    return [generateReportFor: { outcome, allOutcomes -> throw new AssertionError("Report writer failed") }] as AcceptanceTestReporter
+                }
+            }
+            reporter.setOutputDirectory(temporaryDirectory);
+        and: "more test outcomes than the queue can hold"
+            reporter.registerAdaptor(new StreamingTestOutcomeAdaptor() {
+                List<File> sourceFilesIn(File source) { [source] }
+
+                void readOutcomesFrom(File sourceFile, TestOutcomeListener listener) {
+                    (1..50).each { listener.testOutcomeLoaded(TestOutcome.forTestInStory("test $it", Story.withId("story", "A story"))) }
+                }
+
+                List<TestOutcome> loadOutcomes() { [] }
+
+                List<TestOutcome> loadOutcomesFrom(File source) { [] }
+            })
+        when:
+            reporter.generateReportsFrom(temporaryDirectory)
+        then:
+            def failure = thrown(IOException)
+            failure.cause instanceof AssertionError
+    }
+}
@@ -3,6 +3,7 @@ package net.thucydides.core.reports.adaptors.specflow
 import com.github.goldin.spock.extensions.tempdir.TempDir
 import net.thucydides.core.model.TestResult
 import net.thucydides.core.reports.adaptors.TestOutcomeAdaptor
+import net.thucydides.core.reports.adaptors.TestOutcomeListener
 import spock.lang.Specification
 
 import static net.thucydides.core.util.TestResources.fileInClasspathCalled
@@ -166,6 +167,19 @@ class WhenLoadingSpecflowLogOutputAsTestOutcomes extends Specification {
             testOutcomes.collect {it.dataTable } == [null,null,null]
     }
 
+    def "should pass on each scenario as soon as it has been read"() {
+        given:
+            def specflowOutput = fileInClasspathCalled("/specflow-output/multiple-separate-scenarios.txt")
+            def specflowLoader = new SpecflowAdaptor()
+            def loadedTitles = []
+        when:
+            specflowLoader.readOutcomesFrom(specflowOutput, { outcome -> loadedTitles << outcome.title } as TestOutcomeListener)
+        then:
+            loadedTitles == ["Populate business payment process drop down list",
+                             "Test to fail",
+                             "Debit account owner selection"]
+    }
+
     def "should record multiple different scenarios including a table in a single file"() {
         given:
             def specflowOutput = fileInClasspathCalled("/specflow-output/multiple-separate-scenarios-containing-a-table.txt")
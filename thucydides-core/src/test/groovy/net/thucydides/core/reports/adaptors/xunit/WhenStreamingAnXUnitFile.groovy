@@ -0,0 +1,126 @@
+package net.thucydides.core.reports.adaptors.xunit
+
+import net.thucydides.core.model.TestOutcome
+import net.thucydides.core.reports.adaptors.xunit.io.XUnitFiles
+import net.thucydides.core.reports.adaptors.xunit.model.TestSuite
+import spock.lang.Specification
+
+import static net.thucydides.core.util.TestResources.fileInClasspathCalled
+
+/**
+ * Large xUnit files should be read without loading the whole document into memory.
+ */
+class WhenStreamingAnXUnitFile extends Specification {
+
+    def "should load an xUnit file as a TestSuite"() {
+        given:
+            def xunitFileSource = fileInClasspathCalled("/xunit/singleTestCase.xml")
+            def xunitLoader = new StreamingXUnitLoader()
+        when:
+            TestSuite testSuite = xunitLoader.loadFrom(xunitFileSource)[0]
+        then:
+            testSuite.name == "aTestSuite"
+            testSuite.testCases.size() == 1
+            testSuite.testCases[0].classname == "SomeTestClass"
+            testSuite.testCases[0].name == "should_do_something"
+            testSuite.testCases[0].time == 1.0
+    }
+
+    def "should load failing, broken and skipped test cases"() {
+        given:
+            def xunitLoader = new StreamingXUnitLoader()
+        when:
+            def failingTestCase = xunitLoader.loadFrom(fileInClasspathCalled("/xunit/failingTestCase.xml"))[0].testCases[0]
+            def errorTestCase = xunitLoader.loadFrom(fileInClasspathCalled("/xunit/errorTestCase.xml"))[0].testCases[0]
+            def skippedTestCase = xunitLoader.loadFrom(fileInClasspathCalled("/xunit/skippedTestCase.xml"))[0].testCases[0]
+        then:
+            failingTestCase.failure.get().message == "Something went wrong"
+            failingTestCase.failure.get().errorOutput == "All broken"
+            errorTestCase.error.get().message == "Something exploded"
+            errorTestCase.error.get().errorOutput == "All broken"
+            skippedTestCase.skipped.get().type == "UndefinedStep"
+    }
+
+    def "should skip the console output sections"() {
+        given:
+            def xunitFile = xunitFileContaining("""
+                <testsuite name="aTestSuite">
+                    <testcase name="should_do_something" classname="SomeTestClass" time="1.0">
+                        <system-out><![CDATA[${'Lots of logging\n' * 1000}]]></system-out>
+                    </testcase>
+                    <system-err>More logging</system-err>
+                </testsuite>""")
+        when:
+            TestSuite testSuite = new StreamingXUnitLoader().loadFrom(xunitFile)[0]
+        then:
+            testSuite.testCases.size() == 1
+            testSuite.testCases[0].name == "should_do_something"
+    }
+
+    def "should truncate very long failure output"() {
+        given:
+            def xunitFile = xunitFileContaining("""
+                <testsuite name="aTestSuite">
+                    <testcase name="should_do_something" classname="SomeTestClass" time="1.0">
+                        <failure message="Something went wrong">${'x' * 500}</failure>
+                    </testcase>
+                </testsuite>""")
+        when:
+            TestSuite testSuite = new StreamingXUnitLoader(100).loadFrom(xunitFile)[0]
+        then:
+            def errorOutput = testSuite.testCases[0].failure.get().errorOutput
+            errorOutput.startsWith('x' * 100)
+            errorOutput.endsWith("[400 more characters not shown]")
+    }
+
+    def "should pass on each test suite as soon as it has been read"() {
+        given:
+            def xunitFile = xunitFileContaining("""
+                <testsuites>
+                    <testsuite name="firstSuite">
+                        <testcase name="first_test" classname="SomeTestClass" time="1.0"/>
+                    </testsuite>
+                    <testsuite name="secondSuite">
+                        <testcase name="second_test" classname="SomeTestClass" time="1.0"/>
+                        <testcase name="third_test" classname="SomeTestClass" time="1.0"/>
+                    </testsuite>
+                </testsuites>""")
+            def loadedSuites = []
+        when:
+            new StreamingXUnitLoader().readFrom(xunitFile, { suite -> loadedSuites << suite } as TestSuiteListener)
+        then:
+            loadedSuites.collect { it.name } == ["firstSuite", "secondSuite"]
+            loadedSuites.collect { it.testCases.size() } == [1, 2]
+    }
+
+    def "should throw CouldNotReadXUnitFileException if file can't be read"() {
+        given:
+            def xunitFileSource = fileInClasspathCalled("/xunit/badlyFormedTestCase.xml")
+        when:
+            new StreamingXUnitLoader().loadFrom(xunitFileSource)
+        then:
+            thrown(CouldNotReadXUnitFileException)
+    }
+
+    def "should return the test outcomes in the same order as the xUnit files"() {
+        given:
+            def xunitFileDirectory = fileInClasspathCalled("/xunit-sample-output")
+            def expectedTestNames = []
+            XUnitFiles.in(xunitFileDirectory).each { xunitFile ->
+                new StreamingXUnitLoader().loadFrom(xunitFile).each { suite ->
+                    suite.testCases.each { testCase -> expectedTestNames << testCase.name }
+                }
+            }
+        when:
+            List<TestOutcome> outcomes = new DefaultXUnitAdaptor().loadOutcomesFrom(xunitFileDirectory)
+        then:
+            outcomes.collect { it.methodName } == expectedTestNames
+    }
+
+    def xunitFileContaining(String contents) {
+        def xunitFile = File.createTempFile("xunit", ".xml")
+        xunitFile.deleteOnExit()
+        xunitFile.text = """<?xml version="1.0" encoding="UTF-8"?>${contents.trim()}"""
+        return xunitFile
+    }
+}
@@ -0,0 +1,76 @@
+package net.thucydides.core.reports.html
+
+import net.thucydides.core.util.MockEnvironmentVariables
+import spock.lang.Specification
+
+import java.util.concurrent.ConcurrentHashMap
+
+class WhenRunningReportingTasks extends Specification {
+
+    def "should run every reporting task when using a single thread"() {
+        given:
+            def executor = new ReportingTaskExecutor(1)
+            def completedTasks = Collections.synchronizedList([])
+        when:
+            executor.generateReportsFor(tasksRecordingIn(completedTasks, 10))
+        then:
+            completedTasks == (1..10).collect { it }
+    }
+
+    def "should run every reporting task when using several threads"() {
+        given:
+            def executor = new ReportingTaskExecutor(4)
+            def completedTasks = Collections.synchronizedList([])
+        when:
+            executor.generateReportsFor(tasksRecordingIn(completedTasks, 100))
+        then:
+            completedTasks.sort() == (1..100).collect { it }
+    }
+
+    def "should run the reporting tasks in worker threads when using several threads"() {
+        given:
+            def executor = new ReportingTaskExecutor(4)
+            def threadNames = Collections.newSetFromMap(new ConcurrentHashMap())
+            def tasks = (1..20).collect {
+                { -> threadNames.add(Thread.currentThread().name) } as ReportingTask
+            }
+        when:
+            executor.generateReportsFor(tasks)
+        then:
+            threadNames.every { it.startsWith("thucydides-reports-") }
+    }
+
+    def "should report errors from reporting tasks running in worker threads"() {
+        given:
+            def executor = new ReportingTaskExecutor(4)
+            def tasks = [{ -> } as ReportingTask, { -> throw new IOException("Disk full") } as ReportingTask]
+        when:
+            executor.generateReportsFor(tasks)
+        then:
+            IOException e = thrown()
+            e.message == "Disk full"
+    }
+
+    def "should use the number of threads defined in the environment variables"() {
+        given:
+            def environmentVariables = new MockEnvironmentVariables()
+            environmentVariables.setProperty("thucydides.report.threads", "8")
+        when:
+            def executor = ReportingTaskExecutor.configuredIn(environmentVariables)
+        then:
+            executor.threadCount == 8
+    }
+
+    def "should use a single thread by default"() {
+        when:
+            def executor = ReportingTaskExecutor.configuredIn(new MockEnvironmentVariables())
+        then:
+            executor.threadCount == 1
+    }
+
+    def tasksRecordingIn(List completedTasks, int taskCount) {
+        (1..taskCount).collect { taskNumber ->
+            { -> completedTasks.add(taskNumber) } as ReportingTask
+        }
+    }
+}
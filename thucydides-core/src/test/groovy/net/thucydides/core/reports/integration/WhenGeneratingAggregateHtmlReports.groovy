@@ -7,6 +7,8 @@ import net.thucydides.core.reports.history.ProgressSnapshot
 import net.thucydides.core.reports.history.TestHistory
 import net.thucydides.core.reports.history.TestResultSnapshot
 import net.thucydides.core.reports.html.HtmlAggregateStoryReporter
+import net.thucydides.core.reports.html.ReportManifest
+import org.apache.commons.io.FileUtils
 import org.openqa.selenium.By
 import org.openqa.selenium.WebDriver
 import org.openqa.selenium.htmlunit.HtmlUnitDriver
@@ -77,6 +79,108 @@ public class WhenGeneratingAggregateHtmlReports extends Specification {
 
     }
 
+    def "should generate the same report pages when using several threads"() {
+        given: "we generate reports in a single thread"
+            reporter.generateReportsForTestResultsFrom directory("/test-outcomes/containing-features-and-stories")
+        and: "we generate the same reports using several threads"
+            def parallelOutputDirectory = new File(temporaryDirectory,"target/site/thucydides-parallel")
+            parallelOutputDirectory.mkdirs()
+            def parallelReporter = new HtmlAggregateStoryReporter("project", issueTracking, mockTestHistory);
+            parallelReporter.outputDirectory = parallelOutputDirectory
+            parallelReporter.reportingThreads = 4
+        when:
+            parallelReporter.generateReportsForTestResultsFrom directory("/test-outcomes/containing-features-and-stories")
+        then: "the same pages should be generated"
+            def serialReports = outputDirectory.list().findAll { it.endsWith(".html") || it.endsWith(".csv") } as Set
+            def parallelReports = parallelOutputDirectory.list().findAll { it.endsWith(".html") || it.endsWith(".csv") } as Set
+            parallelReports == serialReports
+        and: "with the same contents"
+            serialReports.every { new File(outputDirectory, it).text == new File(parallelOutputDirectory, it).text }
+    }
+
+    def "should only regenerate the pages whose test outcomes have changed in incremental mode"() {
+        given: "a copy of the test outcomes"
+            def sourceDirectory = new File(temporaryDirectory, "incremental-source")
+            FileUtils.copyDirectory(directory("/test-outcomes/containing-features-and-stories"), sourceDirectory)
+        and: "reports generated incrementally"
+            reporter.incrementalReporting = true
+            reporter.generateReportsForTestResultsFrom sourceDirectory
+            def generatedPages = outputDirectory.listFiles().findAll { it.name.endsWith(".html") }
+            generatedPages.each { it.setLastModified(1000) }
+        when: "one of the test outcomes changes"
+            def changedReport = new File(sourceDirectory, "sample-report-1.xml")
+            changedReport.append("\n")
+        and: "the reports are generated again"
+            def nextReporter = new HtmlAggregateStoryReporter("project", issueTracking, mockTestHistory);
+            nextReporter.outputDirectory = outputDirectory
+            nextReporter.incrementalReporting = true
+            nextReporter.generateReportsForTestResultsFrom sourceDirectory
+        then: "the manifest should be kept in the output directory"
+            new File(outputDirectory, ReportManifest.MANIFEST_FILE).exists()
+        and: "the pages containing the changed test outcome should be regenerated"
+            new File(outputDirectory, "index.html").lastModified() > 1000
+        and: "the other pages should be left alone"
+            generatedPages.any { it.lastModified() == 1000 }
+    }
+
+    def "should not regenerate any pages in incremental mode if nothing has changed"() {
+        given:
+            def sourceDirectory = new File(temporaryDirectory, "incremental-source")
+            FileUtils.copyDirectory(directory("/test-outcomes/containing-features-and-stories"), sourceDirectory)
+            reporter.incrementalReporting = true
+            reporter.generateReportsForTestResultsFrom sourceDirectory
+            def indexPage = new File(outputDirectory, "index.html")
+            indexPage.setLastModified(1000)
+        when:
+            def nextReporter = new HtmlAggregateStoryReporter("project", issueTracking, mockTestHistory);
+            nextReporter.outputDirectory = outputDirectory
+            nextReporter.incrementalReporting = true
+            nextReporter.generateReportsForTestResultsFrom sourceDirectory
+        then:
+            indexPage.lastModified() == 1000
+    }
+
+    def "should regenerate every page in incremental mode when the overall test results change"() {
+        given:
+            def sourceDirectory = new File(temporaryDirectory, "incremental-source")
+            FileUtils.copyDirectory(directory("/test-outcomes/containing-features-and-stories"), sourceDirectory)
+            reporter.incrementalReporting = true
+            reporter.generateReportsForTestResultsFrom sourceDirectory
+            def generatedPages = outputDirectory.listFiles().findAll { it.name.endsWith(".html") }
+            generatedPages.each { it.setLastModified(1000) }
+        when: "a test that was passing now fails"
+            def changedReport = new File(sourceDirectory, "sample-report-1.xml")
+            changedReport.text = changedReport.text.replaceFirst('result="SUCCESS"', 'result="FAILURE"')
+        and:
+            def nextReporter = new HtmlAggregateStoryReporter("project", issueTracking, mockTestHistory);
+            nextReporter.outputDirectory = outputDirectory
+            nextReporter.incrementalReporting = true
+            nextReporter.generateReportsForTestResultsFrom sourceDirectory
+        then: "every page shows the new totals"
+            generatedPages.findAll { it.exists() }.every { it.lastModified() > 1000 }
+    }
+
+    def "should delete the pages that are no longer needed in incremental mode"() {
+        given:
+            def sourceDirectory = new File(temporaryDirectory, "incremental-source")
+            FileUtils.copyDirectory(directory("/test-outcomes/containing-features-and-stories"), sourceDirectory)
+            reporter.incrementalReporting = true
+            reporter.generateReportsForTestResultsFrom sourceDirectory
+        and: "a page for a tag that no longer exists was generated last time"
+            def obsoletePage = new File(outputDirectory, "tag_removed.html")
+            obsoletePage.text = "<html/>"
+            def manifestFile = new File(outputDirectory, ReportManifest.MANIFEST_FILE)
+            manifestFile.append("tag_removed.html=1234\n")
+        when:
+            def nextReporter = new HtmlAggregateStoryReporter("project", issueTracking, mockTestHistory);
+            nextReporter.outputDirectory = outputDirectory
+            nextReporter.incrementalReporting = true
+            nextReporter.generateReportsForTestResultsFrom sourceDirectory
+        then:
+            !obsoletePage.exists()
+            !manifestFile.text.contains("tag_removed.html")
+    }
+
     def "should pass JIRA URL to reporter"() {
         given:
             def customReport = new CustomHtmlAggregateStoryReporter("project")
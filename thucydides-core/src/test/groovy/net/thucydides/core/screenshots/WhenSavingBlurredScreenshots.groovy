@@ -0,0 +1,76 @@
+package net.thucydides.core.screenshots
+
+import com.github.goldin.spock.extensions.tempdir.TempDir
+import com.google.common.base.Optional
+import net.thucydides.core.images.SimpleImageInfo
+import net.thucydides.core.util.MockEnvironmentVariables
+import spock.lang.Specification
+
+import java.awt.image.BufferedImage
+
+class WhenSavingBlurredScreenshots extends Specification {
+
+    @TempDir File screenshotDirectory
+
+    def environmentVariables = new MockEnvironmentVariables()
+
+    def sampleScreenshot = new File(Thread.currentThread().getContextClassLoader().getResource("screenshots/amazon.png").getPath())
+
+    def saverWithABrokenBlurFilter() {
+        new QueuedScreenshotSaver(environmentVariables) {
+            @Override
+            BufferedImage blur(BufferedImage srcImage, BlurLevel blurLevel) {
+                throw new IllegalStateException("Blurring failed")
+            }
+        }
+    }
+
+    def "should never save the original screenshot if it could not be blurred"() {
+        given:
+            def originalData = sampleScreenshot.bytes
+            def destination = File.createTempFile("blurred", ".png")
+            destination.deleteOnExit()
+        when:
+            saverWithABrokenBlurFilter().save(new QueuedScreenshot(originalData, destination, Optional.of(BlurLevel.HEAVY)))
+        then:
+            destination.bytes != originalData
+        and:
+            def originalSize = new SimpleImageInfo(originalData)
+            def savedSize = new SimpleImageInfo(destination)
+            savedSize.width == originalSize.width
+            savedSize.height == originalSize.height
+    }
+
+    def "should discard the temporary copy of a screenshot that could not be blurred"() {
+        given:
+            def source = File.createTempFile("screenshot", ".png")
+            source.bytes = sampleScreenshot.bytes
+            def destination = File.createTempFile("blurred", ".png")
+            destination.deleteOnExit()
+        when:
+            saverWithABrokenBlurFilter().save(new QueuedScreenshot(source, destination, Optional.of(BlurLevel.LIGHT)))
+        then:
+            !source.exists()
+            destination.bytes != sampleScreenshot.bytes
+    }
+
+    def "should not leave temporary files behind once a screenshot has been saved"() {
+        given:
+            def destination = new File(screenshotDirectory, "screenshot.png")
+        when:
+            new QueuedScreenshotSaver(environmentVariables).save(new QueuedScreenshot(sampleScreenshot.bytes, destination, Optional.of(BlurLevel.LIGHT)))
+        then:
+            screenshotDirectory.list() as List == ["screenshot.png"]
+    }
+
+    def "should delete the temporary file if a screenshot could not be saved"() {
+        given:
+            def destination = new File(screenshotDirectory, "screenshot.png")
+            destination.mkdir()
+            new File(destination, "in-the-way").text = "not a screenshot"
+        when:
+            new QueuedScreenshotSaver(environmentVariables).save(new QueuedScreenshot(sampleScreenshot.bytes, destination, Optional.absent()))
+        then:
+            screenshotDirectory.list() as List == ["screenshot.png"]
+    }
+}
@@ -0,0 +1,150 @@
+package net.thucydides.core.screenshots
+
+import com.github.goldin.spock.extensions.tempdir.TempDir
+import com.google.common.base.Optional
+import net.thucydides.core.util.MockEnvironmentVariables
+import spock.lang.Specification
+
+import javax.imageio.ImageIO
+
+class WhenStoringScreenshots extends Specification {
+
+    @TempDir File targetDirectory
+
+    def screenshotData(String name) {
+        Thread.currentThread().getContextClassLoader().getResource("screenshots/$name").bytes
+    }
+
+    def slightlyModified(byte[] screenshotData) {
+        def image = ImageIO.read(new ByteArrayInputStream(screenshotData))
+        image.setRGB(0, 0, image.getRGB(0, 0) ^ 0x000001)
+        def modifiedData = new ByteArrayOutputStream()
+        ImageIO.write(image, "png", modifiedData)
+        return modifiedData.toByteArray()
+    }
+
+    def "should not deduplicate screenshots by default"() {
+        when:
+            def store = ScreenshotStore.configuredIn(new MockEnvironmentVariables())
+        then:
+            !store.isEnabled()
+    }
+
+    def "should read the deduplication mode from the environment"() {
+        given:
+            def environmentVariables = new MockEnvironmentVariables()
+            environmentVariables.setProperty("thucydides.screenshot.deduplication", "perceptual")
+        when:
+            def store = ScreenshotStore.configuredIn(environmentVariables)
+        then:
+            store.isEnabled()
+    }
+
+    def "should not deduplicate screenshots if the deduplication mode is unknown"() {
+        given:
+            def environmentVariables = new MockEnvironmentVariables()
+            environmentVariables.setProperty("thucydides.screenshot.deduplication", "fuzzy")
+        when:
+            def store = ScreenshotStore.configuredIn(environmentVariables)
+        then:
+            !store.isEnabled()
+    }
+
+    def "should give identical screenshots the same file name"() {
+        given:
+            def store = new ScreenshotStore(ScreenshotDeduplication.EXACT)
+        when:
+            def firstScreenshot = store.screenshotFileFor(screenshotData("google_page_1.png"), Optional.absent(), targetDirectory)
+            def secondScreenshot = store.screenshotFileFor(screenshotData("google_page_1.png"), Optional.absent(), targetDirectory)
+            def otherScreenshot = store.screenshotFileFor(screenshotData("amazon.png"), Optional.absent(), targetDirectory)
+        then:
+            firstScreenshot == secondScreenshot
+            firstScreenshot != otherScreenshot
+            firstScreenshot.name.startsWith("screenshot-")
+    }
+
+    def "should distinguish blurred screenshots from the originals"() {
+        given:
+            def store = new ScreenshotStore(ScreenshotDeduplication.EXACT)
+            def data = screenshotData("google_page_1.png")
+        expect:
+            store.screenshotFileFor(data, Optional.absent(), targetDirectory) != store.screenshotFileFor(data, Optional.of(BlurLevel.HEAVY), targetDirectory)
+    }
+
+    def "should only store each screenshot once"() {
+        given:
+            def store = new ScreenshotStore(ScreenshotDeduplication.EXACT)
+            def screenshotFile = store.screenshotFileFor(screenshotData("google_page_2.png"), Optional.absent(), targetDirectory)
+        expect:
+            store.isNew(screenshotFile)
+            !store.isNew(screenshotFile)
+    }
+
+    def "should store a screenshot again if it could not be saved"() {
+        given:
+            def store = new ScreenshotStore(ScreenshotDeduplication.EXACT)
+            def screenshotFile = store.screenshotFileFor(screenshotData("google_page_3.png"), Optional.absent(), targetDirectory)
+        when:
+            store.isNew(screenshotFile)
+            store.finishedSaving(screenshotFile)
+        then:
+            store.isNew(screenshotFile)
+    }
+
+    def "should not store a screenshot that has already been saved"() {
+        given:
+            def store = new ScreenshotStore(ScreenshotDeduplication.EXACT)
+            def screenshotFile = store.screenshotFileFor(screenshotData("amazon.png"), Optional.absent(), targetDirectory)
+        when:
+            store.isNew(screenshotFile)
+            screenshotFile.bytes = screenshotData("amazon.png")
+            store.finishedSaving(screenshotFile)
+        then:
+            !store.isNew(screenshotFile)
+    }
+
+    def "should give slightly different screenshots different names in exact mode"() {
+        given:
+            def store = new ScreenshotStore(ScreenshotDeduplication.EXACT)
+            def data = screenshotData("google_page_1.png")
+        expect:
+            store.screenshotFileFor(data, Optional.absent(), targetDirectory) != store.screenshotFileFor(slightlyModified(data), Optional.absent(), targetDirectory)
+    }
+
+    def "should give screenshots that look the same the same name in perceptual mode"() {
+        given:
+            def store = new ScreenshotStore(ScreenshotDeduplication.PERCEPTUAL)
+            def data = screenshotData("google_page_1.png")
+        expect:
+            store.screenshotFileFor(data, Optional.absent(), targetDirectory) == store.screenshotFileFor(slightlyModified(data), Optional.absent(), targetDirectory)
+        and:
+            store.screenshotFileFor(data, Optional.absent(), targetDirectory) != store.screenshotFileFor(screenshotData("amazon.png"), Optional.absent(), targetDirectory)
+    }
+
+    def "should store screenshots with a small visible difference separately in perceptual mode"() {
+        given:
+            def store = new ScreenshotStore(ScreenshotDeduplication.PERCEPTUAL)
+            def data = screenshotData("google_page_1.png")
+        expect:
+            store.screenshotFileFor(data, Optional.absent(), targetDirectory) != store.screenshotFileFor(withABlackBox(data), Optional.absent(), targetDirectory)
+    }
+
+    def withABlackBox(byte[] screenshotData) {
+        def image = ImageIO.read(new ByteArrayInputStream(screenshotData))
+        def graphics = image.createGraphics()
+        graphics.color = java.awt.Color.BLACK
+        graphics.fillRect(image.width.intdiv(4), image.height.intdiv(4), image.width.intdiv(8), image.height.intdiv(8))
+        graphics.dispose()
+        def modifiedData = new ByteArrayOutputStream()
+        ImageIO.write(image, "png", modifiedData)
+        return modifiedData.toByteArray()
+    }
+
+    def "screenshots with the same name should be identical"() {
+        given:
+            def screenshot = new ScreenshotAndHtmlSource(new File(targetDirectory, "screenshot-1234.png"))
+            def sameScreenshot = new ScreenshotAndHtmlSource(new File(targetDirectory, "screenshot-1234.png"))
+        expect:
+            screenshot.hasIdenticalScreenshotsAs(sameScreenshot)
+    }
+}
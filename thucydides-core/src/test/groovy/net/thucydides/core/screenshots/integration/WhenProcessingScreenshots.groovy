@@ -1,5 +1,8 @@
 package net.thucydides.core.screenshots.integration
 
+import com.google.common.base.Optional
+import net.thucydides.core.guice.ThucydidesModule
+import net.thucydides.core.images.SimpleImageInfo
 import net.thucydides.core.reports.TestOutcomeLoader
 import spock.lang.Specification
 import net.thucydides.core.util.EnvironmentVariables
@@ -7,6 +10,8 @@ import net.thucydides.core.util.MockEnvironmentVariables
 import com.google.common.io.Files
 
 import net.thucydides.core.screenshots.QueuedScreenshot
+import net.thucydides.core.screenshots.BlurLevel
+import net.thucydides.core.screenshots.MultithreadScreenshotProcessor
 import net.thucydides.core.screenshots.SingleThreadScreenshotProcessor
 import spock.lang.Timeout
 
@@ -32,8 +37,7 @@ class WhenProcessingScreenshots extends Specification {
     private File copySourceScreenshot(File sourceDirectory) {
         def screenshotsSourceDirectory = new File(Thread.currentThread().getContextClassLoader().getResource("screenshots").getPath());
         def sampleScreenshot = new File(screenshotsSourceDirectory, "amazon.png")
-        def timestamp = System.currentTimeMillis()
-        def screenshot = new File(sourceDirectory, "amazon-${timestamp}.png")
+        def screenshot = File.createTempFile("amazon-", ".png", sourceDirectory)
         Files.copy(sampleScreenshot, screenshot)
         Thread.sleep(100)
         return screenshot;
@@ -78,4 +82,98 @@ class WhenProcessingScreenshots extends Specification {
             assert targetDirectory.list().size() == 100
     }
 
+    def "should process queued screenshots using a pool of threads"() {
+        given:
+            def screenshotProcessor = new MultithreadScreenshotProcessor(environmentVariables, 4, 8)
+        when:
+            (1..10).each {
+                def screenshotFile = copySourceScreenshot(sourceDirectory)
+                def targetFile = new File(targetDirectory,"screenshot-${it}.png")
+                screenshotProcessor.queueScreenshot(new QueuedScreenshot(screenshotFile,targetFile))
+            }
+            screenshotProcessor.waitUntilDone()
+        then:
+            screenshotProcessor.isEmpty()
+            targetDirectory.list().size() == 10
+            screenshotProcessor.processedScreenshotCount == 10
+    }
+
+    @Timeout(30)
+    def "should process screenshots in the calling thread when the queue is full"() {
+        given:
+            def screenshotProcessor = new MultithreadScreenshotProcessor(environmentVariables, 1, 1)
+        when:
+            def threads = (1..4).collect { threadNumber ->
+                Thread.start {
+                    (1..10).each {
+                        def screenshotFile = copySourceScreenshot(sourceDirectory)
+                        def targetFile = new File(targetDirectory,"screenshot-${threadNumber}-${it}.png")
+                        screenshotProcessor.queueScreenshot(new QueuedScreenshot(screenshotFile,targetFile))
+                    }
+                }
+            }
+            threads.each { it.join() }
+            screenshotProcessor.waitUntilDone()
+        then:
+            screenshotProcessor.isEmpty()
+            targetDirectory.list().size() == 40
+            screenshotProcessor.maximumQueueDepth <= 1
+    }
+
+    def "should use a pool of screenshot threads when several threads are configured"() {
+        given:
+            environmentVariables.setProperty("thucydides.screenshot.threads", "4")
+        when:
+            def screenshotProcessor = new ThucydidesModule().provideScreenshotProcessor(environmentVariables)
+        then:
+            screenshotProcessor instanceof MultithreadScreenshotProcessor
+    }
+
+    def "should use a single screenshot thread by default"() {
+        when:
+            def screenshotProcessor = new ThucydidesModule().provideScreenshotProcessor(environmentVariables)
+        then:
+            screenshotProcessor instanceof SingleThreadScreenshotProcessor
+    }
+
+    def "should save screenshots held in memory"() {
+        given:
+            def screenshotProcessor = new SingleThreadScreenshotProcessor(environmentVariables)
+            def screenshotData = copySourceScreenshot(sourceDirectory).bytes
+            def targetFile = new File(targetDirectory,"screenshot.png")
+        when:
+            screenshotProcessor.queueScreenshot(new QueuedScreenshot(screenshotData, targetFile, Optional.absent()))
+            screenshotProcessor.waitUntilDone()
+        then:
+            targetFile.bytes == screenshotData
+    }
+
+    def "should resize screenshots held in memory"() {
+        given:
+            environmentVariables.setProperty("thucydides.resized.image.width", "400")
+            def screenshotProcessor = new SingleThreadScreenshotProcessor(environmentVariables)
+            def screenshotData = copySourceScreenshot(sourceDirectory).bytes
+            def targetFile = new File(targetDirectory,"screenshot.png")
+        when:
+            screenshotProcessor.queueScreenshot(new QueuedScreenshot(screenshotData, targetFile, Optional.absent()))
+            screenshotProcessor.waitUntilDone()
+        then:
+            new SimpleImageInfo(targetFile).width == 400
+        and: "no temporary files are left behind"
+            targetDirectory.list() as List == ["screenshot.png"]
+    }
+
+    def "should blur screenshots held in memory"() {
+        given:
+            def screenshotProcessor = new SingleThreadScreenshotProcessor(environmentVariables)
+            def screenshotData = copySourceScreenshot(sourceDirectory).bytes
+            def targetFile = new File(targetDirectory,"screenshot.png")
+        when:
+            screenshotProcessor.queueScreenshot(new QueuedScreenshot(screenshotData, targetFile, Optional.of(BlurLevel.HEAVY)))
+            screenshotProcessor.waitUntilDone()
+        then:
+            targetFile.bytes != screenshotData
+        and:
+            new SimpleImageInfo(targetFile).width == new SimpleImageInfo(screenshotData).width
+    }
 }
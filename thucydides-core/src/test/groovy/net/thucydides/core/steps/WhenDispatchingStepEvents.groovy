@@ -0,0 +1,155 @@
+package net.thucydides.core.steps
+
+import net.thucydides.core.screenshots.ScreenshotProcessor
+import net.thucydides.core.util.MockEnvironmentVariables
+import spock.lang.Specification
+
+import java.util.concurrent.Callable
+import java.util.concurrent.ConcurrentLinkedQueue
+import java.util.concurrent.Executors
+
+class WhenDispatchingStepEvents extends Specification {
+
+    def screenshotProcessor = Mock(ScreenshotProcessor)
+    def environmentVariables = new MockEnvironmentVariables()
+
+    def receivedEvents = new ConcurrentLinkedQueue<String>()
+    def notifiedThreads = new ConcurrentLinkedQueue<Thread>()
+
+    def consoleListener = new ConsoleLoggingListener(environmentVariables) {
+        @Override
+        void testStarted(String description) {
+            notifiedThreads << Thread.currentThread()
+            receivedEvents << description
+        }
+    }
+
+    def "should find the same event bus each time in a given thread"() {
+        expect:
+            StepEventBus.eventBus.is(StepEventBus.eventBus)
+    }
+
+    def "should use a different event bus in each thread"() {
+        given:
+            def executor = Executors.newSingleThreadExecutor()
+        when:
+            def otherBus = executor.submit({ StepEventBus.eventBus } as Callable).get()
+        then:
+            !otherBus.is(StepEventBus.eventBus)
+        cleanup:
+            executor.shutdownNow()
+    }
+
+    def "should notify listeners registered after the first event"() {
+        given:
+            def eventBus = new StepEventBus(screenshotProcessor, environmentVariables)
+            def firstListener = Mock(StepListener)
+            def secondListener = Mock(StepListener)
+            eventBus.registerListener(firstListener)
+            eventBus.stepFinished()
+        when:
+            eventBus.registerListener(secondListener)
+            eventBus.stepFinished()
+        then:
+            1 * firstListener.stepFinished()
+            1 * secondListener.stepFinished()
+    }
+
+    def "should no longer notify listeners once they have been dropped"() {
+        given:
+            def eventBus = new StepEventBus(screenshotProcessor, environmentVariables)
+            def listener = Mock(StepListener)
+            eventBus.registerListener(listener)
+            eventBus.stepFinished()
+        when:
+            eventBus.dropListener(listener)
+            eventBus.stepFinished()
+        then:
+            0 * listener.stepFinished()
+    }
+
+    def "should notify the console logging listener in the current thread by default"() {
+        given:
+            def eventBus = new StepEventBus(screenshotProcessor, environmentVariables)
+            eventBus.registerListener(consoleListener)
+        when:
+            eventBus.testStarted("a test")
+        then:
+            receivedEvents as List == ["a test"]
+            notifiedThreads as List == [Thread.currentThread()]
+    }
+
+    def "should notify the console logging listener in the background when asynchronous listeners are enabled"() {
+        given:
+            environmentVariables.setProperty("thucydides.asynchronous.listeners", "true")
+            def eventBus = new StepEventBus(screenshotProcessor, environmentVariables)
+            eventBus.registerListener(consoleListener)
+        when:
+            (1..50).each { eventBus.testStarted("test $it") }
+            eventBus.waitForAsynchronousListeners()
+        then: "the events arrive in order, from a background thread"
+            receivedEvents as List == (1..50).collect { "test $it".toString() }
+            !notifiedThreads.contains(Thread.currentThread())
+    }
+
+    def "should always notify other listeners in the current thread"() {
+        given:
+            environmentVariables.setProperty("thucydides.asynchronous.listeners", "true")
+            def eventBus = new StepEventBus(screenshotProcessor, environmentVariables)
+            def listener = Mock(StepListener)
+            eventBus.registerListener(listener)
+        when:
+            eventBus.testStarted("a test")
+        then:
+            1 * listener.testStarted("a test")
+    }
+
+    def "should notify listeners that do not opt in to background notification in the current thread"() {
+        given:
+            environmentVariables.setProperty("thucydides.asynchronous.listeners", "true")
+            def eventBus = new StepEventBus(screenshotProcessor, environmentVariables)
+            def listener = [testStarted: { String description -> notifiedThreads << Thread.currentThread() }] as StepListener
+            eventBus.registerListener(listener)
+        when:
+            eventBus.testStarted("a test")
+        then:
+            notifiedThreads as List == [Thread.currentThread()]
+    }
+
+    def "should share a single background thread between event buses"() {
+        given:
+            environmentVariables.setProperty("thucydides.asynchronous.listeners", "true")
+            def eventBus = new StepEventBus(screenshotProcessor, environmentVariables)
+            def otherEventBus = new StepEventBus(screenshotProcessor, environmentVariables)
+            eventBus.registerListener(consoleListener)
+            otherEventBus.registerListener(consoleListener)
+        when:
+            eventBus.testStarted("a test")
+            otherEventBus.testStarted("another test")
+            eventBus.waitForAsynchronousListeners()
+        then:
+            notifiedThreads.size() == 2
+            (notifiedThreads as Set).size() == 1
+    }
+
+    def "should deliver pending background events before dropping the listeners"() {
+        given:
+            environmentVariables.setProperty("thucydides.asynchronous.listeners", "true")
+            def eventBus = new StepEventBus(screenshotProcessor, environmentVariables)
+            eventBus.registerListener(consoleListener)
+        when:
+            (1..20).each { eventBus.testStarted("test $it") }
+            eventBus.dropAllListeners()
+        then:
+            receivedEvents.size() == 20
+    }
+
+    def "should report the listeners themselves rather than their background wrappers"() {
+        given:
+            environmentVariables.setProperty("thucydides.asynchronous.listeners", "true")
+            def eventBus = new StepEventBus(screenshotProcessor, environmentVariables)
+            eventBus.registerListener(consoleListener)
+        expect:
+            eventBus.getAllListeners().contains(consoleListener)
+    }
+}
@@ -0,0 +1,205 @@
+package net.thucydides.core.webdriver
+
+import net.thucydides.core.model.TestResult
+import net.thucydides.core.util.MockEnvironmentVariables
+import org.openqa.selenium.Capabilities
+import org.openqa.selenium.WebDriver
+import org.openqa.selenium.htmlunit.HtmlUnitDriver
+import spock.lang.Specification
+
+import java.util.concurrent.ConcurrentLinkedQueue
+
+class WhenPoolingBrowserSessions extends Specification {
+
+    def environmentVariables = new MockEnvironmentVariables()
+
+    def firstDriver = Mock(HtmlUnitDriver)
+    def secondDriver = Mock(HtmlUnitDriver)
+    def thirdDriver = Mock(HtmlUnitDriver)
+    def options = Mock(WebDriver.Options)
+
+    def availableDrivers = new ConcurrentLinkedQueue<WebDriver>()
+
+    def webdriverInstanceFactory = new WebdriverInstanceFactory() {
+        @Override
+        WebDriver newHtmlUnitDriver(Capabilities caps) { return availableDrivers.poll() }
+    }
+
+    WebDriverFactory webDriverFactory
+
+    def setup() {
+        [firstDriver, secondDriver, thirdDriver].each { driver ->
+            driver.getWindowHandles() >> (["main"] as Set)
+            driver.manage() >> options
+            availableDrivers.add(driver)
+        }
+        webDriverFactory = new WebDriverFactory(webdriverInstanceFactory, environmentVariables)
+    }
+
+    def waitForIdleSessions(WebdriverSessionPool pool, int expectedCount) {
+        def deadline = System.currentTimeMillis() + 10000
+        while ((pool.getIdleSessionCount(HtmlUnitDriver) < expectedCount) && (System.currentTimeMillis() < deadline)) {
+            Thread.sleep(10)
+        }
+        return pool.getIdleSessionCount(HtmlUnitDriver)
+    }
+
+    def "should not pool browser sessions by default"() {
+        expect:
+            !webDriverFactory.usesSessionPool()
+    }
+
+    def "should pool browser sessions when a pool size is configured"() {
+        when:
+            environmentVariables.setProperty("thucydides.browser.pool.size", "2")
+        then:
+            webDriverFactory.usesSessionPool()
+    }
+
+    def "should start idle sessions in the background once a session has been leased"() {
+        given:
+            def pool = new WebdriverSessionPool(2, 10)
+        when:
+            def driver = pool.lease(HtmlUnitDriver, webDriverFactory)
+        then:
+            driver == firstDriver
+            pool.isLeased(firstDriver)
+            waitForIdleSessions(pool, 1) == 1
+        cleanup:
+            pool.shutdown()
+    }
+
+    def "should return released sessions to the pool after cleaning them up"() {
+        given:
+            def pool = new WebdriverSessionPool(2, 10)
+            def driver = pool.lease(HtmlUnitDriver, webDriverFactory)
+            waitForIdleSessions(pool, 1)
+        when:
+            pool.release(driver, true)
+        then:
+            1 * options.deleteAllCookies()
+            1 * firstDriver.get("about:blank")
+            0 * firstDriver.quit()
+        and:
+            !pool.isLeased(firstDriver)
+            pool.getIdleSessionCount(HtmlUnitDriver) == 2
+        cleanup:
+            pool.shutdown()
+    }
+
+    def "should clear the cookies of every site visited during the test"() {
+        given:
+            def pool = new WebdriverSessionPool(2, 10)
+            def driver = pool.lease(HtmlUnitDriver, webDriverFactory)
+            waitForIdleSessions(pool, 1)
+            pool.recordVisit(driver, "http://www.example.com/login?user=bill")
+            pool.recordVisit(driver, "http://www.example.com/home")
+            firstDriver.getCurrentUrl() >> "https://accounts.example.org:8443/profile"
+        when:
+            pool.release(driver, true)
+        then:
+            1 * firstDriver.get("http://www.example.com/")
+        then:
+            1 * options.deleteAllCookies()
+        then:
+            1 * firstDriver.get("https://accounts.example.org:8443/")
+        then:
+            1 * options.deleteAllCookies()
+        then:
+            1 * firstDriver.get("about:blank")
+        and:
+            pool.getIdleSessionCount(HtmlUnitDriver) == 2
+        cleanup:
+            pool.shutdown()
+    }
+
+    def "should only clear the sites visited since the session was last leased"() {
+        given:
+            def pool = new WebdriverSessionPool(1, 10)
+            def driver = pool.lease(HtmlUnitDriver, webDriverFactory)
+            pool.recordVisit(driver, "http://www.example.com/home")
+            pool.release(driver, true)
+            def sameDriver = pool.lease(HtmlUnitDriver, webDriverFactory)
+        when:
+            pool.release(sameDriver, true)
+        then:
+            sameDriver == firstDriver
+            0 * firstDriver.get("http://www.example.com/")
+            1 * options.deleteAllCookies()
+        cleanup:
+            pool.shutdown()
+    }
+
+    def "should quit sessions used in a failing test rather than reuse them"() {
+        given:
+            def pool = new WebdriverSessionPool(2, 10)
+            def driver = pool.lease(HtmlUnitDriver, webDriverFactory)
+            waitForIdleSessions(pool, 1)
+        when:
+            pool.release(driver, false)
+        then:
+            1 * firstDriver.quit()
+            pool.getIdleSessionCount(HtmlUnitDriver) == 1
+        cleanup:
+            pool.shutdown()
+    }
+
+    def "should replace sessions that have been used too many times"() {
+        given:
+            def pool = new WebdriverSessionPool(2, 1)
+            def driver = pool.lease(HtmlUnitDriver, webDriverFactory)
+            waitForIdleSessions(pool, 1)
+        when:
+            pool.release(driver, true)
+        then:
+            1 * firstDriver.quit()
+        cleanup:
+            pool.shutdown()
+    }
+
+    def "should quit drivers that were not leased from the pool"() {
+        given:
+            def pool = new WebdriverSessionPool(2, 10)
+            def driver = Mock(WebDriver)
+        when:
+            pool.release(driver, true)
+        then:
+            1 * driver.quit()
+        cleanup:
+            pool.shutdown()
+    }
+
+    def pooledFacadeUsing(WebdriverSessionPool pool) {
+        def factory = Mock(WebDriverFactory)
+        factory.usesSessionPool() >> true
+        factory.getSessionPool() >> pool
+        pool.lease(HtmlUnitDriver, factory) >> firstDriver
+        pool.isLeased(firstDriver) >> true
+        def facade = new WebDriverFacade(HtmlUnitDriver, factory)
+        facade.getProxiedDriver()
+        return facade
+    }
+
+    def "should not reuse a session once a test using it has failed"() {
+        given:
+            def pool = Mock(WebdriverSessionPool)
+            def facade = pooledFacadeUsing(pool)
+        when:
+            facade.recordTestResult(TestResult.FAILURE)
+            facade.recordTestResult(TestResult.SUCCESS)
+            facade.reset()
+        then:
+            1 * pool.release(firstDriver, false)
+    }
+
+    def "should reuse a session if the tests using it passed"() {
+        given:
+            def pool = Mock(WebdriverSessionPool)
+            def facade = pooledFacadeUsing(pool)
+        when:
+            facade.recordTestResult(TestResult.SUCCESS)
+            facade.reset()
+        then:
+            1 * pool.release(firstDriver, true)
+    }
+}
@@ -0,0 +1,96 @@
+package net.thucydides.core.webdriver
+
+import net.thucydides.core.util.MockEnvironmentVariables
+import org.openqa.selenium.Capabilities
+import org.openqa.selenium.WebDriver
+import org.openqa.selenium.htmlunit.HtmlUnitDriver
+import spock.lang.Specification
+
+import java.util.concurrent.Callable
+import java.util.concurrent.CountDownLatch
+import java.util.concurrent.Executors
+import java.util.concurrent.TimeUnit
+
+class WhenStartingDriversInParallel extends Specification {
+
+    def environmentVariables = new MockEnvironmentVariables()
+
+    def "should record how long each type of driver takes to start"() {
+        given:
+            def startupTimes = new DriverStartupTimes()
+        when:
+            startupTimes.recordStartup("FirefoxDriver", 100)
+            startupTimes.recordStartup("FirefoxDriver", 300)
+            startupTimes.recordStartup("ChromeDriver", 50)
+        then:
+            startupTimes.driverTypes == ["FirefoxDriver", "ChromeDriver"] as Set
+            startupTimes.getStartupCount("FirefoxDriver") == 2
+            startupTimes.getAverageStartupTime("FirefoxDriver") == 200
+            startupTimes.getMaximumStartupTime("FirefoxDriver") == 300
+            startupTimes.getStartupCount("ChromeDriver") == 1
+            startupTimes.getStartupCount("SafariDriver") == 0
+            startupTimes.getAverageStartupTime("SafariDriver") == 0
+    }
+
+    def "should record the startup time of the drivers it creates"() {
+        given:
+            def htmlunit = Mock(HtmlUnitDriver)
+            def webdriverInstanceFactory = new WebdriverInstanceFactory() {
+                @Override
+                WebDriver newHtmlUnitDriver(Capabilities caps) { return htmlunit }
+            }
+            def webDriverFactory = new WebDriverFactory(webdriverInstanceFactory, environmentVariables)
+            def previousStartupCount = WebDriverFactory.startupTimes.getStartupCount("HtmlUnitDriver")
+        when:
+            webDriverFactory.newInstanceOf(SupportedWebDriver.HTMLUNIT)
+        then:
+            WebDriverFactory.startupTimes.getStartupCount("HtmlUnitDriver") == previousStartupCount + 1
+    }
+
+    def "should be able to start several drivers at the same time"() {
+        given: "a driver that only starts once another driver is starting at the same time"
+            def bothDriversStarting = new CountDownLatch(2)
+            def htmlunit = Mock(HtmlUnitDriver)
+            def webdriverInstanceFactory = new WebdriverInstanceFactory() {
+                @Override
+                WebDriver newHtmlUnitDriver(Capabilities caps) {
+                    bothDriversStarting.countDown()
+                    bothDriversStarting.await(10, TimeUnit.SECONDS)
+                    return htmlunit
+                }
+            }
+            def webDriverFactory = new WebDriverFactory(webdriverInstanceFactory, environmentVariables)
+            def executor = Executors.newFixedThreadPool(2)
+        when:
+            def drivers = (1..2).collect {
+                executor.submit({ webDriverFactory.newInstanceOf(SupportedWebDriver.HTMLUNIT) } as Callable)
+            }
+            drivers.each { it.get(20, TimeUnit.SECONDS) }
+        then:
+            bothDriversStarting.count == 0
+        cleanup:
+            executor.shutdownNow()
+    }
+
+    def "should apply the same extra capabilities to every driver"() {
+        given:
+            environmentVariables.setProperty("thucydides.driver.capabilities", "build:build-1234; max-duration:300")
+            def capabilitiesUsed = []
+            def htmlunit = Mock(HtmlUnitDriver)
+            def webdriverInstanceFactory = new WebdriverInstanceFactory() {
+                @Override
+                WebDriver newHtmlUnitDriver(Capabilities caps) {
+                    capabilitiesUsed << caps
+                    return htmlunit
+                }
+            }
+            def webDriverFactory = new WebDriverFactory(webdriverInstanceFactory, environmentVariables)
+        when:
+            webDriverFactory.newInstanceOf(SupportedWebDriver.HTMLUNIT)
+            webDriverFactory.newInstanceOf(SupportedWebDriver.HTMLUNIT)
+        then:
+            capabilitiesUsed.size() == 2
+            capabilitiesUsed.every { it.getCapability("build") == "build-1234" && it.getCapability("max-duration") == 300 }
+            !capabilitiesUsed[0].is(capabilitiesUsed[1])
+    }
+}
@@ -0,0 +1,198 @@
+package net.thucydides.core.batches;
+
+import com.google.common.collect.ImmutableMap;
+import net.thucydides.core.model.Story;
+import net.thucydides.core.model.TestOutcome;
+import net.thucydides.core.reports.TestOutcomes;
+import net.thucydides.core.reports.xml.XMLTestOutcomeReporter;
+import net.thucydides.core.util.MockEnvironmentVariables;
+import org.apache.commons.io.FileUtils;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Locale;
+import java.util.Map;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.hasItems;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.not;
+
+public class WhenBalancingBatchesByDuration {
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    private final Map<String, Long> durations = ImmutableMap.<String, Long>builder()
+            .put("LongTest", 900L)
+            .put("MediumTest", 500L)
+            .put("AnotherMediumTest", 400L)
+            .put("ShortTest", 300L)
+            .put("AnotherShortTest", 200L)
+            .put("QuickTest", 100L)
+            .build();
+
+    @Test
+    public void should_assign_the_longest_test_cases_first_to_the_least_busy_batch() {
+        BatchAllocation allocation = BatchAllocation.balancing(durations, 3);
+
+        assertThat(allocation.getBatchFor("LongTest"), is(1));
+        assertThat(allocation.getBatchFor("MediumTest"), is(2));
+        assertThat(allocation.getBatchFor("AnotherMediumTest"), is(3));
+        assertThat(allocation.getBatchFor("ShortTest"), is(3));
+        assertThat(allocation.getBatchFor("AnotherShortTest"), is(2));
+        assertThat(allocation.getBatchFor("QuickTest"), is(2));
+    }
+
+    @Test
+    public void should_work_out_the_expected_duration_of_each_batch() {
+        BatchAllocation allocation = BatchAllocation.balancing(durations, 3);
+
+        assertThat(allocation.getExpectedDurationOf(1), is(900L));
+        assertThat(allocation.getExpectedDurationOf(2), is(800L));
+        assertThat(allocation.getExpectedDurationOf(3), is(700L));
+    }
+
+    @Test
+    public void should_assign_test_cases_with_no_recorded_duration_by_name() {
+        BatchAllocation allocation = BatchAllocation.balancing(durations, 3);
+        BatchAllocation sameAllocation = BatchAllocation.balancing(durations, 3);
+
+        int batch = allocation.getBatchFor("NewTest");
+
+        assertThat(batch >= 1 && batch <= 3, is(true));
+        assertThat(sameAllocation.getBatchFor("NewTest"), is(batch));
+    }
+
+    @Test
+    public void should_be_able_to_record_and_read_back_an_allocation() throws IOException {
+        BatchAllocation allocation = BatchAllocation.balancing(durations, 4);
+        File allocationFile = temporaryFolder.newFile(BatchAllocation.ALLOCATION_FILE);
+
+        allocation.writeTo(allocationFile);
+        BatchAllocation reloadedAllocation = BatchAllocation.readFrom(allocationFile);
+
+        assertThat(reloadedAllocation.getBatchCount(), is(4));
+        assertThat(reloadedAllocation.getTestCases(), is(allocation.getTestCases()));
+        for (String testCase : durations.keySet()) {
+            assertThat(reloadedAllocation.getBatchFor(testCase), is(allocation.getBatchFor(testCase)));
+        }
+        assertThat(reloadedAllocation.getBatchFor("NewTest"), is(allocation.getBatchFor("NewTest")));
+        assertThat(reloadedAllocation.getExpectedDurationOf(1), is(allocation.getExpectedDurationOf(1)));
+    }
+
+    @Test
+    public void should_compare_expected_and_actual_batch_durations() throws IOException {
+        BatchAllocation allocation = BatchAllocation.balancing(durations, 3);
+        TestOutcome longTest = outcomeFor("LongTest", 1200L);
+        TestOutcome mediumTest = outcomeFor("MediumTest", 300L);
+        TestOutcome quickTest = outcomeFor("QuickTest", 100L);
+
+        BatchDurationReport report = BatchDurationReport.comparing(allocation, Arrays.asList(longTest, mediumTest, quickTest));
+
+        assertThat(report.getExpectedDurationOf(1), is(900L));
+        assertThat(report.getActualDurationOf(1), is(1200L));
+        assertThat(report.getActualDurationOf(2), is(400L));
+        assertThat(report.getTestCountOf(2), is(2));
+        assertThat(report.getActualDurationOf(3), is(0L));
+
+        File reportFile = report.writeTo(temporaryFolder.getRoot());
+        assertThat(reportFile.exists(), is(true));
+    }
+
+    @Test
+    public void batch_durations_should_be_written_the_same_way_whatever_the_default_locale() throws IOException {
+        BatchAllocation allocation = BatchAllocation.balancing(durations, 3);
+        TestOutcome longTest = outcomeFor("LongTest", 1200L);
+        Locale defaultLocale = Locale.getDefault();
+        Locale.setDefault(Locale.GERMANY);
+        try {
+            File reportFile = BatchDurationReport.comparing(allocation, Arrays.asList(longTest))
+                                                 .writeTo(temporaryFolder.getRoot());
+
+            assertThat(FileUtils.readFileToString(reportFile).contains("\"1.2\""), is(true));
+        } finally {
+            Locale.setDefault(defaultLocale);
+        }
+    }
+
+    @Test
+    public void each_test_case_should_run_in_exactly_one_batch() throws IOException {
+        File noHistory = temporaryFolder.newFolder("history");
+        File outputDirectory = temporaryFolder.newFolder("output");
+        String[] testCases = {"FirstTest", "SecondTest", "ThirdTest", "FourthTest", "FifthTest"};
+
+        for (String testCase : testCases) {
+            int executions = 0;
+            for (int batch = 1; batch <= 3; batch++) {
+                MockEnvironmentVariables environmentVariables = new MockEnvironmentVariables();
+                environmentVariables.setProperty("thucydides.batch.count", "3");
+                environmentVariables.setProperty("thucydides.batch.number", Integer.toString(batch));
+                environmentVariables.setProperty("thucydides.batch.history", noHistory.getAbsolutePath());
+                environmentVariables.setProperty("thucydides.outputDirectory", outputDirectory.getAbsolutePath());
+                DurationBasedBatchManager batchManager = new DurationBasedBatchManager(environmentVariables);
+                batchManager.registerTestCase(testCase);
+                if (batchManager.shouldExecuteThisTest(1)) {
+                    executions++;
+                }
+            }
+            assertThat(executions, is(1));
+        }
+        assertThat(new File(outputDirectory, BatchAllocation.ALLOCATION_FILE).exists(), is(true));
+    }
+
+    static class SlowTests {}
+
+    static class QuickTests {}
+
+    @Test
+    public void should_match_outcomes_read_back_from_xml_reports_to_their_test_classes() throws IOException {
+        File historyDirectory = temporaryFolder.newFolder("xml-history");
+        File outputDirectory = temporaryFolder.newFolder("xml-output");
+        recordOutcomeIn(historyDirectory, SlowTests.class, 1000L);
+        recordOutcomeIn(historyDirectory, QuickTests.class, 100L);
+
+        BatchAllocation allocation = batchManagerFor(historyDirectory, outputDirectory).getAllocation();
+
+        assertThat(allocation.getTestCases(), hasItems(SlowTests.class.getName(), QuickTests.class.getName()));
+        assertThat(allocation.getBatchFor(SlowTests.class.getName()), is(not(allocation.getBatchFor(QuickTests.class.getName()))));
+        assertThat(allocation.getExpectedDurationOf(allocation.getBatchFor(SlowTests.class.getName())), is(1000L));
+    }
+
+    @Test
+    public void should_never_read_the_history_from_the_output_directory_of_the_current_run() throws IOException {
+        File outputDirectory = temporaryFolder.newFolder("current-output");
+        recordOutcomeIn(outputDirectory, SlowTests.class, 1000L);
+
+        BatchAllocation allocation = batchManagerFor(outputDirectory, outputDirectory).getAllocation();
+
+        assertThat(allocation.getTestCases().isEmpty(), is(true));
+    }
+
+    private DurationBasedBatchManager batchManagerFor(File historyDirectory, File outputDirectory) {
+        MockEnvironmentVariables environmentVariables = new MockEnvironmentVariables();
+        environmentVariables.setProperty("thucydides.batch.count", "2");
+        environmentVariables.setProperty("thucydides.batch.number", "1");
+        environmentVariables.setProperty("thucydides.batch.history", historyDirectory.getAbsolutePath());
+        environmentVariables.setProperty("thucydides.outputDirectory", outputDirectory.getAbsolutePath());
+        return new DurationBasedBatchManager(environmentVariables);
+    }
+
+    private void recordOutcomeIn(File directory, Class<?> testCase, long duration) throws IOException {
+        TestOutcome outcome = TestOutcome.forTest("a_test", testCase);
+        outcome.setDuration(duration);
+        XMLTestOutcomeReporter reporter = new XMLTestOutcomeReporter();
+        reporter.setOutputDirectory(directory);
+        reporter.generateReportFor(outcome, TestOutcomes.of(Arrays.asList(outcome)));
+    }
+
+    private TestOutcome outcomeFor(String testCase, long duration) {
+        TestOutcome outcome = TestOutcome.forTestInStory("a test", Story.withId(testCase, testCase));
+        outcome.setDuration(duration);
+        return outcome;
+    }
+}
@@ -0,0 +1,94 @@
+package net.thucydides.core.model;
+
+import net.thucydides.core.reports.TestOutcomeLoader;
+import net.thucydides.core.reports.TestOutcomes;
+import net.thucydides.core.reports.xml.XMLTestOutcomeReporter;
+import net.thucydides.core.util.MockEnvironmentVariables;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.List;
+
+import static net.thucydides.core.model.TestStepFactory.forAPendingTestStepCalled;
+import static net.thucydides.core.model.TestStepFactory.forASuccessfulNestedTestStepCalled;
+import static net.thucydides.core.model.TestStepFactory.forASuccessfulTestStepCalled;
+import static net.thucydides.core.model.TestStepFactory.forAnIgnoredTestStepCalled;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.instanceOf;
+import static org.hamcrest.Matchers.is;
+
+public class WhenSummarisingTestOutcomes {
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    @Test
+    public void a_summary_should_not_keep_the_test_steps() {
+        TestOutcome summary = aTestOutcomeWithSeveralSteps().summarised();
+
+        assertThat(summary.getTestSteps().isEmpty(), is(true));
+    }
+
+    @Test
+    public void a_summary_should_report_the_same_results_and_step_counts_as_the_full_test_outcome() {
+        TestOutcome testOutcome = aTestOutcomeWithSeveralSteps();
+        TestOutcome summary = testOutcome.summarised();
+
+        assertThat(summary.getTitle(), is(testOutcome.getTitle()));
+        assertThat(summary.getResult(), is(testOutcome.getResult()));
+        assertThat(summary.getDuration(), is(testOutcome.getDuration()));
+        assertThat(summary.getStepCount(), is(testOutcome.getStepCount()));
+        assertThat(summary.getNestedStepCount(), is(testOutcome.getNestedStepCount()));
+        assertThat(summary.getSuccessCount(), is(testOutcome.getSuccessCount()));
+        assertThat(summary.getPendingCount(), is(testOutcome.getPendingCount()));
+        assertThat(summary.getIgnoredCount(), is(testOutcome.getIgnoredCount()));
+        assertThat(summary.getImplementedTestCount(), is(testOutcome.getImplementedTestCount()));
+        assertThat(summary.hasScreenshots(), is(testOutcome.hasScreenshots()));
+        assertThat(summary.getTags(), is(testOutcome.getTags()));
+        assertThat(summary.getReportName(), is(testOutcome.getReportName()));
+    }
+
+    @Test
+    public void the_aggregate_counts_should_be_the_same_for_summaries_and_full_test_outcomes() {
+        TestOutcome testOutcome = aTestOutcomeWithSeveralSteps();
+
+        TestOutcomes fullOutcomes = TestOutcomes.of(Arrays.asList(testOutcome));
+        TestOutcomes summaries = TestOutcomes.of(Arrays.asList(testOutcome.summarised()));
+
+        assertThat(summaries.getStepCount(), is(fullOutcomes.getStepCount()));
+        assertThat(summaries.getTotal(), is(fullOutcomes.getTotal()));
+        assertThat(summaries.getResult(), is(fullOutcomes.getResult()));
+        assertThat(summaries.getDuration(), is(fullOutcomes.getDuration()));
+    }
+
+    @Test
+    public void a_summarising_loader_should_only_keep_summaries_of_the_test_outcomes() throws IOException {
+        File outputDirectory = temporaryFolder.newFolder("output");
+        TestOutcome testOutcome = aTestOutcomeWithSeveralSteps();
+        XMLTestOutcomeReporter reporter = new XMLTestOutcomeReporter();
+        reporter.setOutputDirectory(outputDirectory);
+        reporter.generateReportFor(testOutcome, TestOutcomes.of(Arrays.asList(testOutcome)));
+
+        TestOutcomeLoader loader = new TestOutcomeLoader(new MockEnvironmentVariables(), new XMLTestOutcomeReporter());
+        List<TestOutcome> summaries = loader.summarisingOutcomes().loadFrom(outputDirectory);
+
+        assertThat(summaries.size(), is(1));
+        assertThat(summaries.get(0), instanceOf(SummarisedTestOutcome.class));
+        assertThat(summaries.get(0).getNestedStepCount(), is(testOutcome.getNestedStepCount()));
+        assertThat(summaries.get(0).getResult(), is(testOutcome.getResult()));
+    }
+
+    private TestOutcome aTestOutcomeWithSeveralSteps() {
+        TestOutcome testOutcome = TestOutcome.forTestInStory("a_test", Story.withId("a.Story", "A story"));
+        testOutcome.recordStep(forASuccessfulTestStepCalled("Step 1"));
+        testOutcome.recordStep(forASuccessfulNestedTestStepCalled("Step 2"));
+        testOutcome.recordStep(forAnIgnoredTestStepCalled("Step 3"));
+        testOutcome.recordStep(forAPendingTestStepCalled("Step 4"));
+        testOutcome.setDuration(400);
+        return testOutcome;
+    }
+}
@@ -0,0 +1,142 @@
+package net.thucydides.core.pages;
+
+import net.thucydides.core.util.MockEnvironmentVariables;
+import net.thucydides.core.webdriver.javascript.JavascriptExecutorFacade;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.openqa.selenium.Dimension;
+import org.openqa.selenium.Point;
+import org.openqa.selenium.StaleElementReferenceException;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.WebDriverException;
+import org.openqa.selenium.WebElement;
+import org.openqa.selenium.support.pagefactory.ElementLocator;
+
+import java.util.Arrays;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.mockito.Matchers.anyString;
+import static org.mockito.Matchers.anyVararg;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class WhenBatchingElementStateQueries {
+
+    @Mock
+    WebDriver driver;
+
+    @Mock
+    WebElement webElement;
+
+    @Mock
+    JavascriptExecutorFacade javascriptExecutorFacade;
+
+    MockEnvironmentVariables environmentVariables;
+
+    @Before
+    public void initMocks() {
+        MockitoAnnotations.initMocks(this);
+        environmentVariables = new MockEnvironmentVariables();
+    }
+
+    private WebElementFacade facadeFor(final WebElement element) {
+        return new WebElementFacadeImpl(driver, (ElementLocator) null, element, 100, environmentVariables) {
+            @Override
+            protected JavascriptExecutorFacade getJavascriptExecutorFacade() {
+                return javascriptExecutorFacade;
+            }
+        };
+    }
+
+    private void enableBatchedStateQueries() {
+        environmentVariables.setProperty("thucydides.batched.element.state", "true");
+    }
+
+    private void givenTheScriptReturnsAVisibleElement() {
+        when(javascriptExecutorFacade.executeScript(anyString(), anyVararg()))
+                .thenReturn(Arrays.<Object>asList(true, true, "input", "text", "value", 10L, 20L, 30L, 40L));
+    }
+
+    @Test
+    public void should_read_the_element_state_in_a_single_script_call_when_batching_is_enabled() {
+        enableBatchedStateQueries();
+        givenTheScriptReturnsAVisibleElement();
+
+        WebElementFacade elementFacade = facadeFor(webElement);
+
+        assertThat(elementFacade.isVisible(), is(true));
+        assertThat(elementFacade.getLocation(), is(new Point(10, 20)));
+        assertThat(elementFacade.getSize(), is(new Dimension(30, 40)));
+
+        verify(webElement, never()).isDisplayed();
+        verify(webElement, never()).getLocation();
+        verify(webElement, never()).getSize();
+    }
+
+    @Test
+    public void should_use_the_usual_webdriver_calls_when_batching_is_disabled() {
+        when(webElement.isDisplayed()).thenReturn(true);
+        when(webElement.getLocation()).thenReturn(new Point(1, 2));
+        when(webElement.getSize()).thenReturn(new Dimension(3, 4));
+
+        WebElementFacade elementFacade = facadeFor(webElement);
+
+        assertThat(elementFacade.isVisible(), is(true));
+        assertThat(elementFacade.getLocation(), is(new Point(1, 2)));
+        assertThat(elementFacade.getSize(), is(new Dimension(3, 4)));
+
+        verify(javascriptExecutorFacade, never()).executeScript(anyString(), anyVararg());
+    }
+
+    @Test
+    public void should_fall_back_on_the_usual_webdriver_calls_if_the_script_fails() {
+        enableBatchedStateQueries();
+        when(javascriptExecutorFacade.executeScript(anyString(), anyVararg()))
+                .thenThrow(new WebDriverException("Script failed"));
+        when(webElement.isDisplayed()).thenReturn(true);
+        when(webElement.getLocation()).thenReturn(new Point(1, 2));
+        when(webElement.getSize()).thenReturn(new Dimension(3, 4));
+
+        WebElementFacade elementFacade = facadeFor(webElement);
+
+        assertThat(elementFacade.isVisible(), is(true));
+        assertThat(elementFacade.getLocation(), is(new Point(1, 2)));
+        assertThat(elementFacade.getSize(), is(new Dimension(3, 4)));
+    }
+
+    @Test
+    public void should_fall_back_on_the_usual_webdriver_calls_if_the_script_returns_nothing() {
+        enableBatchedStateQueries();
+        when(webElement.getLocation()).thenReturn(new Point(1, 2));
+
+        WebElementFacade elementFacade = facadeFor(webElement);
+
+        assertThat(elementFacade.getLocation(), is(new Point(1, 2)));
+    }
+
+    @Test
+    public void a_stale_element_should_not_be_considered_visible_when_batching_is_enabled() {
+        enableBatchedStateQueries();
+        when(javascriptExecutorFacade.executeScript(anyString(), anyVararg()))
+                .thenThrow(new StaleElementReferenceException("Stale element"));
+        when(webElement.isDisplayed()).thenThrow(new StaleElementReferenceException("Stale element"));
+
+        WebElementFacade elementFacade = facadeFor(webElement);
+
+        assertThat(elementFacade.isVisible(), is(false));
+    }
+
+    @Test(expected = StaleElementReferenceException.class)
+    public void the_location_of_a_stale_element_should_be_reported_by_webdriver_when_batching_is_enabled() {
+        enableBatchedStateQueries();
+        when(javascriptExecutorFacade.executeScript(anyString(), anyVararg()))
+                .thenThrow(new StaleElementReferenceException("Stale element"));
+        when(webElement.getLocation()).thenThrow(new StaleElementReferenceException("Stale element"));
+
+        facadeFor(webElement).getLocation();
+    }
+}
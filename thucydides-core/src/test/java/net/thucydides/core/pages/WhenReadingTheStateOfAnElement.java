@@ -0,0 +1,62 @@
+package net.thucydides.core.pages;
+
+import net.thucydides.core.webdriver.WebDriverFacade;
+import net.thucydides.core.webdriver.WebDriverFactory;
+import net.thucydides.core.webdriver.javascript.JavascriptExecutorFacade;
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.openqa.selenium.By;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.htmlunit.HtmlUnitDriver;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+
+public class WhenReadingTheStateOfAnElement {
+
+    static WebDriver driver;
+    static JavascriptExecutorFacade javascriptExecutorFacade;
+
+    @BeforeClass
+    public static void openStaticPage() {
+        driver = new WebDriverFacade(HtmlUnitDriver.class, new WebDriverFactory());
+        driver.get(WhenReadingTheStateOfAnElement.class.getResource("/static-site/index.html").toString());
+        javascriptExecutorFacade = new JavascriptExecutorFacade(driver);
+    }
+
+    @AfterClass
+    public static void closeDriver() {
+        driver.quit();
+    }
+
+    private ElementState stateOf(By selector) {
+        return ElementState.of(driver.findElement(selector), javascriptExecutorFacade).get();
+    }
+
+    @Test
+    public void should_read_the_state_of_a_visible_field_in_a_single_call() {
+        ElementState state = stateOf(By.name("firstname"));
+
+        assertThat(state.isDisplayed(), is(true));
+        assertThat(state.isEnabled(), is(true));
+        assertThat(state.getTagName(), is("input"));
+        assertThat(state.getValue(), is("<enter first name>"));
+    }
+
+    @Test
+    public void should_read_the_text_of_an_element() {
+        assertThat(stateOf(By.id("placetitle")).getText(), is("Location"));
+    }
+
+    @Test
+    public void hidden_fields_should_not_be_displayed() {
+        assertThat(stateOf(By.name("hiddenfield")).isDisplayed(), is(false));
+        assertThat(stateOf(By.name("csshiddenfield")).isDisplayed(), is(false));
+    }
+
+    @Test
+    public void disabled_fields_should_not_be_enabled() {
+        assertThat(stateOf(By.id("readonlyField")).isEnabled(), is(false));
+    }
+}
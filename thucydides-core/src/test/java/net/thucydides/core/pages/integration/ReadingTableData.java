@@ -264,4 +264,52 @@ public class ReadingTableData extends FluentElementAPITestsBaseClass {
         assertThat(tableRows.get(2).get(5), is("Row 3, Cell 2"));
     }
 
+    @Test
+    public void should_read_table_data_in_fast_mode() {
+        HtmlTable table = new HtmlTable(page.clients).inFastMode();
+
+        List<Map<Object, String>> tableRows = table.getRows();
+
+        assertThat(table.getHeadings().toString(), is("[First Name, Last Name, Favorite Colour]"));
+        assertThat(tableRows.size(), is(3));
+        assertThat(tableRows.get(0), allOf(hasEntry("First Name", "Tim"), hasEntry(2, "Brooke-Taylor"), hasEntry("Favorite Colour", "Red")));
+        assertThat(tableRows.get(1), allOf(hasEntry("First Name", "Graeme"), hasEntry(2, "Garden"), hasEntry("Favorite Colour", "Green")));
+        assertThat(tableRows.get(2), allOf(hasEntry("First Name", "Bill"), hasEntry(2, "Oddie"), hasEntry("Favorite Colour", "Blue")));
+    }
+
+    @Test
+    public void should_use_first_row_as_headers_in_fast_mode_if_no_th_cells_are_defined() {
+        HtmlTable table = new HtmlTable(page.table_with_td_headers).inFastMode();
+
+        List<Map<Object, String>> tableRows = table.getRows();
+
+        assertThat(tableRows.size(), is(3));
+        assertThat(tableRows.get(0), allOf(hasEntry("First Name", "Tim"),hasEntry("Last Name", "Brooke-Taylor"), hasEntry("Favorite Colour","Red")));
+        assertThat(tableRows.get(2), allOf(hasEntry("First Name", "Bill"),hasEntry("Last Name", "Oddie"), hasEntry("Favorite Colour","Blue")));
+    }
+
+    @Test
+    public void should_ignore_rows_with_missing_cells_in_fast_mode() {
+        List<Map<Object, String>> tableRows = new HtmlTable(page.clients_with_missing_cells).inFastMode().getRows();
+
+        assertThat(tableRows.size(), is(2));
+        assertThat(tableRows.get(1), allOf(hasEntry("First Name", "Bill"),hasEntry("Last Name", "Oddie"), hasEntry("Favorite Colour","Blue")));
+    }
+
+    @Test
+    public void should_find_row_elements_matching_a_given_criteria_in_fast_mode() {
+        List<WebElement> matchingRows = inTable(page.clients).inFastMode()
+                                                             .getRowElementsWhere(the("First Name", is("Tim")), the("Last Name", containsString("Taylor")));
+        assertThat(matchingRows.size(), is(1));
+        assertThat(matchingRows.get(0).getText(), containsString("Brooke-Taylor"));
+    }
+
+    @Test
+    public void should_detect_the_absence_of_row_elements_in_fast_mode() {
+        boolean containsRowElements = HtmlTable.withColumns("First Name","Last Name", "Favorite Colour")
+                                               .inTableInFastMode(page.clients_with_no_headings)
+                                               .containsRowElementsWhere(the("First Name", is("Tim")), the("Last Name", containsString("Garden")));
+        assertThat(containsRowElements, is(false));
+    }
+
 }
@@ -56,6 +56,19 @@ public class WhenUsingTheFluentAPIWithJavascriptAndJQuery {
         assertThat(jqueryInjected, is(true));
     }
 
+    @Test
+    public void should_inject_the_scripts_again_if_the_page_replaces_them() {
+        StaticSitePage page = getFirefoxPage();
+
+        page.addJQuerySupport();
+        page.evaluateJavascript("window.jQuery = undefined; JSON.decycle = undefined;");
+        page.addJQuerySupport();
+
+        Boolean scriptsInjected = (Boolean) page.evaluateJavascript(
+                "return (typeof jQuery === 'function') && (typeof JSON.decycle === 'function')");
+        assertThat(scriptsInjected, is(true));
+    }
+
     @Test
     public void should_be_able_to_use_the_javascript_executor_with_parameters() {
         StaticSitePage page = getFirefoxPage();
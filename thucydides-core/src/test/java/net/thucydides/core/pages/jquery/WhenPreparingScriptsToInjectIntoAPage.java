@@ -0,0 +1,81 @@
+package net.thucydides.core.pages.jquery;
+
+import com.google.common.base.Optional;
+import org.junit.Test;
+
+import java.util.Arrays;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.not;
+import static org.hamcrest.Matchers.sameInstance;
+
+public class WhenPreparingScriptsToInjectIntoAPage {
+
+    private static final Object NOTHING_AVAILABLE = Arrays.asList(false, false, false);
+    private static final Object ONLY_JQUERY_AVAILABLE = Arrays.asList(false, true, false);
+    private static final Object EVERYTHING_AVAILABLE = Arrays.asList(true, true, true);
+
+    @Test
+    public void should_combine_jquery_and_the_javascript_utilities_into_a_single_script() {
+        String script = InjectedScripts.missingScriptsFor(NOTHING_AVAILABLE, true, false).get();
+
+        assertThat(script, containsString("jquery:\"1.8.3\""));
+        assertThat(script, containsString("JSON.decycle"));
+        assertThat(script, not(containsString("thucydidesHighlighter")));
+    }
+
+    @Test
+    public void should_include_the_highlighting_plugin_if_required() {
+        assertThat(InjectedScripts.missingScriptsFor(NOTHING_AVAILABLE, true, true).get(), containsString("thucydidesHighlighter"));
+    }
+
+    @Test
+    public void should_not_include_jquery_if_jquery_integration_is_deactivated() {
+        String script = InjectedScripts.missingScriptsFor(NOTHING_AVAILABLE, false, false).get();
+
+        assertThat(script, not(containsString("jquery:\"1.8.3\"")));
+        assertThat(script, containsString("JSON.decycle"));
+    }
+
+    @Test
+    public void should_only_send_the_scripts_that_are_missing_from_the_page() {
+        String script = InjectedScripts.missingScriptsFor(ONLY_JQUERY_AVAILABLE, true, false).get();
+
+        assertThat(script, not(containsString("jquery:\"1.8.3\"")));
+        assertThat(script, containsString("JSON.decycle"));
+    }
+
+    @Test
+    public void should_not_add_the_highlighting_plugin_if_jquery_is_not_available() {
+        Optional<String> script = InjectedScripts.missingScriptsFor(Arrays.asList(true, false, false), false, true);
+
+        assertThat(script.isPresent(), is(false));
+    }
+
+    @Test
+    public void should_not_send_anything_if_the_page_already_has_all_the_scripts() {
+        assertThat(InjectedScripts.missingScriptsFor(EVERYTHING_AVAILABLE, true, true).isPresent(), is(false));
+    }
+
+    @Test
+    public void should_send_all_the_scripts_if_the_page_could_not_be_checked() {
+        String script = InjectedScripts.missingScriptsFor(null, true, false).get();
+
+        assertThat(script, containsString("jquery:\"1.8.3\""));
+        assertThat(script, containsString("JSON.decycle"));
+    }
+
+    @Test
+    public void should_only_prepare_each_script_once() {
+        assertThat(InjectedScripts.injectionScriptFor(true, true, false), is(sameInstance(InjectedScripts.injectionScriptFor(true, true, false))));
+    }
+
+    @Test
+    public void should_remove_comments_and_indentation_from_the_scripts() {
+        String script = "/*\n  A comment\n*/\n\n// Another comment\nif (a) {\n    b();\n}\n";
+
+        assertThat(InjectedScripts.minified(script), is("if (a) {\nb();\n}\n"));
+    }
+}
@@ -0,0 +1,244 @@
+package net.thucydides.core.reports.binary;
+
+import net.thucydides.core.model.ReportType;
+import net.thucydides.core.model.Story;
+import net.thucydides.core.model.TestOutcome;
+import net.thucydides.core.model.TestResult;
+import net.thucydides.core.model.TestStep;
+import net.thucydides.core.reports.TestOutcomeLoader;
+import net.thucydides.core.reports.TestOutcomes;
+import net.thucydides.core.reports.xml.XMLTestOutcomeReporter;
+import net.thucydides.core.util.MockEnvironmentVariables;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+
+public class WhenArchivingTestOutcomes {
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    private File outputDirectory;
+    private TestOutcomeArchive archive;
+
+    @Before
+    public void setupArchive() throws IOException {
+        outputDirectory = temporaryFolder.newFolder("output");
+        archive = TestOutcomeArchive.in(outputDirectory);
+    }
+
+    @Test
+    public void should_read_back_archived_test_outcomes_by_report_name() throws IOException {
+        TestOutcome firstOutcome = outcomeCalled("first_test", TestResult.SUCCESS);
+        TestOutcome secondOutcome = outcomeCalled("second_test", TestResult.FAILURE);
+        archive.append(firstOutcome);
+        archive.append(secondOutcome);
+
+        ArchivedTestOutcomes archivedOutcomes = archive.open();
+
+        assertThat(archivedOutcomes.size(), is(2));
+        TestOutcome reloadedOutcome = archivedOutcomes.load(secondOutcome.getReportName()).get();
+        assertThat(reloadedOutcome.getMethodName(), is("second_test"));
+        assertThat(reloadedOutcome.getResult(), is(TestResult.FAILURE));
+    }
+
+    @Test
+    public void should_read_through_the_archived_test_outcomes_in_order() throws IOException {
+        archive.append(outcomeCalled("first_test", TestResult.SUCCESS));
+        archive.append(outcomeCalled("second_test", TestResult.SUCCESS));
+
+        List<String> methodNames = new ArrayList<String>();
+        for (TestOutcome outcome : archive.open()) {
+            methodNames.add(outcome.getMethodName());
+        }
+
+        assertThat(methodNames, is(Arrays.asList("first_test", "second_test")));
+    }
+
+    @Test
+    public void should_keep_the_latest_version_of_a_test_outcome_archived_more_than_once() throws IOException {
+        archive.append(outcomeCalled("first_test", TestResult.FAILURE));
+        archive.append(outcomeCalled("first_test", TestResult.SUCCESS));
+
+        ArchivedTestOutcomes archivedOutcomes = archive.open();
+
+        assertThat(archivedOutcomes.size(), is(1));
+        assertThat(archivedOutcomes.iterator().next().getResult(), is(TestResult.SUCCESS));
+    }
+
+    @Test
+    public void should_ignore_a_record_that_was_not_completely_written() throws IOException {
+        archive.append(outcomeCalled("first_test", TestResult.SUCCESS));
+        RandomAccessFile file = new RandomAccessFile(archive.getArchiveFile(), "rw");
+        try {
+            file.seek(file.length());
+            file.write(new byte[]{0, 0, 1, 0, 42, 42});
+        } finally {
+            file.close();
+        }
+
+        assertThat(archive.open().size(), is(1));
+
+        archive.append(outcomeCalled("second_test", TestResult.SUCCESS));
+        assertThat(archive.open().size(), is(2));
+    }
+
+    @Test
+    public void should_accept_test_outcomes_from_several_threads_at_once() throws Exception {
+        ExecutorService executorService = Executors.newFixedThreadPool(4);
+        List<Callable<Void>> appends = new ArrayList<Callable<Void>>();
+        for (int i = 0; i < 20; i++) {
+            final TestOutcome outcome = outcomeCalled("test_" + i, TestResult.SUCCESS);
+            appends.add(new Callable<Void>() {
+                @Override
+                public Void call() throws Exception {
+                    archive.append(outcome);
+                    return null;
+                }
+            });
+        }
+        try {
+            for (Future<Void> append : executorService.invokeAll(appends)) {
+                append.get();
+            }
+        } finally {
+            executorService.shutdown();
+        }
+
+        assertThat(archive.open().size(), is(20));
+    }
+
+    @Test
+    public void should_start_a_new_archive_when_a_new_test_run_adds_its_test_outcomes() throws IOException {
+        archive.forRun("build-1").append(outcomeCalled("first_test", TestResult.SUCCESS));
+        archive.forRun("build-1").append(outcomeCalled("second_test", TestResult.SUCCESS));
+
+        archive.forRun("build-2").append(outcomeCalled("third_test", TestResult.SUCCESS));
+
+        ArchivedTestOutcomes archivedOutcomes = archive.open();
+        assertThat(archivedOutcomes.size(), is(1));
+        assertThat(archivedOutcomes.iterator().next().getMethodName(), is("third_test"));
+    }
+
+    @Test
+    public void should_keep_the_test_outcomes_of_other_test_jvms_from_the_same_test_run() throws IOException {
+        archive.forRun("build-1").append(outcomeCalled("first_test", TestResult.SUCCESS));
+        TestOutcomeArchive.in(outputDirectory).forRun("build-1").append(outcomeCalled("second_test", TestResult.SUCCESS));
+
+        assertThat(archive.open().size(), is(2));
+    }
+
+    @Test
+    public void should_keep_the_test_outcomes_of_previous_runs_when_no_test_run_is_identified() throws IOException {
+        archive.forRun("build-1").append(outcomeCalled("first_test", TestResult.SUCCESS));
+        archive.forRun(null).append(outcomeCalled("second_test", TestResult.SUCCESS));
+
+        assertThat(archive.open().size(), is(2));
+    }
+
+    @Test
+    public void the_archiving_reporter_should_identify_the_test_run_from_the_build_id() throws IOException {
+        archive.forRun("build-1").append(outcomeCalled("first_test", TestResult.SUCCESS));
+        MockEnvironmentVariables environmentVariables = new MockEnvironmentVariables();
+        environmentVariables.setValue("BUILD_ID", "build-2");
+        ArchivingTestOutcomeReporter reporter = new ArchivingTestOutcomeReporter(environmentVariables);
+        reporter.setOutputDirectory(outputDirectory);
+
+        TestOutcome outcome = outcomeCalled("second_test", TestResult.SUCCESS);
+        reporter.generateReportFor(outcome, TestOutcomes.of(Arrays.asList(outcome)));
+
+        assertThat(archive.open().size(), is(1));
+    }
+
+    @Test
+    public void the_loader_should_read_archived_test_outcomes_instead_of_the_report_files() throws IOException {
+        TestOutcome archivedOutcome = outcomeCalled("first_test", TestResult.SUCCESS);
+        TestOutcome unarchivedOutcome = outcomeCalled("second_test", TestResult.SUCCESS);
+        XMLTestOutcomeReporter xmlReporter = new XMLTestOutcomeReporter();
+        xmlReporter.setOutputDirectory(outputDirectory);
+        TestOutcomes allOutcomes = TestOutcomes.of(Arrays.asList(archivedOutcome, unarchivedOutcome));
+        xmlReporter.generateReportFor(archivedOutcome, allOutcomes);
+        xmlReporter.generateReportFor(unarchivedOutcome, allOutcomes);
+        archive.append(archivedOutcome);
+
+        TestOutcomeLoader loader = new TestOutcomeLoader(new MockEnvironmentVariables(), new XMLTestOutcomeReporter());
+        List<TestOutcome> loadedOutcomes = loader.loadFrom(outputDirectory);
+
+        assertThat(loadedOutcomes.size(), is(2));
+        assertThat(new File(outputDirectory, archivedOutcome.getReportName(ReportType.XML)).exists(), is(true));
+    }
+
+    @Test
+    public void the_loader_should_prefer_a_report_file_written_after_the_archive() throws IOException {
+        archive.append(outcomeCalled("first_test", TestResult.FAILURE));
+        archive.getArchiveFile().setLastModified(System.currentTimeMillis() - 60000);
+        TestOutcome newerOutcome = outcomeCalled("first_test", TestResult.SUCCESS);
+        XMLTestOutcomeReporter xmlReporter = new XMLTestOutcomeReporter();
+        xmlReporter.setOutputDirectory(outputDirectory);
+        xmlReporter.generateReportFor(newerOutcome, TestOutcomes.of(Arrays.asList(newerOutcome)));
+
+        TestOutcomeLoader loader = new TestOutcomeLoader(new MockEnvironmentVariables(), new XMLTestOutcomeReporter());
+        List<TestOutcome> loadedOutcomes = loader.loadFrom(outputDirectory);
+
+        assertThat(loadedOutcomes.size(), is(1));
+        assertThat(loadedOutcomes.get(0).getResult(), is(TestResult.SUCCESS));
+    }
+
+    @Test
+    public void the_loader_should_prefer_the_archive_to_an_older_report_file() throws IOException {
+        TestOutcome olderOutcome = outcomeCalled("first_test", TestResult.FAILURE);
+        XMLTestOutcomeReporter xmlReporter = new XMLTestOutcomeReporter();
+        xmlReporter.setOutputDirectory(outputDirectory);
+        File olderReport = xmlReporter.generateReportFor(olderOutcome, TestOutcomes.of(Arrays.asList(olderOutcome)));
+        olderReport.setLastModified(System.currentTimeMillis() - 60000);
+        archive.append(outcomeCalled("first_test", TestResult.SUCCESS));
+
+        TestOutcomeLoader loader = new TestOutcomeLoader(new MockEnvironmentVariables(), new XMLTestOutcomeReporter());
+        List<TestOutcome> loadedOutcomes = loader.loadFrom(outputDirectory);
+
+        assertThat(loadedOutcomes.size(), is(1));
+        assertThat(loadedOutcomes.get(0).getResult(), is(TestResult.SUCCESS));
+    }
+
+    @Test(expected = IOException.class)
+    public void archived_test_outcomes_cannot_be_read_once_the_archive_is_closed() throws IOException {
+        TestOutcome outcome = outcomeCalled("first_test", TestResult.SUCCESS);
+        archive.append(outcome);
+        ArchivedTestOutcomes archivedOutcomes = archive.open();
+
+        archivedOutcomes.close();
+
+        archivedOutcomes.load(outcome.getReportName());
+    }
+
+    @Test
+    public void the_archive_can_be_reset_once_the_loader_has_read_it() throws IOException {
+        archive.forRun("build-1").append(outcomeCalled("first_test", TestResult.SUCCESS));
+        new TestOutcomeLoader(new MockEnvironmentVariables(), new XMLTestOutcomeReporter()).loadFrom(outputDirectory);
+
+        archive.forRun("build-2").append(outcomeCalled("second_test", TestResult.SUCCESS));
+
+        assertThat(archive.open().size(), is(1));
+    }
+
+    private TestOutcome outcomeCalled(String methodName, TestResult result) {
+        TestOutcome outcome = TestOutcome.forTestInStory(methodName, Story.withId("a.Story", "A story"));
+        outcome.recordStep(TestStep.forStepCalled("a step").withResult(result));
+        return outcome;
+    }
+}
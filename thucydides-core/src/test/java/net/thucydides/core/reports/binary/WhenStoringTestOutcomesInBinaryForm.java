@@ -0,0 +1,178 @@
+package net.thucydides.core.reports.binary;
+
+import com.google.common.collect.ImmutableSet;
+import net.thucydides.core.model.DataTable;
+import net.thucydides.core.model.Story;
+import net.thucydides.core.model.TestOutcome;
+import net.thucydides.core.model.TestResult;
+import net.thucydides.core.model.TestStep;
+import net.thucydides.core.model.TestTag;
+import net.thucydides.core.reports.TestOutcomeLoader;
+import net.thucydides.core.reports.TestOutcomes;
+import net.thucydides.core.reports.xml.XMLTestOutcomeReporter;
+import net.thucydides.core.screenshots.ScreenshotAndHtmlSource;
+import net.thucydides.core.util.MockEnvironmentVariables;
+import org.apache.commons.io.FileUtils;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.hasItem;
+import static org.hamcrest.Matchers.is;
+
+public class WhenStoringTestOutcomesInBinaryForm {
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    private File outputDirectory;
+    private BinaryTestOutcomeReporter reporter;
+
+    @Before
+    public void setupReporter() throws IOException {
+        outputDirectory = temporaryFolder.newFolder("output");
+        reporter = new BinaryTestOutcomeReporter();
+        reporter.setOutputDirectory(outputDirectory);
+    }
+
+    @Test
+    public void should_read_back_the_stored_test_outcome() throws IOException {
+        TestOutcome outcome = sampleOutcome();
+
+        File report = reporter.generateReportFor(outcome, TestOutcomes.of(Arrays.asList(outcome)));
+        TestOutcome reloadedOutcome = reporter.loadReportFrom(report).get();
+
+        assertThat(reloadedOutcome.getMethodName(), is("search_for_cats"));
+        assertThat(reloadedOutcome.getTitle(), is(outcome.getTitle()));
+        assertThat(reloadedOutcome.getDuration(), is(1500L));
+        assertThat(reloadedOutcome.getStartTime().getMillis(), is(outcome.getStartTime().getMillis()));
+        assertThat(reloadedOutcome.getUserStory().getId(), is("a.Story"));
+        assertThat(reloadedOutcome.getUserStory().getPath(), is("search/cats"));
+        assertThat(reloadedOutcome.getTags(), hasItem(TestTag.withName("Search").andType("feature")));
+        assertThat(reloadedOutcome.getIssues(), hasItem("#123"));
+        assertThat(reloadedOutcome.getResult(), is(TestResult.FAILURE));
+    }
+
+    @Test
+    public void should_read_back_nested_steps_and_screenshots() throws IOException {
+        TestOutcome outcome = sampleOutcome();
+
+        File report = reporter.generateReportFor(outcome, TestOutcomes.of(Arrays.asList(outcome)));
+        TestOutcome reloadedOutcome = reporter.loadReportFrom(report).get();
+
+        List<TestStep> steps = reloadedOutcome.getTestSteps();
+        assertThat(steps.size(), is(2));
+        assertThat(steps.get(0).getDescription(), is("open the search page"));
+        assertThat(steps.get(0).getScreenshots().get(0).getScreenshotFile().getName(), is("screenshot1.png"));
+        assertThat(steps.get(0).getScreenshots().get(0).getSourcecode().get().getName(), is("source1.html"));
+        assertThat(steps.get(1).isAGroup(), is(true));
+        assertThat(steps.get(1).getChildren().size(), is(2));
+        assertThat(steps.get(1).getChildren().get(1).getResult(), is(TestResult.FAILURE));
+        assertThat(steps.get(1).getChildren().get(1).getErrorMessage(), is("No cats found"));
+    }
+
+    @Test
+    public void should_read_back_the_example_table() throws IOException {
+        TestOutcome outcome = sampleOutcome();
+        DataTable table = DataTable.withHeaders(Arrays.asList("animal", "count"))
+                                   .andRows(Arrays.asList(Arrays.<Object>asList("cat", 3), Arrays.<Object>asList("dog", 1)))
+                                   .build();
+        table.getRows().get(1).setResult(TestResult.FAILURE);
+        outcome.useExamplesFrom(table);
+
+        File report = reporter.generateReportFor(outcome, TestOutcomes.of(Arrays.asList(outcome)));
+        DataTable reloadedTable = reporter.loadReportFrom(report).get().getDataTable();
+
+        assertThat(reloadedTable.getHeaders(), is(Arrays.asList("animal", "count")));
+        assertThat(reloadedTable.getRows().get(0).getStringValues(), is(Arrays.asList("cat", "3")));
+        assertThat(reloadedTable.getRows().get(1).getResult(), is(TestResult.FAILURE));
+    }
+
+    @Test
+    public void should_ignore_files_that_are_not_binary_test_outcomes() throws IOException {
+        File otherFile = new File(outputDirectory, "something-else.bin");
+        FileUtils.writeStringToFile(otherFile, "not a test outcome");
+
+        assertThat(reporter.loadReportFrom(otherFile).isPresent(), is(false));
+    }
+
+    @Test
+    public void should_load_each_test_outcome_once_when_stored_in_several_formats() throws IOException {
+        TestOutcome outcome = sampleOutcome();
+        XMLTestOutcomeReporter xmlReporter = new XMLTestOutcomeReporter();
+        xmlReporter.setOutputDirectory(outputDirectory);
+        xmlReporter.generateReportFor(outcome, TestOutcomes.of(Arrays.asList(outcome)));
+        reporter.generateReportFor(outcome, TestOutcomes.of(Arrays.asList(outcome)));
+
+        TestOutcomeLoader loader = new TestOutcomeLoader(new MockEnvironmentVariables(),
+                                                         new BinaryTestOutcomeReporter(), new XMLTestOutcomeReporter());
+
+        assertThat(loader.loadFrom(outputDirectory).size(), is(1));
+    }
+
+    @Test
+    public void should_read_the_most_recent_report_when_stored_in_several_formats() throws IOException {
+        TestOutcome outdatedOutcome = sampleOutcome();
+        File outdatedReport = reporter.generateReportFor(outdatedOutcome, TestOutcomes.of(Arrays.asList(outdatedOutcome)));
+        outdatedReport.setLastModified(System.currentTimeMillis() - 60000);
+
+        TestOutcome outcome = sampleOutcome();
+        outcome.setDuration(3000L);
+        XMLTestOutcomeReporter xmlReporter = new XMLTestOutcomeReporter();
+        xmlReporter.setOutputDirectory(outputDirectory);
+        xmlReporter.generateReportFor(outcome, TestOutcomes.of(Arrays.asList(outcome)));
+
+        TestOutcomeLoader loader = new TestOutcomeLoader(new MockEnvironmentVariables(),
+                                                         new BinaryTestOutcomeReporter(), new XMLTestOutcomeReporter());
+
+        List<TestOutcome> outcomes = loader.loadFrom(outputDirectory);
+        assertThat(outcomes.size(), is(1));
+        assertThat(outcomes.get(0).getDuration(), is(3000L));
+    }
+
+    @Test
+    public void should_record_a_default_error_message_and_the_exception_type_of_failing_steps() throws IOException {
+        TestOutcome outcome = TestOutcome.forTest("search_for_dogs", WhenStoringTestOutcomesInBinaryForm.class);
+        outcome.recordStep(TestStep.forStepCalled("a step that failed without an exception").withResult(TestResult.FAILURE));
+        TestStep stepWithAnException = new TestStep("a step that failed with an exception");
+        stepWithAnException.failedWith(new IllegalStateException("No dogs found"));
+        outcome.recordStep(stepWithAnException);
+
+        File report = reporter.generateReportFor(outcome, TestOutcomes.of(Arrays.asList(outcome)));
+        TestOutcome reloadedOutcome = reporter.loadReportFrom(report).get();
+
+        List<TestStep> steps = reloadedOutcome.getTestSteps();
+        assertThat(steps.get(0).getErrorMessage(), is("Unspecified failure"));
+        assertThat(steps.get(1).getErrorMessage(), is("No dogs found"));
+        assertThat(steps.get(1).getException().toString(), is("java.lang.IllegalStateException: No dogs found"));
+        assertThat(reloadedOutcome.getTestCaseName(), is(WhenStoringTestOutcomesInBinaryForm.class.getName()));
+    }
+
+    private TestOutcome sampleOutcome() {
+        TestOutcome outcome = TestOutcome.forTestInStory("search_for_cats",
+                                                         Story.withIdAndPath("a.Story", "A story", "search/cats"));
+        outcome.setDuration(1500L);
+        outcome.setTags(ImmutableSet.of(TestTag.withName("Search").andType("feature")));
+        outcome.isRelatedToIssue("#123");
+
+        TestStep openPage = TestStep.forStepCalled("open the search page").withResult(TestResult.SUCCESS);
+        openPage.addScreenshot(new ScreenshotAndHtmlSource(new File("screenshot1.png"), new File("source1.html")));
+        outcome.recordStep(openPage);
+
+        outcome.recordStep(new TestStep("search for cats"));
+        outcome.startGroup();
+        outcome.recordStep(TestStep.forStepCalled("enter cats").withResult(TestResult.SUCCESS));
+        TestStep failingStep = new TestStep("check the results");
+        failingStep.failedWith(new AssertionError("No cats found"));
+        outcome.recordStep(failingStep);
+        outcome.endGroup();
+        return outcome;
+    }
+}
@@ -166,7 +166,7 @@ public class WhenGeneratingAnXMLReport {
         testOutcome.setStartTime(startTime);
 
         String expectedReport =
-                "<acceptance-test-run title='Should do this' name='should_do_this' steps='1' successful='1' failures='0' skipped='0' ignored='0' pending='0' result='SUCCESS' duration='0' timestamp='2013-01-01T00:00:00.000-05:00'>\n"
+                "<acceptance-test-run test-case='net.thucydides.core.reports.integration.WhenGeneratingAnXMLReport$SomeTestScenario' title='Should do this' name='should_do_this' steps='1' successful='1' failures='0' skipped='0' ignored='0' pending='0' result='SUCCESS' duration='0' timestamp='2013-01-01T00:00:00.000-05:00'>\n"
                         + "  <tags>\n"
                         + "    <tag name='A user story' type='story'/>\n"
                         + "  </tags>"
@@ -192,7 +192,7 @@ public class WhenGeneratingAnXMLReport {
         testOutcome.setStartTime(startTime);
 
         String expectedReport =
-                "<acceptance-test-run title='Should do this' name='should_do_this' steps='1' successful='1' failures='0' skipped='0' ignored='0' pending='0' result='SUCCESS' duration='0' timestamp='2013-01-01T00:00:00.000-05:00' manual='true'>\n"
+                "<acceptance-test-run test-case='net.thucydides.core.reports.integration.WhenGeneratingAnXMLReport$SomeTestScenario' title='Should do this' name='should_do_this' steps='1' successful='1' failures='0' skipped='0' ignored='0' pending='0' result='SUCCESS' duration='0' timestamp='2013-01-01T00:00:00.000-05:00' manual='true'>\n"
                         + "  <tags>\n"
                         + "    <tag name='A user story' type='story'/>\n"
                         + "  </tags>"
@@ -226,7 +226,7 @@ public class WhenGeneratingAnXMLReport {
         testOutcome.useExamplesFrom(table);
         table.row(0).hasResult(TestResult.FAILURE);
         String expectedReport =
-                "<acceptance-test-run title='Should do this' name='should_do_this' steps='1' successful='1' failures='0' skipped='0' ignored='0' pending='0' result='SUCCESS' duration='0' timestamp='2013-01-01T00:00:00.000-05:00'>\n"
+                "<acceptance-test-run test-case='net.thucydides.core.reports.integration.WhenGeneratingAnXMLReport$SomeTestScenario' title='Should do this' name='should_do_this' steps='1' successful='1' failures='0' skipped='0' ignored='0' pending='0' result='SUCCESS' duration='0' timestamp='2013-01-01T00:00:00.000-05:00'>\n"
                         + "  <tags>\n"
                         + "    <tag name='A user story' type='story'/>\n"
                         + "  </tags>"
@@ -271,7 +271,7 @@ public class WhenGeneratingAnXMLReport {
         testOutcome.setStartTime(startTime);
 
         String expectedReport =
-                "<acceptance-test-run title='Should do this [a qualifier]' name='should_do_this' qualifier='a qualifier' steps='1' successful='1' failures='0' skipped='0' ignored='0' pending='0' result='SUCCESS' duration='0' timestamp='2013-01-01T00:00:00.000-05:00'>\n"
+                "<acceptance-test-run test-case='net.thucydides.core.reports.integration.WhenGeneratingAnXMLReport$SomeTestScenario' title='Should do this [a qualifier]' name='should_do_this' qualifier='a qualifier' steps='1' successful='1' failures='0' skipped='0' ignored='0' pending='0' result='SUCCESS' duration='0' timestamp='2013-01-01T00:00:00.000-05:00'>\n"
                         + "  <tags>\n"
                         + "    <tag name='A user story' type='story'/>\n"
                         + "  </tags>"
@@ -297,7 +297,7 @@ public class WhenGeneratingAnXMLReport {
         testOutcome.setStartTime(startTime);
 
         String expectedReport =
-                "<acceptance-test-run title='Should do this [a qualifier with &amp;#10;" +
+                "<acceptance-test-run test-case='net.thucydides.core.reports.integration.WhenGeneratingAnXMLReport$SomeTestScenario' title='Should do this [a qualifier with &amp;#10;" +
                         " a new line]' name='should_do_this' qualifier='a qualifier with &amp;#10;" +
                         " a new line' steps='1' successful='1' failures='0' skipped='0' ignored='0' pending='0' result='SUCCESS' duration='0' timestamp='2013-01-01T00:00:00.000-05:00'>\n"
                         + "  <tags>\n"
@@ -326,7 +326,7 @@ public class WhenGeneratingAnXMLReport {
         testOutcome.setStartTime(startTime);
 
         String expectedReport =
-                "<acceptance-test-run title='Should do this' name='should_do_this' steps='1' successful='1' failures='0' skipped='0' ignored='0' pending='0' result='SUCCESS' duration='0' timestamp='2013-01-01T00:00:00.000-05:00'>\n"
+                "<acceptance-test-run test-case='net.thucydides.core.reports.integration.WhenGeneratingAnXMLReport$SomeTestScenarioWithTags' title='Should do this' name='should_do_this' steps='1' successful='1' failures='0' skipped='0' ignored='0' pending='0' result='SUCCESS' duration='0' timestamp='2013-01-01T00:00:00.000-05:00'>\n"
                         + "  <user-story id='net.thucydides.core.reports.integration.WhenGeneratingAnXMLReport.SomeTestScenarioWithTags' name='Some test scenario with tags' path='net.thucydides.core.reports.integration.WhenGeneratingAnXMLReport'/>\n"
                         + "  <tags>\n"
                         + "    <tag name='Some test scenario with tags' type='story'/>\n"
@@ -354,7 +354,7 @@ public class WhenGeneratingAnXMLReport {
         testOutcome.setStartTime(startTime);
 
         String expectedReport =
-                "<acceptance-test-run title='Should do this' name='should_do_this' steps='1' successful='1' failures='0' skipped='0' ignored='0' pending='0' result='SUCCESS' duration='0'   timestamp='2013-01-01T00:00:00.000-05:00' session-id='1234'>\n"
+                "<acceptance-test-run test-case='net.thucydides.core.reports.integration.WhenGeneratingAnXMLReport$SomeTestScenario' title='Should do this' name='should_do_this' steps='1' successful='1' failures='0' skipped='0' ignored='0' pending='0' result='SUCCESS' duration='0'   timestamp='2013-01-01T00:00:00.000-05:00' session-id='1234'>\n"
                         + "  <user-story id='net.thucydides.core.reports.integration.WhenGeneratingAnXMLReport.AUserStory' name='A user story' path='net.thucydides.core.reports.integration.WhenGeneratingAnXMLReport'/>\n"
                         + "  <tags>\n"
                         + "    <tag name='A user story' type='story'/>\n"
@@ -380,7 +380,7 @@ public class WhenGeneratingAnXMLReport {
         DateTime startTime = new DateTime(2013,1,1,0,0,0,0);
         testOutcome.setStartTime(startTime);
         String expectedReport =
-                "<acceptance-test-run title='Should do this' name='should_do_this' steps='1' successful='1' failures='0' skipped='0' ignored='0' pending='0' result='SUCCESS' duration='0'  timestamp='2013-01-01T00:00:00.000-05:00'>\n"
+                "<acceptance-test-run test-case='net.thucydides.core.reports.integration.WhenGeneratingAnXMLReport$ATestScenarioWithIssues' title='Should do this' name='should_do_this' steps='1' successful='1' failures='0' skipped='0' ignored='0' pending='0' result='SUCCESS' duration='0'  timestamp='2013-01-01T00:00:00.000-05:00'>\n"
                         + "  <user-story id='net.thucydides.core.reports.integration.WhenGeneratingAnXMLReport.AUserStory' name='A user story' path='net.thucydides.core.reports.integration.WhenGeneratingAnXMLReport'/>\n"
                         + "  <issues>\n"
                         + "    <issue>#456</issue>\n"
@@ -411,7 +411,7 @@ public class WhenGeneratingAnXMLReport {
         testOutcome.setStartTime(startTime);
 
         String expectedReport =
-                "<acceptance-test-run title='Should do this' name='should_do_this' steps='1' successful='1' failures='0' skipped='0' ignored='0' pending='0' result='SUCCESS' duration='0' timestamp='2013-01-01T00:00:00.000-05:00'>\n"
+                "<acceptance-test-run test-case='net.thucydides.core.reports.integration.WhenGeneratingAnXMLReport$SomeTestScenarioInAFeature' title='Should do this' name='should_do_this' steps='1' successful='1' failures='0' skipped='0' ignored='0' pending='0' result='SUCCESS' duration='0' timestamp='2013-01-01T00:00:00.000-05:00'>\n"
                         + "  <user-story id='net.thucydides.core.reports.integration.WhenGeneratingAnXMLReport.AFeature.AUserStoryInAFeature' name='A user story in a feature' path='net.thucydides.core.reports.integration.WhenGeneratingAnXMLReport.AFeature'>\n"
                         + "    <feature id='net.thucydides.core.reports.integration.WhenGeneratingAnXMLReport.AFeature' name='A feature'/>\n"
                         + "  </user-story>\n"
@@ -440,7 +440,7 @@ public class WhenGeneratingAnXMLReport {
         testOutcome.setStartTime(startTime);
 
         String expectedReport =
-                "<acceptance-test-run title='Should do this' name='should_do_this' steps='1' successful='1' failures='0' skipped='0' ignored='0' pending='0' result='SUCCESS' duration='0' timestamp='2013-01-01T00:00:00.000-05:00'>\n"
+                "<acceptance-test-run test-case='net.thucydides.core.reports.integration.WhenGeneratingAnXMLReport$SomeTestScenarioInAFeature' title='Should do this' name='should_do_this' steps='1' successful='1' failures='0' skipped='0' ignored='0' pending='0' result='SUCCESS' duration='0' timestamp='2013-01-01T00:00:00.000-05:00'>\n"
                         + "  <user-story id='net.thucydides.core.reports.integration.WhenGeneratingAnXMLReport.AFeature.AUserStoryInAFeature' name='A user story in a feature' path='net.thucydides.core.reports.integration.WhenGeneratingAnXMLReport.AFeature'>\n"
                         + "    <feature id='net.thucydides.core.reports.integration.WhenGeneratingAnXMLReport.AFeature' name='A feature'/>\n"
                         + "  </user-story>\n"
@@ -469,7 +469,7 @@ public class WhenGeneratingAnXMLReport {
         testOutcome.setStartTime(startTime);
 
         String expectedReport =
-                "<acceptance-test-run title='A simple test case [qualifier]' name='a_simple_test_case' qualifier='qualifier' steps='1' successful='1' failures='0' skipped='0' ignored='0' pending='0' result='SUCCESS' duration='0' timestamp='2013-01-01T00:00:00.000-05:00'>\n"
+                "<acceptance-test-run test-case='net.thucydides.core.reports.integration.WhenGeneratingAnXMLReport$SomeTestScenario' title='A simple test case [qualifier]' name='a_simple_test_case' qualifier='qualifier' steps='1' successful='1' failures='0' skipped='0' ignored='0' pending='0' result='SUCCESS' duration='0' timestamp='2013-01-01T00:00:00.000-05:00'>\n"
                         + "  <user-story id='net.thucydides.core.reports.integration.WhenGeneratingAnXMLReport.AUserStory' name='A user story' path='net.thucydides.core.reports.integration.WhenGeneratingAnXMLReport'/>\n"
                         + "  <tags>\n"
                         + "    <tag name='A user story' type='story'/>\n"
@@ -496,7 +496,7 @@ public class WhenGeneratingAnXMLReport {
         testOutcome.setStartTime(startTime);
 
         String expectedReport =
-                "<acceptance-test-run title='A simple test case [a_b]' name='a_simple_test_case' qualifier='a_b' steps='1' successful='1' failures='0' skipped='0' ignored='0' pending='0' result='SUCCESS' duration='0' timestamp='2013-01-01T00:00:00.000-05:00'>\n"
+                "<acceptance-test-run test-case='net.thucydides.core.reports.integration.WhenGeneratingAnXMLReport$SomeTestScenario' title='A simple test case [a_b]' name='a_simple_test_case' qualifier='a_b' steps='1' successful='1' failures='0' skipped='0' ignored='0' pending='0' result='SUCCESS' duration='0' timestamp='2013-01-01T00:00:00.000-05:00'>\n"
                         + "  <user-story id='net.thucydides.core.reports.integration.WhenGeneratingAnXMLReport.AUserStory' name='A user story' path='net.thucydides.core.reports.integration.WhenGeneratingAnXMLReport'/>\n"
                         + "  <tags>\n"
                         + "    <tag name='A user story' type='story'/>\n"
@@ -542,7 +542,7 @@ public class WhenGeneratingAnXMLReport {
         testOutcome.setStartTime(startTime);
 
         String expectedReport =
-                "<acceptance-test-run title='A simple test case' name='a_simple_test_case' steps='9' successful='2' failures='2' errors='1' skipped='1' ignored='2' pending='1' result='FAILURE' duration='0' timestamp='2013-01-01T00:00:00.000-05:00'>\n"
+                "<acceptance-test-run test-case='net.thucydides.core.reports.integration.WhenGeneratingAnXMLReport$SomeTestScenario' title='A simple test case' name='a_simple_test_case' steps='9' successful='2' failures='2' errors='1' skipped='1' ignored='2' pending='1' result='FAILURE' duration='0' timestamp='2013-01-01T00:00:00.000-05:00'>\n"
                         + "  <user-story id='net.thucydides.core.reports.integration.WhenGeneratingAnXMLReport.AUserStory' name='A user story' path='net.thucydides.core.reports.integration.WhenGeneratingAnXMLReport'/>\n"
                         + "  <tags>\n"
                         + "    <tag name='A user story' type='story'/>\n"
@@ -622,7 +622,7 @@ public class WhenGeneratingAnXMLReport {
         testOutcome.setStartTime(startTime);
 
         String expectedReport =
-                "<acceptance-test-run title='A nested test case' name='a_nested_test_case' steps='3' successful='3' failures='0' skipped='0' ignored='0' pending='0' result='SUCCESS' duration='0' timestamp='2013-01-01T00:00:00.000-05:00'>\n"
+                "<acceptance-test-run test-case='net.thucydides.core.reports.integration.WhenGeneratingAnXMLReport$SomeNestedTestScenario' title='A nested test case' name='a_nested_test_case' steps='3' successful='3' failures='0' skipped='0' ignored='0' pending='0' result='SUCCESS' duration='0' timestamp='2013-01-01T00:00:00.000-05:00'>\n"
                         + "  <user-story id='net.thucydides.core.reports.integration.WhenGeneratingAnXMLReport.AUserStory' name='A user story' path='net.thucydides.core.reports.integration.WhenGeneratingAnXMLReport'/>\n"
                         + "  <tags>\n"
                         + "    <tag name='A user story' type='story'/>\n"
@@ -660,7 +660,7 @@ public class WhenGeneratingAnXMLReport {
         testOutcome.setStartTime(startTime);
 
         String expectedReport =
-                "<acceptance-test-run title='A nested test case' name='a_nested_test_case' steps='5' successful='5' failures='0' skipped='0' ignored='0' pending='0' result='SUCCESS' duration='0' timestamp='2013-01-01T00:00:00.000-05:00'>\n"
+                "<acceptance-test-run test-case='net.thucydides.core.reports.integration.WhenGeneratingAnXMLReport$SomeNestedTestScenario' title='A nested test case' name='a_nested_test_case' steps='5' successful='5' failures='0' skipped='0' ignored='0' pending='0' result='SUCCESS' duration='0' timestamp='2013-01-01T00:00:00.000-05:00'>\n"
                         + "  <user-story id='net.thucydides.core.reports.integration.WhenGeneratingAnXMLReport.AUserStory' name='A user story' path='net.thucydides.core.reports.integration.WhenGeneratingAnXMLReport'/>\n"
                         + "  <tags>\n"
                         + "    <tag name='A user story' type='story'/>\n"
@@ -710,7 +710,7 @@ public class WhenGeneratingAnXMLReport {
         testOutcome.setStartTime(startTime);
 
         String expectedReport =
-                "<acceptance-test-run title='A nested test case' name='a_nested_test_case' steps='1' successful='1' failures='0' skipped='0' ignored='0' pending='0' result='SUCCESS' duration='0' timestamp='2013-01-01T00:00:00.000-05:00'>\n"
+                "<acceptance-test-run test-case='net.thucydides.core.reports.integration.WhenGeneratingAnXMLReport$SomeNestedTestScenario' title='A nested test case' name='a_nested_test_case' steps='1' successful='1' failures='0' skipped='0' ignored='0' pending='0' result='SUCCESS' duration='0' timestamp='2013-01-01T00:00:00.000-05:00'>\n"
                         + "  <user-story id='net.thucydides.core.reports.integration.WhenGeneratingAnXMLReport.AUserStory' name='A user story' path='net.thucydides.core.reports.integration.WhenGeneratingAnXMLReport'/>\n"
                         + "  <tags>\n"
                         + "    <tag name='A user story' type='story'/>\n"
@@ -748,7 +748,7 @@ public class WhenGeneratingAnXMLReport {
         testOutcome.setStartTime(startTime);
 
         String expectedReport =
-                "<acceptance-test-run title='A nested test case' name='a_nested_test_case' steps='1' successful='1' failures='0' skipped='0' ignored='0' pending='0' result='SUCCESS' duration='0' timestamp='2013-01-01T00:00:00.000-05:00'>\n"
+                "<acceptance-test-run test-case='net.thucydides.core.reports.integration.WhenGeneratingAnXMLReport$SomeNestedTestScenario' title='A nested test case' name='a_nested_test_case' steps='1' successful='1' failures='0' skipped='0' ignored='0' pending='0' result='SUCCESS' duration='0' timestamp='2013-01-01T00:00:00.000-05:00'>\n"
                         + "  <user-story id='net.thucydides.core.reports.integration.WhenGeneratingAnXMLReport.AUserStory' name='A user story' path='net.thucydides.core.reports.integration.WhenGeneratingAnXMLReport'/>\n"
                         + "  <tags>\n"
                         + "    <tag name='A user story' type='story'/>\n"
@@ -785,7 +785,7 @@ public class WhenGeneratingAnXMLReport {
         testOutcome.setStartTime(startTime);
 
         String expectedReport =
-                "<acceptance-test-run title='A simple test case' name='a_simple_test_case' steps='2' successful='1' failures='1' skipped='0' ignored='0' pending='0' result='FAILURE' duration='0' timestamp='2013-01-01T00:00:00.000-05:00'>\n"
+                "<acceptance-test-run test-case='net.thucydides.core.reports.integration.WhenGeneratingAnXMLReport$SomeTestScenario' title='A simple test case' name='a_simple_test_case' steps='2' successful='1' failures='1' skipped='0' ignored='0' pending='0' result='FAILURE' duration='0' timestamp='2013-01-01T00:00:00.000-05:00'>\n"
                         + "  <user-story id='net.thucydides.core.reports.integration.WhenGeneratingAnXMLReport.AUserStory' name='A user story' path='net.thucydides.core.reports.integration.WhenGeneratingAnXMLReport'/>\n"
                         + "  <tags>\n"
                         + "    <tag name='A user story' type='story'/>\n"
@@ -3,13 +3,16 @@ package net.thucydides.core.reports.templates;
 
 import org.junit.Test;
 
+import java.io.CharArrayWriter;
 import java.io.FileNotFoundException;
 import java.io.StringWriter;
+import java.io.Writer;
 import java.util.HashMap;
 import java.util.Map;
 
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.sameInstance;
 
 public class WhenMergingFreeMarkerTemplates {
 
@@ -63,4 +66,42 @@ public class WhenMergingFreeMarkerTemplates {
 
     }
 
+    @Test
+    public void should_only_compile_each_template_once() throws Exception {
+        FreeMarkerTemplateManager templateManager = new FreeMarkerTemplateManager();
+
+        ReportTemplate template = templateManager.getTemplateFrom("templates/test.ftl");
+        ReportTemplate sameTemplate = templateManager.getTemplateFrom("templates/test.ftl");
+
+        assertThat(sameTemplate, is(sameInstance(template)));
+    }
+
+    @Test
+    public void should_skip_templates_with_errors_when_precompiling_a_directory() throws Exception {
+        FreeMarkerTemplateManager templateManager = new FreeMarkerTemplateManager();
+        templateManager.precompileTemplatesIn("templates");
+
+        ReportTemplate template = templateManager.getTemplateFrom("templates/test.ftl");
+        Map<String, Object> context = new HashMap<String, Object>();
+        context.put("name","Joe");
+        context.put("age",20);
+        StringWriter sw = new StringWriter();
+        template.merge(context, sw);
+
+        assertThat(sw.toString(), is("Hi Joe, aged 20. Next year you will be 21"));
+    }
+
+    @Test
+    public void should_merge_templates_into_any_writer() throws Exception {
+        FreeMarkerTemplateManager templateManager = new FreeMarkerTemplateManager();
+        ReportTemplate template = templateManager.getTemplateFrom("templates/test.ftl");
+
+        Map<String, Object> context = new HashMap<String, Object>();
+        context.put("name","Joe");
+        context.put("age",20);
+        Writer writer = new CharArrayWriter();
+        template.merge(context, writer);
+
+        assertThat(writer.toString(), is("Hi Joe, aged 20. Next year you will be 21"));
+    }
 }
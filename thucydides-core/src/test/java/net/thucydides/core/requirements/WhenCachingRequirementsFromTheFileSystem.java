@@ -0,0 +1,82 @@
+package net.thucydides.core.requirements;
+
+import com.google.common.base.Optional;
+import net.thucydides.core.requirements.model.Requirement;
+import org.apache.commons.io.FileUtils;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+
+public class WhenCachingRequirementsFromTheFileSystem {
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    private File requirementsDirectory;
+    private File outputDirectory;
+
+    private final List<Requirement> requirements = Arrays.asList(
+            Requirement.named("Grow apples").withOptionalCardNumber("#123").withType("capability").withNarrativeText("Apples")
+                       .withChildren(Arrays.asList(Requirement.named("Grow red apples").withType("feature").withNarrativeText("Red"))),
+            Requirement.named("Grow potatoes").withType("capability").withNarrativeText("Potatoes"));
+
+    @Before
+    public void setupDirectories() throws IOException {
+        requirementsDirectory = temporaryFolder.newFolder("requirements");
+        outputDirectory = temporaryFolder.newFolder("output");
+        FileUtils.writeStringToFile(new File(requirementsDirectory, "narrative.txt"), "Grow apples");
+    }
+
+    @Test
+    public void should_reuse_stored_requirements_if_nothing_has_changed() {
+        new FileSystemRequirementsCache(outputDirectory).storeRequirementsFor(requirementsDirectory, "settings", requirements);
+
+        Optional<List<Requirement>> cachedRequirements
+                = new FileSystemRequirementsCache(outputDirectory).getRequirementsFor(requirementsDirectory, "settings");
+
+        assertThat(cachedRequirements.isPresent(), is(true));
+        assertThat(cachedRequirements.get().get(0).getName(), is("Grow apples"));
+        assertThat(cachedRequirements.get().get(0).getCardNumber(), is("#123"));
+        assertThat(cachedRequirements.get().get(0).getChildren().get(0).getName(), is("Grow red apples"));
+    }
+
+    @Test
+    public void should_read_the_requirements_again_if_a_file_has_changed() throws IOException {
+        new FileSystemRequirementsCache(outputDirectory).storeRequirementsFor(requirementsDirectory, "settings", requirements);
+
+        FileUtils.writeStringToFile(new File(requirementsDirectory, "narrative.txt"), "Grow lots of apples");
+
+        assertThat(new FileSystemRequirementsCache(outputDirectory)
+                .getRequirementsFor(requirementsDirectory, "settings").isPresent(), is(false));
+    }
+
+    @Test
+    public void should_read_the_requirements_again_if_the_settings_have_changed() {
+        new FileSystemRequirementsCache(outputDirectory).storeRequirementsFor(requirementsDirectory, "settings", requirements);
+
+        assertThat(new FileSystemRequirementsCache(outputDirectory)
+                .getRequirementsFor(requirementsDirectory, "other settings").isPresent(), is(false));
+    }
+
+    @Test
+    public void should_find_the_requirements_matching_a_path() {
+        RequirementsIndex index = RequirementsIndex.of(requirements);
+
+        List<Requirement> matchingRequirements = index.getRequirementsMatching(Arrays.asList("Grow apples", "Grow red apples", "Unknown"));
+
+        assertThat(matchingRequirements.size(), is(2));
+        assertThat(matchingRequirements.get(1).getName(), is("Grow red apples"));
+        assertThat(index.getRequirementAt(Arrays.asList("Grow apples", "Grow red apples")).get().getName(), is("Grow red apples"));
+        assertThat(index.getRequirementAt(Arrays.asList("Grow apples", "Unknown")).isPresent(), is(false));
+        assertThat(index.getTopLevelRequirement("Grow potatoes", "capability").isPresent(), is(true));
+    }
+}
@@ -10,6 +10,7 @@ import org.apache.commons.io.FileUtils;
 import org.junit.Before;
 import org.junit.Rule;
 import org.junit.Test;
+import org.mockito.ArgumentCaptor;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
 import org.openqa.selenium.OutputType;
@@ -28,7 +29,6 @@ import static org.hamcrest.Matchers.startsWith;
 import static org.mockito.Matchers.any;
 import static org.mockito.Matchers.anyObject;
 import static org.mockito.Mockito.never;
-import static org.mockito.Mockito.spy;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
@@ -40,6 +40,7 @@ public class WhenScreenshotsAreTaken {
 
     private File screenshotDirectory;
     private File screenshotTaken;
+    private byte[] screenshotData;
     private File originalScreenshot;
     private File expectedResizedScreenshot;
 
@@ -66,11 +67,6 @@ public class WhenScreenshotsAreTaken {
         protected boolean driverCanTakeSnapshots() {
             return (driver != null);
         }
-
-        @Override
-        protected File blur(File srcFile) throws IOException {
-            return srcFile;
-        }
     }
 
     EnvironmentVariables environmentVariables = new MockEnvironmentVariables();
@@ -89,13 +85,14 @@ public class WhenScreenshotsAreTaken {
         expectedResizedScreenshot = new File(Thread.currentThread().getContextClassLoader().getResource("screenshots/resized_google_page_1.png").getFile());
         screenshotTaken = temporaryDirectory.newFile("google_page_1.png");
         FileUtils.copyFile(originalScreenshot, screenshotTaken);
+        screenshotData = FileUtils.readFileToByteArray(screenshotTaken);
     }
 
     @Test
     public void the_driver_should_not_take_screenshots_if_the_driver_is_not_available() throws Exception {
 
         Photographer photographer = new MockPhotographer(null, screenshotDirectory);
-        when(driver.getScreenshotAs(OutputType.FILE)).thenReturn(screenshotTaken);
+        when(driver.getScreenshotAs(OutputType.BYTES)).thenReturn(screenshotData);
         photographer.takeScreenshot("screenshot");
         waitUntilScreenshotsProcessed();
 
@@ -105,7 +102,7 @@ public class WhenScreenshotsAreTaken {
     @Test
     public void the_driver_should_capture_the_image() throws Exception {
 
-        when(driver.getScreenshotAs(OutputType.FILE)).thenReturn(screenshotTaken);
+        when(driver.getScreenshotAs(OutputType.BYTES)).thenReturn(screenshotData);
         photographer.takeScreenshot("screenshot");
         waitUntilScreenshotsProcessed();
 
@@ -116,7 +113,7 @@ public class WhenScreenshotsAreTaken {
     public void should_blur_screenshot_if_requested() throws Exception {
 
         Photographer outOfFocusPhotographer = new Photographer(driver, screenshotDirectory, BlurLevel.HEAVY);
-        when(driver.getScreenshotAs(OutputType.FILE)).thenReturn(screenshotTaken);
+        when(driver.getScreenshotAs(OutputType.BYTES)).thenReturn(screenshotData);
         Optional<File> blurredScreenshot = outOfFocusPhotographer.takeScreenshot("screenshot");
         waitUntilScreenshotsProcessed();
 
@@ -127,7 +124,7 @@ public class WhenScreenshotsAreTaken {
     public void should_not_blur_screenshot_by_default() throws Exception {
 
         Photographer outOfFocusPhotographer = new Photographer(driver, screenshotDirectory);
-        when(driver.getScreenshotAs(OutputType.FILE)).thenReturn(screenshotTaken);
+        when(driver.getScreenshotAs(OutputType.BYTES)).thenReturn(screenshotData);
         Optional<File> blurredScreenshot = outOfFocusPhotographer.takeScreenshot("screenshot");
         waitUntilScreenshotsProcessed();
 
@@ -137,7 +134,7 @@ public class WhenScreenshotsAreTaken {
     @Test
     public void should_not_take_a_snapshot_if_unsupported_by_the_driver() throws Exception {
 
-        when(driver.getScreenshotAs(OutputType.FILE)).thenReturn(screenshotTaken);
+        when(driver.getScreenshotAs(OutputType.BYTES)).thenReturn(screenshotData);
         Photographer photographer = new Photographer(htmlDriver, screenshotDirectory);
         photographer.takeScreenshot("screenshot");
         waitUntilScreenshotsProcessed();
@@ -148,7 +145,7 @@ public class WhenScreenshotsAreTaken {
     @Test
     public void the_screenshot_should_be_stored_in_the_target_directory() throws IOException, InterruptedException{
 
-        when(driver.getScreenshotAs(OutputType.FILE)).thenReturn(screenshotTaken);
+        when(driver.getScreenshotAs(OutputType.BYTES)).thenReturn(screenshotData);
 
         String screenshotFile = photographer.takeScreenshot("screenshot").get().getName();
         waitUntilScreenshotsProcessed();
@@ -166,7 +163,7 @@ public class WhenScreenshotsAreTaken {
     @Test
     public void the_photographer_should_return_the_stored_screenshot_filename() throws IOException, InterruptedException {
 
-        when(driver.getScreenshotAs(OutputType.FILE)).thenReturn(screenshotTaken);
+        when(driver.getScreenshotAs(OutputType.BYTES)).thenReturn(screenshotData);
         
         String savedFileName = photographer.takeScreenshot("screenshot").get().getName();
         waitUntilScreenshotsProcessed();
@@ -185,7 +182,7 @@ public class WhenScreenshotsAreTaken {
                                                      null,
                                                      environmentVariables);
 
-        when(driver.getScreenshotAs(OutputType.FILE)).thenReturn(screenshotTaken);
+        when(driver.getScreenshotAs(OutputType.BYTES)).thenReturn(screenshotData);
         when(driver.getPageSource()).thenReturn("<html/>");
 
         File screenshotFile = photographer.takeScreenshot("screenshot").get();
@@ -204,7 +201,7 @@ public class WhenScreenshotsAreTaken {
                 null,
                 environmentVariables);
 
-        when(driver.getScreenshotAs(OutputType.FILE)).thenReturn(screenshotTaken);
+        when(driver.getScreenshotAs(OutputType.BYTES)).thenReturn(screenshotData);
         when(driver.getPageSource()).thenReturn("<html/>");
 
         File screenshotFile = photographer.takeScreenshot("screenshot").get();
@@ -215,6 +212,30 @@ public class WhenScreenshotsAreTaken {
         assertThat(htmlSource.isFile(), is(false));
     }
 
+    @Test
+    public void each_step_should_keep_its_own_HTML_source_code_when_screenshots_are_deduplicated() throws Exception {
+
+        environmentVariables.setProperty("thucydides.store.html.source","true");
+        environmentVariables.setProperty("thucydides.screenshot.deduplication","exact");
+        Photographer photographer = new Photographer(driver, screenshotDirectory,
+                                                     Injectors.getInjector().getInstance(ScreenshotProcessor.class),
+                                                     null,
+                                                     environmentVariables);
+
+        when(driver.getScreenshotAs(OutputType.BYTES)).thenReturn(screenshotData);
+        when(driver.getPageSource()).thenReturn("<html>first step</html>", "<html>second step</html>");
+
+        File firstScreenshot = photographer.takeScreenshot("screenshot").get();
+        File firstHtmlSource = photographer.getMatchingSourceCodeFor(firstScreenshot);
+        File secondScreenshot = photographer.takeScreenshot("screenshot").get();
+        File secondHtmlSource = photographer.getMatchingSourceCodeFor(secondScreenshot);
+        waitUntilScreenshotsProcessed();
+
+        assertThat(secondScreenshot, is(firstScreenshot));
+        assertThat(FileUtils.readFileToString(firstHtmlSource), is("<html>first step</html>"));
+        assertThat(FileUtils.readFileToString(secondHtmlSource), is("<html>second step</html>"));
+    }
+
     @Test
     public void the_photographer_should_return_null_for_the_source_code_of_a_null_screenshot() throws IOException {
         assertThat( photographer.getMatchingSourceCodeFor(null), is(nullValue()));
@@ -223,7 +244,7 @@ public class WhenScreenshotsAreTaken {
     @Test
     public void successive_screenshots_should_have_different_names() throws Exception {
 
-        when(driver.getScreenshotAs(OutputType.FILE)).thenReturn(screenshotTaken);
+        when(driver.getScreenshotAs(OutputType.BYTES)).thenReturn(screenshotData);
         
         String screenshotName1 = photographer.takeScreenshot("screenshot").get().getName();
         String screenshotName2 = photographer.takeScreenshot("screenshot").get().getName();
@@ -234,7 +255,7 @@ public class WhenScreenshotsAreTaken {
 
     @Test
     public void calling_api_generates_a_filename_safe_hashed_name_for_the_screenshot() throws Exception {
-        when(driver.getScreenshotAs(OutputType.FILE)).thenReturn(screenshotTaken);
+        when(driver.getScreenshotAs(OutputType.BYTES)).thenReturn(screenshotData);
 
         String screenshotFile = photographer.takeScreenshot("test1_finished").get().getName();
         waitUntilScreenshotsProcessed();
@@ -244,7 +265,7 @@ public class WhenScreenshotsAreTaken {
     
     @Test
     public void by_default_screenshot_files_start_with_Screenshot() throws Exception {
-        when(driver.getScreenshotAs(OutputType.FILE)).thenReturn(screenshotTaken);
+        when(driver.getScreenshotAs(OutputType.BYTES)).thenReturn(screenshotData);
 
         String screenshotFile = photographer.takeScreenshot("screenshot").get().getName();
         waitUntilScreenshotsProcessed();
@@ -258,7 +279,7 @@ public class WhenScreenshotsAreTaken {
     @Test
     public void should_send_screenshots_to_screenshot_processor() {
 
-        when(driver.getScreenshotAs(OutputType.FILE)).thenReturn(screenshotTaken);
+        when(driver.getScreenshotAs(OutputType.BYTES)).thenReturn(screenshotData);
         photographer.setScreenshotProcessor(screenshotProcessor);
 
         photographer.takeScreenshot("screenshot");
@@ -268,25 +289,47 @@ public class WhenScreenshotsAreTaken {
 
     @Test
     public void should_blur_screenshots_if_blurScreenshots_option_is_present() throws Exception {
-        Photographer photographer = new MockPhotographer(driver, screenshotDirectory, BlurLevel.HEAVY);
-        photographer = spy(photographer);
-        when(driver.getScreenshotAs(OutputType.FILE)).thenReturn(screenshotTaken);
+        Photographer photographer = new Photographer(driver, screenshotDirectory, screenshotProcessor, BlurLevel.HEAVY);
+        when(driver.getScreenshotAs(OutputType.BYTES)).thenReturn(screenshotData);
         photographer.takeScreenshot("screenshot");
-        waitUntilScreenshotsProcessed();
 
-        verify(photographer, times(1)).blur(any(File.class));
+        ArgumentCaptor<QueuedScreenshot> queuedScreenshot = ArgumentCaptor.forClass(QueuedScreenshot.class);
+        verify(screenshotProcessor).queueScreenshot(queuedScreenshot.capture());
+        assertThat(queuedScreenshot.getValue().getBlurLevel().get(), is(BlurLevel.HEAVY));
         verify(driver,times(1)).getScreenshotAs((OutputType<?>) anyObject());
     }
 
     @Test
     public void should_not_blur_screenshots_if_blurScreenshots_option_is_absent() throws Exception {
-        Photographer photographer = new MockPhotographer(driver, screenshotDirectory, null);
-        photographer = spy(photographer);
-        when(driver.getScreenshotAs(OutputType.FILE)).thenReturn(screenshotTaken);
+        Photographer photographer = new Photographer(driver, screenshotDirectory, screenshotProcessor, null);
+        when(driver.getScreenshotAs(OutputType.BYTES)).thenReturn(screenshotData);
         photographer.takeScreenshot("screenshot");
-        waitUntilScreenshotsProcessed();
 
-        verify(photographer, times(0)).blur(any(File.class));
+        ArgumentCaptor<QueuedScreenshot> queuedScreenshot = ArgumentCaptor.forClass(QueuedScreenshot.class);
+        verify(screenshotProcessor).queueScreenshot(queuedScreenshot.capture());
+        assertThat(queuedScreenshot.getValue().getBlurLevel().isPresent(), is(false));
         verify(driver,times(1)).getScreenshotAs((OutputType<?>) anyObject());
     }
+
+    @Test
+    public void should_keep_the_screenshot_in_memory_until_it_is_saved() throws Exception {
+        when(driver.getScreenshotAs(OutputType.BYTES)).thenReturn(screenshotData);
+        photographer.setScreenshotProcessor(screenshotProcessor);
+
+        photographer.takeScreenshot("screenshot");
+
+        ArgumentCaptor<QueuedScreenshot> queuedScreenshot = ArgumentCaptor.forClass(QueuedScreenshot.class);
+        verify(screenshotProcessor).queueScreenshot(queuedScreenshot.capture());
+        assertThat(queuedScreenshot.getValue().isInMemory(), is(true));
+    }
+
+    @Test
+    public void should_accept_screenshot_files_from_drivers_that_do_not_return_bytes() throws Exception {
+        when(driver.getScreenshotAs(any(OutputType.class))).thenReturn(screenshotTaken);
+
+        File savedScreenshot = photographer.takeScreenshot("screenshot").get();
+        waitUntilScreenshotsProcessed();
+
+        assertThat(savedScreenshot.isFile(), is(true));
+    }
 }
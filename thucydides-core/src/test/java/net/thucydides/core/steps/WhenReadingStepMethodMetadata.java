@@ -0,0 +1,103 @@
+package net.thucydides.core.steps;
+
+import net.thucydides.core.annotations.Pending;
+import net.thucydides.core.annotations.Step;
+import net.thucydides.core.annotations.StepGroup;
+import org.junit.Ignore;
+import org.junit.Test;
+
+import java.lang.reflect.Method;
+import java.util.Arrays;
+import java.util.Collections;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.nullValue;
+import static org.hamcrest.Matchers.sameInstance;
+
+public class WhenReadingStepMethodMetadata {
+
+    static class SampleSteps {
+        @Step("a person called {0}, aged {1}")
+        public void a_step_with_two_parameters(String name, int age) {}
+
+        @Step(value = "a fluent step", fluent = true)
+        public SampleSteps a_fluent_step() { return this; }
+
+        @Pending @Step
+        public void a_pending_step() {}
+
+        @Ignore @Step
+        public void an_ignored_step() {}
+
+        @StepGroup("a group")
+        public void a_step_group() {}
+
+        public void not_a_step() {}
+    }
+
+    private Method method(String name) {
+        return StepMethodMetadata.firstMethodCalled(name, SampleSteps.class);
+    }
+
+    @Test
+    public void should_only_read_the_annotations_of_a_method_once() {
+        Method method = method("a_step_with_two_parameters");
+        assertThat(StepMethodMetadata.of(method), is(sameInstance(StepMethodMetadata.of(method))));
+    }
+
+    @Test
+    public void should_classify_step_methods_from_their_annotations() {
+        assertThat(StepMethodMetadata.of(method("a_step_with_two_parameters")).isAStep(), is(true));
+        assertThat(StepMethodMetadata.of(method("a_step_group")).isAStep(), is(true));
+        assertThat(StepMethodMetadata.of(method("a_step_group")).isAGroup(), is(true));
+        assertThat(StepMethodMetadata.of(method("a_pending_step")).isPending(), is(true));
+        assertThat(StepMethodMetadata.of(method("an_ignored_step")).isIgnored(), is(true));
+        assertThat(StepMethodMetadata.of(method("a_fluent_step")).isFluent(), is(true));
+        assertThat(StepMethodMetadata.of(method("not_a_step")).isAStep(), is(false));
+        assertThat(StepMethodMetadata.of(method("toString")).isObjectMethod(), is(true));
+    }
+
+    @Test
+    public void should_return_null_for_unknown_methods() {
+        assertThat(method("no_such_method"), is(nullValue()));
+    }
+
+    @Test
+    public void should_write_the_step_name_with_its_arguments() {
+        StepMethodMetadata metadata = StepMethodMetadata.of(method("a_step_with_two_parameters"));
+
+        assertThat(metadata.stepNameWith(new Object[] {"Joe", 30}, true), is("a_step_with_two_parameters: {Joe, 30}"));
+        assertThat(metadata.stepNameWith(new Object[] {"Joe", null}, false), is("a_step_with_two_parameters: Joe, <null>"));
+        assertThat(metadata.stepNameWith(new Object[] {}, true), is("a_step_with_two_parameters"));
+    }
+
+    @Test
+    public void should_fill_in_the_placeholders_of_a_step_title() {
+        StepTitleTemplate template = StepTitleTemplate.compile("a person called {0}, aged {1}");
+
+        assertThat(template.withArguments(Arrays.asList("Joe", "30")), is("a person called Joe, aged 30"));
+    }
+
+    @Test
+    public void should_leave_placeholders_without_a_matching_argument_unchanged() {
+        StepTitleTemplate template = StepTitleTemplate.compile("a person called {0}, aged {1}");
+
+        assertThat(template.withArguments(Arrays.asList("Joe")), is("a person called Joe, aged {1}"));
+        assertThat(template.withArguments(Collections.<String>emptyList()), is("a person called {0}, aged {1}"));
+    }
+
+    @Test
+    public void should_insert_arguments_literally() {
+        StepTitleTemplate template = StepTitleTemplate.compile("costs {0} in {name}");
+
+        assertThat(template.withArguments(Arrays.asList("$10")), is("costs $10 in {name}"));
+    }
+
+    @Test
+    public void should_allow_the_same_placeholder_to_be_used_several_times() {
+        StepTitleTemplate template = StepTitleTemplate.compile("{0} and {0} again");
+
+        assertThat(template.withArguments(Arrays.asList("this")), is("this and this again"));
+    }
+}
@@ -0,0 +1,113 @@
+package net.thucydides.core.steps;
+
+import net.thucydides.core.annotations.Step;
+import net.thucydides.core.pages.Pages;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.List;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.instanceOf;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.not;
+import static org.hamcrest.Matchers.sameInstance;
+import static org.mockito.Mockito.mock;
+
+public class WhenSharingStepLibraryProxyClasses {
+
+    public static class SharedSteps {
+        @Step
+        public void a_step() {}
+    }
+
+    public static class SharedWebSteps extends ScenarioSteps {
+        public SharedWebSteps(Pages pages) {
+            super(pages);
+        }
+
+        @Step
+        public void a_step() {}
+    }
+
+    public static class DifferentSteps {
+        @Step
+        public void a_step() {}
+    }
+
+    public static class CountingSteps {
+        int calls;
+
+        @Step
+        public void a_step() {
+            calls++;
+        }
+    }
+
+    @Test
+    public void step_factories_should_share_the_proxy_class_for_a_given_step_library() {
+        SharedSteps firstSteps = new StepFactory().getStepLibraryFor(SharedSteps.class);
+        int generatedProxyClasses = StepLibraryProxies.getGeneratedProxyClassCount();
+
+        SharedSteps secondSteps = new StepFactory().getStepLibraryFor(SharedSteps.class);
+
+        assertThat(secondSteps, is(not(sameInstance(firstSteps))));
+        assertThat(secondSteps.getClass(), is(sameInstance((Object) firstSteps.getClass())));
+        assertThat(StepLibraryProxies.getGeneratedProxyClassCount(), is(generatedProxyClasses));
+    }
+
+    @Test
+    public void step_libraries_with_a_pages_constructor_should_share_the_proxy_class() {
+        Pages pages = mock(Pages.class);
+        SharedWebSteps firstSteps = new StepFactory(pages).getStepLibraryFor(SharedWebSteps.class);
+        SharedWebSteps secondSteps = new StepFactory(pages).getStepLibraryFor(SharedWebSteps.class);
+
+        assertThat(secondSteps.getClass(), is(sameInstance((Object) firstSteps.getClass())));
+        assertThat(secondSteps.getPages(), is(pages));
+    }
+
+    @Test
+    public void a_new_proxy_class_should_be_generated_for_a_new_step_library() {
+        new StepFactory().getStepLibraryFor(SharedSteps.class);
+        int generatedProxyClasses = StepLibraryProxies.getGeneratedProxyClassCount();
+
+        new StepFactory().getStepLibraryFor(DifferentSteps.class);
+
+        assertThat(StepLibraryProxies.getGeneratedProxyClassCount(), is(generatedProxyClasses + 1));
+    }
+
+    @Test
+    public void each_proxy_should_use_its_own_interceptor() {
+        StepFactory factory = new StepFactory();
+        List<CountingSteps> firstRows = Arrays.asList(new CountingSteps(), new CountingSteps());
+        List<CountingSteps> secondRows = Arrays.asList(new CountingSteps(), new CountingSteps(), new CountingSteps());
+        DataDrivenStepFactory dataDrivenStepFactory = new DataDrivenStepFactory(factory);
+        CountingSteps firstSteps = (CountingSteps) dataDrivenStepFactory.newDataDrivenSteps(CountingSteps.class, firstRows);
+        CountingSteps secondSteps = (CountingSteps) dataDrivenStepFactory.newDataDrivenSteps(CountingSteps.class, secondRows);
+
+        firstSteps.a_step();
+        secondSteps.a_step();
+        secondSteps.a_step();
+
+        assertThat(secondSteps.getClass(), is(sameInstance((Object) firstSteps.getClass())));
+        for (CountingSteps row : firstRows) {
+            assertThat(row.calls, is(1));
+        }
+        for (CountingSteps row : secondRows) {
+            assertThat(row.calls, is(2));
+        }
+        assertThat(firstSteps.calls, is(0));
+        assertThat(secondSteps.calls, is(0));
+    }
+
+    @Test
+    public void proxies_with_different_types_of_interceptor_should_not_share_a_proxy_class() {
+        StepFactory factory = new StepFactory();
+        List<SharedSteps> rows = Arrays.asList(new SharedSteps(), new SharedSteps());
+        Object dataDrivenSteps = new DataDrivenStepFactory(factory).newDataDrivenSteps(SharedSteps.class, rows);
+        SharedSteps steps = new StepFactory().getStepLibraryFor(SharedSteps.class);
+
+        assertThat(dataDrivenSteps, is(instanceOf(SharedSteps.class)));
+        assertThat(dataDrivenSteps.getClass(), is(not(sameInstance((Object) steps.getClass()))));
+    }
+}